@@ -103,6 +103,8 @@ class AsyncProcess<CResult> {
   protected final boolean useServerTrackerForRetries;
   protected int serverTrackerTimeout;
   protected RpcRetryingCallerFactory rpcCallerFactory;
+  // The load the servers report for the regions we write to; null if backpressure is disabled.
+  protected final ServerStatisticTracker stats;
 
 
   /**
@@ -214,6 +216,13 @@ class AsyncProcess<CResult> {
     }
 
     this.rpcCallerFactory = rpcCaller;
+
+    // Share the load the servers reported with the other users of the connection.
+    if (hc instanceof HConnectionManager.HConnectionImplementation) {
+      this.stats = ((HConnectionManager.HConnectionImplementation) hc).getStatisticsTracker();
+    } else {
+      this.stats = ServerStatisticTracker.create(conf);
+    }
   }
 
   /**
@@ -322,6 +331,11 @@ class AsyncProcess<CResult> {
     Boolean addIt = regionStatus.get(regionName);
     if (addIt == null) {
       addIt = canTakeNewOperations(regionName);
+      if (addIt && stats != null && stats.isLoaded(loc.getRegionInfo().getRegionName())) {
+        // The server asked us to slow down: don't pile more work on a task already in flight.
+        AtomicInteger ct = taskCounterPerRegion.get(regionName);
+        addIt = ct == null || ct.get() == 0;
+      }
       regionStatus.put(regionName, addIt);
     }
 
@@ -422,6 +436,9 @@ class AsyncProcess<CResult> {
         public void run() {
           MultiResponse res;
           try {
+            if (stats != null && !backoff(multi, loc, numAttempt)) {
+              return;
+            }
             MultiServerCallable<Row> callable = createCallable(loc, multi);
             try {
               res = createCaller(callable).callWithoutRetries(callable);
@@ -452,6 +469,36 @@ class AsyncProcess<CResult> {
     }
   }
 
+  /**
+   * Wait for as long as the load of the destination regions asks for.
+   *
+   * @return false if we were interrupted, after failing the actions
+   */
+  private boolean backoff(MultiAction<Row> multi, HRegionLocation loc, int numAttempt) {
+    long backoff = stats.getBackoff(multi);
+    if (backoff <= 0) {
+      return true;
+    }
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Holding " + multi.size() + " ops back for " + backoff + "ms, " + loc);
+    }
+    try {
+      Thread.sleep(backoff);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.interrupted();
+      InterruptedIOException iie = new InterruptedIOException("Interrupted while backing off" +
+          " from " + loc);
+      iie.initCause(e);
+      for (List<Action<Row>> actions : multi.actions.values()) {
+        for (Action<Row> action : actions) {
+          manageError(numAttempt, action.getOriginalIndex(), action.getAction(), false, iie, loc);
+        }
+      }
+      return false;
+    }
+  }
+
   /**
    * Create a callable. Isolated to be easily overridden in the tests.
    */
@@ -500,11 +547,12 @@ class AsyncProcess<CResult> {
         retriedErrors.add(throwable, row, location);
       }
     } else {
+      // Record the error first so that a callback seeing the last action done finds it.
+      errors.add(throwable, row, location);
+      this.hasError.set(true);
       if (callback != null) {
         callback.failure(originalIndex, region, row, throwable);
       }
-      errors.add(throwable, row, location);
-      this.hasError.set(true);
     }
 
     return canRetry;
@@ -566,6 +614,9 @@ class AsyncProcess<CResult> {
       resubmitAll(initialActions, rsActions, location, numAttempt + 1, null, errorsByServer);
       return;
     }
+    if (stats != null) {
+      stats.update(responses);
+    }
 
     // Success or partial success
     // Analyze detailed results. We can still have individual failures to be redo.
@@ -632,6 +683,14 @@ class AsyncProcess<CResult> {
         LOG.warn("Not sent: " + toReplay.size() +
             " operations, " + location, e);
         Thread.interrupted();
+        // Fail what we will not send so the callback hears of every action.
+        InterruptedIOException iie = new InterruptedIOException("Interrupted while waiting" +
+            " to resubmit to " + location);
+        iie.initCause(e);
+        for (Action<Row> action : toReplay) {
+          manageError(numAttempt, action.getOriginalIndex(), action.getAction(), false, iie,
+              location);
+        }
         return;
       }
 
@@ -0,0 +1,372 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.classification.InterfaceStability;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+import org.apache.hadoop.hbase.protobuf.RequestConverter;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutateRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutateResponse;
+import org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.CompareType;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.ServiceException;
+
+/**
+ * Non blocking access to a single HBase table. Every operation returns at once with a
+ * {@link ListenableFuture} of its outcome; add listeners to it, with
+ * {@link Futures#addCallback(ListenableFuture, com.google.common.util.concurrent.FutureCallback)}
+ * for example, rather than waiting on it. Region lookups, retries and relocations after a region
+ * moved are all done on the threads of the pool, as {@link HTable} would do them on the calling
+ * thread. An operation that runs out of retries fails its future with the exception
+ * {@link HTable} would have thrown.
+ * <p>
+ * Listeners added without an executor run on a pool thread and should not block. Cancelling a
+ * future stops further retries of its actions, but actions already sent may still be applied.
+ * <p>
+ * This class is thread safe.
+ */
+@InterfaceAudience.Public
+@InterfaceStability.Evolving
+public class AsyncTable implements Closeable {
+  private final TableName tableName;
+  private final HConnection connection;
+  private final Configuration configuration;
+  private final ExecutorService pool;
+  private final boolean cleanupPoolOnClose;
+  private final boolean cleanupConnectionOnClose;
+  private final RpcRetryingCallerFactory rpcCallerFactory;
+  private final int operationTimeout;
+  private volatile boolean closed = false;
+
+  private static final Function<Object[], Result> FIRST_RESULT = new Function<Object[], Result>() {
+    @Override
+    public Result apply(Object[] results) {
+      return (Result) results[0];
+    }
+  };
+
+  private static final Function<Object[], Void> NO_RESULT = new Function<Object[], Void>() {
+    @Override
+    public Void apply(Object[] results) {
+      return null;
+    }
+  };
+
+  /**
+   * Creates an object to access a HBase table, sharing the connection of the other tables
+   * created with the same <code>conf</code>.
+   * @param conf Configuration object to use.
+   * @param tableName Name of the table.
+   * @throws IOException if a remote or network exception occurs
+   */
+  public AsyncTable(Configuration conf, TableName tableName) throws IOException {
+    this(tableName, HConnectionManager.getConnection(conf), HTable.getDefaultExecutor(conf), true,
+        true);
+  }
+
+  /**
+   * Creates an object to access a HBase table over an externally managed connection.
+   * @param tableName Name of the table.
+   * @param connection HConnection to be used.
+   */
+  public AsyncTable(TableName tableName, HConnection connection) {
+    this(tableName, connection, HTable.getDefaultExecutor(connection.getConfiguration()), true,
+        false);
+  }
+
+  /**
+   * Creates an object to access a HBase table over an externally managed connection and pool.
+   * The pool runs the region lookups, the rpcs and their retries, so it must be able to take a
+   * task for each region server written to at once plus one for each operation in flight.
+   * @param tableName Name of the table.
+   * @param connection HConnection to be used.
+   * @param pool ExecutorService to be used.
+   */
+  public AsyncTable(TableName tableName, HConnection connection, ExecutorService pool) {
+    this(tableName, connection, pool, false, false);
+  }
+
+  private AsyncTable(TableName tableName, HConnection connection, ExecutorService pool,
+      boolean cleanupPoolOnClose, boolean cleanupConnectionOnClose) {
+    if (connection == null) {
+      throw new IllegalArgumentException("HConnection cannot be null.");
+    }
+    this.tableName = tableName;
+    this.connection = connection;
+    this.configuration = connection.getConfiguration();
+    this.pool = pool;
+    this.cleanupPoolOnClose = cleanupPoolOnClose;
+    this.cleanupConnectionOnClose = cleanupConnectionOnClose;
+    this.rpcCallerFactory = RpcRetryingCallerFactory.instantiate(configuration);
+    this.operationTimeout = tableName.isSystemTable() ?
+      this.configuration.getInt(HConstants.HBASE_CLIENT_META_OPERATION_TIMEOUT,
+        HConstants.DEFAULT_HBASE_CLIENT_OPERATION_TIMEOUT):
+      this.configuration.getInt(HConstants.HBASE_CLIENT_OPERATION_TIMEOUT,
+        HConstants.DEFAULT_HBASE_CLIENT_OPERATION_TIMEOUT);
+  }
+
+  /**
+   * @return the name of this table
+   */
+  public TableName getName() {
+    return tableName;
+  }
+
+  /**
+   * Extracts certain cells from a given row.
+   * @see HTable#get(Get)
+   */
+  public ListenableFuture<Result> get(Get get) {
+    return Futures.transform(submit(Collections.singletonList(get), true), FIRST_RESULT);
+  }
+
+  /**
+   * Puts some data in the table. Puts are sent as they come, there is no write buffer.
+   * @see HTable#put(Put)
+   */
+  public ListenableFuture<Void> put(Put put) {
+    return Futures.transform(submit(Collections.singletonList(put), true), NO_RESULT);
+  }
+
+  /**
+   * Deletes the specified cells/row.
+   * @see HTable#delete(Delete)
+   */
+  public ListenableFuture<Void> delete(Delete delete) {
+    return Futures.transform(submit(Collections.singletonList(delete), true), NO_RESULT);
+  }
+
+  /**
+   * Increments one or more columns within a single row.
+   * @return a future of the values of the columns after the increment
+   * @see HTable#increment(Increment)
+   */
+  public ListenableFuture<Result> increment(Increment increment) {
+    if (!increment.hasFamilies()) {
+      return Futures.immediateFailedFuture(
+          new IOException("Invalid arguments to increment, no columns specified"));
+    }
+    return Futures.transform(submit(Collections.singletonList(increment), true), FIRST_RESULT);
+  }
+
+  /**
+   * Method that does a batch call on Deletes, Gets, Puts, Increments and Appends. The ordering
+   * of execution of the actions is not defined.
+   * @return a future of the results, in the order of the actions: a {@link Result} for each,
+   *   empty for mutations that return nothing. If any action fails for good, the future fails
+   *   with a {@link RetriesExhaustedWithDetailsException} once all of them are done.
+   * @see HTable#batch(List)
+   */
+  public ListenableFuture<Object[]> batch(List<? extends Row> actions) {
+    return submit(actions, false);
+  }
+
+  /**
+   * Atomically checks if a row/family/qualifier value matches the expected value. If it does,
+   * it adds the put. If the passed value is null, the check is for the lack of column.
+   * @return a future of whether the put was applied
+   * @see HTable#checkAndPut(byte[], byte[], byte[], byte[], Put)
+   */
+  public ListenableFuture<Boolean> checkAndPut(final byte[] row, final byte[] family,
+      final byte[] qualifier, final byte[] value, final Put put) {
+    return call(new RegionServerCallable<Boolean>(connection, tableName, row) {
+      public Boolean call() throws IOException {
+        try {
+          MutateRequest request = RequestConverter.buildMutateRequest(
+            getLocation().getRegionInfo().getRegionName(), row, family, qualifier,
+              new BinaryComparator(value), CompareType.EQUAL, put);
+          MutateResponse response = getStub().mutate(null, request);
+          return Boolean.valueOf(response.getProcessed());
+        } catch (ServiceException se) {
+          throw ProtobufUtil.getRemoteException(se);
+        }
+      }
+    });
+  }
+
+  /**
+   * Atomically checks if a row/family/qualifier value matches the expected value. If it does,
+   * it adds the delete. If the passed value is null, the check is for the lack of column.
+   * @return a future of whether the delete was applied
+   * @see HTable#checkAndDelete(byte[], byte[], byte[], byte[], Delete)
+   */
+  public ListenableFuture<Boolean> checkAndDelete(final byte[] row, final byte[] family,
+      final byte[] qualifier, final byte[] value, final Delete delete) {
+    return call(new RegionServerCallable<Boolean>(connection, tableName, row) {
+      public Boolean call() throws IOException {
+        try {
+          MutateRequest request = RequestConverter.buildMutateRequest(
+            getLocation().getRegionInfo().getRegionName(), row, family, qualifier,
+              new BinaryComparator(value), CompareType.EQUAL, delete);
+          MutateResponse response = getStub().mutate(null, request);
+          return Boolean.valueOf(response.getProcessed());
+        } catch (ServiceException se) {
+          throw ProtobufUtil.getRemoteException(se);
+        }
+      }
+    });
+  }
+
+  /**
+   * Releases the pool and the connection if this table created them. Operations in flight are
+   * left to finish.
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    if (cleanupPoolOnClose) {
+      this.pool.shutdown();
+    }
+    if (cleanupConnectionOnClose) {
+      this.connection.close();
+    }
+  }
+
+  /**
+   * Sends the actions with their own {@link AsyncProcess}. Even the region lookups are left to
+   * the pool, so that a cold location cache does not block the caller.
+   * @param single if true, fail the future with the exception of the one action rather than
+   *   with a {@link RetriesExhaustedWithDetailsException}
+   */
+  private ListenableFuture<Object[]> submit(final List<? extends Row> actions,
+      final boolean single) {
+    final SettableFuture<Object[]> future = SettableFuture.create();
+    if (actions.isEmpty()) {
+      future.set(new Object[0]);
+      return future;
+    }
+    final BatchCallback callback = new BatchCallback(actions.size(), future, single);
+    final AsyncProcess<Object> ap = new AsyncProcess<Object>(connection, tableName, pool,
+        callback, configuration, rpcCallerFactory);
+    callback.ap = ap;
+    execute(future, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          ap.submitAll(actions);
+        } catch (Throwable t) {
+          future.setException(t);
+        }
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Runs the callable with retries on the pool.
+   */
+  private <T> ListenableFuture<T> call(final RegionServerCallable<T> callable) {
+    final SettableFuture<T> future = SettableFuture.create();
+    execute(future, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          future.set(rpcCallerFactory.<T> newCaller().callWithRetries(callable,
+              operationTimeout));
+        } catch (Throwable t) {
+          future.setException(t);
+        }
+      }
+    });
+    return future;
+  }
+
+  private void execute(SettableFuture<?> future, Runnable task) {
+    if (closed) {
+      future.setException(new IOException("Table " + tableName + " is closed"));
+      return;
+    }
+    try {
+      pool.execute(task);
+    } catch (RejectedExecutionException ree) {
+      future.setException(ree);
+    }
+  }
+
+  /**
+   * Collects the results of one batch and completes its future once every action has either
+   * succeeded or failed for good.
+   */
+  private static class BatchCallback implements AsyncProcess.AsyncProcessCallback<Object> {
+    private final Object[] results;
+    private final AtomicInteger remaining;
+    private final SettableFuture<Object[]> future;
+    private final boolean single;
+    // Set before the first action is sent.
+    private volatile AsyncProcess<Object> ap;
+
+    BatchCallback(int count, SettableFuture<Object[]> future, boolean single) {
+      this.results = new Object[count];
+      this.remaining = new AtomicInteger(count);
+      this.future = future;
+      this.single = single;
+    }
+
+    @Override
+    public void success(int pos, byte[] region, Row row, Object result) {
+      results[pos] = result;
+      done();
+    }
+
+    @Override
+    public boolean failure(int pos, byte[] region, Row row, Throwable t) {
+      results[pos] = t;
+      done();
+      return true;
+    }
+
+    @Override
+    public boolean retriableFailure(int pos, Row row, byte[] region, Throwable exception) {
+      // Nobody is waiting on a cancelled future.
+      return !future.isCancelled();
+    }
+
+    private void done() {
+      if (remaining.decrementAndGet() > 0) {
+        return;
+      }
+      if (!ap.hasError()) {
+        future.set(results);
+      } else if (single) {
+        future.setException(ap.getErrors().getCause(0));
+      } else {
+        future.setException(ap.getErrors());
+      }
+    }
+  }
+}
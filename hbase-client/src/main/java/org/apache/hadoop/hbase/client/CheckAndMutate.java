@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.classification.InterfaceStability;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.ByteArrayComparable;
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * A {@link Put} or {@link Delete} that is applied only if the value of a cell of its row matches,
+ * as done by {@link HTable#checkAndPut(byte[], byte[], byte[], byte[], Put)} and
+ * {@link HTable#checkAndDelete(byte[], byte[], byte[], byte[], Delete)}. Unlike those, many of
+ * them can be sent together, see {@link HTable#checkAndMutate(java.util.List)}, or mixed with
+ * other actions in {@link HTable#batch(java.util.List)}, where the result of each is a
+ * {@link Boolean} saying whether its mutation was applied.
+ *
+ * <p>We compare and equate these based off their row so be careful putting them into Sets or
+ * using them as keys in Maps.
+ */
+@InterfaceAudience.Public
+@InterfaceStability.Evolving
+public class CheckAndMutate implements Row {
+  private final byte [] family;
+  private final byte [] qualifier;
+  private final CompareOp compareOp;
+  private final ByteArrayComparable comparator;
+  private final Mutation mutation;
+
+  /**
+   * Puts if the cell value equals <code>value</code>. A null value checks for the cell not
+   * being there.
+   */
+  public CheckAndMutate(byte [] family, byte [] qualifier, byte [] value, Put put) {
+    this(family, qualifier, CompareOp.EQUAL, new BinaryComparator(value), put);
+  }
+
+  /**
+   * Deletes if the cell value equals <code>value</code>. A null value checks for the cell not
+   * being there.
+   */
+  public CheckAndMutate(byte [] family, byte [] qualifier, byte [] value, Delete delete) {
+    this(family, qualifier, CompareOp.EQUAL, new BinaryComparator(value), delete);
+  }
+
+  /**
+   * @param family family of the cell to check
+   * @param qualifier qualifier of the cell to check
+   * @param compareOp how to compare the cell value
+   * @param comparator what to compare the cell value with
+   * @param mutation the {@link Put} or {@link Delete} to apply if the check passes; the cell
+   *   checked is in its row
+   */
+  public CheckAndMutate(byte [] family, byte [] qualifier, CompareOp compareOp,
+      ByteArrayComparable comparator, Mutation mutation) {
+    if (!(mutation instanceof Put) && !(mutation instanceof Delete)) {
+      throw new IllegalArgumentException("Action must be Put or Delete");
+    }
+    this.family = family;
+    this.qualifier = qualifier;
+    this.compareOp = compareOp;
+    this.comparator = comparator;
+    this.mutation = mutation;
+  }
+
+  public byte [] getFamily() {
+    return family;
+  }
+
+  public byte [] getQualifier() {
+    return qualifier;
+  }
+
+  public CompareOp getCompareOp() {
+    return compareOp;
+  }
+
+  public ByteArrayComparable getComparator() {
+    return comparator;
+  }
+
+  /**
+   * @return the {@link Put} or {@link Delete} to apply
+   */
+  public Mutation getMutation() {
+    return mutation;
+  }
+
+  @Override
+  public byte [] getRow() {
+    return mutation.getRow();
+  }
+
+  @Override
+  public int compareTo(Row i) {
+    return Bytes.compareTo(this.getRow(), i.getRow());
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) return true;
+    if (obj instanceof CheckAndMutate) {
+      CheckAndMutate other = (CheckAndMutate)obj;
+      return compareTo(other) == 0;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Bytes.hashCode(getRow());
+  }
+}
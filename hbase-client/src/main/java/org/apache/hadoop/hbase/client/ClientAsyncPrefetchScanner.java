@@ -0,0 +1,260 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+
+/**
+ * A {@link ClientScanner} that fetches the next results from the region servers on a thread of
+ * the passed pool while the application consumes the results it already has, so that the
+ * application and the region servers are not left waiting on each other. Fetching ahead stops
+ * while the results held but not yet consumed add up to
+ * {@link HConstants#HBASE_CLIENT_SCANNER_MAX_PREFETCH_SIZE_KEY} bytes. Time the application
+ * spends waiting on a fetch is recorded in {@link ScanMetrics#sumOfMillisSecWaitingForPrefetch}.
+ * <p>
+ * Only one fetch runs at a time, so the underlying scanner state is never touched by two
+ * threads at once. If the pool rejects a fetch it is run on the calling thread.
+ */
+@InterfaceAudience.Private
+public class ClientAsyncPrefetchScanner extends ClientScanner {
+  private static final Log LOG = LogFactory.getLog(ClientAsyncPrefetchScanner.class);
+
+  /** How long to wait on the prefetched results between checks on the fetch itself. */
+  private static final long POLL_INTERVAL_MS = 10;
+
+  private final ExecutorService pool;
+  private final long maxPrefetchSize;
+  // Results fetched but not yet handed to the application, and their heap size.
+  private final LinkedBlockingQueue<Result> prefetched = new LinkedBlockingQueue<Result>();
+  private final AtomicLong prefetchedSize = new AtomicLong(0);
+  // Set by the fetch once the scan has no more results.
+  private volatile boolean exhausted = false;
+  // Set on close so that a running fetch stops after its current rpc.
+  private volatile boolean closing = false;
+  // The running or last fetch; only used from the application thread.
+  private FutureTask<Void> prefetchTask = null;
+  // The thread running the current fetch, which may close the scanner at the end of the table.
+  private volatile Thread prefetchThread = null;
+
+  /**
+   * Create a new prefetching scanner for the specified table.
+   * Note that the passed {@link Scan}'s start row maybe changed.
+   * @param conf The {@link Configuration} to use.
+   * @param scan {@link Scan} to use in this scanner
+   * @param tableName The table that we wish to scan
+   * @param connection Connection identifying the cluster
+   * @param pool Pool to run the fetches on
+   * @throws IOException
+   */
+  public ClientAsyncPrefetchScanner(final Configuration conf, final Scan scan,
+      final TableName tableName, HConnection connection, ExecutorService pool)
+      throws IOException {
+    super(conf, scan, tableName, connection);
+    this.pool = pool;
+    // Always allow at least one batch ahead.
+    this.maxPrefetchSize = Math.max(1, conf.getLong(
+      HConstants.HBASE_CLIENT_SCANNER_MAX_PREFETCH_SIZE_KEY,
+      HConstants.DEFAULT_HBASE_CLIENT_SCANNER_MAX_PREFETCH_SIZE));
+  }
+
+  @Override
+  public Result next() throws IOException {
+    Result result = prefetched.poll();
+    if (result == null) {
+      result = waitForPrefetch();
+      if (result == null) {
+        // if we exhausted this scanner before calling close, write out the scan metrics
+        writeScanMetrics();
+        return null;
+      }
+    }
+    prefetchedSize.addAndGet(-heapSize(result));
+    startPrefetch();
+    return result;
+  }
+
+  /**
+   * Waits on the running fetch, starting one if needed, until a result is available.
+   * @return the next result, or null if the scan is done
+   */
+  private Result waitForPrefetch() throws IOException {
+    long start = System.currentTimeMillis();
+    try {
+      Result result = null;
+      while (result == null) {
+        if (prefetchTask == null || prefetchTask.isDone()) {
+          checkPrefetchFailure();
+          if (exhausted || closing) {
+            // The last fetch may have queued results after our last look.
+            return prefetched.poll();
+          }
+          startPrefetch();
+        }
+        result = prefetched.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting on scanner prefetch");
+    } finally {
+      if (this.scanMetrics != null) {
+        this.scanMetrics.sumOfMillisSecWaitingForPrefetch.addAndGet(
+          System.currentTimeMillis() - start);
+      }
+    }
+  }
+
+  /**
+   * Rethrows the failure of the last fetch, if it failed.
+   */
+  private void checkPrefetchFailure() throws IOException {
+    if (prefetchTask == null) {
+      return;
+    }
+    FutureTask<Void> task = prefetchTask;
+    prefetchTask = null;
+    try {
+      task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting on scanner prefetch");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Starts a fetch unless one is running, the scan is done, or enough results are held already.
+   */
+  private void startPrefetch() {
+    if (prefetchTask != null) {
+      // Leave a failed fetch for waitForPrefetch to report.
+      if (!prefetchTask.isDone() || failed(prefetchTask)) {
+        return;
+      }
+      prefetchTask = null;
+    }
+    if (exhausted || closing || prefetchedSize.get() >= maxPrefetchSize) {
+      return;
+    }
+    prefetchTask = new FutureTask<Void>(new Prefetcher());
+    try {
+      pool.execute(prefetchTask);
+    } catch (RejectedExecutionException e) {
+      LOG.debug("Scanner prefetch rejected by pool; fetching on the calling thread");
+      prefetchTask.run();
+    }
+  }
+
+  private static boolean failed(FutureTask<Void> doneTask) {
+    try {
+      doneTask.get();
+      return false;
+    } catch (InterruptedException e) {
+      return true;
+    } catch (ExecutionException e) {
+      return true;
+    }
+  }
+
+  private static long heapSize(Result result) {
+    long size = 0;
+    for (Cell kv : result.rawCells()) {
+      // TODO make method in Cell or CellUtil
+      size += KeyValueUtil.ensureKeyValue(kv).heapSize();
+    }
+    return size;
+  }
+
+  /**
+   * Loads batches of results until the scan is done or enough results are held.
+   */
+  private class Prefetcher implements Callable<Void> {
+    @Override
+    public Void call() throws IOException {
+      prefetchThread = Thread.currentThread();
+      try {
+        while (!closing && prefetchedSize.get() < maxPrefetchSize) {
+          if (closed) {
+            exhausted = true;
+            break;
+          }
+          loadCache();
+          if (cache.isEmpty()) {
+            exhausted = true;
+            break;
+          }
+          for (Result result = cache.poll(); result != null; result = cache.poll()) {
+            prefetchedSize.addAndGet(heapSize(result));
+            prefetched.add(result);
+          }
+        }
+      } finally {
+        prefetchThread = null;
+      }
+      return null;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (Thread.currentThread() == prefetchThread) {
+      // The fetch reached the end of the scan.
+      super.close();
+      return;
+    }
+    closing = true;
+    if (prefetchTask != null) {
+      try {
+        // Let the running fetch finish its rpc before closing the scanner under it.
+        prefetchTask.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        // Like ClientScanner#close, do not throw on close.
+      }
+      prefetchTask = null;
+    }
+    prefetched.clear();
+    prefetchedSize.set(0);
+    super.close();
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.hadoop.hbase.client;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -58,9 +59,11 @@ public class ClientScanner extends AbstractClientScanner {
     protected HRegionInfo currentRegion = null;
     private ScannerCallable callable = null;
     protected final LinkedList<Result> cache = new LinkedList<Result>();
+    // Parts of a row received so far, when the scan does not allow partial results.
+    protected final List<Result> partialResults = new ArrayList<Result>();
     protected final int caching;
     protected long lastNext;
-    // Keep lastResult returned successfully in case we have to reset scanner.
+    // Keep lastResult received successfully in case we have to reset scanner.
     protected Result lastResult = null;
     protected ScanMetrics scanMetrics = null;
     protected final long maxScannerResultSize;
@@ -317,116 +320,154 @@ public class ClientScanner extends AbstractClientScanner {
         return null;
       }
       if (cache.size() == 0) {
-        Result [] values = null;
-        long remainingResultSize = maxScannerResultSize;
-        int countdown = this.caching;
-        // We need to reset it if it's a new callable that was created
-        // with a countdown in nextScanner
-        callable.setCaching(this.caching);
-        // This flag is set when we want to skip the result returned.  We do
-        // this when we reset scanner because it split under us.
-        boolean skipFirst = false;
-        boolean retryAfterOutOfOrderException  = true;
-        do {
-          try {
-            if (skipFirst) {
-              // Skip only the first row (which was the last row of the last
-              // already-processed batch).
-              callable.setCaching(1);
+        loadCache();
+      }
+
+      if (cache.size() > 0) {
+        return cache.poll();
+      }
+
+      // if we exhausted this scanner before calling close, write out the scan metrics
+      writeScanMetrics();
+      return null;
+    }
+
+    /**
+     * Fetches the next results from the region servers into {@link #cache}, moving on to the
+     * following regions as needed. Leaves the cache empty when the scan is done.
+     * @throws IOException
+     */
+    protected void loadCache() throws IOException {
+      Result [] values = null;
+      long remainingResultSize = maxScannerResultSize;
+      int countdown = this.caching;
+      // We need to reset it if it's a new callable that was created
+      // with a countdown in nextScanner
+      callable.setCaching(this.caching);
+      // This flag is set when we want to skip the result returned.  We do
+      // this when we reset scanner because it split under us.
+      boolean skipFirst = false;
+      boolean retryAfterOutOfOrderException  = true;
+      // Set when the region scanner stopped early, on its time limit or partway through a
+      // row, and has to be called again before moving on to the next region.
+      boolean callAgain;
+      do {
+        callAgain = false;
+        try {
+          if (skipFirst) {
+            // Skip only the first row (which was the last row of the last
+            // already-processed batch). It may come back in parts, or after heartbeats.
+            callable.setCaching(1);
+            do {
               values = this.caller.callWithRetries(callable);
-              callable.setCaching(this.caching);
-              skipFirst = false;
-            }
-            // Server returns a null values if scanning is to stop.  Else,
-            // returns an empty array if scanning is to go on and we've just
-            // exhausted current region.
+            } while (values != null && (values.length == 0 ?
+                callable.isHeartbeatMessage() : values[0].isPartial()));
+            callable.setCaching(this.caching);
+            skipFirst = false;
+          }
+          // Server returns a null values if scanning is to stop.  Else,
+          // returns an empty array if scanning is to go on and we've just
+          // exhausted current region.
+          values = this.caller.callWithRetries(callable);
+          if (skipFirst && values != null && values.length == 1) {
+            skipFirst = false; // Already skipped, unset it before scanning again
             values = this.caller.callWithRetries(callable);
-            if (skipFirst && values != null && values.length == 1) {
-              skipFirst = false; // Already skipped, unset it before scanning again
-              values = this.caller.callWithRetries(callable);
+          }
+          retryAfterOutOfOrderException  = true;
+        } catch (DoNotRetryIOException e) {
+          // DNRIOEs are thrown to make us break out of retries.  Some types of DNRIOEs want us
+          // to reset the scanner and come back in again.
+          if (e instanceof UnknownScannerException) {
+            long timeout = lastNext + scannerTimeout;
+            // If we are over the timeout, throw this exception to the client wrapped in
+            // a ScannerTimeoutException. Else, it's because the region moved and we used the old
+            // id against the new region server; reset the scanner.
+            if (timeout < System.currentTimeMillis()) {
+              long elapsed = System.currentTimeMillis() - lastNext;
+              ScannerTimeoutException ex = new ScannerTimeoutException(
+                  elapsed + "ms passed since the last invocation, " +
+                      "timeout is currently set to " + scannerTimeout);
+              ex.initCause(e);
+              throw ex;
             }
-            retryAfterOutOfOrderException  = true;
-          } catch (DoNotRetryIOException e) {
-            // DNRIOEs are thrown to make us break out of retries.  Some types of DNRIOEs want us
-            // to reset the scanner and come back in again.
-            if (e instanceof UnknownScannerException) {
-              long timeout = lastNext + scannerTimeout;
-              // If we are over the timeout, throw this exception to the client wrapped in
-              // a ScannerTimeoutException. Else, it's because the region moved and we used the old
-              // id against the new region server; reset the scanner.
-              if (timeout < System.currentTimeMillis()) {
-                long elapsed = System.currentTimeMillis() - lastNext;
-                ScannerTimeoutException ex = new ScannerTimeoutException(
-                    elapsed + "ms passed since the last invocation, " +
-                        "timeout is currently set to " + scannerTimeout);
-                ex.initCause(e);
-                throw ex;
-              }
+          } else {
+            // If exception is any but the list below throw it back to the client; else setup
+            // the scanner and retry.
+            Throwable cause = e.getCause();
+            if ((cause != null && cause instanceof NotServingRegionException) ||
+              (cause != null && cause instanceof RegionServerStoppedException) ||
+              e instanceof OutOfOrderScannerNextException) {
+              // Pass
+              // It is easier writing the if loop test as list of what is allowed rather than
+              // as a list of what is not allowed... so if in here, it means we do not throw.
             } else {
-              // If exception is any but the list below throw it back to the client; else setup
-              // the scanner and retry.
-              Throwable cause = e.getCause();
-              if ((cause != null && cause instanceof NotServingRegionException) ||
-                (cause != null && cause instanceof RegionServerStoppedException) ||
-                e instanceof OutOfOrderScannerNextException) {
-                // Pass
-                // It is easier writing the if loop test as list of what is allowed rather than
-                // as a list of what is not allowed... so if in here, it means we do not throw.
-              } else {
-                throw e;
-              }
+              throw e;
             }
-            // Else, its signal from depths of ScannerCallable that we need to reset the scanner.
-            if (this.lastResult != null) {
-              this.scan.setStartRow(this.lastResult.getRow());
-              // Skip first row returned.  We already let it out on previous
-              // invocation.
-              skipFirst = true;
-            }
-            if (e instanceof OutOfOrderScannerNextException) {
-              if (retryAfterOutOfOrderException) {
-                retryAfterOutOfOrderException = false;
-              } else {
-                // TODO: Why wrap this in a DNRIOE when it already is a DNRIOE?
-                throw new DoNotRetryIOException("Failed after retry of " +
-                  "OutOfOrderScannerNextException: was there a rpc timeout?", e);
-              }
-            }
-            // Clear region.
-            this.currentRegion = null;
-            // Set this to zero so we don't try and do an rpc and close on remote server when
-            // the exception we got was UnknownScanner or the Server is going down.
-            callable = null;
-            // This continue will take us to while at end of loop where we will set up new scanner.
-            continue;
           }
-          long currentTime = System.currentTimeMillis();
-          if (this.scanMetrics != null ) {
-            this.scanMetrics.sumOfMillisSecBetweenNexts.addAndGet(currentTime-lastNext);
+          // Else, its signal from depths of ScannerCallable that we need to reset the scanner.
+          if (this.lastResult != null) {
+            this.scan.setStartRow(this.lastResult.getRow());
+            // Skip first row returned.  We already let it out on previous
+            // invocation. A row we only had part of is fetched again from its start.
+            skipFirst = !this.lastResult.isPartial();
+            partialResults.clear();
+          }
+          if (e instanceof OutOfOrderScannerNextException) {
+            if (retryAfterOutOfOrderException) {
+              retryAfterOutOfOrderException = false;
+            } else {
+              // TODO: Why wrap this in a DNRIOE when it already is a DNRIOE?
+              throw new DoNotRetryIOException("Failed after retry of " +
+                "OutOfOrderScannerNextException: was there a rpc timeout?", e);
+            }
           }
-          lastNext = currentTime;
-          if (values != null && values.length > 0) {
-            for (Result rs : values) {
-              cache.add(rs);
-              for (Cell kv : rs.rawCells()) {
-                // TODO make method in Cell or CellUtil
-                remainingResultSize -= KeyValueUtil.ensureKeyValue(kv).heapSize();
+          // Clear region.
+          this.currentRegion = null;
+          // Set this to zero so we don't try and do an rpc and close on remote server when
+          // the exception we got was UnknownScanner or the Server is going down.
+          callable = null;
+          // This continue will take us to while at end of loop where we will set up new scanner.
+          continue;
+        }
+        long currentTime = System.currentTimeMillis();
+        if (this.scanMetrics != null ) {
+          this.scanMetrics.sumOfMillisSecBetweenNexts.addAndGet(currentTime-lastNext);
+        }
+        lastNext = currentTime;
+        if (values != null && values.length > 0) {
+          for (Result rs : values) {
+            for (Cell kv : rs.rawCells()) {
+              // TODO make method in Cell or CellUtil
+              remainingResultSize -= KeyValueUtil.ensureKeyValue(kv).heapSize();
+            }
+            this.lastResult = rs;
+            if (!scan.getAllowPartialResults() && (rs.isPartial() || !partialResults.isEmpty())) {
+              // Hold on to the parts of a row until its last part arrives.
+              partialResults.add(rs);
+              if (rs.isPartial()) {
+                continue;
               }
-              countdown--;
-              this.lastResult = rs;
+              rs = Result.createCompleteResult(partialResults);
+              partialResults.clear();
             }
+            cache.add(rs);
+            countdown--;
           }
-          // Values == null means server-side filter has determined we must STOP
-        } while (remainingResultSize > 0 && countdown > 0 && nextScanner(countdown, values == null));
-      }
-
-      if (cache.size() > 0) {
-        return cache.poll();
-      }
-
-      // if we exhausted this scanner before calling close, write out the scan metrics
-      writeScanMetrics();
-      return null;
+        }
+        if (callable.isHeartbeatMessage()
+            || (this.lastResult != null && this.lastResult.isPartial())) {
+          // The server stopped before it ran out of rows, either on its time limit or on its
+          // result size limit partway through a row. Its scanner is still open where it
+          // stopped, so call it again rather than moving on to the next region; if some rows
+          // did come back, hand those out first.
+          if (cache.size() > 0) {
+            break;
+          }
+          callAgain = true;
+        }
+        // Values == null means server-side filter has determined we must STOP
+      } while (callAgain || (remainingResultSize > 0 && countdown > 0 &&
+          nextScanner(countdown, values == null)));
     }
 
     /**
@@ -41,6 +41,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -155,7 +156,6 @@ import org.apache.hadoop.hbase.regionserver.RegionServerStoppedException;
 import org.apache.hadoop.hbase.security.User;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.EnvironmentEdgeManager;
-import org.apache.hadoop.hbase.util.SoftValueSortedMap;
 import org.apache.hadoop.hbase.util.Threads;
 import org.apache.hadoop.hbase.zookeeper.MasterAddressTracker;
 import org.apache.hadoop.hbase.zookeeper.ZKUtil;
@@ -614,18 +614,16 @@ public class HConnectionManager {
     private RpcClient rpcClient;
 
     /**
-      * Map of table to table {@link HRegionLocation}s.
+      * Cache of table to table {@link HRegionLocation}s.
       */
-    private final Map<TableName, SoftValueSortedMap<byte[], HRegionLocation>>
-        cachedRegionLocations =
-      new HashMap<TableName, SoftValueSortedMap<byte[], HRegionLocation>>();
+    private final MetaCache metaCache;
 
-    // The presence of a server in the map implies it's likely that there is an
-    // entry in cachedRegionLocations that map to this server; but the absence
-    // of a server in this map guarentees that there is no entry in cache that
-    // maps to the absent server.
-    // The access to this attribute must be protected by a lock on cachedRegionLocations
-    private final Set<ServerName> cachedServers = new HashSet<ServerName>();
+    // Number of rpcs made to meta to find or prefetch region locations.
+    private final AtomicLong metaLookups = new AtomicLong();
+
+    // Load reported by the servers, shared by the writers of this connection. Null if
+    // backpressure is disabled.
+    private final ServerStatisticTracker statisticsTracker;
 
     // region cache prefetch is enabled by default. this set contains all
     // tables whose region cache prefetch are disabled.
@@ -713,6 +711,8 @@ public class HConnectionManager {
       this.prefetchRegionLimit = conf.getInt(
           HConstants.HBASE_CLIENT_PREFETCH_LIMIT,
           HConstants.DEFAULT_HBASE_CLIENT_PREFETCH_LIMIT);
+      this.metaCache = new MetaCache(conf);
+      this.statisticsTracker = ServerStatisticTracker.create(conf);
     }
 
     @Override
@@ -1138,6 +1138,7 @@ public class HConnectionManager {
       };
       try {
         // pre-fetch certain number of regions info at region cache.
+        metaLookups.incrementAndGet();
         MetaScanner.metaScan(conf, this, visitor, tableName, row,
             this.prefetchRegionLimit, TableName.META_TABLE_NAME);
       } catch (IOException e) {
@@ -1210,6 +1211,7 @@ public class HConnectionManager {
               forceDeleteCachedLocation(tableName, row);
             }
             // Query the meta region for the location of the meta region
+            metaLookups.incrementAndGet();
             regionInfoRow = ProtobufUtil.getRowOrBefore(service,
               metaLocation.getRegionInfo().getRegionName(), metaKey,
               HConstants.CATALOG_FAMILY);
@@ -1301,10 +1303,7 @@ public class HConnectionManager {
 
     /*
      * Search the cache for a location that fits our table and row key.
-     * Return null if no suitable region is located. TODO: synchronization note
-     *
-     * <p>TODO: This method during writing consumes 15% of CPU doing lookup
-     * into the Soft Reference SortedMap.  Improve.
+     * Return null if no suitable region is located.
      *
      * @param tableName
      * @param row
@@ -1312,39 +1311,7 @@ public class HConnectionManager {
      */
     HRegionLocation getCachedLocation(final TableName tableName,
         final byte [] row) {
-      SoftValueSortedMap<byte[], HRegionLocation> tableLocations =
-        getTableLocations(tableName);
-
-      // start to examine the cache. we can only do cache actions
-      // if there's something in the cache for this table.
-      if (tableLocations.isEmpty()) {
-        return null;
-      }
-
-      HRegionLocation possibleRegion = tableLocations.get(row);
-      if (possibleRegion != null) {
-        return possibleRegion;
-      }
-
-      possibleRegion = tableLocations.lowerValueByKey(row);
-      if (possibleRegion == null) {
-        return null;
-      }
-
-      // make sure that the end key is greater than the row we're looking
-      // for, otherwise the row actually belongs in the next region, not
-      // this one. the exception case is when the endkey is
-      // HConstants.EMPTY_END_ROW, signifying that the region we're
-      // checking is actually the last region in the table.
-      byte[] endKey = possibleRegion.getRegionInfo().getEndKey();
-      if (Bytes.equals(endKey, HConstants.EMPTY_END_ROW) ||
-          tableName.getRowComparator().compareRows(
-              endKey, 0, endKey.length, row, 0, row.length) > 0) {
-        return possibleRegion;
-      }
-
-      // Passed all the way through, so we got nothing - complete cache miss
-      return null;
+      return metaCache.getCachedLocation(tableName, row);
     }
 
     /**
@@ -1353,18 +1320,7 @@ public class HConnectionManager {
      * @param row
      */
     void forceDeleteCachedLocation(final TableName tableName, final byte [] row) {
-      HRegionLocation rl = null;
-      synchronized (this.cachedRegionLocations) {
-        Map<byte[], HRegionLocation> tableLocations = getTableLocations(tableName);
-        // start to examine the cache. we can only do cache actions
-        // if there's something in the cache for this table.
-        if (!tableLocations.isEmpty()) {
-          rl = getCachedLocation(tableName, row);
-          if (rl != null) {
-            tableLocations.remove(rl.getRegionInfo().getStartKey());
-          }
-        }
-      }
+      HRegionLocation rl = metaCache.clearCache(tableName, row);
       if ((rl != null) && LOG.isDebugEnabled()) {
         LOG.debug("Removed " + rl.getHostname() + ":" + rl.getPort()
           + " as a location of " + rl.getRegionInfo().getRegionNameAsString() +
@@ -1377,61 +1333,19 @@ public class HConnectionManager {
      */
     @Override
     public void clearCaches(final ServerName serverName){
-      boolean deletedSomething = false;
-      synchronized (this.cachedRegionLocations) {
-        if (!cachedServers.contains(serverName)) {
-          return;
-        }
-        for (Map<byte[], HRegionLocation> tableLocations :
-            cachedRegionLocations.values()) {
-          for (Entry<byte[], HRegionLocation> e : tableLocations.entrySet()) {
-            HRegionLocation value = e.getValue();
-            if (value != null
-                && serverName.equals(value.getServerName())) {
-              tableLocations.remove(e.getKey());
-              deletedSomething = true;
-            }
-          }
-        }
-        cachedServers.remove(serverName);
-      }
-      if (deletedSomething && LOG.isDebugEnabled()) {
+      if (metaCache.clearCache(serverName) && LOG.isDebugEnabled()) {
         LOG.debug("Removed all cached region locations that map to " + serverName);
       }
     }
 
-    /*
-     * @param tableName
-     * @return Map of cached locations for passed <code>tableName</code>
-     */
-    private SoftValueSortedMap<byte[], HRegionLocation> getTableLocations(
-        final TableName tableName) {
-      // find the map of cached locations for this table
-      SoftValueSortedMap<byte[], HRegionLocation> result;
-      synchronized (this.cachedRegionLocations) {
-        result = this.cachedRegionLocations.get(tableName);
-        // if tableLocations for this table isn't built yet, make one
-        if (result == null) {
-          result = new SoftValueSortedMap<byte[], HRegionLocation>(Bytes.BYTES_COMPARATOR);
-          this.cachedRegionLocations.put(tableName, result);
-        }
-      }
-      return result;
-    }
-
     @Override
     public void clearRegionCache() {
-      synchronized(this.cachedRegionLocations) {
-        this.cachedRegionLocations.clear();
-        this.cachedServers.clear();
-      }
+      metaCache.clearCache();
     }
 
     @Override
     public void clearRegionCache(final TableName tableName) {
-      synchronized (this.cachedRegionLocations) {
-        this.cachedRegionLocations.remove(tableName);
-      }
+      metaCache.clearCache(tableName);
     }
 
     @Override
@@ -1447,49 +1361,7 @@ public class HConnectionManager {
      */
     private void cacheLocation(final TableName tableName, final HRegionLocation source,
         final HRegionLocation location) {
-      boolean isFromMeta = (source == null);
-      byte [] startKey = location.getRegionInfo().getStartKey();
-      Map<byte[], HRegionLocation> tableLocations =
-        getTableLocations(tableName);
-      boolean isNewCacheEntry = false;
-      boolean isStaleUpdate = false;
-      HRegionLocation oldLocation = null;
-      synchronized (this.cachedRegionLocations) {
-        cachedServers.add(location.getServerName());
-        oldLocation = tableLocations.get(startKey);
-        isNewCacheEntry = (oldLocation == null);
-        // If the server in cache sends us a redirect, assume it's always valid.
-        if (!isNewCacheEntry && !oldLocation.equals(source)) {
-          long newLocationSeqNum = location.getSeqNum();
-          // Meta record is stale - some (probably the same) server has closed the region
-          // with later seqNum and told us about the new location.
-          boolean isStaleMetaRecord = isFromMeta && (oldLocation.getSeqNum() > newLocationSeqNum);
-          // Same as above for redirect. However, in this case, if the number is equal to previous
-          // record, the most common case is that first the region was closed with seqNum, and then
-          // opened with the same seqNum; hence we will ignore the redirect.
-          // There are so many corner cases with various combinations of opens and closes that
-          // an additional counter on top of seqNum would be necessary to handle them all.
-          boolean isStaleRedirect = !isFromMeta && (oldLocation.getSeqNum() >= newLocationSeqNum);
-          isStaleUpdate = (isStaleMetaRecord || isStaleRedirect);
-        }
-        if (!isStaleUpdate) {
-          tableLocations.put(startKey, location);
-        }
-      }
-      if (isNewCacheEntry) {
-        if (LOG.isTraceEnabled()) {
-          LOG.trace("Cached location for " +
-            location.getRegionInfo().getRegionNameAsString() +
-            " is " + location.getHostnamePort());
-        }
-      } else if (isStaleUpdate && !location.equals(oldLocation)) {
-        if (LOG.isTraceEnabled()) {
-          LOG.trace("Ignoring stale location update for "
-            + location.getRegionInfo().getRegionNameAsString() + ": "
-            + location.getHostnamePort() + " at " + location.getSeqNum() + "; local "
-            + oldLocation.getHostnamePort() + " at " + oldLocation.getSeqNum());
-        }
-      }
+      metaCache.cacheLocation(tableName, source, location);
     }
 
     // Map keyed by service name + regionserver to service stub implementation
@@ -2305,9 +2177,7 @@ public class HConnectionManager {
     void updateCachedLocation(HRegionInfo hri, HRegionLocation source,
                               ServerName serverName, long seqNum) {
       HRegionLocation newHrl = new HRegionLocation(hri, serverName, seqNum);
-      synchronized (this.cachedRegionLocations) {
-        cacheLocation(hri.getTable(), source, newHrl);
-      }
+      cacheLocation(hri.getTable(), source, newHrl);
     }
 
    /**
@@ -2316,20 +2186,7 @@ public class HConnectionManager {
     * @param source The source of the error that prompts us to invalidate cache.
     */
     void deleteCachedLocation(HRegionInfo hri, HRegionLocation source) {
-      boolean isStaleDelete = false;
-      HRegionLocation oldLocation;
-      synchronized (this.cachedRegionLocations) {
-        Map<byte[], HRegionLocation> tableLocations =
-          getTableLocations(hri.getTable());
-        oldLocation = tableLocations.get(hri.getStartKey());
-        if (oldLocation != null) {
-           // Do not delete the cache entry if it's not for the same server that gave us the error.
-          isStaleDelete = (source != null) && !oldLocation.equals(source);
-          if (!isStaleDelete) {
-            tableLocations.remove(hri.getStartKey());
-          }
-        }
-      }
+      metaCache.clearCache(hri, source);
     }
 
     @Override
@@ -2337,21 +2194,12 @@ public class HConnectionManager {
       if (location == null) {
         return;
       }
-      synchronized (this.cachedRegionLocations) {
-        TableName tableName = location.getRegionInfo().getTable();
-        Map<byte[], HRegionLocation> tableLocations =
-            getTableLocations(tableName);
-        if (!tableLocations.isEmpty()) {
-          // Delete if there's something in the cache for this region.
-          HRegionLocation removedLocation =
-          tableLocations.remove(location.getRegionInfo().getStartKey());
-          if (LOG.isDebugEnabled() && removedLocation != null) {
-            LOG.debug("Removed " +
-                location.getRegionInfo().getRegionNameAsString() +
-                " for tableName=" + tableName +
-                " from cache");
-          }
-        }
+      HRegionLocation removedLocation = metaCache.clearCache(location.getRegionInfo(), null);
+      if (LOG.isDebugEnabled() && removedLocation != null) {
+        LOG.debug("Removed " +
+            location.getRegionInfo().getRegionNameAsString() +
+            " for tableName=" + location.getRegionInfo().getTable() +
+            " from cache");
       }
     }
 
@@ -2522,13 +2370,29 @@ public class HConnectionManager {
      * from a unit test.
      */
     int getNumberOfCachedRegionLocations(final TableName tableName) {
-      synchronized (this.cachedRegionLocations) {
-        Map<byte[], HRegionLocation> tableLocs = this.cachedRegionLocations.get(tableName);
-        if (tableLocs == null) {
-          return 0;
-        }
-        return tableLocs.values().size();
-      }
+      return metaCache.getNumberOfCachedRegionLocations(tableName);
+    }
+
+    /**
+     * @return the region location cache of this connection
+     */
+    MetaCache getMetaCache() {
+      return metaCache;
+    }
+
+    /**
+     * @return the number of rpcs this connection made to meta to find region locations
+     */
+    long getMetaLookupCount() {
+      return metaLookups.get();
+    }
+
+    /**
+     * @return the load the servers reported for the regions we write to, or null if
+     *   backpressure is disabled
+     */
+    ServerStatisticTracker getStatisticsTracker() {
+      return statisticsTracker;
     }
 
     /**
@@ -2639,6 +2503,11 @@ public class HConnectionManager {
         return;
       }
       delayedClosing.stop("Closing connection");
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Region location cache: hits=" + metaCache.getHitCount() + ", misses=" +
+            metaCache.getMissCount() + ", evictions=" + metaCache.getEvictionCount() +
+            ", meta lookups=" + metaLookups.get());
+      }
       closeMaster();
       shutdownBatchPool();
       this.closed = true;
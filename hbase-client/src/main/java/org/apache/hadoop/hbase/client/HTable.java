@@ -215,7 +215,7 @@ public class HTable implements HTableInterface {
     this.finishSetup();
   }
    
-  private static ThreadPoolExecutor getDefaultExecutor(Configuration conf) {
+  static ThreadPoolExecutor getDefaultExecutor(Configuration conf) {
     int maxThreads = conf.getInt("hbase.htable.threads.max", Integer.MAX_VALUE);
     if (maxThreads == 0) {
       maxThreads = 1; // is there a better default?
@@ -721,6 +721,14 @@ public class HTable implements HTableInterface {
       return new ClientSmallScanner(getConfiguration(), scan, getName(),
           this.connection);
     }
+    boolean asyncPrefetch = scan.getAsyncPrefetch() != null ?
+        scan.getAsyncPrefetch().booleanValue() :
+        getConfiguration().getBoolean(HConstants.HBASE_CLIENT_SCANNER_ASYNC_PREFETCH_KEY,
+          HConstants.DEFAULT_HBASE_CLIENT_SCANNER_ASYNC_PREFETCH);
+    if (asyncPrefetch) {
+      return new ClientAsyncPrefetchScanner(getConfiguration(), scan, getName(),
+          this.connection, this.pool);
+    }
     return new ClientScanner(getConfiguration(), scan,
         getName(), this.connection);
   }
@@ -1137,6 +1145,34 @@ public class HTable implements HTableInterface {
     return rpcCallerFactory.<Boolean> newCaller().callWithRetries(callable, this.operationTimeout);
   }
 
+  /**
+   * Applies each of the conditional mutations whose check passes. The checks and mutations for
+   * a region go in one multi call to its server, which checks them under their row locks, so
+   * many rows cost one round trip per server rather than one per row. Each check and its
+   * mutation are atomic, as with {@link #checkAndPut(byte[], byte[], byte[], byte[], Put)}; there
+   * is no atomicity across rows. Checks on the same row are done in list order.
+   *
+   * @param checkAndMutates the conditional mutations
+   * @return for each of <code>checkAndMutates</code>, in order, whether its mutation was applied
+   * @throws IOException if any could not be done; see
+   *   {@link RetriesExhaustedWithDetailsException}
+   */
+  public boolean[] checkAndMutate(final List<CheckAndMutate> checkAndMutates)
+  throws IOException {
+    Object[] results = new Object[checkAndMutates.size()];
+    try {
+      batch(checkAndMutates, results);
+    } catch (InterruptedException e) {
+      throw (InterruptedIOException)new InterruptedIOException().initCause(e);
+    }
+    boolean[] processed = new boolean[results.length];
+    for (int i = 0; i < results.length; i++) {
+      // batch ensures if there is a failure we get an exception instead
+      processed[i] = (Boolean) results[i];
+    }
+    return processed;
+  }
+
   /**
    * {@inheritDoc}
    */
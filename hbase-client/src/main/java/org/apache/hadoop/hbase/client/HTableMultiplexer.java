@@ -20,16 +20,17 @@
 package org.apache.hadoop.hbase.client;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -45,17 +46,29 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.ZooKeeperConnectionException;
 import org.apache.hadoop.hbase.util.EnvironmentEdgeManager;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
 /**
  * HTableMultiplexer provides a thread-safe non blocking PUT API across all the tables.
  * Each put will be sharded into different buffer queues based on its destination region server.
  * So each region server buffer queue will only have the puts which share the same destination.
  * And each queue will have a flush worker thread to flush the puts request to the region server.
  * If any queue is full, the HTableMultiplexer starts to drop the Put requests for that 
- * particular queue.
+ * particular queue, unless they are sent with {@link #submit(TableName, Put)}, which waits for
+ * room instead and returns a future of the write.
+ * <p>
+ * A flush worker sends what its queue holds as soon as it has
+ * {@link #TABLE_MULTIPLEXER_FLUSH_SIZE} bytes of puts. Short of that, it waits for more puts for
+ * at most the smoothed round trip time of its recent flushes, and never longer than
+ * {@link #TABLE_MULTIPLEXER_FLUSH_FREQ_MS}: waiting longer than a round trip to fill a batch
+ * would cost more latency than it saves. Puts that come in while a flush is out are sent
+ * together in the next one.
  * 
  * Also all the puts will be retried as a configuration number before dropping.
  * And the HTableMultiplexer can report the number of buffered requests and the number of the
- * failed (dropped) requests in total or on per region server basis.
+ * failed (dropped) requests in total or on per region server basis, along with the latency
+ * of the flushes.
  * 
  * This class is thread safe.
  */
@@ -66,6 +79,7 @@ public class HTableMultiplexer {
   private static int poolID = 0;
   
   static final String TABLE_MULTIPLEXER_FLUSH_FREQ_MS = "hbase.tablemultiplexer.flush.frequency.ms";
+  static final String TABLE_MULTIPLEXER_FLUSH_SIZE = "hbase.tablemultiplexer.flush.size";
 
   private Map<TableName, HTable> tableNameToHTableMap;
 
@@ -161,6 +175,35 @@ public class HTableMultiplexer {
    */
   public boolean put(final TableName tableName, final Put put, int retry)
       throws IOException {
+    return put(tableName, put, retry, null, false);
+  }
+
+  /**
+   * The put request will be buffered by its corresponding buffer queue, waiting for room if the
+   * queue is full, and retried as {@link #put(TableName, Put)} would.
+   * @param tableName
+   * @param put
+   * @return a future of the write, failed if the put could not be queued or failed for good
+   * @throws InterruptedIOException if interrupted while waiting for room
+   * @throws IOException
+   */
+  public ListenableFuture<Void> submit(final TableName tableName, final Put put)
+      throws IOException {
+    SettableFuture<Void> future = SettableFuture.create();
+    if (!put(tableName, put, this.retryNum, future, true)) {
+      // Does nothing if the cause is already set.
+      future.setException(new IOException("Cannot process the put " + put));
+    }
+    return future;
+  }
+
+  /**
+   * @param future completed once the put is written or has failed for good, or null
+   * @param block if true, wait for room in a full queue rather than giving up
+   * @return true if the put was queued
+   */
+  private boolean put(final TableName tableName, final Put put, int retry,
+      SettableFuture<Void> future, boolean block) throws IOException {
     if (retry <= 0) {
       return false;
     }
@@ -174,12 +217,20 @@ public class HTableMultiplexer {
         // Add the put pair into its corresponding queue.
         queue = addNewRegionServer(loc, htable);
         // Generate a MultiPutStatus obj and offer it into the queue
-        PutStatus s = new PutStatus(loc.getRegionInfo(), put, retry);
-        
-        return queue.offer(s);
+        PutStatus s = new PutStatus(loc.getRegionInfo(), put, retry, future);
+        if (!block) {
+          return queue.offer(s);
+        }
+        queue.put(s);
+        return true;
       }
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException("Interrupted while waiting to queue the put " + put);
     } catch (Exception e) {
       LOG.debug("Cannot process the put " + put + " because of " + e);
+      if (future != null) {
+        future.setException(e);
+      }
     }
     return false;
   }
@@ -250,6 +301,9 @@ public class HTableMultiplexer {
     private Map<String, Long> serverToBufferedCounterMap;
     private Map<String, Long> serverToAverageLatencyMap;
     private Map<String, Long> serverToMaxLatencyMap;
+    // Recent flush latencies, sorted, over all servers and for each of them.
+    private long[] latencies = new long[0];
+    private Map<String, long[]> serverToLatenciesMap;
 
     public HTableMultiplexerStatus(
         Map<HRegionLocation, HTableFlushWorker> serverToFlushWorkerMap) {
@@ -261,6 +315,7 @@ public class HTableMultiplexer {
       this.serverToFailedCounterMap = new HashMap<String, Long>();
       this.serverToAverageLatencyMap = new HashMap<String, Long>();
       this.serverToMaxLatencyMap = new HashMap<String, Long>();
+      this.serverToLatenciesMap = new HashMap<String, long[]>();
       this.initialize(serverToFlushWorkerMap);
     }
 
@@ -304,7 +359,17 @@ public class HTableMultiplexer {
         this.serverToMaxLatencyMap
             .put(addr.getHostnamePort(),
             serverMaxLatency);
+
+        long[] serverLatencies = worker.getRecentLatencies().snapshot();
+        Arrays.sort(serverLatencies);
+        this.serverToLatenciesMap.put(addr.getHostnamePort(), serverLatencies);
+        long[] merged = Arrays.copyOf(this.latencies,
+            this.latencies.length + serverLatencies.length);
+        System.arraycopy(serverLatencies, 0, merged, this.latencies.length,
+            serverLatencies.length);
+        this.latencies = merged;
       }
+      Arrays.sort(this.latencies);
       this.overallAverageLatency = averageCalcCount != 0 ? averageCalcSum
           / averageCalcCount : 0;
     }
@@ -340,17 +405,48 @@ public class HTableMultiplexer {
     public Map<String, Long> getAverageLatencyForEachRegionServer() {
       return this.serverToAverageLatencyMap;
     }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the given percentile of the recent flush latencies over all region servers, or 0
+     *   if there were none
+     */
+    public long getOverallLatencyPercentile(double percentile) {
+      return percentile(this.latencies, percentile);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the given percentile of the recent flush latencies of each region server
+     */
+    public Map<String, Long> getLatencyPercentileForEachRegionServer(double percentile) {
+      Map<String, Long> result = new HashMap<String, Long>();
+      for (Map.Entry<String, long[]> e : this.serverToLatenciesMap.entrySet()) {
+        result.put(e.getKey(), percentile(e.getValue(), percentile));
+      }
+      return result;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+      return sorted[Math.min(sorted.length - 1, Math.max(0, index))];
+    }
   }
   
   private static class PutStatus {
     private final HRegionInfo regionInfo;
     private final Put put;
     private final int retryCount;
+    private final SettableFuture<Void> future;
     public PutStatus(final HRegionInfo regionInfo, final Put put,
-        final int retryCount) {
+        final int retryCount, final SettableFuture<Void> future) {
       this.regionInfo = regionInfo;
       this.put = put;
       this.retryCount = retryCount;
+      this.future = future;
     }
 
     public HRegionInfo getRegionInfo() {
@@ -362,6 +458,9 @@ public class HTableMultiplexer {
     public int getRetryCount() {
       return retryCount;
     }
+    public SettableFuture<Void> getFuture() {
+      return future;
+    }
   }
 
   /**
@@ -404,6 +503,31 @@ public class HTableMultiplexer {
     }
   }
 
+  /**
+   * Keeps the latest values added, up to a fixed number.
+   */
+  private static class RecentLatencies {
+    private final long[] samples;
+    private int count = 0;
+    private int next = 0;
+
+    public RecentLatencies(int size) {
+      this.samples = new long[size];
+    }
+
+    public synchronized void add(long value) {
+      samples[next] = value;
+      next = (next + 1) % samples.length;
+      if (count < samples.length) {
+        count++;
+      }
+    }
+
+    public synchronized long[] snapshot() {
+      return Arrays.copyOf(samples, count);
+    }
+  }
+
   private static class HTableFlushWorker implements Runnable {
     private HRegionLocation addr;
     private Configuration conf;
@@ -414,6 +538,9 @@ public class HTableMultiplexer {
     private AtomicAverageCounter averageLatency;
     private AtomicLong maxLatency;
     private HTable htable; // For Multi
+    private RecentLatencies recentLatencies;
+    // Smoothed round trip time of the flushes, in milliseconds.
+    private double smoothedLatency = 0;
     
     public HTableFlushWorker(Configuration conf, HRegionLocation addr,
         HTableMultiplexer htableMultiplexer,
@@ -427,6 +554,7 @@ public class HTableMultiplexer {
       this.averageLatency = new AtomicAverageCounter();
       this.maxLatency = new AtomicLong(0);
       this.htable = htable;
+      this.recentLatencies = new RecentLatencies(1024);
     }
 
     public long getTotalFailedCount() {
@@ -445,6 +573,10 @@ public class HTableMultiplexer {
       return this.maxLatency.getAndSet(0);
     }
 
+    public RecentLatencies getRecentLatencies() {
+      return this.recentLatencies;
+    }
+
     private boolean resubmitFailedPut(PutStatus failedPutStatus,
         HRegionLocation oldLoc) throws IOException {
       Put failedPut = failedPutStatus.getPut();
@@ -457,8 +589,9 @@ public class HTableMultiplexer {
         // Update the failed counter and no retry any more.
         return false;
       } else {
-        // Retry one more time
-        return this.htableMultiplexer.put(tableName, failedPut, retryCount);
+        // Retry one more time. Never wait for room here: the queue may well be our own.
+        return this.htableMultiplexer.put(tableName, failedPut, retryCount,
+            failedPutStatus.getFuture(), false);
       }
     }
 
@@ -466,107 +599,101 @@ public class HTableMultiplexer {
     public void run() {
       List<PutStatus> processingList = new ArrayList<PutStatus>();
       /** 
-       * The frequency in milliseconds for the current thread to process the corresponding  
-       * buffer queue.  
+       * The longest a put waits in the queue for its batch to fill up, in milliseconds.
        **/
       long frequency = conf.getLong(TABLE_MULTIPLEXER_FLUSH_FREQ_MS, 100);
-      
-      // initial delay
-      try {
-        Thread.sleep(frequency);
-      } catch (InterruptedException e) {
-      } // Ignore
+      /**
+       * The bytes of puts that make a full batch, sent without waiting for more.
+       **/
+      long flushSize = conf.getLong(TABLE_MULTIPLEXER_FLUSH_SIZE,
+          conf.getLong("hbase.client.write.buffer", 2097152));
 
       long start, elapsed;
       int failedCount = 0;
       while (true) {
         try {
-          start = elapsed = EnvironmentEdgeManager.currentTimeMillis();
-
-          // Clear the processingList, putToStatusMap and failedCount
+          // Clear the processingList and failedCount
           processingList.clear();
           failedCount = 0;
-          
-          // drain all the queued puts into the tmp list
-          queue.drainTo(processingList);
-          currentProcessingPutCount.set(processingList.size());
 
-          if (processingList.size() > 0) {
-            ArrayList<Put> list = new ArrayList<Put>(processingList.size());
-            for (PutStatus putStatus: processingList) {
-              list.add(putStatus.getPut());
+          // Wait for a first put, then for the batch to fill up: until it holds flushSize
+          // bytes or has waited one round trip.
+          PutStatus putStatus = queue.take();
+          long batchSize = 0;
+          long deadline = EnvironmentEdgeManager.currentTimeMillis() +
+              Math.min(frequency, (long) smoothedLatency);
+          while (putStatus != null) {
+            processingList.add(putStatus);
+            batchSize += putStatus.getPut().heapSize();
+            if (batchSize >= flushSize) {
+              break;
             }
-            
-            // Process this multiput request
-            List<Put> failed = null;
-            Object[] results = new Object[list.size()];
-            try {
-              htable.batch(list, results);
-            } catch (IOException e) {
-              LOG.debug("Caught some exceptions " + e
-                  + " when flushing puts to region server " + addr.getHostnamePort());
-            } finally {
-              // mutate list so that it is empty for complete success, or
-              // contains only failed records
-              // results are returned in the same order as the requests in list
-              // walk the list backwards, so we can remove from list without
-              // impacting the indexes of earlier members
-              for (int i = results.length - 1; i >= 0; i--) {
-                if (results[i] instanceof Result) {
-                  // successful Puts are removed from the list here.
-                  list.remove(i);
-                }
+            putStatus = queue.poll();
+            if (putStatus == null) {
+              long wait = deadline - EnvironmentEdgeManager.currentTimeMillis();
+              if (wait > 0) {
+                putStatus = queue.poll(wait, TimeUnit.MILLISECONDS);
               }
-              failed = list;
             }
+          }
+          currentProcessingPutCount.set(processingList.size());
+          start = EnvironmentEdgeManager.currentTimeMillis();
 
-            if (failed != null) {
-              if (failed.size() == processingList.size()) {
-                // All the puts for this region server are failed. Going to retry it later
-                for (PutStatus putStatus: processingList) {
-                  if (!resubmitFailedPut(putStatus, this.addr)) {
-                    failedCount++;
-                  }
-                }
-              } else {
-                Set<Put> failedPutSet = new HashSet<Put>(failed);
-                for (PutStatus putStatus: processingList) {
-                  if (failedPutSet.contains(putStatus.getPut())
-                      && !resubmitFailedPut(putStatus, this.addr)) {
-                    failedCount++;
-                  }
-                }
+          ArrayList<Put> list = new ArrayList<Put>(processingList.size());
+          for (PutStatus ps: processingList) {
+            list.add(ps.getPut());
+          }
+
+          // Process this multiput request
+          Object[] results = new Object[list.size()];
+          try {
+            htable.batch(list, results);
+          } catch (IOException e) {
+            LOG.debug("Caught some exceptions " + e
+                + " when flushing puts to region server " + addr.getHostnamePort());
+          } catch (InterruptedException e) {
+            LOG.debug("Interrupted when flushing puts to region server "
+                + addr.getHostnamePort());
+          }
+          // results are returned in the same order as the requests in list
+          for (int i = 0; i < results.length; i++) {
+            PutStatus ps = processingList.get(i);
+            if (results[i] instanceof Result) {
+              if (ps.getFuture() != null) {
+                ps.getFuture().set(null);
+              }
+            } else if (!resubmitFailedPut(ps, this.addr)) {
+              failedCount++;
+              if (ps.getFuture() != null) {
+                ps.getFuture().setException(results[i] instanceof Throwable ?
+                    (Throwable) results[i] : new IOException("Failed to write the put to "
+                        + addr.getHostnamePort()));
               }
             }
-            // Update the totalFailedCount
-            this.totalFailedPutCount.addAndGet(failedCount);
-            
-            elapsed = EnvironmentEdgeManager.currentTimeMillis() - start;
-            // Update latency counters
-            averageLatency.add(elapsed);
-            if (elapsed > maxLatency.get()) {
-              maxLatency.set(elapsed);
-            }
-            
-            // Log some basic info
-            if (LOG.isDebugEnabled()) {
-              LOG.debug("Processed " + currentProcessingPutCount
-                  + " put requests for " + addr.getHostnamePort() + " and "
-                  + failedCount + " failed" + ", latency for this send: "
-                  + elapsed);
-            }
-
-            // Reset the current processing put count
-            currentProcessingPutCount.set(0);
           }
-
-          // Sleep for a while
-          if (elapsed == start) {
-            elapsed = EnvironmentEdgeManager.currentTimeMillis() - start;
+          // Update the totalFailedCount
+          this.totalFailedPutCount.addAndGet(failedCount);
+          
+          elapsed = EnvironmentEdgeManager.currentTimeMillis() - start;
+          // Update latency counters
+          averageLatency.add(elapsed);
+          recentLatencies.add(elapsed);
+          smoothedLatency = smoothedLatency == 0 ? elapsed :
+            0.875 * smoothedLatency + 0.125 * elapsed;
+          if (elapsed > maxLatency.get()) {
+            maxLatency.set(elapsed);
           }
-          if (elapsed < frequency) {
-            Thread.sleep(frequency - elapsed);
+          
+          // Log some basic info
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("Processed " + currentProcessingPutCount
+                + " put requests for " + addr.getHostnamePort() + " and "
+                + failedCount + " failed" + ", latency for this send: "
+                + elapsed);
           }
+
+          // Reset the current processing put count
+          currentProcessingPutCount.set(0);
         } catch (Exception e) {
           // Log all the exceptions and move on
           LOG.debug("Caught some exceptions " + e
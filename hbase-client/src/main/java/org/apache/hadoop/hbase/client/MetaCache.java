@@ -0,0 +1,370 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Cache of the region locations a connection has looked up, keyed by table and region start
+ * key. Lookups take no lock: each table has a concurrent sorted map, and updates that depend on
+ * the entry already cached are made with compare-and-set.
+ * <p>
+ * The cache holds at most {@link #MAX_SIZE_KEY} locations. Past that, entries are evicted in the
+ * manner of a clock: the eviction sweep clears the referenced bit of the entries it passes and
+ * evicts those that have not been read since the last sweep. Entries are strongly held, so
+ * memory pressure alone does not empty the cache the way it did soft references.
+ */
+@InterfaceAudience.Private
+class MetaCache {
+  static final Log LOG = LogFactory.getLog(MetaCache.class);
+
+  /** Most region locations cached by a connection, over all tables. */
+  public static final String MAX_SIZE_KEY = "hbase.client.meta.cache.max.size";
+  public static final int DEFAULT_MAX_SIZE = 100000;
+
+  /**
+   * A cached location and whether it has been read since the last eviction sweep. New entries
+   * start unreferenced, so locations that were prefetched but never used go first.
+   */
+  private static class Entry {
+    final HRegionLocation location;
+    volatile boolean referenced = false;
+
+    Entry(HRegionLocation location) {
+      this.location = location;
+    }
+  }
+
+  private final ConcurrentMap<TableName, ConcurrentSkipListMap<byte[], Entry>>
+      cachedRegionLocations =
+        new ConcurrentHashMap<TableName, ConcurrentSkipListMap<byte[], Entry>>();
+
+  // The presence of a server in the set implies it's likely that there is an
+  // entry in cachedRegionLocations that map to this server; but the absence
+  // of a server in this set guarantees that there is no entry in cache that
+  // maps to the absent server.
+  private final Set<ServerName> cachedServers =
+      Collections.newSetFromMap(new ConcurrentHashMap<ServerName, Boolean>());
+
+  private final int maxSize;
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicBoolean evicting = new AtomicBoolean();
+  // Table the eviction sweep stopped in, and where in it.
+  private TableName evictionTable;
+  private byte[] evictionKey;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  MetaCache(Configuration conf) {
+    this.maxSize = Math.max(1, conf.getInt(MAX_SIZE_KEY, DEFAULT_MAX_SIZE));
+  }
+
+  /**
+   * Search the cache for a location that fits our table and row key.
+   * @return Null or region location found in cache.
+   */
+  HRegionLocation getCachedLocation(final TableName tableName, final byte[] row) {
+    Entry entry = find(cachedRegionLocations.get(tableName), tableName, row);
+    if (entry == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    // Only write when it changes, so hot entries are not written over and over.
+    if (!entry.referenced) entry.referenced = true;
+    hits.incrementAndGet();
+    return entry.location;
+  }
+
+  private static Entry find(ConcurrentSkipListMap<byte[], Entry> tableLocations,
+      TableName tableName, byte[] row) {
+    Map.Entry<byte[], Entry> e = tableLocations == null ? null : tableLocations.floorEntry(row);
+    if (e == null) {
+      return null;
+    }
+    // make sure that the end key is greater than the row we're looking
+    // for, otherwise the row actually belongs in the next region, not
+    // this one. the exception case is when the endkey is
+    // HConstants.EMPTY_END_ROW, signifying that the region we're
+    // checking is actually the last region in the table.
+    byte[] endKey = e.getValue().location.getRegionInfo().getEndKey();
+    if (Bytes.equals(endKey, HConstants.EMPTY_END_ROW) ||
+        tableName.getRowComparator().compareRows(
+            endKey, 0, endKey.length, row, 0, row.length) > 0) {
+      return e.getValue();
+    }
+    return null;
+  }
+
+  /**
+   * Put a newly discovered HRegionLocation into the cache.
+   * @param tableName The table name.
+   * @param source the source of the new location, if it's not coming from meta
+   * @param location the new location
+   */
+  void cacheLocation(final TableName tableName, final HRegionLocation source,
+      final HRegionLocation location) {
+    boolean isFromMeta = (source == null);
+    byte [] startKey = location.getRegionInfo().getStartKey();
+    ConcurrentSkipListMap<byte[], Entry> tableLocations = getTableLocations(tableName);
+    Entry newEntry = new Entry(location);
+    cachedServers.add(location.getServerName());
+    Entry oldEntry = tableLocations.putIfAbsent(startKey, newEntry);
+    if (oldEntry == null) {
+      if (size.incrementAndGet() > maxSize) {
+        evict();
+      }
+      if (LOG.isTraceEnabled()) {
+        LOG.trace("Cached location for " +
+          location.getRegionInfo().getRegionNameAsString() +
+          " is " + location.getHostnamePort());
+      }
+      return;
+    }
+    do {
+      HRegionLocation oldLocation = oldEntry.location;
+      // If the server in cache sends us a redirect, assume it's always valid.
+      if (!oldLocation.equals(source)) {
+        long newLocationSeqNum = location.getSeqNum();
+        // Meta record is stale - some (probably the same) server has closed the region
+        // with later seqNum and told us about the new location.
+        boolean isStaleMetaRecord = isFromMeta && (oldLocation.getSeqNum() > newLocationSeqNum);
+        // Same as above for redirect. However, in this case, if the number is equal to previous
+        // record, the most common case is that first the region was closed with seqNum, and then
+        // opened with the same seqNum; hence we will ignore the redirect.
+        // There are so many corner cases with various combinations of opens and closes that
+        // an additional counter on top of seqNum would be necessary to handle them all.
+        boolean isStaleRedirect = !isFromMeta && (oldLocation.getSeqNum() >= newLocationSeqNum);
+        if (isStaleMetaRecord || isStaleRedirect) {
+          if (LOG.isTraceEnabled() && !location.equals(oldLocation)) {
+            LOG.trace("Ignoring stale location update for "
+              + location.getRegionInfo().getRegionNameAsString() + ": "
+              + location.getHostnamePort() + " at " + location.getSeqNum() + "; local "
+              + oldLocation.getHostnamePort() + " at " + oldLocation.getSeqNum());
+          }
+          return;
+        }
+      }
+      if (tableLocations.replace(startKey, oldEntry, newEntry)) {
+        return;
+      }
+      // Raced with another update or a removal; look again.
+      oldEntry = tableLocations.putIfAbsent(startKey, newEntry);
+    } while (oldEntry != null);
+    if (size.incrementAndGet() > maxSize) {
+      evict();
+    }
+  }
+
+  private ConcurrentSkipListMap<byte[], Entry> getTableLocations(final TableName tableName) {
+    ConcurrentSkipListMap<byte[], Entry> result = cachedRegionLocations.get(tableName);
+    if (result == null) {
+      result = new ConcurrentSkipListMap<byte[], Entry>(Bytes.BYTES_COMPARATOR);
+      ConcurrentSkipListMap<byte[], Entry> existing =
+          cachedRegionLocations.putIfAbsent(tableName, result);
+      if (existing != null) result = existing;
+    }
+    return result;
+  }
+
+  private boolean remove(ConcurrentSkipListMap<byte[], Entry> tableLocations, byte[] startKey,
+      Entry entry) {
+    if (tableLocations.remove(startKey, entry)) {
+      size.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Sweeps the cache until it is back under its bound. Only one thread sweeps at a time; the
+   * others carry on, leaving the cache over its bound for a moment.
+   */
+  private void evict() {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      // Two passes clear every referenced bit, so the third is sure to find victims.
+      for (int pass = 0; pass < 3 && size.get() > maxSize; pass++) {
+        Iterator<TableName> tables = cachedRegionLocations.keySet().iterator();
+        // Start with the table the last sweep stopped in, and visit it once more at the end.
+        TableName table = evictionTable != null && cachedRegionLocations.containsKey(evictionTable)
+            ? evictionTable : null;
+        byte[] fromKey = table == null ? null : evictionKey;
+        while (size.get() > maxSize) {
+          if (table == null) {
+            if (!tables.hasNext()) break;
+            table = tables.next();
+            fromKey = null;
+          }
+          ConcurrentSkipListMap<byte[], Entry> tableLocations = cachedRegionLocations.get(table);
+          if (tableLocations != null) {
+            Map<byte[], Entry> toSweep =
+                fromKey == null ? tableLocations : tableLocations.tailMap(fromKey, false);
+            for (Map.Entry<byte[], Entry> e : toSweep.entrySet()) {
+              if (size.get() <= maxSize) {
+                evictionTable = table;
+                evictionKey = e.getKey();
+                return;
+              }
+              Entry entry = e.getValue();
+              if (entry.referenced) {
+                entry.referenced = false;
+              } else if (remove(tableLocations, e.getKey(), entry)) {
+                evictions.incrementAndGet();
+              }
+            }
+          }
+          table = null;
+        }
+        evictionTable = null;
+      }
+      if (size.get() > maxSize) {
+        // Updates racing with clearCache(TableName) can leave the count off; set it right.
+        int actual = 0;
+        for (Map<byte[], Entry> tableLocations : cachedRegionLocations.values()) {
+          actual += tableLocations.size();
+        }
+        size.set(actual);
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  /**
+   * Delete a cached location, no matter what it is.
+   * @return the location removed, or null if there was none
+   */
+  HRegionLocation clearCache(final TableName tableName, final byte[] row) {
+    ConcurrentSkipListMap<byte[], Entry> tableLocations = cachedRegionLocations.get(tableName);
+    Entry entry = find(tableLocations, tableName, row);
+    if (entry != null &&
+        remove(tableLocations, entry.location.getRegionInfo().getStartKey(), entry)) {
+      return entry.location;
+    }
+    return null;
+  }
+
+  /**
+   * Delete all cached entries of a table that map to a specific server.
+   * @return true if something was removed
+   */
+  boolean clearCache(final ServerName serverName) {
+    if (!cachedServers.contains(serverName)) {
+      return false;
+    }
+    boolean deletedSomething = false;
+    // Drop it first, so a location cached for it while we sweep keeps it in the set.
+    cachedServers.remove(serverName);
+    for (ConcurrentSkipListMap<byte[], Entry> tableLocations : cachedRegionLocations.values()) {
+      for (Map.Entry<byte[], Entry> e : tableLocations.entrySet()) {
+        if (serverName.equals(e.getValue().location.getServerName())) {
+          deletedSomething |= remove(tableLocations, e.getKey(), e.getValue());
+        }
+      }
+    }
+    return deletedSomething;
+  }
+
+  /**
+   * Deletes the cached location of the region unless the cache holds a location from another
+   * source than the one given.
+   * @param hri The region in question.
+   * @param source The source of the error that prompts us to invalidate cache, or null to
+   *   delete whatever is cached.
+   * @return the location removed, or null if there was none
+   */
+  HRegionLocation clearCache(HRegionInfo hri, HRegionLocation source) {
+    ConcurrentSkipListMap<byte[], Entry> tableLocations =
+        cachedRegionLocations.get(hri.getTable());
+    if (tableLocations == null) {
+      return null;
+    }
+    Entry entry = tableLocations.get(hri.getStartKey());
+    // Do not delete the cache entry if it's not for the same server that gave us the error.
+    if (entry != null && (source == null || entry.location.equals(source)) &&
+        remove(tableLocations, hri.getStartKey(), entry)) {
+      return entry.location;
+    }
+    return null;
+  }
+
+  void clearCache() {
+    for (TableName tableName : cachedRegionLocations.keySet()) {
+      clearCache(tableName);
+    }
+    cachedServers.clear();
+  }
+
+  void clearCache(final TableName tableName) {
+    ConcurrentSkipListMap<byte[], Entry> tableLocations = cachedRegionLocations.remove(tableName);
+    if (tableLocations != null) {
+      size.addAndGet(-tableLocations.size());
+    }
+  }
+
+  /**
+   * @return the number of locations cached for the table
+   */
+  int getNumberOfCachedRegionLocations(final TableName tableName) {
+    Map<byte[], Entry> tableLocations = cachedRegionLocations.get(tableName);
+    return tableLocations == null ? 0 : tableLocations.size();
+  }
+
+  /**
+   * @return the number of locations cached over all tables
+   */
+  int size() {
+    return size.get();
+  }
+
+  long getHitCount() {
+    return hits.get();
+  }
+
+  long getMissCount() {
+    return misses.get();
+  }
+
+  long getEvictionCount() {
+    return evictions.get();
+  }
+}
@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.Pair;
 
@@ -40,6 +41,10 @@ public class MultiResponse {
   private Map<byte[], List<Pair<Integer, Object>>> results =
       new TreeMap<byte[], List<Pair<Integer, Object>>>(Bytes.BYTES_COMPARATOR);
 
+  // map of regionName to the load the server reported for it
+  private Map<byte[], RegionLoadStats> statistics =
+      new TreeMap<byte[], RegionLoadStats>(Bytes.BYTES_COMPARATOR);
+
   public MultiResponse() {
     super();
   }
@@ -80,4 +85,15 @@ public class MultiResponse {
   public Map<byte[], List<Pair<Integer, Object>>> getResults() {
     return results;
   }
+
+  /**
+   * Add the load the server reported for a region
+   */
+  public void addStatistic(byte[] regionName, RegionLoadStats stats) {
+    statistics.put(regionName, stats);
+  }
+
+  public Map<byte[], RegionLoadStats> getStatistics() {
+    return statistics;
+  }
 }
\ No newline at end of file
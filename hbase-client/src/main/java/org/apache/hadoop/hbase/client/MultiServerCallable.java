@@ -115,6 +115,9 @@ class MultiServerCallable<R> extends RegionServerCallable<MultiResponse> {
           PayloadCarryingRpcController controller = new PayloadCarryingRpcController(cells);
           ClientProtos.MultiResponse responseProto = getStub().multi(controller, multiRequest);
           results = ResponseConverter.getResults(responseProto, controller.cellScanner());
+          if (responseProto.hasLoadStats()) {
+            response.addStatistic(regionName, responseProto.getLoadStats());
+          }
         } catch (ServiceException se) {
           ex = ProtobufUtil.getRemoteException(se);
         }
@@ -127,8 +127,11 @@ public class Put extends Mutation implements HeapSize, Comparable<Row> {
     }
     List<Cell> list = getCellList(family);
     KeyValue kv = createPutKeyValue(family, qualifier, ts, value);
+    if (list.isEmpty()) {
+      // First cell of the family: key the list by a copy nobody else can change
+      familyMap.put(CellUtil.cloneFamily(kv), list);
+    }
     list.add(kv);
-    familyMap.put(CellUtil.cloneFamily(kv), list);
     return this;
   }
 
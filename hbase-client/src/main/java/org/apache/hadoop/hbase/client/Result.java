@@ -80,6 +80,8 @@ public class Result implements CellScannable {
   private transient byte [] row = null;
   // Ditto for familyMap.  It can be composed on fly from passed in kvs.
   private transient NavigableMap<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> familyMap = null;
+  // True if this Result holds only part of its row; see Scan#setAllowPartialResults
+  private boolean partial = false;
 
   // never use directly
   private static byte [] buffer = null;
@@ -131,6 +133,53 @@ public class Result implements CellScannable {
     return new Result(cells);
   }
 
+  /**
+   * Instantiate a Result with the specified List of KeyValues.
+   * <br><strong>Note:</strong> You must ensure that the keyvalues are already sorted.
+   * @param cells List of cells
+   * @param partial true if the cells are only part of the row
+   */
+  public static Result create(List<Cell> cells, boolean partial) {
+    Result result = create(cells);
+    result.partial = partial;
+    return result;
+  }
+
+  /**
+   * Instantiate a Result with the specified array of KeyValues.
+   * <br><strong>Note:</strong> You must ensure that the keyvalues are already sorted.
+   * @param cells array of cells
+   * @param partial true if the cells are only part of the row
+   */
+  public static Result create(Cell[] cells, boolean partial) {
+    Result result = create(cells);
+    result.partial = partial;
+    return result;
+  }
+
+  /**
+   * Puts the parts of a row back together.
+   * @param parts consecutive Results of one row, in the order they were returned; all but the
+   *   last should be partial
+   * @return a Result holding the cells of all parts; partial only if the last part was
+   */
+  public static Result createCompleteResult(List<Result> parts) {
+    int size = 0;
+    for (Result part : parts) {
+      size += part.size();
+    }
+    Cell[] cells = new Cell[size];
+    int index = 0;
+    for (Result part : parts) {
+      if (part.isEmpty()) {
+        continue;
+      }
+      System.arraycopy(part.cells, 0, cells, index, part.cells.length);
+      index += part.cells.length;
+    }
+    return create(cells, parts.isEmpty() ? false : parts.get(parts.size() - 1).isPartial());
+  }
+
   /** Private ctor. Use {@link #create(Cell[])}. */
   private Result(Cell[] cells) {
     this.cells = cells;
@@ -732,6 +781,15 @@ public class Result implements CellScannable {
     return this.cells == null? 0: this.cells.length;
   }
 
+  /**
+   * Only scans with {@link Scan#setAllowPartialResults(boolean)} set return partial Results.
+   * @return true if this Result holds only part of its row; the rest of the row is in the
+   *   Result(s) that follow it
+   */
+  public boolean isPartial() {
+    return this.partial;
+  }
+
   /**
    * @return String
    */
@@ -792,6 +850,7 @@ public class Result implements CellScannable {
     this.row = null;
     this.familyMap = null;
     this.cells = other.cells;
+    this.partial = other.partial;
   }
 
   @Override
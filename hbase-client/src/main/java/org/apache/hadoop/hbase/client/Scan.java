@@ -136,6 +136,18 @@ public class Scan extends OperationWithAttributes {
    */
   private boolean small = false;
 
+  /**
+   * If true, rows too large for one response are handed to the application in parts as the
+   * server sends them, rather than reassembled into one Result first.
+   */
+  private boolean allowPartialResults = false;
+
+  /**
+   * Whether the client fetches the next results in the background while the application
+   * consumes the current ones; null means use the client configuration.
+   */
+  private Boolean asyncPrefetch = null;
+
   /**
    * Create a Scan operation across all rows.
    */
@@ -188,6 +200,8 @@ public class Scan extends OperationWithAttributes {
     getScan = scan.isGetScan();
     filter = scan.getFilter(); // clone?
     loadColumnFamiliesOnDemand = scan.getLoadColumnFamiliesOnDemandValue();
+    allowPartialResults = scan.getAllowPartialResults();
+    asyncPrefetch = scan.getAsyncPrefetch();
     TimeRange ctr = scan.getTimeRange();
     tr = new TimeRange(ctr.getMin(), ctr.getMax());
     Map<byte[], NavigableSet<byte[]>> fams = scan.getFamilyMap();
@@ -750,4 +764,53 @@ public class Scan extends OperationWithAttributes {
   public boolean isSmall() {
     return small;
   }
+
+  /**
+   * Set whether the application accepts partial rows.
+   * <p>
+   * A region server stops adding cells to a response once it reaches the max result size,
+   * even in the middle of a row, so that a very wide row never has to be held in memory whole
+   * on the server. By default the client reassembles such a row and hands out one Result.
+   * If set true, the parts are handed out as they arrive instead, with
+   * {@link Result#isPartial()} true on every part but the last one of the row, so the client
+   * does not need to hold the whole row either. If the scanner has to be reopened, for
+   * example because the region moved, the parts of the row being read are handed out again
+   * from its start.
+   * <p>
+   * Unlike {@link #setBatch(int)} this works with filters that need whole rows; rows seen by
+   * such filters are not split.
+   * @param allowPartialResults
+   */
+  public void setAllowPartialResults(final boolean allowPartialResults) {
+    this.allowPartialResults = allowPartialResults;
+  }
+
+  /**
+   * @return true if the application accepts partial rows
+   * @see #setAllowPartialResults(boolean)
+   */
+  public boolean getAllowPartialResults() {
+    return allowPartialResults;
+  }
+
+  /**
+   * Set whether the client should fetch the next results of this scan from the region servers
+   * in the background while the application works through the results it already has.
+   * The amount of data fetched ahead is bounded by
+   * {@link HConstants#HBASE_CLIENT_SCANNER_MAX_PREFETCH_SIZE_KEY}. If not set, the
+   * {@link HConstants#HBASE_CLIENT_SCANNER_ASYNC_PREFETCH_KEY} configuration decides.
+   * @param asyncPrefetch
+   */
+  public void setAsyncPrefetch(final boolean asyncPrefetch) {
+    this.asyncPrefetch = asyncPrefetch;
+  }
+
+  /**
+   * @return whether results are prefetched in the background, or null if the client
+   *   configuration decides
+   * @see #setAsyncPrefetch(boolean)
+   */
+  public Boolean getAsyncPrefetch() {
+    return asyncPrefetch;
+  }
 }
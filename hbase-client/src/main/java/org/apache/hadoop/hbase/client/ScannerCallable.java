@@ -81,6 +81,8 @@ public class ScannerCallable extends RegionServerCallable<Result[]> {
   // indicate if it is a remote server call
   private boolean isRegionServerRemote = true;
   private long nextCallSeq = 0;
+  // set when the last response was cut short by the server's time limit
+  private boolean heartbeatMessage = false;
   
   /**
    * @param connection which connection
@@ -147,6 +149,7 @@ public class ScannerCallable extends RegionServerCallable<Result[]> {
    * @see java.util.concurrent.Callable#call()
    */
   public Result [] call() throws IOException {
+    heartbeatMessage = false;
     if (closed) {
       if (scannerId != -1) {
         close();
@@ -159,7 +162,8 @@ public class ScannerCallable extends RegionServerCallable<Result[]> {
         ScanRequest request = null;
         try {
           incRPCcallsMetrics();
-          request = RequestConverter.buildScanRequest(scannerId, caching, false, nextCallSeq);
+          request = RequestConverter.buildScanRequest(scannerId, caching, false, nextCallSeq,
+            true, true);
           ScanResponse response = null;
           PayloadCarryingRpcController controller = new PayloadCarryingRpcController();
           try {
@@ -174,6 +178,7 @@ public class ScannerCallable extends RegionServerCallable<Result[]> {
             // as the last successfully retrieved row.
             // See HBASE-5974
             nextCallSeq++;
+            heartbeatMessage = response.hasHeartbeatMessage() && response.getHeartbeatMessage();
             long timestamp = System.currentTimeMillis();
             // Results are returned via controller
             CellScanner cellScanner = controller.cellScanner();
@@ -314,6 +319,15 @@ public class ScannerCallable extends RegionServerCallable<Result[]> {
     return scan;
   }
 
+  /**
+   * @return true if the results of the last call were cut short by the server running out of
+   * time before it found the requested rows; the region is not exhausted and the scanner
+   * should be called again
+   */
+  public boolean isHeartbeatMessage() {
+    return heartbeatMessage;
+  }
+
   /**
    * Call this when the next invocation of call should close the scanner
    */
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Tracks the load region servers report with their multi responses for the regions a client
+ * writes to, and turns it into how long to hold back the next writes to them. The load of a
+ * region is the highest of its memstore load, its compaction pressure and the call queue load of
+ * its server, each a percentage of the level at which the server starts blocking writes. Below
+ * {@link #LOAD_THRESHOLD_KEY} percent there is no backoff; above it, the backoff grows with the
+ * square of the load until it reaches {@link #MAX_BACKOFF_KEY} at full load.
+ * <p>
+ * Only regions above the threshold are kept, so the tracker stays as small as the set of loaded
+ * regions.
+ */
+@InterfaceAudience.Private
+class ServerStatisticTracker {
+  public static final String ENABLE_BACKPRESSURE_KEY = "hbase.client.backpressure.enabled";
+  public static final boolean DEFAULT_ENABLE_BACKPRESSURE = false;
+  /** Load, in percent, above which writes to a region are held back. */
+  public static final String LOAD_THRESHOLD_KEY = "hbase.client.backpressure.threshold";
+  public static final int DEFAULT_LOAD_THRESHOLD = 50;
+  /** Longest writes to a fully loaded region are held back, in milliseconds. */
+  public static final String MAX_BACKOFF_KEY = "hbase.client.backpressure.max.backoff";
+  public static final long DEFAULT_MAX_BACKOFF = 1000;
+
+  private final int threshold;
+  private final long maxBackoff;
+  // Load of the regions above the threshold, by region name.
+  private final ConcurrentSkipListMap<byte[], Integer> loadedRegions =
+      new ConcurrentSkipListMap<byte[], Integer>(Bytes.BYTES_COMPARATOR);
+
+  private ServerStatisticTracker(Configuration conf) {
+    this.threshold = Math.min(99, Math.max(0,
+        conf.getInt(LOAD_THRESHOLD_KEY, DEFAULT_LOAD_THRESHOLD)));
+    this.maxBackoff = conf.getLong(MAX_BACKOFF_KEY, DEFAULT_MAX_BACKOFF);
+  }
+
+  /**
+   * @return a tracker, or null if backpressure is not enabled in <code>conf</code>
+   */
+  static ServerStatisticTracker create(Configuration conf) {
+    if (!conf.getBoolean(ENABLE_BACKPRESSURE_KEY, DEFAULT_ENABLE_BACKPRESSURE)) {
+      return null;
+    }
+    return new ServerStatisticTracker(conf);
+  }
+
+  /**
+   * Takes in the load reported in a multi response.
+   */
+  void update(MultiResponse response) {
+    for (Map.Entry<byte[], RegionLoadStats> e : response.getStatistics().entrySet()) {
+      update(e.getKey(), e.getValue());
+    }
+  }
+
+  void update(byte[] regionName, RegionLoadStats stats) {
+    int load = Math.max(stats.getMemstoreLoad(),
+        Math.max(stats.getCompactionPressure(), stats.getCallQueueLoad()));
+    if (load > threshold) {
+      loadedRegions.put(regionName, load);
+    } else {
+      loadedRegions.remove(regionName);
+    }
+  }
+
+  /**
+   * @return true if writes to the region are to be held back
+   */
+  boolean isLoaded(byte[] regionName) {
+    return loadedRegions.containsKey(regionName);
+  }
+
+  /**
+   * @return how long to wait before sending the actions, in milliseconds: the backoff of the
+   *   most loaded of their regions
+   */
+  long getBackoff(MultiAction<?> multi) {
+    if (loadedRegions.isEmpty()) {
+      return 0;
+    }
+    int load = 0;
+    for (byte[] regionName : multi.actions.keySet()) {
+      Integer regionLoad = loadedRegions.get(regionName);
+      if (regionLoad != null && regionLoad > load) {
+        load = regionLoad;
+      }
+    }
+    return getBackoff(load);
+  }
+
+  long getBackoff(int load) {
+    if (load <= threshold) {
+      return 0;
+    }
+    double x = (Math.min(100, load) - threshold) / (100.0 - threshold);
+    return (long) (maxBackoff * x * x);
+  }
+}
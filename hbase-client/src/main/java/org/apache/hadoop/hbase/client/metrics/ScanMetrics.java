@@ -71,6 +71,12 @@ public class ScanMetrics {
    */
   public final AtomicLong sumOfMillisSecBetweenNexts = createCounter("MILLIS_BETWEEN_NEXTS");
 
+  /**
+   * sum of milliseconds the application waited on results being prefetched
+   */
+  public final AtomicLong sumOfMillisSecWaitingForPrefetch =
+      createCounter("MILLIS_WAITING_FOR_PREFETCH");
+
   /**
    * number of NotServingRegionException caught
    */
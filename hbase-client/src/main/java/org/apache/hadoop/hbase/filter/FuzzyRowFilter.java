@@ -23,16 +23,18 @@ import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.classification.InterfaceStability;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.KeyValue;
-import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.exceptions.DeserializationException;
 import org.apache.hadoop.hbase.protobuf.generated.FilterProtos;
 import org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.BytesBytesPair;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.Pair;
+import org.apache.hadoop.hbase.util.UnsafeAccess;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 /**
  * Filters data based on fuzzy row key. Performs fast-forwards during scanning.
@@ -68,23 +70,57 @@ public class FuzzyRowFilter extends FilterBase {
   private List<Pair<byte[], byte[]>> fuzzyKeysData;
   private boolean done = false;
 
+  /**
+   * Rules preprocessed for word-at-a-time matching, in the same order as fuzzyKeysData.
+   */
+  private final FuzzyKey[] fuzzyKeys;
+
+  /**
+   * Index of the rule that matched most recently. Adjacent rows usually match the same rule, so
+   * it is tried first.
+   */
+  private int lastFoundIndex = -1;
+
+  /**
+   * Smallest next row key for each rule, used to answer hints without visiting every rule.
+   */
+  private final RowTracker tracker;
+
   public FuzzyRowFilter(List<Pair<byte[], byte[]>> fuzzyKeysData) {
     this.fuzzyKeysData = fuzzyKeysData;
+    this.fuzzyKeys = new FuzzyKey[fuzzyKeysData.size()];
+    for (int i = 0; i < fuzzyKeys.length; i++) {
+      Pair<byte[], byte[]> fuzzyData = fuzzyKeysData.get(i);
+      fuzzyKeys[i] = new FuzzyKey(fuzzyData.getFirst(), fuzzyData.getSecond());
+    }
+    this.tracker = new RowTracker();
   }
 
-  // TODO: possible improvement: save which fuzzy row key to use when providing a hint
   @Override
   public ReturnCode filterKeyValue(Cell kv) {
-    // TODO add getRow() equivalent to Cell or change satisfies to take b[],o,l style args.
-    KeyValue v = KeyValueUtil.ensureKeyValue(kv);
+    byte[] rowArray = kv.getRowArray();
+    int rowOffset = kv.getRowOffset();
+    int rowLength = kv.getRowLength();
 
-    byte[] rowKey = v.getRow();
     // assigning "worst" result first and looking for better options
     SatisfiesCode bestOption = SatisfiesCode.NO_NEXT;
-    for (Pair<byte[], byte[]> fuzzyData : fuzzyKeysData) {
+    if (lastFoundIndex >= 0) {
       SatisfiesCode satisfiesCode =
-              satisfies(rowKey, fuzzyData.getFirst(), fuzzyData.getSecond());
+          fuzzyKeys[lastFoundIndex].satisfies(rowArray, rowOffset, rowLength);
+      if (satisfiesCode == SatisfiesCode.YES) {
+        return ReturnCode.INCLUDE;
+      }
+      if (satisfiesCode == SatisfiesCode.NEXT_EXISTS) {
+        bestOption = SatisfiesCode.NEXT_EXISTS;
+      }
+    }
+    for (int i = 0; i < fuzzyKeys.length; i++) {
+      if (i == lastFoundIndex) {
+        continue;
+      }
+      SatisfiesCode satisfiesCode = fuzzyKeys[i].satisfies(rowArray, rowOffset, rowLength);
       if (satisfiesCode == SatisfiesCode.YES) {
+        lastFoundIndex = i;
         return ReturnCode.INCLUDE;
       }
 
@@ -92,6 +128,7 @@ public class FuzzyRowFilter extends FilterBase {
         bestOption = SatisfiesCode.NEXT_EXISTS;
       }
     }
+    lastFoundIndex = -1;
 
     if (bestOption == SatisfiesCode.NEXT_EXISTS) {
       return ReturnCode.SEEK_NEXT_USING_HINT;
@@ -104,22 +141,8 @@ public class FuzzyRowFilter extends FilterBase {
 
   @Override
   public Cell getNextCellHint(Cell currentKV) {
-    // TODO make matching Column a cell method or CellUtil method.
-    KeyValue v = KeyValueUtil.ensureKeyValue(currentKV);
-
-    byte[] rowKey = v.getRow();
-    byte[] nextRowKey = null;
     // Searching for the "smallest" row key that satisfies at least one fuzzy row key
-    for (Pair<byte[], byte[]> fuzzyData : fuzzyKeysData) {
-      byte[] nextRowKeyCandidate = getNextForFuzzyRule(rowKey,
-              fuzzyData.getFirst(), fuzzyData.getSecond());
-      if (nextRowKeyCandidate == null) {
-        continue;
-      }
-      if (nextRowKey == null || Bytes.compareTo(nextRowKeyCandidate, nextRowKey) < 0) {
-        nextRowKey = nextRowKeyCandidate;
-      }
-    }
+    byte[] nextRowKey = tracker.nextRow(currentKV);
 
     if (nextRowKey == null) {
       // SHOULD NEVER happen
@@ -133,6 +156,112 @@ public class FuzzyRowFilter extends FilterBase {
     return KeyValue.createFirstOnRow(nextRowKey);
   }
 
+  /**
+   * Keeps, for every fuzzy rule, the smallest row key greater than the last row seen that
+   * satisfies the rule, ordered in a min-heap. Rows only move forward during a scan, so a
+   * candidate stays valid until the scan passes it and only the rules whose candidates were
+   * passed need to be recomputed; the remaining rules are not visited at all.
+   */
+  private class RowTracker {
+    private final PriorityQueue<Pair<byte[], FuzzyKey>> nextRows;
+    private boolean initialized = false;
+
+    RowTracker() {
+      nextRows = new PriorityQueue<Pair<byte[], FuzzyKey>>(Math.max(1, fuzzyKeys.length),
+          new Comparator<Pair<byte[], FuzzyKey>>() {
+            @Override
+            public int compare(Pair<byte[], FuzzyKey> o1, Pair<byte[], FuzzyKey> o2) {
+              return Bytes.compareTo(o1.getFirst(), o2.getFirst());
+            }
+          });
+    }
+
+    /**
+     * @return the smallest row key greater than the row of <code>currentCell</code> that
+     *         satisfies at least one rule, or null if there is none
+     */
+    byte[] nextRow(Cell currentCell) {
+      byte[] rowArray = currentCell.getRowArray();
+      int rowOffset = currentCell.getRowOffset();
+      int rowLength = currentCell.getRowLength();
+      if (!initialized) {
+        for (FuzzyKey fuzzyKey : fuzzyKeys) {
+          updateWith(rowArray, rowOffset, rowLength, fuzzyKey);
+        }
+        initialized = true;
+      } else {
+        while (!nextRows.isEmpty() && Bytes.compareTo(nextRows.peek().getFirst(), 0,
+            nextRows.peek().getFirst().length, rowArray, rowOffset, rowLength) <= 0) {
+          Pair<byte[], FuzzyKey> head = nextRows.poll();
+          updateWith(rowArray, rowOffset, rowLength, head.getSecond());
+        }
+      }
+      return nextRows.isEmpty() ? null : nextRows.peek().getFirst();
+    }
+
+    private void updateWith(byte[] row, int offset, int length, FuzzyKey fuzzyKey) {
+      byte[] nextRowKeyCandidate = getNextForFuzzyRule(row, offset, length,
+          fuzzyKey.maskedKeyBytes, fuzzyKey.keyMeta);
+      if (nextRowKeyCandidate != null) {
+        nextRows.add(new Pair<byte[], FuzzyKey>(nextRowKeyCandidate, fuzzyKey));
+      }
+    }
+  }
+
+  /**
+   * A single fuzzy rule in the forms needed for fast matching: the key with all non-fixed
+   * positions zeroed, and a byte mask that is 0xFF at fixed positions and 0 elsewhere. A row
+   * satisfies the rule iff <code>(row &amp; mask) == maskedKey</code>, which can be checked a
+   * long at a time.
+   */
+  private static class FuzzyKey {
+    final byte[] keyMeta;
+    final byte[] maskedKeyBytes;
+    final byte[] mask;
+
+    FuzzyKey(byte[] keyBytes, byte[] keyMeta) {
+      this.keyMeta = keyMeta;
+      this.maskedKeyBytes = new byte[keyMeta.length];
+      this.mask = new byte[keyMeta.length];
+      for (int i = 0; i < keyMeta.length; i++) {
+        if (keyMeta[i] == 0) {
+          maskedKeyBytes[i] = keyBytes[i];
+          mask[i] = (byte) 0xFF;
+        }
+      }
+    }
+
+    SatisfiesCode satisfies(byte[] row, int offset, int length) {
+      if (row != null && length >= mask.length && UnsafeAccess.isAvailable()) {
+        if (matchesMasked(row, offset)) {
+          return SatisfiesCode.YES;
+        }
+        // Mismatch; the byte-wise pass tells whether a greater row may still match.
+      }
+      return FuzzyRowFilter.satisfies(row, offset, length, maskedKeyBytes, keyMeta);
+    }
+
+    private boolean matchesMasked(byte[] row, int offset) {
+      int len = mask.length;
+      int words = len / Bytes.SIZEOF_LONG;
+      int i = 0;
+      for (; i < words * Bytes.SIZEOF_LONG; i += Bytes.SIZEOF_LONG) {
+        long rowWord = UnsafeAccess.getLong(row, offset + i);
+        long maskWord = UnsafeAccess.getLong(mask, i);
+        long keyWord = UnsafeAccess.getLong(maskedKeyBytes, i);
+        if ((rowWord & maskWord) != keyWord) {
+          return false;
+        }
+      }
+      for (; i < len; i++) {
+        if ((row[offset + i] & mask[i]) != maskedKeyBytes[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
   @Override
   public boolean filterAllRemaining() {
     return done;
@@ -239,7 +368,7 @@ public class FuzzyRowFilter extends FilterBase {
       // (see the code of getNextForFuzzyRule below) by one.
       // Note: if non-fixed byte is already at biggest value, this doesn't allow us to say there's
       //       bigger one that satisfies the rule as it can't be increased.
-      if (fuzzyKeyMeta[i] == 1 && !isMax(fuzzyKeyBytes[i])) {
+      if (fuzzyKeyMeta[i] == 1 && !isMax(row[i + offset])) {
         nextRowKeyCandidateExists = true;
       }
     }
@@ -274,10 +403,17 @@ public class FuzzyRowFilter extends FilterBase {
     int toInc = -1;
 
     boolean increased = false;
+    int increasedAt = -1;
     for (int i = 0; i < result.length; i++) {
+      if (i >= length) {
+        // the row is a prefix of result, which is therefore already greater
+        increased = true;
+        increasedAt = i - 1;
+        break;
+      }
       if (i >= fuzzyKeyMeta.length || fuzzyKeyMeta[i] == 1) {
         result[i] = row[offset + i];
-        if (!isMax(row[i])) {
+        if (!isMax(row[offset + i])) {
           // this is "non-fixed" position and is not at max value, hence we can increase it
           toInc = i;
         }
@@ -286,6 +422,7 @@ public class FuzzyRowFilter extends FilterBase {
           // if setting value for any fixed position increased the original array,
           // we are OK
           increased = true;
+          increasedAt = i;
           break;
         }
         if ((row[i + offset] & 0xFF) > (fuzzyKeyBytes[i] & 0xFF)) {
@@ -302,13 +439,14 @@ public class FuzzyRowFilter extends FilterBase {
         return null;
       }
       result[toInc]++;
+      increasedAt = toInc;
+    }
 
-      // Setting all "non-fixed" positions to zeroes to the right of the one we increased so
-      // that found "next" row key is the smallest possible
-      for (int i = toInc + 1; i < result.length; i++) {
-        if (i >= fuzzyKeyMeta.length || fuzzyKeyMeta[i] == 1) {
-          result[i] = 0;
-        }
+    // Setting all "non-fixed" positions to zeroes to the right of the one we increased so
+    // that found "next" row key is the smallest possible
+    for (int i = increasedAt + 1; i < result.length; i++) {
+      if (i >= fuzzyKeyMeta.length || fuzzyKeyMeta[i] == 1) {
+        result[i] = 0;
       }
     }
 
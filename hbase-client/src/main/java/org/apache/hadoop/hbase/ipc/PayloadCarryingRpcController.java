@@ -17,6 +17,7 @@
  */
 package org.apache.hadoop.hbase.ipc;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.apache.hadoop.classification.InterfaceAudience;
@@ -46,6 +47,12 @@ public class PayloadCarryingRpcController implements RpcController, CellScannabl
    */
   private CellScanner cellScanner;
 
+  /**
+   * Why the call failed, if it did. Only set for calls made through a non-blocking
+   * {@link com.google.protobuf.RpcChannel}; blocking calls throw instead.
+   */
+  private IOException error;
+
   public PayloadCarryingRpcController() {
     this((CellScanner)null);
   }
@@ -69,14 +76,29 @@ public class PayloadCarryingRpcController implements RpcController, CellScannabl
     this.cellScanner = cellScanner;
   }
 
+  /**
+   * Records why the call failed.
+   * @param e the failure
+   */
+  public void setFailed(final IOException e) {
+    this.error = e;
+  }
+
+  /**
+   * @return why the call failed, or null if it did not
+   */
+  public IOException getFailed() {
+    return this.error;
+  }
+
   @Override
   public String errorText() {
-    throw new UnsupportedOperationException();
+    return this.error == null? null: this.error.getMessage();
   }
 
   @Override
   public boolean failed() {
-    throw new UnsupportedOperationException();
+    return this.error != null;
   }
 
   @Override
@@ -91,12 +113,13 @@ public class PayloadCarryingRpcController implements RpcController, CellScannabl
 
   @Override
   public void reset() {
-    throw new UnsupportedOperationException();
+    this.cellScanner = null;
+    this.error = null;
   }
 
   @Override
-  public void setFailed(String arg0) {
-    throw new UnsupportedOperationException();
+  public void setFailed(String reason) {
+    this.error = new IOException(reason);
   }
 
   @Override
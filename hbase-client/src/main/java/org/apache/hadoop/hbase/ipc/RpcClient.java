@@ -21,11 +21,14 @@ package org.apache.hadoop.hbase.ipc;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
@@ -35,6 +38,11 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
 import java.security.PrivilegedExceptionAction;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -42,6 +50,7 @@ import java.util.LinkedList;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -95,6 +104,8 @@ import com.google.protobuf.BlockingRpcChannel;
 import com.google.protobuf.Descriptors.MethodDescriptor;
 import com.google.protobuf.Message;
 import com.google.protobuf.Message.Builder;
+import com.google.protobuf.RpcCallback;
+import com.google.protobuf.RpcChannel;
 import com.google.protobuf.RpcController;
 import com.google.protobuf.ServiceException;
 import com.google.protobuf.TextFormat;
@@ -102,6 +113,11 @@ import com.google.protobuf.TextFormat;
 
 /**
  * Does RPC against a cluster.  Manages connections per regionserver in the cluster.
+ * <p>By default each connection has a thread of its own that reads its responses. With
+ * {@link #READ_THREADPOOL_SIZE_KEY} set, the responses of all connections are instead read by a
+ * small pool of {@link Reader}s, each multiplexing many connections over one selector, so that a
+ * client talking to hundreds of servers does not need hundreds of threads. Either way, calls can
+ * be made blocking or, through {@link #createRpcChannel(ServerName, User, int)}, with a callback.
  * <p>See HBaseServer
  */
 @InterfaceAudience.Private
@@ -132,6 +148,10 @@ public class RpcClient {
 
   private final boolean fallbackAllowed;
 
+  // Null if every connection reads its responses on a thread of its own.
+  private final Reader[] readers;
+  private int currentReader = 0;
+
   final private static String PING_INTERVAL_NAME = "ipc.ping.interval";
   final private static String SOCKET_TIMEOUT = "ipc.socket.timeout";
   final static int DEFAULT_PING_INTERVAL = 60000;  // 1 min
@@ -145,6 +165,14 @@ public class RpcClient {
       "hbase.ipc.client.fallback-to-simple-auth-allowed";
   public static final boolean IPC_CLIENT_FALLBACK_TO_SIMPLE_AUTH_ALLOWED_DEFAULT = false;
 
+  /**
+   * How many threads read responses for all connections; 0, the default, gives each connection
+   * a thread of its own. Connections that use SASL always have their own thread.
+   */
+  public static final String READ_THREADPOOL_SIZE_KEY = "hbase.ipc.client.read.threadpool.size";
+  // How often a Reader looks for timed out calls and idle connections.
+  final static int READER_CHECK_INTERVAL = 100;
+
   // thread-specific RPC timeout, which may override that of what was passed in.
   // This is used to change dynamically the timeout (for read only) when retrying: if
   //  the time allowed for the operation is less than the usual socket timeout, then
@@ -272,9 +300,17 @@ public class RpcClient {
     boolean done;                                 // true when call is done
     long startTime;
     final MethodDescriptor md;
+    // Run once the call completes; null for blocking calls.
+    private final RpcCallback<Call> callback;
 
     protected Call(final MethodDescriptor md, Message param, final CellScanner cells,
         final Message responseDefaultType) {
+      this(md, param, cells, responseDefaultType, null);
+    }
+
+    protected Call(final MethodDescriptor md, Message param, final CellScanner cells,
+        final Message responseDefaultType, final RpcCallback<Call> callback) {
+      this.callback = callback;
       this.param = param;
       this.md = md;
       this.cells = cells;
@@ -292,10 +328,18 @@ public class RpcClient {
     }
 
     /** Indicate when the call is complete and the
-     * value or error are available.  Notifies by default.  */
-    protected synchronized void callComplete() {
-      this.done = true;
-      notify();                                 // notify caller
+     * value or error are available.  Notifies by default, and runs the callback the first time.
+     */
+    protected void callComplete() {
+      boolean first;
+      synchronized (this) {
+        first = !this.done;
+        this.done = true;
+        notify();                               // notify caller
+      }
+      if (first && this.callback != null) {
+        this.callback.run(this);
+      }
     }
 
     /** Set the exception when there is an error.
@@ -372,6 +416,12 @@ public class RpcClient {
       new AtomicBoolean();  // indicate if the connection is closed
     protected IOException closeException; // close reason
 
+    // The Reader that reads our responses, or null if we have a thread of our own.
+    protected volatile Reader reader;
+    // Length prefix and body of the response being read by the Reader.
+    private final ByteBuffer responseLength = ByteBuffer.allocate(4);
+    private ByteBuffer responseBuffer;
+
     Connection(ConnectionId remoteId, final Codec codec, final CompressionCodec compressor)
     throws IOException {
       if (remoteId.getAddress().isUnresolved()) {
@@ -904,8 +954,12 @@ public class RpcClient {
           // update last activity time
           touch();
 
-          // start the receiver thread after the socket connection has been set up
-          start();
+          // start the receiver after the socket connection has been set up
+          if (readers != null && !useSasl && socket.getChannel() != null) {
+            nextReader().add(this);
+          } else {
+            start();
+          }
           return;
         }
       } catch (Throwable t) {
@@ -1016,6 +1070,10 @@ public class RpcClient {
         }
         builder.setMethodName(call.md.getName());
         builder.setRequestParam(call.param != null);
+        if (remoteId.rpcTimeout > 0 && remoteId.rpcTimeout < Integer.MAX_VALUE) {
+          // Lets the server skip the call if it is only run after we have given up on it.
+          builder.setTimeout(remoteId.rpcTimeout);
+        }
         ByteBuffer cellBlock = ipcUtil.buildCellBlock(this.codec, this.compressor, call.cells);
         if (cellBlock != null) {
           CellBlockMeta.Builder cellBlockBuilder = CellBlockMeta.newBuilder();
@@ -1046,55 +1104,7 @@ public class RpcClient {
         // See HBaseServer.Call.setResponse for where we write out the response.
         // Total size of the response.  Unused.  But have to read it in anyways.
         totalSize = in.readInt();
-
-        // Read the header
-        ResponseHeader responseHeader = ResponseHeader.parseDelimitedFrom(in);
-        int id = responseHeader.getCallId();
-        if (LOG.isDebugEnabled()) {
-          LOG.debug(getName() + ": got response header " +
-            TextFormat.shortDebugString(responseHeader) + ", totalSize: " + totalSize + " bytes");
-        }
-        Call call = calls.get(id);
-        if (call == null) {
-          // So we got a response for which we have no corresponding 'call' here on the client-side.
-          // We probably timed out waiting, cleaned up all references, and now the server decides
-          // to return a response.  There is nothing we can do w/ the response at this stage. Clean
-          // out the wire of the response so its out of the way and we can get other responses on
-          // this connection.
-          int readSoFar = IPCUtil.getTotalSizeWhenWrittenDelimited(responseHeader);
-          int whatIsLeftToRead = totalSize - readSoFar;
-          LOG.debug("Unknown callId: " + id + ", skipping over this response of " +
-            whatIsLeftToRead + " bytes");
-          IOUtils.skipFully(in, whatIsLeftToRead);
-        }
-        if (responseHeader.hasException()) {
-          ExceptionResponse exceptionResponse = responseHeader.getException();
-          RemoteException re = createRemoteException(exceptionResponse);
-          if (isFatalConnectionException(exceptionResponse)) {
-            markClosed(re);
-          } else {
-            if (call != null) call.setException(re);
-          }
-        } else {
-          Message value = null;
-          // Call may be null because it may have timedout and been cleaned up on this side already
-          if (call != null && call.responseDefaultType != null) {
-            Builder builder = call.responseDefaultType.newBuilderForType();
-            builder.mergeDelimitedFrom(in);
-            value = builder.build();
-          }
-          CellScanner cellBlockScanner = null;
-          if (responseHeader.hasCellBlockMeta()) {
-            int size = responseHeader.getCellBlockMeta().getLength();
-            byte [] cellBlock = new byte[size];
-            IOUtils.readFully(this.in, cellBlock, 0, cellBlock.length);
-            cellBlockScanner = ipcUtil.createCellScanner(this.codec, this.compressor, cellBlock);
-          }
-          // it's possible that this call may have been cleaned up due to a RPC
-          // timeout, so check if it still exists before setting the value.
-          if (call != null) call.setResponse(value, cellBlockScanner);
-        }
-        if (call != null) calls.remove(id);
+        processResponse(in, totalSize);
       } catch (IOException e) {
         if (e instanceof SocketTimeoutException && remoteId.rpcTimeout > 0) {
           // Clean up open calls but don't treat this as a fatal condition,
@@ -1112,6 +1122,134 @@ public class RpcClient {
       }
     }
 
+    /**
+     * Reads one response off <code>in</code> and completes its call.
+     * @param in stream positioned just past the length prefix of the response
+     * @param totalSize length of the response
+     * @throws IOException
+     */
+    private void processResponse(InputStream in, int totalSize) throws IOException {
+      // Read the header
+      ResponseHeader responseHeader = ResponseHeader.parseDelimitedFrom(in);
+      int id = responseHeader.getCallId();
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(getName() + ": got response header " +
+          TextFormat.shortDebugString(responseHeader) + ", totalSize: " + totalSize + " bytes");
+      }
+      Call call = calls.get(id);
+      if (call == null) {
+        // So we got a response for which we have no corresponding 'call' here on the client-side.
+        // We probably timed out waiting, cleaned up all references, and now the server decides
+        // to return a response.  There is nothing we can do w/ the response at this stage. Clean
+        // out the wire of the response so its out of the way and we can get other responses on
+        // this connection.
+        int readSoFar = IPCUtil.getTotalSizeWhenWrittenDelimited(responseHeader);
+        int whatIsLeftToRead = totalSize - readSoFar;
+        LOG.debug("Unknown callId: " + id + ", skipping over this response of " +
+          whatIsLeftToRead + " bytes");
+        IOUtils.skipFully(in, whatIsLeftToRead);
+        // Fatal errors come with a call id that was never ours.
+        if (responseHeader.hasException() &&
+            isFatalConnectionException(responseHeader.getException())) {
+          markClosed(createRemoteException(responseHeader.getException()));
+        }
+        return;
+      }
+      if (responseHeader.hasException()) {
+        ExceptionResponse exceptionResponse = responseHeader.getException();
+        RemoteException re = createRemoteException(exceptionResponse);
+        if (isFatalConnectionException(exceptionResponse)) {
+          markClosed(re);
+        } else {
+          call.setException(re);
+        }
+      } else {
+        Message value = null;
+        if (call.responseDefaultType != null) {
+          Builder builder = call.responseDefaultType.newBuilderForType();
+          builder.mergeDelimitedFrom(in);
+          value = builder.build();
+        }
+        CellScanner cellBlockScanner = null;
+        if (responseHeader.hasCellBlockMeta()) {
+          int size = responseHeader.getCellBlockMeta().getLength();
+          byte [] cellBlock = new byte[size];
+          IOUtils.readFully(in, cellBlock, 0, cellBlock.length);
+          cellBlockScanner = ipcUtil.createCellScanner(this.codec, this.compressor, cellBlock);
+        }
+        call.setResponse(value, cellBlockScanner);
+      }
+      calls.remove(id);
+    }
+
+    /**
+     * Reads the responses that have arrived on <code>channel</code>, without blocking. Called by
+     * the {@link Reader} of this connection when the channel is readable; a response that has
+     * only partly arrived is kept until the rest comes in.
+     * @param channel the channel of this connection
+     */
+    protected void readResponses(ReadableByteChannel channel) {
+      if (shouldCloseConnection.get()) return;
+      touch();
+      try {
+        while (true) {
+          if (responseBuffer == null) {
+            if (channel.read(responseLength) < 0) {
+              throw new EOFException("Connection to " + server + " closed by peer");
+            }
+            if (responseLength.hasRemaining()) return;
+            responseLength.flip();
+            int totalSize = responseLength.getInt();
+            responseLength.clear();
+            if (totalSize < 0) {
+              throw new IOException("Bad response length " + totalSize + " from " + server);
+            }
+            responseBuffer = ByteBuffer.allocate(totalSize);
+          }
+          if (channel.read(responseBuffer) < 0) {
+            throw new EOFException("Connection to " + server + " closed by peer");
+          }
+          if (responseBuffer.hasRemaining()) return;
+          byte [] response = responseBuffer.array();
+          responseBuffer = null;
+          processResponse(new ByteArrayInputStream(response), response.length);
+        }
+      } catch (IOException e) {
+        markClosed(e);
+      }
+    }
+
+    /**
+     * Housekeeping the thread of a connection does while it waits for responses, done instead by
+     * the {@link Reader} of this connection: times out calls or pings the server, and marks the
+     * connection closed once it has been idle for too long or the client stops.
+     * @param now current time
+     */
+    protected void checkConnection(long now) {
+      if (shouldCloseConnection.get()) return;
+      synchronized (this) {
+        // Synchronized so that no call gets added while we decide to close.
+        if (!running.get()) {
+          markClosed(calls.isEmpty()? null:
+            (IOException)new IOException().initCause(new InterruptedException()));
+          return;
+        }
+        if (calls.isEmpty()) {
+          if (now - lastActivity.get() >= maxIdleTime) markClosed(null);
+          return;
+        }
+      }
+      if (remoteId.rpcTimeout > 0) {
+        cleanupCalls(remoteId.rpcTimeout);
+      } else {
+        try {
+          sendPing();
+        } catch (IOException e) {
+          markClosed(e);
+        }
+      }
+    }
+
     /**
      * @param e
      * @return True if the exception is a fatal connection exception.
@@ -1193,6 +1331,115 @@ public class RpcClient {
     }
   }
 
+  /**
+   * Reads the responses of many connections, multiplexed over one selector, and does the
+   * housekeeping their threads would otherwise do. Responses are handed to waiting callers and
+   * callbacks are run on this thread, so callbacks must not block.
+   */
+  protected class Reader extends Thread {
+    private final Selector readSelector;
+    // Connections set up but not registered with the selector yet.
+    private final ConcurrentLinkedQueue<Connection> pending =
+      new ConcurrentLinkedQueue<Connection>();
+    // Connections registered with the selector. Kept apart from the selector's keys because a
+    // key closed under us leaves those on the next select, before we get to look at it.
+    private final Map<Connection, SelectionKey> registered =
+      new HashMap<Connection, SelectionKey>();
+    private volatile boolean shutdown = false;
+
+    Reader(int index) throws IOException {
+      this.readSelector = Selector.open();
+      setName("IPC Client (" + socketFactory.hashCode() + ") reader " + index);
+      setDaemon(true);
+    }
+
+    /** Starts reading the responses of <code>connection</code>. */
+    void add(Connection connection) {
+      connection.reader = this;
+      pending.add(connection);
+      readSelector.wakeup();
+    }
+
+    /** Stops the reader once the connections it serves are closed. */
+    void shutdown() {
+      shutdown = true;
+      readSelector.wakeup();
+    }
+
+    private void registerPending() {
+      Connection connection;
+      while ((connection = pending.poll()) != null) {
+        try {
+          // The socket is gone if the connection was closed before we got to it.
+          Socket socket = connection.socket;
+          if (socket == null) throw new ClosedChannelException();
+          SocketChannel channel = socket.getChannel();
+          channel.configureBlocking(false);
+          registered.put(connection,
+            channel.register(readSelector, SelectionKey.OP_READ, connection));
+        } catch (IOException e) {
+          connection.markClosed(e);
+          connection.close();
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!shutdown) {
+          registerPending();
+          readSelector.select(READER_CHECK_INTERVAL);
+          Iterator<SelectionKey> iter = readSelector.selectedKeys().iterator();
+          while (iter.hasNext()) {
+            SelectionKey key = iter.next();
+            iter.remove();
+            if (key.isValid() && key.isReadable()) {
+              ((Connection)key.attachment()).readResponses((SocketChannel)key.channel());
+            }
+          }
+          long now = System.currentTimeMillis();
+          Iterator<Entry<Connection, SelectionKey>> connIter = registered.entrySet().iterator();
+          while (connIter.hasNext()) {
+            Entry<Connection, SelectionKey> entry = connIter.next();
+            Connection connection = entry.getKey();
+            if (!entry.getValue().isValid() && !connection.shouldCloseConnection.get()) {
+              // Closed under us; see cancelConnections.
+              connection.markClosed(new IOException("Connection to " +
+                connection.getRemoteAddress() + " was closed"));
+            }
+            connection.checkConnection(now);
+            if (connection.shouldCloseConnection.get()) {
+              entry.getValue().cancel();
+              connIter.remove();
+              connection.close();
+            }
+          }
+        }
+      } catch (Throwable t) {
+        LOG.warn(getName() + ": unexpected exception reading call responses", t);
+      } finally {
+        registerPending();
+        for (Connection connection : registered.keySet()) {
+          connection.markClosed(new IOException("Reader " + getName() + " stopped"));
+          connection.close();
+        }
+        registered.clear();
+        try {
+          readSelector.close();
+        } catch (IOException e) {
+          LOG.debug(getName() + ": failed closing selector", e);
+        }
+      }
+    }
+  }
+
+  /** @return the reader for the next connection, taking them in turn */
+  private synchronized Reader nextReader() {
+    currentReader = (currentReader + 1) % readers.length;
+    return readers[currentReader];
+  }
+
   @edu.umd.cs.findbugs.annotations.SuppressWarnings(value="IS2_INCONSISTENT_SYNC",
     justification="Presume sync not needed setting socket timeout")
   private static void setSocketTimeout(final Socket socket, final int rpcTimeout)
@@ -1248,6 +1495,22 @@ public class RpcClient {
     this.fallbackAllowed = conf.getBoolean(IPC_CLIENT_FALLBACK_TO_SIMPLE_AUTH_ALLOWED_KEY,
         IPC_CLIENT_FALLBACK_TO_SIMPLE_AUTH_ALLOWED_DEFAULT);
     this.localAddr = localAddr;
+    int readThreads = conf.getInt(READ_THREADPOOL_SIZE_KEY, 0);
+    if (readThreads > 0) {
+      this.readers = new Reader[readThreads];
+      try {
+        for (int i = 0; i < readThreads; i++) {
+          this.readers[i] = new Reader(i);
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Failed opening a selector", e);
+      }
+      for (Reader reader : this.readers) {
+        reader.start();
+      }
+    } else {
+      this.readers = null;
+    }
     if (LOG.isDebugEnabled()) {
       LOG.debug("Codec=" + this.codec + ", compressor=" + this.compressor +
         ", tcpKeepAlive=" + this.tcpKeepAlive +
@@ -1256,6 +1519,7 @@ public class RpcClient {
         ", maxRetries=" + this.maxRetries +
         ", fallbackAllowed=" + this.fallbackAllowed +
         ", ping interval=" + this.pingInterval + "ms" +
+        ", readThreads=" + readThreads +
         ", bind address=" + (this.localAddr != null ? this.localAddr : "null"));
     }
   }
@@ -1363,7 +1627,7 @@ public class RpcClient {
     if (LOG.isDebugEnabled()) LOG.debug("Stopping rpc client");
     if (!running.compareAndSet(true, false)) return;
 
-    // wake up all connections
+    // wake up all connections; the readers notice on their own
     synchronized (connections) {
       for (Connection conn : connections.values()) {
         conn.interrupt();
@@ -1377,6 +1641,11 @@ public class RpcClient {
       } catch (InterruptedException ignored) {
       }
     }
+    if (readers != null) {
+      for (Reader reader : readers) {
+        reader.shutdown();
+      }
+    }
   }
 
   /** Make a call, passing <code>param</code>, to the IPC server running at
@@ -1402,9 +1671,7 @@ public class RpcClient {
       int rpcTimeout)
   throws InterruptedException, IOException {
     Call call = new Call(md, param, cells, returnType);
-    Connection connection =
-      getConnection(ticket, call, addr, rpcTimeout, this.codec, this.compressor);
-    connection.writeRequest(call);                 // send the parameter
+    Connection connection = startCall(call, ticket, addr, rpcTimeout);
     boolean interrupted = false;
     //noinspection SynchronizationOnLocalVariableOrMethodParameter
     synchronized (call) {
@@ -1437,6 +1704,36 @@ public class RpcClient {
     }
   }
 
+  /**
+   * Makes a call without waiting for its response. <code>callback</code> is run with the call
+   * once it has a response or has failed, usually on the thread that reads the connection's
+   * responses, so it must not block. It is run exactly once; a call that cannot be sent fails
+   * before this method returns. A new connection is set up on the calling thread.
+   * @see #call(MethodDescriptor, Message, CellScanner, Message, User, InetSocketAddress, int)
+   */
+  void callAsync(MethodDescriptor md, Message param, CellScanner cells,
+      Message returnType, User ticket, InetSocketAddress addr, int rpcTimeout,
+      RpcCallback<Call> callback) {
+    Call call = new Call(md, param, cells, returnType, callback);
+    try {
+      startCall(call, ticket, addr, rpcTimeout);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      call.setException((IOException)new InterruptedIOException().initCause(e));
+    } catch (IOException e) {
+      // Does nothing if the call already failed with its connection.
+      call.setException(e);
+    }
+  }
+
+  private Connection startCall(Call call, User ticket, InetSocketAddress addr, int rpcTimeout)
+  throws InterruptedException, IOException {
+    Connection connection =
+      getConnection(ticket, call, addr, rpcTimeout, this.codec, this.compressor);
+    connection.writeRequest(call);                 // send the parameter
+    return connection;
+  }
+
   /**
    * Take an IOException and the address we were trying to connect to
    * and return an IOException with the input exception as the cause.
@@ -1475,7 +1772,7 @@ public class RpcClient {
   public void cancelConnections(String hostname, int port, IOException ioe) {
     synchronized (connections) {
       for (Connection connection : connections.values()) {
-        if (connection.isAlive() &&
+        if ((connection.isAlive() || connection.reader != null) &&
             connection.getRemoteAddress().getPort() == port &&
             connection.getRemoteAddress().getHostName().equals(hostname)) {
           LOG.info("The server on " + hostname + ":" + port +
@@ -1692,4 +1989,79 @@ public class RpcClient {
         this.isa, this.rpcTimeout);
     }
   }
+
+  /**
+   * Creates a non-blocking "channel" for protobuf service stubs. The callback of a call is run
+   * with the response, or with null if the call failed, in which case the controller, which must
+   * be a {@link PayloadCarryingRpcController}, has the failure. Callbacks run on the thread that
+   * reads responses and must not block.
+   * @param sn
+   * @param ticket
+   * @param rpcTimeout
+   * @return A non-blocking rpc channel that goes via this rpc client instance.
+   */
+  public RpcChannel createRpcChannel(final ServerName sn, final User ticket,
+      final int rpcTimeout) {
+    return new RpcChannelImplementation(this, sn, ticket, rpcTimeout);
+  }
+
+  /**
+   * Non-blocking rpc channel that goes via hbase rpc.
+   */
+  // Public so can be subclassed for tests.
+  public static class RpcChannelImplementation implements RpcChannel {
+    private final InetSocketAddress isa;
+    private final RpcClient rpcClient;
+    private final int rpcTimeout;
+    private final User ticket;
+
+    protected RpcChannelImplementation(final RpcClient rpcClient, final ServerName sn,
+        final User ticket, final int rpcTimeout) {
+      this.isa = new InetSocketAddress(sn.getHostname(), sn.getPort());
+      this.rpcClient = rpcClient;
+      this.rpcTimeout = getRpcTimeout(rpcTimeout);
+      this.ticket = ticket;
+    }
+
+    @Override
+    public void callMethod(MethodDescriptor md, RpcController controller, Message param,
+        Message returnType, final RpcCallback<Message> done) {
+      final PayloadCarryingRpcController pcrc = (PayloadCarryingRpcController)controller;
+      CellScanner cells = null;
+      if (pcrc != null) {
+        cells = pcrc.cellScanner();
+        // Clear it here so we don't by mistake try and these cells processing results.
+        pcrc.setCellScanner(null);
+      }
+      this.rpcClient.callAsync(md, param, cells, returnType, this.ticket, this.isa,
+        this.rpcTimeout, new RpcCallback<Call>() {
+          @Override
+          public void run(Call call) {
+            if (call.error != null) {
+              IOException error = call.error instanceof RemoteException? call.error:
+                rpcClient.wrapException(isa, call.error);
+              failed(pcrc, error, done);
+              return;
+            }
+            if (pcrc != null) {
+              pcrc.setCellScanner(call.cells);
+            } else if (call.cells != null) {
+              failed(pcrc, new IOException("Client dropping data on the floor!"), done);
+              return;
+            }
+            done.run(call.response);
+          }
+        });
+    }
+
+    private static void failed(PayloadCarryingRpcController pcrc, IOException e,
+        RpcCallback<Message> done) {
+      if (pcrc != null) {
+        pcrc.setFailed(e);
+      } else {
+        LOG.warn("Call failed with no controller to report it to", e);
+      }
+      done.run(null);
+    }
+  }
 }
@@ -457,21 +457,30 @@ public final class ProtobufUtil {
       }
     } else {
       put = new Put(row, timestamp);
-      // The proto has the metadata and the data itself
+      // The proto has the metadata and the data itself. Copy each cell once, straight
+      // from the protobuf buffers into its KeyValue.
+      Map<byte[], List<Cell>> familyMap = put.getFamilyCellMap();
       for (ColumnValue column: proto.getColumnValueList()) {
         byte[] family = column.getFamily().toByteArray();
+        List<Cell> cells = familyMap.get(family);
+        if (cells == null) {
+          cells = new ArrayList<Cell>(column.getQualifierValueCount());
+          familyMap.put(family, cells);
+        }
         for (QualifierValue qv: column.getQualifierValueList()) {
-          byte[] qualifier = qv.getQualifier().toByteArray();
           if (!qv.hasValue()) {
             throw new DoNotRetryIOException(
                 "Missing required field: qualifer value");
           }
-          byte[] value = qv.getValue().toByteArray();
           long ts = timestamp;
           if (qv.hasTimestamp()) {
             ts = qv.getTimestamp();
           }
-          put.add(family, qualifier, ts, value);
+          if (ts < 0) {
+            throw new IllegalArgumentException("Timestamp cannot be negative. ts=" + ts);
+          }
+          cells.add(toKeyValue(proto.getRow(), family, qv.getQualifier(), ts,
+              KeyValue.Type.Put, qv.getValue()));
         }
       }
     }
@@ -482,6 +491,41 @@ public final class ProtobufUtil {
     return put;
   }
 
+  /**
+   * Builds a KeyValue from protobuf buffers, copying each of them once into the
+   * backing array of the KeyValue.
+   */
+  private static KeyValue toKeyValue(final ByteString row, final byte[] family,
+      final ByteString qualifier, final long timestamp, final KeyValue.Type type,
+      final ByteString value) {
+    int rlength = row.size();
+    int flength = family.length;
+    int qlength = qualifier.size();
+    int vlength = value.size();
+    if (rlength > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Row > " + Short.MAX_VALUE);
+    }
+    if (flength > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Family > " + Byte.MAX_VALUE);
+    }
+    byte[] bytes = new byte[(int) KeyValue.getKeyValueDataStructureSize(rlength, flength,
+        qlength, vlength)];
+    int pos = Bytes.putInt(bytes, 0, (int) KeyValue.getKeyDataStructureSize(rlength, flength,
+        qlength));
+    pos = Bytes.putInt(bytes, pos, vlength);
+    pos = Bytes.putShort(bytes, pos, (short) rlength);
+    row.copyTo(bytes, pos);
+    pos += rlength;
+    pos = Bytes.putByte(bytes, pos, (byte) flength);
+    pos = Bytes.putBytes(bytes, pos, family, 0, flength);
+    qualifier.copyTo(bytes, pos);
+    pos += qlength;
+    pos = Bytes.putLong(bytes, pos, timestamp);
+    pos = Bytes.putByte(bytes, pos, type.getCode());
+    value.copyTo(bytes, pos);
+    return new KeyValue(bytes, 0, bytes.length);
+  }
+
   /**
    * Convert a protocol buffer Mutate to a Delete
    *
@@ -722,6 +766,12 @@ public final class ProtobufUtil {
     if (scan.isSmall()) {
       scanBuilder.setSmall(scan.isSmall());
     }
+    if (scan.getAllowPartialResults()) {
+      scanBuilder.setAllowPartialResults(scan.getAllowPartialResults());
+    }
+    if (scan.getAsyncPrefetch() != null) {
+      scanBuilder.setAsyncPrefetch(scan.getAsyncPrefetch().booleanValue());
+    }
     Boolean loadColumnFamiliesOnDemand = scan.getLoadColumnFamiliesOnDemandValue();
     if (loadColumnFamiliesOnDemand != null) {
       scanBuilder.setLoadColumnFamiliesOnDemand(loadColumnFamiliesOnDemand.booleanValue());
@@ -837,6 +887,12 @@ public final class ProtobufUtil {
     if (proto.hasSmall()) {
       scan.setSmall(proto.getSmall());
     }
+    if (proto.hasAllowPartialResults()) {
+      scan.setAllowPartialResults(proto.getAllowPartialResults());
+    }
+    if (proto.hasAsyncPrefetch()) {
+      scan.setAsyncPrefetch(proto.getAsyncPrefetch());
+    }
     for (NameBytesPair attribute: proto.getAttributeList()) {
       scan.setAttribute(attribute.getName(), attribute.getValue().toByteArray());
     }
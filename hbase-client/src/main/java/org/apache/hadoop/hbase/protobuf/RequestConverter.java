@@ -30,6 +30,7 @@ import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.ServerName;
 import org.apache.hadoop.hbase.client.Action;
 import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Increment;
@@ -475,11 +476,30 @@ public final class RequestConverter {
    */
   public static ScanRequest buildScanRequest(final long scannerId, final int numberOfRows,
       final boolean closeScanner, final long nextCallSeq) {
+    return buildScanRequest(scannerId, numberOfRows, closeScanner, nextCallSeq, false, false);
+  }
+
+  /**
+   * Create a protocol buffer ScanRequest for a scanner id
+   *
+   * @param scannerId
+   * @param numberOfRows
+   * @param closeScanner
+   * @param nextCallSeq
+   * @param clientHandlesHeartbeats whether the server may cut the response short on time
+   * @param clientHandlesPartials whether the server may return part of a row
+   * @return a scan request
+   */
+  public static ScanRequest buildScanRequest(final long scannerId, final int numberOfRows,
+      final boolean closeScanner, final long nextCallSeq, final boolean clientHandlesHeartbeats,
+      final boolean clientHandlesPartials) {
     ScanRequest.Builder builder = ScanRequest.newBuilder();
     builder.setNumberOfRows(numberOfRows);
     builder.setCloseScanner(closeScanner);
     builder.setScannerId(scannerId);
     builder.setNextCallSeq(nextCallSeq);
+    builder.setClientHandlesHeartbeats(clientHandlesHeartbeats);
+    builder.setClientHandlesPartials(clientHandlesPartials);
     return builder.build();
   }
 
@@ -534,6 +554,12 @@ public final class RequestConverter {
         protoAction.setMutation(ProtobufUtil.toMutation(MutationType.APPEND, (Append)row));
       } else if (row instanceof Increment) {
         protoAction.setMutation(ProtobufUtil.toMutation((Increment)row));
+      } else if (row instanceof CheckAndMutate) {
+        CheckAndMutate cam = (CheckAndMutate)row;
+        Mutation m = cam.getMutation();
+        protoAction.setMutation(ProtobufUtil.toMutation(
+          m instanceof Put ? MutationType.PUT : MutationType.DELETE, m));
+        protoAction.setCondition(buildCondition(cam));
       } else if (row instanceof RowMutations) {
         continue; // ignore RowMutations
       } else {
@@ -597,6 +623,18 @@ public final class RequestConverter {
         Increment i = (Increment)row;
         cells.add(i);
         protoAction.setMutation(ProtobufUtil.toMutationNoData(MutationType.INCREMENT, i));
+      } else if (row instanceof CheckAndMutate) {
+        CheckAndMutate cam = (CheckAndMutate)row;
+        Mutation m = cam.getMutation();
+        MutationType type = m instanceof Put ? MutationType.PUT : MutationType.DELETE;
+        // As for a Delete above, a mutation with no cells goes fully pb'd.
+        if (m.size() > 0) {
+          cells.add(m);
+          protoAction.setMutation(ProtobufUtil.toMutationNoData(type, m));
+        } else {
+          protoAction.setMutation(ProtobufUtil.toMutation(type, m));
+        }
+        protoAction.setCondition(buildCondition(cam));
       } else if (row instanceof RowMutations) {
         continue; // ignore RowMutations
       } else {
@@ -904,6 +942,20 @@ public final class RequestConverter {
     return regionBuilder.build();
   }
 
+  /**
+   * Create a protocol buffer Condition for the check of a CheckAndMutate
+   *
+   * @param checkAndMutate
+   * @return a Condition
+   * @throws IOException
+   */
+  private static Condition buildCondition(final CheckAndMutate checkAndMutate)
+  throws IOException {
+    return buildCondition(checkAndMutate.getRow(), checkAndMutate.getFamily(),
+      checkAndMutate.getQualifier(), checkAndMutate.getComparator(),
+      CompareType.valueOf(checkAndMutate.getCompareOp().name()));
+  }
+
   /**
    * Create a protocol buffer Condition
    *
@@ -70,7 +70,8 @@ public final class ResponseConverter {
    *
    * @param proto the protocol buffer MultiResponse to convert
    * @param cells Cells to go with the passed in <code>proto</code>.  Can be null.
-   * @return the results that were in the MultiResponse (a Result or an Exception).
+   * @return the results that were in the MultiResponse (a Result, a Boolean for a conditional
+   *   mutation, or an Exception).
    * @throws IOException
    */
   public static List<Object> getResults(final ClientProtos.MultiResponse proto,
@@ -82,6 +83,8 @@ public final class ResponseConverter {
       ActionResult result = resultList.get(i);
       if (result.hasException()) {
         results.add(ProtobufUtil.toException(result.getException()));
+      } else if (result.hasProcessed()) {
+        results.add(Boolean.valueOf(result.getProcessed()));
       } else if (result.hasValue()) {
         ClientProtos.Result value = result.getValue();
         results.add(ProtobufUtil.toResult(value, cells));
@@ -92,6 +95,16 @@ public final class ResponseConverter {
     return results;
   }
 
+  /**
+   * Create an action result for a conditional mutation.
+   *
+   * @param processed whether the mutation was applied
+   * @return an action result
+   */
+  public static ActionResult buildActionResult(final boolean processed) {
+    return ActionResult.newBuilder().setProcessed(processed).build();
+  }
+
   /**
    * Wrap a throwable to an action result.
    *
@@ -309,12 +322,23 @@ public final class ResponseConverter {
           }
           cells.add(cellScanner.current());
         }
-        results[i] = Result.create(cells);
+        results[i] = Result.create(cells, isPartial(response, i));
       } else {
         // Result is pure pb.
         results[i] = ProtobufUtil.toResult(response.getResults(i));
+        if (isPartial(response, i)) {
+          results[i] = Result.create(results[i].rawCells(), true);
+        }
       }
     }
     return results;
   }
+
+  /**
+   * @return true if the index'th Result of the response holds only part of its row
+   */
+  private static boolean isPartial(ScanResponse response, int index) {
+    return index < response.getPartialFlagPerResultCount()
+        && response.getPartialFlagPerResult(index);
+  }
 }
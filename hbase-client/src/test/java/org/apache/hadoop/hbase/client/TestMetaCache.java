@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestMetaCache {
+  private static final TableName TABLE = TableName.valueOf("t");
+  private static final ServerName SN1 = new ServerName("host1", 1, 1);
+  private static final ServerName SN2 = new ServerName("host2", 1, 1);
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() {
+    conf = HBaseConfiguration.create();
+  }
+
+  private static HRegionLocation location(String start, String end, ServerName sn, long seqNum) {
+    HRegionInfo hri = new HRegionInfo(TABLE,
+        start == null ? HConstants.EMPTY_START_ROW : Bytes.toBytes(start),
+        end == null ? HConstants.EMPTY_END_ROW : Bytes.toBytes(end));
+    return new HRegionLocation(hri, sn, seqNum);
+  }
+
+  @Test
+  public void testLookup() {
+    MetaCache cache = new MetaCache(conf);
+    HRegionLocation first = location(null, "b", SN1, 1);
+    HRegionLocation third = location("c", null, SN2, 1);
+    cache.cacheLocation(TABLE, null, first);
+    cache.cacheLocation(TABLE, null, third);
+    assertSame(first, cache.getCachedLocation(TABLE, Bytes.toBytes("a")));
+    // The hole between b and c is not cached.
+    assertNull(cache.getCachedLocation(TABLE, Bytes.toBytes("b")));
+    assertSame(third, cache.getCachedLocation(TABLE, Bytes.toBytes("zzz")));
+    assertNull(cache.getCachedLocation(TableName.valueOf("other"), Bytes.toBytes("a")));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.getNumberOfCachedRegionLocations(TABLE));
+  }
+
+  @Test
+  public void testStaleUpdates() {
+    MetaCache cache = new MetaCache(conf);
+    HRegionLocation current = location(null, null, SN1, 10);
+    cache.cacheLocation(TABLE, null, current);
+    // An older meta record does not replace a newer location.
+    cache.cacheLocation(TABLE, null, location(null, null, SN2, 5));
+    assertSame(current, cache.getCachedLocation(TABLE, Bytes.toBytes("a")));
+    // A redirect from the server we have cached is taken whatever its seqNum.
+    HRegionLocation moved = location(null, null, SN2, 5);
+    cache.cacheLocation(TABLE, current, moved);
+    assertSame(moved, cache.getCachedLocation(TABLE, Bytes.toBytes("a")));
+    // An error from a server we no longer have cached does not delete the entry.
+    assertNull(cache.clearCache(moved.getRegionInfo(), current));
+    assertSame(moved, cache.clearCache(moved.getRegionInfo(), moved));
+    assertNull(cache.getCachedLocation(TABLE, Bytes.toBytes("a")));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testClearByServer() {
+    MetaCache cache = new MetaCache(conf);
+    cache.cacheLocation(TABLE, null, location(null, "b", SN1, 1));
+    cache.cacheLocation(TABLE, null, location("b", "c", SN2, 1));
+    cache.cacheLocation(TABLE, null, location("c", null, SN1, 1));
+    assertTrue(cache.clearCache(SN1));
+    assertEquals(1, cache.size());
+    assertNotNull(cache.getCachedLocation(TABLE, Bytes.toBytes("b")));
+    // Nothing is cached for it anymore.
+    assertEquals(false, cache.clearCache(SN1));
+    cache.clearCache(TABLE);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testBounded() {
+    conf.setInt(MetaCache.MAX_SIZE_KEY, 10);
+    MetaCache cache = new MetaCache(conf);
+    cache.cacheLocation(TABLE, null, location(null, "0000", SN1, 1));
+    for (int i = 0; i < 100; i++) {
+      // Keep reading the first region while the others come and go.
+      assertNotNull(cache.getCachedLocation(TABLE, Bytes.toBytes("")));
+      cache.cacheLocation(TABLE, null,
+          location(String.format("%04d", i), String.format("%04d", i + 1), SN1, 1));
+      assertTrue(cache.size() <= 10);
+    }
+    assertEquals(10, cache.getNumberOfCachedRegionLocations(TABLE));
+    assertEquals(91, cache.getEvictionCount());
+    assertNotNull(cache.getCachedLocation(TABLE, Bytes.toBytes("")));
+    // The latest regions are still there.
+    assertNotNull(cache.getCachedLocation(TABLE, Bytes.toBytes("0099")));
+  }
+}
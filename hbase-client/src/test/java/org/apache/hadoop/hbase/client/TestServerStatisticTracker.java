@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestServerStatisticTracker {
+  private static final byte[] REGION1 = Bytes.toBytes("region1");
+  private static final byte[] REGION2 = Bytes.toBytes("region2");
+
+  private Configuration conf;
+
+  @Before
+  public void setUp() {
+    conf = HBaseConfiguration.create();
+    conf.setBoolean(ServerStatisticTracker.ENABLE_BACKPRESSURE_KEY, true);
+    conf.setInt(ServerStatisticTracker.LOAD_THRESHOLD_KEY, 50);
+    conf.setLong(ServerStatisticTracker.MAX_BACKOFF_KEY, 1000);
+  }
+
+  private static MultiAction<Row> multi(byte[]... regions) {
+    MultiAction<Row> multi = new MultiAction<Row>();
+    for (int i = 0; i < regions.length; i++) {
+      multi.add(regions[i], new Action<Row>(new Put(Bytes.toBytes(i)), i));
+    }
+    return multi;
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    assertNull(ServerStatisticTracker.create(HBaseConfiguration.create()));
+    assertNotNull(ServerStatisticTracker.create(conf));
+  }
+
+  @Test
+  public void testBackoff() {
+    ServerStatisticTracker tracker = ServerStatisticTracker.create(conf);
+    assertEquals(0, tracker.getBackoff(0));
+    assertEquals(0, tracker.getBackoff(50));
+    assertEquals(250, tracker.getBackoff(75));
+    assertEquals(1000, tracker.getBackoff(100));
+    assertEquals(1000, tracker.getBackoff(200));
+  }
+
+  @Test
+  public void testUpdate() {
+    ServerStatisticTracker tracker = ServerStatisticTracker.create(conf);
+    MultiResponse response = new MultiResponse();
+    response.addStatistic(REGION1, RegionLoadStats.newBuilder().setMemstoreLoad(10)
+        .setCompactionPressure(75).build());
+    response.addStatistic(REGION2, RegionLoadStats.newBuilder().setCallQueueLoad(40).build());
+    tracker.update(response);
+    assertTrue(tracker.isLoaded(REGION1));
+    assertFalse(tracker.isLoaded(REGION2));
+    // The most loaded region of the multi decides.
+    assertEquals(250, tracker.getBackoff(multi(REGION1, REGION2)));
+    assertEquals(0, tracker.getBackoff(multi(REGION2)));
+
+    // The region is not loaded anymore once the server says so.
+    response = new MultiResponse();
+    response.addStatistic(REGION1, RegionLoadStats.newBuilder().setMemstoreLoad(20).build());
+    tracker.update(response);
+    assertFalse(tracker.isLoaded(REGION1));
+    assertEquals(0, tracker.getBackoff(multi(REGION1, REGION2)));
+  }
+}
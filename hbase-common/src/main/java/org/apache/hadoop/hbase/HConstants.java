@@ -561,6 +561,31 @@ public final class HConstants {
    */
   public static long DEFAULT_HBASE_CLIENT_SCANNER_MAX_RESULT_SIZE = Long.MAX_VALUE;
 
+  /**
+   * Parameter name for whether client scanners fetch the next results in the
+   * background while the application consumes the current ones.
+   */
+  public static final String HBASE_CLIENT_SCANNER_ASYNC_PREFETCH_KEY =
+      "hbase.client.scanner.async.prefetch";
+
+  /**
+   * Default is to fetch results only when the application asks for them.
+   */
+  public static final boolean DEFAULT_HBASE_CLIENT_SCANNER_ASYNC_PREFETCH = false;
+
+  /**
+   * Parameter name for the number of bytes of results a prefetching client
+   * scanner may hold that the application has not consumed yet. A prefetch
+   * is started only while less than this is held.
+   */
+  public static final String HBASE_CLIENT_SCANNER_MAX_PREFETCH_SIZE_KEY =
+      "hbase.client.scanner.max.prefetch.size";
+
+  /**
+   * Default number of bytes of results a prefetching client scanner may hold.
+   */
+  public static final long DEFAULT_HBASE_CLIENT_SCANNER_MAX_PREFETCH_SIZE = 8 * 1024 * 1024;
+
   /**
    * Parameter name for client pause value, used mostly as value to wait
    * before running a retry of a failed get, region lookup, etc.
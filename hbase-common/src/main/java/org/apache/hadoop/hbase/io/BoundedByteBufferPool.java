@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A pool of heap {@link ByteBuffer}s for reuse, so that short-lived large buffers do not have to
+ * be allocated and collected over and over. Buffers come in power of two size classes from
+ * <code>minBufferSize</code> up to <code>maxBufferSize</code>; a request is served from the
+ * smallest class that fits it. Requests bigger than <code>maxBufferSize</code> get a newly
+ * allocated buffer that is not pooled. At most <code>maxPoolSize</code> bytes of buffers are
+ * kept; buffers returned beyond that are left to the garbage collector.
+ * <p>
+ * Thread safe. A buffer must not be used after it has been returned.
+ */
+@InterfaceAudience.Private
+public class BoundedByteBufferPool {
+  private final int minBufferSize;
+  private final int maxBufferSize;
+  private final long maxPoolSize;
+  // One queue per size class; class i holds buffers of minBufferSize << i bytes.
+  private final Queue<ByteBuffer>[] buffers;
+  // Bytes held in the queues.
+  private final AtomicLong poolSize = new AtomicLong(0);
+
+  /**
+   * @param minBufferSize capacity of the smallest buffers handed out; rounded up to a power of
+   *   two
+   * @param maxBufferSize capacity of the biggest buffers kept for reuse
+   * @param maxPoolSize the most bytes of buffers to keep for reuse
+   */
+  @SuppressWarnings("unchecked")
+  public BoundedByteBufferPool(int minBufferSize, int maxBufferSize, long maxPoolSize) {
+    Preconditions.checkArgument(minBufferSize > 0, "minBufferSize must be positive");
+    this.minBufferSize = roundUpToPowerOfTwo(minBufferSize);
+    Preconditions.checkArgument(maxBufferSize >= this.minBufferSize,
+      "maxBufferSize must be at least minBufferSize rounded up to a power of two");
+    this.maxBufferSize = maxBufferSize;
+    this.maxPoolSize = maxPoolSize;
+    int classes = 1;
+    while ((long) this.minBufferSize << classes <= maxBufferSize) {
+      classes++;
+    }
+    this.buffers = new Queue[classes];
+    for (int i = 0; i < classes; i++) {
+      this.buffers[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+    }
+  }
+
+  /**
+   * @param size the number of bytes needed
+   * @return a heap buffer with position zero and limit <code>size</code>; its capacity may be
+   *   bigger. Its content is undefined.
+   */
+  public ByteBuffer getBuffer(int size) {
+    int sizeClass = sizeClass(size);
+    if (sizeClass < 0) {
+      return ByteBuffer.allocate(size);
+    }
+    ByteBuffer buffer = buffers[sizeClass].poll();
+    if (buffer != null) {
+      poolSize.addAndGet(-buffer.capacity());
+    } else {
+      buffer = ByteBuffer.allocate(minBufferSize << sizeClass);
+    }
+    buffer.clear();
+    buffer.limit(size);
+    return buffer;
+  }
+
+  /**
+   * Hands a buffer back for reuse. Buffers that were not handed out by this pool, or that do not
+   * fit in the pool, are dropped.
+   * @param buffer a buffer from {@link #getBuffer(int)} that the caller is done with
+   */
+  public void putBuffer(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (buffer.isDirect() || capacity < minBufferSize || capacity > maxBufferSize
+        || Integer.bitCount(capacity) != 1) {
+      return;
+    }
+    if (poolSize.addAndGet(capacity) > maxPoolSize) {
+      poolSize.addAndGet(-capacity);
+      return;
+    }
+    buffers[Integer.numberOfTrailingZeros(capacity / minBufferSize)].offer(buffer);
+  }
+
+  /**
+   * @return bytes of buffers currently kept for reuse
+   */
+  public long getPoolSize() {
+    return poolSize.get();
+  }
+
+  /**
+   * @return index of the smallest size class that holds <code>size</code> bytes, or -1 if no
+   *   size class is big enough
+   */
+  private int sizeClass(int size) {
+    if (size > maxBufferSize) {
+      return -1;
+    }
+    int sizeClass = 0;
+    while (minBufferSize << sizeClass < size) {
+      sizeClass++;
+    }
+    return sizeClass < buffers.length ? sizeClass : -1;
+  }
+
+  private static int roundUpToPowerOfTwo(int n) {
+    int highest = Integer.highestOneBit(n);
+    return highest == n ? n : highest << 1;
+  }
+}
@@ -50,6 +50,17 @@ public class ByteBufferOutputStream extends OutputStream {
     }
   }
 
+  /**
+   * Writes into <code>bb</code>, starting at its beginning, until it fills up; after that the
+   * content is moved to a new, bigger buffer. Use {@link #getByteBuffer()} to find out which
+   * buffer ended up holding the output.
+   * @param bb the buffer to write into; cleared first
+   */
+  public ByteBufferOutputStream(final ByteBuffer bb) {
+    this.buf = bb;
+    this.buf.clear();
+  }
+
   public int size() {
     return buf.position();
   }
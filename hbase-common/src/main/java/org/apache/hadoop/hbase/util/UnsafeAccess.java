@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.util;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+
+import sun.misc.Unsafe;
+
+/**
+ * Exposes the {@link Unsafe} instance that {@link Bytes} uses for its fast
+ * lexicographical comparer so other word-at-a-time byte array routines can
+ * share it. Callers must check {@link #isAvailable()} and fall back to a pure
+ * Java implementation when it returns false.
+ */
+@InterfaceAudience.Private
+public final class UnsafeAccess {
+
+  private static final Unsafe theUnsafe;
+
+  /** The offset to the first element in a byte array. */
+  private static final int BYTE_ARRAY_BASE_OFFSET;
+
+  static {
+    Unsafe unsafe = null;
+    int baseOffset = 0;
+    try {
+      unsafe = Bytes.LexicographicalComparerHolder.UnsafeComparer.theUnsafe;
+      baseOffset = Bytes.LexicographicalComparerHolder.UnsafeComparer.BYTE_ARRAY_BASE_OFFSET;
+    } catch (Throwable t) { // the comparer throws Error from its static init if unavailable
+      unsafe = null;
+    }
+    theUnsafe = unsafe;
+    BYTE_ARRAY_BASE_OFFSET = baseOffset;
+  }
+
+  private UnsafeAccess() {
+  }
+
+  /**
+   * @return true if {@link Unsafe} could be obtained and the word-at-a-time
+   *   accessors in this class may be used
+   */
+  public static boolean isAvailable() {
+    return theUnsafe != null;
+  }
+
+  /**
+   * Reads eight bytes starting at <code>offset</code> as a long in native
+   * byte order. No bounds checking is done; the caller must ensure that
+   * <code>offset + Bytes.SIZEOF_LONG &lt;= bytes.length</code>.
+   * @param bytes array to read from
+   * @param offset position of the first byte to read
+   * @return the eight bytes as a native order long
+   */
+  public static long getLong(byte[] bytes, int offset) {
+    return theUnsafe.getLong(bytes, BYTE_ARRAY_BASE_OFFSET + (long) offset);
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hadoop.hbase.SmallTests;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestBoundedByteBufferPool {
+  private static final int MIN = 1024;
+  private static final int MAX = 16 * 1024;
+
+  @Test
+  public void testSizeClasses() {
+    BoundedByteBufferPool pool = new BoundedByteBufferPool(MIN, MAX, 1024 * 1024);
+    ByteBuffer bb = pool.getBuffer(10);
+    assertEquals(MIN, bb.capacity());
+    assertEquals(0, bb.position());
+    assertEquals(10, bb.limit());
+    assertEquals(4 * 1024, pool.getBuffer(3000).capacity());
+    assertEquals(MAX, pool.getBuffer(MAX).capacity());
+    // Too big to pool; sized exactly.
+    assertEquals(MAX + 1, pool.getBuffer(MAX + 1).capacity());
+  }
+
+  @Test
+  public void testReuse() {
+    BoundedByteBufferPool pool = new BoundedByteBufferPool(MIN, MAX, 1024 * 1024);
+    ByteBuffer bb = pool.getBuffer(5000);
+    bb.put((byte) 1);
+    pool.putBuffer(bb);
+    assertEquals(8 * 1024, pool.getPoolSize());
+    // Any request in the same size class gets the buffer back, reset.
+    ByteBuffer again = pool.getBuffer(8000);
+    assertSame(bb, again);
+    assertEquals(0, again.position());
+    assertEquals(8000, again.limit());
+    assertEquals(0, pool.getPoolSize());
+    // A smaller class does not.
+    pool.putBuffer(again);
+    assertNotSame(bb, pool.getBuffer(100));
+  }
+
+  @Test
+  public void testBounds() {
+    BoundedByteBufferPool pool = new BoundedByteBufferPool(MIN, MAX, 2 * MAX);
+    ByteBuffer first = pool.getBuffer(MAX);
+    ByteBuffer second = pool.getBuffer(MAX);
+    ByteBuffer third = pool.getBuffer(MAX);
+    pool.putBuffer(first);
+    pool.putBuffer(second);
+    // Over the pool size; dropped.
+    pool.putBuffer(third);
+    assertEquals(2 * MAX, pool.getPoolSize());
+    // Not from the pool; dropped.
+    pool.putBuffer(ByteBuffer.allocate(MAX + 1));
+    pool.putBuffer(ByteBuffer.allocate(3000));
+    pool.putBuffer(ByteBuffer.allocateDirect(MIN));
+    assertEquals(2 * MAX, pool.getPoolSize());
+  }
+}
@@ -51,6 +51,27 @@ public interface MetricsHBaseServerSource extends BaseSource {
   String REPLICATION_QUEUE_DESC =
       "Number of calls in the replication call queue.";
   String PRIORITY_QUEUE_DESC = "Number of calls in the priority call queue.";
+  String READ_QUEUE_NAME = "numCallsInReadQueue";
+  String READ_QUEUE_DESC = "Number of calls in the read call queues.";
+  String WRITE_QUEUE_NAME = "numCallsInWriteQueue";
+  String WRITE_QUEUE_DESC = "Number of calls in the write call queues.";
+  String SCAN_QUEUE_NAME = "numCallsInScanQueue";
+  String SCAN_QUEUE_DESC = "Number of calls in the scan call queues.";
+  String READ_QUEUE_CALL_TIME_NAME = "readQueueCallTime";
+  String READ_QUEUE_CALL_TIME_DESC = "Time read calls spent in the read call queues.";
+  String WRITE_QUEUE_CALL_TIME_NAME = "writeQueueCallTime";
+  String WRITE_QUEUE_CALL_TIME_DESC = "Time write calls spent in the write call queues.";
+  String SCAN_QUEUE_CALL_TIME_NAME = "scanQueueCallTime";
+  String SCAN_QUEUE_CALL_TIME_DESC = "Time scan calls spent in the scan call queues.";
+  String EXPIRED_CALLS_NAME = "expiredCalls";
+  String EXPIRED_CALLS_DESC =
+      "Number of calls skipped because they waited longer than the client's rpc timeout.";
+  String DISCONNECTED_CALLS_NAME = "disconnectedCalls";
+  String DISCONNECTED_CALLS_DESC =
+      "Number of calls skipped or aborted because the client disconnected.";
+  String THROTTLED_CALLS_NAME = "throttledCalls";
+  String THROTTLED_CALLS_DESC =
+      "Number of calls turned down because their user or table was over quota.";
   String NUM_OPEN_CONNECTIONS_NAME = "numOpenConnections";
   String NUM_OPEN_CONNECTIONS_DESC = "Number of open connections.";
 
@@ -68,5 +89,17 @@ public interface MetricsHBaseServerSource extends BaseSource {
 
   void dequeuedCall(int qTime);
 
+  void dequeuedReadCall(int qTime);
+
+  void dequeuedWriteCall(int qTime);
+
+  void dequeuedScanCall(int qTime);
+
   void processedCall(int processingTime);
+
+  void expiredCall();
+
+  void disconnectedCall();
+
+  void throttledCall();
 }
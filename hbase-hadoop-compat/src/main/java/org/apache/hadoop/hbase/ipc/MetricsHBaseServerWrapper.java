@@ -24,5 +24,8 @@ public interface MetricsHBaseServerWrapper {
   int getGeneralQueueLength();
   int getReplicationQueueLength();
   int getPriorityQueueLength();
+  int getReadQueueLength();
+  int getWriteQueueLength();
+  int getScanQueueLength();
   int getNumOpenConnections();
 }
@@ -158,6 +158,18 @@ public interface MetricsRegionServerSource extends BaseSource {
   String COMPACTION_QUEUE_LENGTH_DESC = "Length of the queue for compactions.";
   String FLUSH_QUEUE_LENGTH = "flushQueueLength";
   String FLUSH_QUEUE_LENGTH_DESC = "Length of the queue for region flushes";
+  String COMPACTION_THROUGHPUT_LIMIT = "compactionThroughputLimit";
+  String COMPACTION_THROUGHPUT_LIMIT_DESC =
+      "Limit on the throughput of compactions, in bytes per second; 0 if there is none.";
+  String COMPACTION_THROUGHPUT = "compactionThroughput";
+  String COMPACTION_THROUGHPUT_DESC =
+      "Throughput of the running compactions, in bytes per second.";
+  String COMPACTION_THROTTLED_TIME = "compactionThrottledTime";
+  String COMPACTION_THROTTLED_TIME_DESC =
+      "Number of MS compactions have slept to keep under the throughput limit.";
+  String FLUSH_THROTTLED_TIME = "flushThrottledTime";
+  String FLUSH_THROTTLED_TIME_DESC =
+      "Number of MS flushes have slept to keep under the throughput limit.";
   String BLOCK_CACHE_FREE_SIZE = "blockCacheFreeSize";
   String BLOCK_CACHE_FREE_DESC =
       "Size of the block cache that is not occupied.";
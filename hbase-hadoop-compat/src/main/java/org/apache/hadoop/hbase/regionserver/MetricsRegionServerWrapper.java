@@ -153,6 +153,26 @@ public interface MetricsRegionServerWrapper {
    */
   int getFlushQueueSize();
 
+  /**
+   * Get the limit on the throughput of compactions, in bytes per second; 0 for none.
+   */
+  long getCompactionThroughputLimit();
+
+  /**
+   * Get the throughput of the running compactions, in bytes per second.
+   */
+  long getCompactionThroughput();
+
+  /**
+   * Get the time compactions have slept for to keep under the throughput limit, in ms.
+   */
+  long getCompactionThrottledTime();
+
+  /**
+   * Get the time flushes have slept for to keep under the throughput limit, in ms.
+   */
+  long getFlushThrottledTime();
+
   /**
    * Get the size of the block cache that is free.
    */
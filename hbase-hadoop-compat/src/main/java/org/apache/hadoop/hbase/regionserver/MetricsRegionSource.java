@@ -27,6 +27,9 @@ public interface MetricsRegionSource extends Comparable<MetricsRegionSource> {
 
   String OPS_SAMPLE_NAME = "ops";
   String SIZE_VALUE_NAME = "size";
+  String ROW_LOCK_WAIT_KEY = "rowLockWaitTime";
+  String COPROCESSOR_HOOK_KEY_PREFIX = "coprocessor.";
+  String COPROCESSOR_HOOK_VALUE_NAME = "time";
 
   /**
    * Close the region's metrics as this region is closing.
@@ -64,6 +67,21 @@ public interface MetricsRegionSource extends Comparable<MetricsRegionSource> {
    */
   void updateAppend();
 
+  /**
+   * Update the histogram of the time spent waiting for a row lock that was
+   * not free.
+   * @param waitTime time waited, in microseconds
+   */
+  void updateRowLockWait(long waitTime);
+
+  /**
+   * Update the time spent in the region observers that implement a coprocessor
+   * hook. Only hooks that run get a metric.
+   * @param hook name of the RegionObserver method
+   * @param time time spent, in microseconds
+   */
+  void updateCoprocessorHook(String hook, long time);
+
   /**
    * Get the aggregate source to which this reports.
    */
@@ -35,8 +35,14 @@ public class MetricsHBaseServerSourceImpl extends BaseSourceImpl
   private final MetricMutableCounterLong authenticationFailures;
   private final MetricMutableCounterLong sentBytes;
   private final MetricMutableCounterLong receivedBytes;
+  private final MetricMutableCounterLong expiredCalls;
+  private final MetricMutableCounterLong disconnectedCalls;
+  private final MetricMutableCounterLong throttledCalls;
   private MetricMutableHistogram queueCallTime;
   private MetricMutableHistogram processCallTime;
+  private MetricMutableHistogram readQueueCallTime;
+  private MetricMutableHistogram writeQueueCallTime;
+  private MetricMutableHistogram scanQueueCallTime;
 
   public MetricsHBaseServerSourceImpl(String metricsName,
                                       String metricsDescription,
@@ -59,10 +65,22 @@ public class MetricsHBaseServerSourceImpl extends BaseSourceImpl
         SENT_BYTES_DESC, 0l);
     this.receivedBytes = this.getMetricsRegistry().newCounter(RECEIVED_BYTES_NAME,
         RECEIVED_BYTES_DESC, 0l);
+    this.expiredCalls = this.getMetricsRegistry().newCounter(EXPIRED_CALLS_NAME,
+        EXPIRED_CALLS_DESC, 0l);
+    this.disconnectedCalls = this.getMetricsRegistry().newCounter(DISCONNECTED_CALLS_NAME,
+        DISCONNECTED_CALLS_DESC, 0l);
+    this.throttledCalls = this.getMetricsRegistry().newCounter(THROTTLED_CALLS_NAME,
+        THROTTLED_CALLS_DESC, 0l);
     this.queueCallTime = this.getMetricsRegistry().newHistogram(QUEUE_CALL_TIME_NAME,
         QUEUE_CALL_TIME_DESC);
     this.processCallTime = this.getMetricsRegistry().newHistogram(PROCESS_CALL_TIME_NAME,
         PROCESS_CALL_TIME_DESC);
+    this.readQueueCallTime = this.getMetricsRegistry().newHistogram(READ_QUEUE_CALL_TIME_NAME,
+        READ_QUEUE_CALL_TIME_DESC);
+    this.writeQueueCallTime = this.getMetricsRegistry().newHistogram(WRITE_QUEUE_CALL_TIME_NAME,
+        WRITE_QUEUE_CALL_TIME_DESC);
+    this.scanQueueCallTime = this.getMetricsRegistry().newHistogram(SCAN_QUEUE_CALL_TIME_NAME,
+        SCAN_QUEUE_CALL_TIME_DESC);
   }
 
   @Override
@@ -100,11 +118,41 @@ public class MetricsHBaseServerSourceImpl extends BaseSourceImpl
     queueCallTime.add(qTime);
   }
 
+  @Override
+  public void dequeuedReadCall(int qTime) {
+    readQueueCallTime.add(qTime);
+  }
+
+  @Override
+  public void dequeuedWriteCall(int qTime) {
+    writeQueueCallTime.add(qTime);
+  }
+
+  @Override
+  public void dequeuedScanCall(int qTime) {
+    scanQueueCallTime.add(qTime);
+  }
+
   @Override
   public void processedCall(int processingTime) {
     processCallTime.add(processingTime);
   }
 
+  @Override
+  public void expiredCall() {
+    expiredCalls.incr();
+  }
+
+  @Override
+  public void disconnectedCall() {
+    disconnectedCalls.incr();
+  }
+
+  @Override
+  public void throttledCall() {
+    throttledCalls.incr();
+  }
+
   @Override
   public void getMetrics(MetricsBuilder metricsBuilder, boolean all) {
     MetricsRecordBuilder mrb = metricsBuilder.addRecord(metricsName)
@@ -115,6 +163,9 @@ public class MetricsHBaseServerSourceImpl extends BaseSourceImpl
           .addGauge(REPLICATION_QUEUE_NAME,
               REPLICATION_QUEUE_DESC, wrapper.getReplicationQueueLength())
           .addGauge(PRIORITY_QUEUE_NAME, PRIORITY_QUEUE_DESC, wrapper.getPriorityQueueLength())
+          .addGauge(READ_QUEUE_NAME, READ_QUEUE_DESC, wrapper.getReadQueueLength())
+          .addGauge(WRITE_QUEUE_NAME, WRITE_QUEUE_DESC, wrapper.getWriteQueueLength())
+          .addGauge(SCAN_QUEUE_NAME, SCAN_QUEUE_DESC, wrapper.getScanQueueLength())
           .addGauge(NUM_OPEN_CONNECTIONS_NAME,
               NUM_OPEN_CONNECTIONS_DESC, wrapper.getNumOpenConnections());
     }
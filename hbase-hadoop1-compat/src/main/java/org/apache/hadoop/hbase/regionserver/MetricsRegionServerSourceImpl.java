@@ -175,6 +175,18 @@ public class MetricsRegionServerSourceImpl
               COMPACTION_QUEUE_LENGTH_DESC,
               rsWrap.getCompactionQueueSize())
           .addGauge(FLUSH_QUEUE_LENGTH, FLUSH_QUEUE_LENGTH_DESC, rsWrap.getFlushQueueSize())
+          .addGauge(COMPACTION_THROUGHPUT_LIMIT,
+              COMPACTION_THROUGHPUT_LIMIT_DESC,
+              rsWrap.getCompactionThroughputLimit())
+          .addGauge(COMPACTION_THROUGHPUT,
+              COMPACTION_THROUGHPUT_DESC,
+              rsWrap.getCompactionThroughput())
+          .addCounter(COMPACTION_THROTTLED_TIME,
+              COMPACTION_THROTTLED_TIME_DESC,
+              rsWrap.getCompactionThrottledTime())
+          .addCounter(FLUSH_THROTTLED_TIME,
+              FLUSH_THROTTLED_TIME_DESC,
+              rsWrap.getFlushThrottledTime())
           .addGauge(BLOCK_CACHE_FREE_SIZE, BLOCK_CACHE_FREE_DESC, rsWrap.getBlockCacheFreeSize())
           .addGauge(BLOCK_CACHE_COUNT, BLOCK_CACHE_COUNT_DESC, rsWrap.getBlockCacheCount())
           .addGauge(BLOCK_CACHE_SIZE, BLOCK_CACHE_SIZE_DESC, rsWrap.getBlockCacheSize())
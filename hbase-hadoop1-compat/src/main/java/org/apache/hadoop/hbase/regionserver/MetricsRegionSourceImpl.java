@@ -18,8 +18,12 @@
 
 package org.apache.hadoop.hbase.regionserver;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.metrics2.MetricHistogram;
 import org.apache.hadoop.metrics2.MetricsRecordBuilder;
 import org.apache.hadoop.metrics2.impl.JmxCacheBuster;
 import org.apache.hadoop.metrics2.lib.DynamicMetricsRegistry;
@@ -41,6 +45,7 @@ public class MetricsRegionSourceImpl implements MetricsRegionSource {
   private String regionIncrementKey;
   private String regionAppendKey;
   private String regionScanNextKey;
+  private String regionRowLockWaitKey;
   private MetricMutableCounterLong regionPut;
   private MetricMutableCounterLong regionDelete;
   private MetricMutableCounterLong regionIncrement;
@@ -48,6 +53,10 @@ public class MetricsRegionSourceImpl implements MetricsRegionSource {
 
   private MetricMutableStat regionGet;
   private MetricMutableStat regionScanNext;
+  private MetricHistogram regionRowLockWait;
+  // Times of the coprocessor hooks that ran, by hook name.
+  private final ConcurrentMap<String, MetricMutableStat> regionHookTimes =
+      new ConcurrentHashMap<String, MetricMutableStat>();
 
   public MetricsRegionSourceImpl(MetricsRegionWrapper regionWrapper,
                                  MetricsRegionAggregateSourceImpl aggregate) {
@@ -85,6 +94,9 @@ public class MetricsRegionSourceImpl implements MetricsRegionSource {
 
     regionScanNextKey = regionNamePrefix + MetricsRegionServerSource.SCAN_NEXT_KEY;
     regionScanNext = registry.newStat(regionScanNextKey, "", OPS_SAMPLE_NAME, SIZE_VALUE_NAME);
+
+    regionRowLockWaitKey = regionNamePrefix + ROW_LOCK_WAIT_KEY;
+    regionRowLockWait = registry.newHistogram(regionRowLockWaitKey);
   }
 
   @Override
@@ -101,6 +113,12 @@ public class MetricsRegionSourceImpl implements MetricsRegionSource {
 
     registry.removeMetric(regionGetKey);
     registry.removeMetric(regionScanNextKey);
+    registry.removeMetric(regionRowLockWaitKey);
+    synchronized (regionHookTimes) {
+      for (String hook : regionHookTimes.keySet()) {
+        registry.removeMetric(regionNamePrefix + COPROCESSOR_HOOK_KEY_PREFIX + hook);
+      }
+    }
 
     JmxCacheBuster.clearJmxCache();
   }
@@ -135,6 +153,28 @@ public class MetricsRegionSourceImpl implements MetricsRegionSource {
     regionAppend.incr();
   }
 
+  @Override
+  public void updateRowLockWait(long waitTime) {
+    regionRowLockWait.add(waitTime);
+  }
+
+  @Override
+  public void updateCoprocessorHook(String hook, long time) {
+    MetricMutableStat hookTime = regionHookTimes.get(hook);
+    if (hookTime == null) {
+      synchronized (regionHookTimes) {
+        if (closed) return;
+        hookTime = regionHookTimes.get(hook);
+        if (hookTime == null) {
+          hookTime = registry.newStat(regionNamePrefix + COPROCESSOR_HOOK_KEY_PREFIX + hook, "",
+              OPS_SAMPLE_NAME, COPROCESSOR_HOOK_VALUE_NAME);
+          regionHookTimes.put(hook, hookTime);
+        }
+      }
+    }
+    hookTime.add(time);
+  }
+
   @Override
   public MetricsRegionAggregateSource getAggregateSource() {
     return agg;
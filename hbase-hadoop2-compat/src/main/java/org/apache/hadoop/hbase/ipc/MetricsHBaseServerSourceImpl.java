@@ -36,8 +36,14 @@ public class MetricsHBaseServerSourceImpl extends BaseSourceImpl
   private final MutableCounterLong authenticationFailures;
   private final MutableCounterLong sentBytes;
   private final MutableCounterLong receivedBytes;
+  private final MutableCounterLong expiredCalls;
+  private final MutableCounterLong disconnectedCalls;
+  private final MutableCounterLong throttledCalls;
   private MutableHistogram queueCallTime;
   private MutableHistogram processCallTime;
+  private MutableHistogram readQueueCallTime;
+  private MutableHistogram writeQueueCallTime;
+  private MutableHistogram scanQueueCallTime;
 
   public MetricsHBaseServerSourceImpl(String metricsName,
                                       String metricsDescription,
@@ -60,10 +66,22 @@ public class MetricsHBaseServerSourceImpl extends BaseSourceImpl
         SENT_BYTES_DESC, 0l);
     this.receivedBytes = this.getMetricsRegistry().newCounter(RECEIVED_BYTES_NAME,
         RECEIVED_BYTES_DESC, 0l);
+    this.expiredCalls = this.getMetricsRegistry().newCounter(EXPIRED_CALLS_NAME,
+        EXPIRED_CALLS_DESC, 0l);
+    this.disconnectedCalls = this.getMetricsRegistry().newCounter(DISCONNECTED_CALLS_NAME,
+        DISCONNECTED_CALLS_DESC, 0l);
+    this.throttledCalls = this.getMetricsRegistry().newCounter(THROTTLED_CALLS_NAME,
+        THROTTLED_CALLS_DESC, 0l);
     this.queueCallTime = this.getMetricsRegistry().newHistogram(QUEUE_CALL_TIME_NAME,
         QUEUE_CALL_TIME_DESC);
     this.processCallTime = this.getMetricsRegistry().newHistogram(PROCESS_CALL_TIME_NAME,
         PROCESS_CALL_TIME_DESC);
+    this.readQueueCallTime = this.getMetricsRegistry().newHistogram(READ_QUEUE_CALL_TIME_NAME,
+        READ_QUEUE_CALL_TIME_DESC);
+    this.writeQueueCallTime = this.getMetricsRegistry().newHistogram(WRITE_QUEUE_CALL_TIME_NAME,
+        WRITE_QUEUE_CALL_TIME_DESC);
+    this.scanQueueCallTime = this.getMetricsRegistry().newHistogram(SCAN_QUEUE_CALL_TIME_NAME,
+        SCAN_QUEUE_CALL_TIME_DESC);
   }
 
   @Override
@@ -101,11 +119,41 @@ public class MetricsHBaseServerSourceImpl extends BaseSourceImpl
     queueCallTime.add(qTime);
   }
 
+  @Override
+  public void dequeuedReadCall(int qTime) {
+    readQueueCallTime.add(qTime);
+  }
+
+  @Override
+  public void dequeuedWriteCall(int qTime) {
+    writeQueueCallTime.add(qTime);
+  }
+
+  @Override
+  public void dequeuedScanCall(int qTime) {
+    scanQueueCallTime.add(qTime);
+  }
+
   @Override
   public void processedCall(int processingTime) {
     processCallTime.add(processingTime);
   }
 
+  @Override
+  public void expiredCall() {
+    expiredCalls.incr();
+  }
+
+  @Override
+  public void disconnectedCall() {
+    disconnectedCalls.incr();
+  }
+
+  @Override
+  public void throttledCall() {
+    throttledCalls.incr();
+  }
+
   @Override
   public void getMetrics(MetricsCollector metricsCollector, boolean all) {
     metricsRegistry.snapshot(metricsCollector.addRecord(metricsRegistry.info()), all);
@@ -121,6 +169,12 @@ public class MetricsHBaseServerSourceImpl extends BaseSourceImpl
               REPLICATION_QUEUE_DESC), wrapper.getReplicationQueueLength())
           .addGauge(Interns.info(PRIORITY_QUEUE_NAME, PRIORITY_QUEUE_DESC),
               wrapper.getPriorityQueueLength())
+          .addGauge(Interns.info(READ_QUEUE_NAME, READ_QUEUE_DESC),
+              wrapper.getReadQueueLength())
+          .addGauge(Interns.info(WRITE_QUEUE_NAME, WRITE_QUEUE_DESC),
+              wrapper.getWriteQueueLength())
+          .addGauge(Interns.info(SCAN_QUEUE_NAME, SCAN_QUEUE_DESC),
+              wrapper.getScanQueueLength())
           .addGauge(Interns.info(NUM_OPEN_CONNECTIONS_NAME,
               NUM_OPEN_CONNECTIONS_DESC), wrapper.getNumOpenConnections());
     }
@@ -185,6 +185,14 @@ public class MetricsRegionServerSourceImpl
               rsWrap.getCompactionQueueSize())
           .addGauge(Interns.info(FLUSH_QUEUE_LENGTH, FLUSH_QUEUE_LENGTH_DESC),
               rsWrap.getFlushQueueSize())
+          .addGauge(Interns.info(COMPACTION_THROUGHPUT_LIMIT, COMPACTION_THROUGHPUT_LIMIT_DESC),
+              rsWrap.getCompactionThroughputLimit())
+          .addGauge(Interns.info(COMPACTION_THROUGHPUT, COMPACTION_THROUGHPUT_DESC),
+              rsWrap.getCompactionThroughput())
+          .addCounter(Interns.info(COMPACTION_THROTTLED_TIME, COMPACTION_THROTTLED_TIME_DESC),
+              rsWrap.getCompactionThrottledTime())
+          .addCounter(Interns.info(FLUSH_THROTTLED_TIME, FLUSH_THROTTLED_TIME_DESC),
+              rsWrap.getFlushThrottledTime())
           .addGauge(Interns.info(BLOCK_CACHE_FREE_SIZE, BLOCK_CACHE_FREE_DESC),
               rsWrap.getBlockCacheFreeSize())
           .addGauge(Interns.info(BLOCK_CACHE_COUNT, BLOCK_CACHE_COUNT_DESC),
@@ -14122,6 +14122,26 @@ public final class ClientProtos {
      * <code>optional bool small = 14;</code>
      */
     boolean getSmall();
+
+    // optional bool allow_partial_results = 15;
+    /**
+     * <code>optional bool allow_partial_results = 15;</code>
+     */
+    boolean hasAllowPartialResults();
+    /**
+     * <code>optional bool allow_partial_results = 15;</code>
+     */
+    boolean getAllowPartialResults();
+
+    // optional bool async_prefetch = 16;
+    /**
+     * <code>optional bool async_prefetch = 16;</code>
+     */
+    boolean hasAsyncPrefetch();
+    /**
+     * <code>optional bool async_prefetch = 16;</code>
+     */
+    boolean getAsyncPrefetch();
   }
   /**
    * Protobuf type {@code Scan}
@@ -14277,6 +14297,16 @@ public final class ClientProtos {
               small_ = input.readBool();
               break;
             }
+            case 120: {
+              bitField0_ |= 0x00001000;
+              allowPartialResults_ = input.readBool();
+              break;
+            }
+            case 128: {
+              bitField0_ |= 0x00002000;
+              asyncPrefetch_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -14607,6 +14637,38 @@ public final class ClientProtos {
       return small_;
     }
 
+    // optional bool allow_partial_results = 15;
+    public static final int ALLOW_PARTIAL_RESULTS_FIELD_NUMBER = 15;
+    private boolean allowPartialResults_;
+    /**
+     * <code>optional bool allow_partial_results = 15;</code>
+     */
+    public boolean hasAllowPartialResults() {
+      return ((bitField0_ & 0x00001000) == 0x00001000);
+    }
+    /**
+     * <code>optional bool allow_partial_results = 15;</code>
+     */
+    public boolean getAllowPartialResults() {
+      return allowPartialResults_;
+    }
+
+    // optional bool async_prefetch = 16;
+    public static final int ASYNC_PREFETCH_FIELD_NUMBER = 16;
+    private boolean asyncPrefetch_;
+    /**
+     * <code>optional bool async_prefetch = 16;</code>
+     */
+    public boolean hasAsyncPrefetch() {
+      return ((bitField0_ & 0x00002000) == 0x00002000);
+    }
+    /**
+     * <code>optional bool async_prefetch = 16;</code>
+     */
+    public boolean getAsyncPrefetch() {
+      return asyncPrefetch_;
+    }
+
     private void initFields() {
       column_ = java.util.Collections.emptyList();
       attribute_ = java.util.Collections.emptyList();
@@ -14622,6 +14684,8 @@ public final class ClientProtos {
       storeOffset_ = 0;
       loadColumnFamiliesOnDemand_ = false;
       small_ = false;
+      allowPartialResults_ = false;
+      asyncPrefetch_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -14695,6 +14759,12 @@ public final class ClientProtos {
       if (((bitField0_ & 0x00000800) == 0x00000800)) {
         output.writeBool(14, small_);
       }
+      if (((bitField0_ & 0x00001000) == 0x00001000)) {
+        output.writeBool(15, allowPartialResults_);
+      }
+      if (((bitField0_ & 0x00002000) == 0x00002000)) {
+        output.writeBool(16, asyncPrefetch_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -14760,6 +14830,14 @@ public final class ClientProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeBoolSize(14, small_);
       }
+      if (((bitField0_ & 0x00001000) == 0x00001000)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(15, allowPartialResults_);
+      }
+      if (((bitField0_ & 0x00002000) == 0x00002000)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(16, asyncPrefetch_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -14847,6 +14925,16 @@ public final class ClientProtos {
         result = result && (getSmall()
             == other.getSmall());
       }
+      result = result && (hasAllowPartialResults() == other.hasAllowPartialResults());
+      if (hasAllowPartialResults()) {
+        result = result && (getAllowPartialResults()
+            == other.getAllowPartialResults());
+      }
+      result = result && (hasAsyncPrefetch() == other.hasAsyncPrefetch());
+      if (hasAsyncPrefetch()) {
+        result = result && (getAsyncPrefetch()
+            == other.getAsyncPrefetch());
+      }
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -14916,6 +15004,14 @@ public final class ClientProtos {
         hash = (37 * hash) + SMALL_FIELD_NUMBER;
         hash = (53 * hash) + hashBoolean(getSmall());
       }
+      if (hasAllowPartialResults()) {
+        hash = (37 * hash) + ALLOW_PARTIAL_RESULTS_FIELD_NUMBER;
+        hash = (53 * hash) + hashBoolean(getAllowPartialResults());
+      }
+      if (hasAsyncPrefetch()) {
+        hash = (37 * hash) + ASYNC_PREFETCH_FIELD_NUMBER;
+        hash = (53 * hash) + hashBoolean(getAsyncPrefetch());
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -15084,6 +15180,10 @@ public final class ClientProtos {
         bitField0_ = (bitField0_ & ~0x00001000);
         small_ = false;
         bitField0_ = (bitField0_ & ~0x00002000);
+        allowPartialResults_ = false;
+        bitField0_ = (bitField0_ & ~0x00004000);
+        asyncPrefetch_ = false;
+        bitField0_ = (bitField0_ & ~0x00008000);
         return this;
       }
 
@@ -15186,6 +15286,14 @@ public final class ClientProtos {
           to_bitField0_ |= 0x00000800;
         }
         result.small_ = small_;
+        if (((from_bitField0_ & 0x00004000) == 0x00004000)) {
+          to_bitField0_ |= 0x00001000;
+        }
+        result.allowPartialResults_ = allowPartialResults_;
+        if (((from_bitField0_ & 0x00008000) == 0x00008000)) {
+          to_bitField0_ |= 0x00002000;
+        }
+        result.asyncPrefetch_ = asyncPrefetch_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -15290,6 +15398,12 @@ public final class ClientProtos {
         if (other.hasSmall()) {
           setSmall(other.getSmall());
         }
+        if (other.hasAllowPartialResults()) {
+          setAllowPartialResults(other.getAllowPartialResults());
+        }
+        if (other.hasAsyncPrefetch()) {
+          setAsyncPrefetch(other.getAsyncPrefetch());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -16401,6 +16515,72 @@ public final class ClientProtos {
         return this;
       }
 
+      // optional bool allow_partial_results = 15;
+      private boolean allowPartialResults_ ;
+      /**
+       * <code>optional bool allow_partial_results = 15;</code>
+       */
+      public boolean hasAllowPartialResults() {
+        return ((bitField0_ & 0x00004000) == 0x00004000);
+      }
+      /**
+       * <code>optional bool allow_partial_results = 15;</code>
+       */
+      public boolean getAllowPartialResults() {
+        return allowPartialResults_;
+      }
+      /**
+       * <code>optional bool allow_partial_results = 15;</code>
+       */
+      public Builder setAllowPartialResults(boolean value) {
+        bitField0_ |= 0x00004000;
+        allowPartialResults_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool allow_partial_results = 15;</code>
+       */
+      public Builder clearAllowPartialResults() {
+        bitField0_ = (bitField0_ & ~0x00004000);
+        allowPartialResults_ = false;
+        onChanged();
+        return this;
+      }
+
+      // optional bool async_prefetch = 16;
+      private boolean asyncPrefetch_ ;
+      /**
+       * <code>optional bool async_prefetch = 16;</code>
+       */
+      public boolean hasAsyncPrefetch() {
+        return ((bitField0_ & 0x00008000) == 0x00008000);
+      }
+      /**
+       * <code>optional bool async_prefetch = 16;</code>
+       */
+      public boolean getAsyncPrefetch() {
+        return asyncPrefetch_;
+      }
+      /**
+       * <code>optional bool async_prefetch = 16;</code>
+       */
+      public Builder setAsyncPrefetch(boolean value) {
+        bitField0_ |= 0x00008000;
+        asyncPrefetch_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool async_prefetch = 16;</code>
+       */
+      public Builder clearAsyncPrefetch() {
+        bitField0_ = (bitField0_ & ~0x00008000);
+        asyncPrefetch_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:Scan)
     }
 
@@ -16482,6 +16662,46 @@ public final class ClientProtos {
      * <code>optional uint64 next_call_seq = 6;</code>
      */
     long getNextCallSeq();
+
+    // optional bool client_handles_heartbeats = 7;
+    /**
+     * <code>optional bool client_handles_heartbeats = 7;</code>
+     *
+     * <pre>
+     * Set by clients that understand heartbeat_message in the ScanResponse. Only
+     * such clients are sent responses cut short by the server's time limit.
+     * </pre>
+     */
+    boolean hasClientHandlesHeartbeats();
+    /**
+     * <code>optional bool client_handles_heartbeats = 7;</code>
+     *
+     * <pre>
+     * Set by clients that understand heartbeat_message in the ScanResponse. Only
+     * such clients are sent responses cut short by the server's time limit.
+     * </pre>
+     */
+    boolean getClientHandlesHeartbeats();
+
+    // optional bool client_handles_partials = 8;
+    /**
+     * <code>optional bool client_handles_partials = 8;</code>
+     *
+     * <pre>
+     * Set by clients that understand partial_flag_per_result in the ScanResponse.
+     * Only such clients are sent rows split at the size limit.
+     * </pre>
+     */
+    boolean hasClientHandlesPartials();
+    /**
+     * <code>optional bool client_handles_partials = 8;</code>
+     *
+     * <pre>
+     * Set by clients that understand partial_flag_per_result in the ScanResponse.
+     * Only such clients are sent rows split at the size limit.
+     * </pre>
+     */
+    boolean getClientHandlesPartials();
   }
   /**
    * Protobuf type {@code ScanRequest}
@@ -16593,6 +16813,16 @@ public final class ClientProtos {
               nextCallSeq_ = input.readUInt64();
               break;
             }
+            case 56: {
+              bitField0_ |= 0x00000040;
+              clientHandlesHeartbeats_ = input.readBool();
+              break;
+            }
+            case 64: {
+              bitField0_ |= 0x00000080;
+              clientHandlesPartials_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -16741,6 +16971,58 @@ public final class ClientProtos {
       return nextCallSeq_;
     }
 
+    // optional bool client_handles_heartbeats = 7;
+    public static final int CLIENT_HANDLES_HEARTBEATS_FIELD_NUMBER = 7;
+    private boolean clientHandlesHeartbeats_;
+    /**
+     * <code>optional bool client_handles_heartbeats = 7;</code>
+     *
+     * <pre>
+     * Set by clients that understand heartbeat_message in the ScanResponse. Only
+     * such clients are sent responses cut short by the server's time limit.
+     * </pre>
+     */
+    public boolean hasClientHandlesHeartbeats() {
+      return ((bitField0_ & 0x00000040) == 0x00000040);
+    }
+    /**
+     * <code>optional bool client_handles_heartbeats = 7;</code>
+     *
+     * <pre>
+     * Set by clients that understand heartbeat_message in the ScanResponse. Only
+     * such clients are sent responses cut short by the server's time limit.
+     * </pre>
+     */
+    public boolean getClientHandlesHeartbeats() {
+      return clientHandlesHeartbeats_;
+    }
+
+    // optional bool client_handles_partials = 8;
+    public static final int CLIENT_HANDLES_PARTIALS_FIELD_NUMBER = 8;
+    private boolean clientHandlesPartials_;
+    /**
+     * <code>optional bool client_handles_partials = 8;</code>
+     *
+     * <pre>
+     * Set by clients that understand partial_flag_per_result in the ScanResponse.
+     * Only such clients are sent rows split at the size limit.
+     * </pre>
+     */
+    public boolean hasClientHandlesPartials() {
+      return ((bitField0_ & 0x00000080) == 0x00000080);
+    }
+    /**
+     * <code>optional bool client_handles_partials = 8;</code>
+     *
+     * <pre>
+     * Set by clients that understand partial_flag_per_result in the ScanResponse.
+     * Only such clients are sent rows split at the size limit.
+     * </pre>
+     */
+    public boolean getClientHandlesPartials() {
+      return clientHandlesPartials_;
+    }
+
     private void initFields() {
       region_ = org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.RegionSpecifier.getDefaultInstance();
       scan_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Scan.getDefaultInstance();
@@ -16748,6 +17030,8 @@ public final class ClientProtos {
       numberOfRows_ = 0;
       closeScanner_ = false;
       nextCallSeq_ = 0L;
+      clientHandlesHeartbeats_ = false;
+      clientHandlesPartials_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -16791,6 +17075,12 @@ public final class ClientProtos {
       if (((bitField0_ & 0x00000020) == 0x00000020)) {
         output.writeUInt64(6, nextCallSeq_);
       }
+      if (((bitField0_ & 0x00000040) == 0x00000040)) {
+        output.writeBool(7, clientHandlesHeartbeats_);
+      }
+      if (((bitField0_ & 0x00000080) == 0x00000080)) {
+        output.writeBool(8, clientHandlesPartials_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -16824,6 +17114,14 @@ public final class ClientProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeUInt64Size(6, nextCallSeq_);
       }
+      if (((bitField0_ & 0x00000040) == 0x00000040)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(7, clientHandlesHeartbeats_);
+      }
+      if (((bitField0_ & 0x00000080) == 0x00000080)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(8, clientHandlesPartials_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -16877,6 +17175,16 @@ public final class ClientProtos {
         result = result && (getNextCallSeq()
             == other.getNextCallSeq());
       }
+      result = result && (hasClientHandlesHeartbeats() == other.hasClientHandlesHeartbeats());
+      if (hasClientHandlesHeartbeats()) {
+        result = result && (getClientHandlesHeartbeats()
+            == other.getClientHandlesHeartbeats());
+      }
+      result = result && (hasClientHandlesPartials() == other.hasClientHandlesPartials());
+      if (hasClientHandlesPartials()) {
+        result = result && (getClientHandlesPartials()
+            == other.getClientHandlesPartials());
+      }
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -16914,6 +17222,14 @@ public final class ClientProtos {
         hash = (37 * hash) + NEXT_CALL_SEQ_FIELD_NUMBER;
         hash = (53 * hash) + hashLong(getNextCallSeq());
       }
+      if (hasClientHandlesHeartbeats()) {
+        hash = (37 * hash) + CLIENT_HANDLES_HEARTBEATS_FIELD_NUMBER;
+        hash = (53 * hash) + hashBoolean(getClientHandlesHeartbeats());
+      }
+      if (hasClientHandlesPartials()) {
+        hash = (37 * hash) + CLIENT_HANDLES_PARTIALS_FIELD_NUMBER;
+        hash = (53 * hash) + hashBoolean(getClientHandlesPartials());
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -17058,6 +17374,10 @@ public final class ClientProtos {
         bitField0_ = (bitField0_ & ~0x00000010);
         nextCallSeq_ = 0L;
         bitField0_ = (bitField0_ & ~0x00000020);
+        clientHandlesHeartbeats_ = false;
+        bitField0_ = (bitField0_ & ~0x00000040);
+        clientHandlesPartials_ = false;
+        bitField0_ = (bitField0_ & ~0x00000080);
         return this;
       }
 
@@ -17118,6 +17438,14 @@ public final class ClientProtos {
           to_bitField0_ |= 0x00000020;
         }
         result.nextCallSeq_ = nextCallSeq_;
+        if (((from_bitField0_ & 0x00000040) == 0x00000040)) {
+          to_bitField0_ |= 0x00000040;
+        }
+        result.clientHandlesHeartbeats_ = clientHandlesHeartbeats_;
+        if (((from_bitField0_ & 0x00000080) == 0x00000080)) {
+          to_bitField0_ |= 0x00000080;
+        }
+        result.clientHandlesPartials_ = clientHandlesPartials_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -17152,6 +17480,12 @@ public final class ClientProtos {
         if (other.hasNextCallSeq()) {
           setNextCallSeq(other.getNextCallSeq());
         }
+        if (other.hasClientHandlesHeartbeats()) {
+          setClientHandlesHeartbeats(other.getClientHandlesHeartbeats());
+        }
+        if (other.hasClientHandlesPartials()) {
+          setClientHandlesPartials(other.getClientHandlesPartials());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -17557,6 +17891,112 @@ public final class ClientProtos {
         return this;
       }
 
+      // optional bool client_handles_heartbeats = 7;
+      private boolean clientHandlesHeartbeats_ ;
+      /**
+       * <code>optional bool client_handles_heartbeats = 7;</code>
+       *
+       * <pre>
+       * Set by clients that understand heartbeat_message in the ScanResponse. Only
+       * such clients are sent responses cut short by the server's time limit.
+       * </pre>
+       */
+      public boolean hasClientHandlesHeartbeats() {
+        return ((bitField0_ & 0x00000040) == 0x00000040);
+      }
+      /**
+       * <code>optional bool client_handles_heartbeats = 7;</code>
+       *
+       * <pre>
+       * Set by clients that understand heartbeat_message in the ScanResponse. Only
+       * such clients are sent responses cut short by the server's time limit.
+       * </pre>
+       */
+      public boolean getClientHandlesHeartbeats() {
+        return clientHandlesHeartbeats_;
+      }
+      /**
+       * <code>optional bool client_handles_heartbeats = 7;</code>
+       *
+       * <pre>
+       * Set by clients that understand heartbeat_message in the ScanResponse. Only
+       * such clients are sent responses cut short by the server's time limit.
+       * </pre>
+       */
+      public Builder setClientHandlesHeartbeats(boolean value) {
+        bitField0_ |= 0x00000040;
+        clientHandlesHeartbeats_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool client_handles_heartbeats = 7;</code>
+       *
+       * <pre>
+       * Set by clients that understand heartbeat_message in the ScanResponse. Only
+       * such clients are sent responses cut short by the server's time limit.
+       * </pre>
+       */
+      public Builder clearClientHandlesHeartbeats() {
+        bitField0_ = (bitField0_ & ~0x00000040);
+        clientHandlesHeartbeats_ = false;
+        onChanged();
+        return this;
+      }
+
+      // optional bool client_handles_partials = 8;
+      private boolean clientHandlesPartials_ ;
+      /**
+       * <code>optional bool client_handles_partials = 8;</code>
+       *
+       * <pre>
+       * Set by clients that understand partial_flag_per_result in the ScanResponse.
+       * Only such clients are sent rows split at the size limit.
+       * </pre>
+       */
+      public boolean hasClientHandlesPartials() {
+        return ((bitField0_ & 0x00000080) == 0x00000080);
+      }
+      /**
+       * <code>optional bool client_handles_partials = 8;</code>
+       *
+       * <pre>
+       * Set by clients that understand partial_flag_per_result in the ScanResponse.
+       * Only such clients are sent rows split at the size limit.
+       * </pre>
+       */
+      public boolean getClientHandlesPartials() {
+        return clientHandlesPartials_;
+      }
+      /**
+       * <code>optional bool client_handles_partials = 8;</code>
+       *
+       * <pre>
+       * Set by clients that understand partial_flag_per_result in the ScanResponse.
+       * Only such clients are sent rows split at the size limit.
+       * </pre>
+       */
+      public Builder setClientHandlesPartials(boolean value) {
+        bitField0_ |= 0x00000080;
+        clientHandlesPartials_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool client_handles_partials = 8;</code>
+       *
+       * <pre>
+       * Set by clients that understand partial_flag_per_result in the ScanResponse.
+       * Only such clients are sent rows split at the size limit.
+       * </pre>
+       */
+      public Builder clearClientHandlesPartials() {
+        bitField0_ = (bitField0_ & ~0x00000080);
+        clientHandlesPartials_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:ScanRequest)
     }
 
@@ -17699,6 +18139,62 @@ public final class ClientProtos {
      */
     org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ResultOrBuilder getResultsOrBuilder(
         int index);
+
+    // optional bool heartbeat_message = 6;
+    /**
+     * <code>optional bool heartbeat_message = 6;</code>
+     *
+     * <pre>
+     * Set when the server stopped gathering rows because it ran out of time for
+     * this rpc, not because the region or the requested row count was exhausted.
+     * The scanner is still positioned inside the region and the client should
+     * keep calling next on it.
+     * </pre>
+     */
+    boolean hasHeartbeatMessage();
+    /**
+     * <code>optional bool heartbeat_message = 6;</code>
+     *
+     * <pre>
+     * Set when the server stopped gathering rows because it ran out of time for
+     * this rpc, not because the region or the requested row count was exhausted.
+     * The scanner is still positioned inside the region and the client should
+     * keep calling next on it.
+     * </pre>
+     */
+    boolean getHeartbeatMessage();
+
+    // repeated bool partial_flag_per_result = 7;
+    /**
+     * <code>repeated bool partial_flag_per_result = 7;</code>
+     *
+     * <pre>
+     * One flag per Result, in the same order as cells_per_result or results. A
+     * flag is true if that Result holds only part of its row because the row
+     * reached the size limit; the rest of the row follows in later Results.
+     * </pre>
+     */
+    java.util.List<java.lang.Boolean> getPartialFlagPerResultList();
+    /**
+     * <code>repeated bool partial_flag_per_result = 7;</code>
+     *
+     * <pre>
+     * One flag per Result, in the same order as cells_per_result or results. A
+     * flag is true if that Result holds only part of its row because the row
+     * reached the size limit; the rest of the row follows in later Results.
+     * </pre>
+     */
+    int getPartialFlagPerResultCount();
+    /**
+     * <code>repeated bool partial_flag_per_result = 7;</code>
+     *
+     * <pre>
+     * One flag per Result, in the same order as cells_per_result or results. A
+     * flag is true if that Result holds only part of its row because the row
+     * reached the size limit; the rest of the row follows in later Results.
+     * </pre>
+     */
+    boolean getPartialFlagPerResult(int index);
   }
   /**
    * Protobuf type {@code ScanResponse}
@@ -17801,13 +18297,39 @@ public final class ClientProtos {
               results_.add(input.readMessage(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Result.PARSER, extensionRegistry));
               break;
             }
-          }
-        }
-      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-        throw e.setUnfinishedMessage(this);
-      } catch (java.io.IOException e) {
-        throw new com.google.protobuf.InvalidProtocolBufferException(
-            e.getMessage()).setUnfinishedMessage(this);
+            case 48: {
+              bitField0_ |= 0x00000008;
+              heartbeatMessage_ = input.readBool();
+              break;
+            }
+            case 56: {
+              if (!((mutable_bitField0_ & 0x00000040) == 0x00000040)) {
+                partialFlagPerResult_ = new java.util.ArrayList<java.lang.Boolean>();
+                mutable_bitField0_ |= 0x00000040;
+              }
+              partialFlagPerResult_.add(input.readBool());
+              break;
+            }
+            case 58: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000040) == 0x00000040) && input.getBytesUntilLimit() > 0) {
+                partialFlagPerResult_ = new java.util.ArrayList<java.lang.Boolean>();
+                mutable_bitField0_ |= 0x00000040;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                partialFlagPerResult_.add(input.readBool());
+              }
+              input.popLimit(limit);
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
       } finally {
         if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
           cellsPerResult_ = java.util.Collections.unmodifiableList(cellsPerResult_);
@@ -17815,6 +18337,9 @@ public final class ClientProtos {
         if (((mutable_bitField0_ & 0x00000010) == 0x00000010)) {
           results_ = java.util.Collections.unmodifiableList(results_);
         }
+        if (((mutable_bitField0_ & 0x00000040) == 0x00000040)) {
+          partialFlagPerResult_ = java.util.Collections.unmodifiableList(partialFlagPerResult_);
+        }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
       }
@@ -18014,12 +18539,85 @@ public final class ClientProtos {
       return results_.get(index);
     }
 
+    // optional bool heartbeat_message = 6;
+    public static final int HEARTBEAT_MESSAGE_FIELD_NUMBER = 6;
+    private boolean heartbeatMessage_;
+    /**
+     * <code>optional bool heartbeat_message = 6;</code>
+     *
+     * <pre>
+     * Set when the server stopped gathering rows because it ran out of time for
+     * this rpc, not because the region or the requested row count was exhausted.
+     * The scanner is still positioned inside the region and the client should
+     * keep calling next on it.
+     * </pre>
+     */
+    public boolean hasHeartbeatMessage() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional bool heartbeat_message = 6;</code>
+     *
+     * <pre>
+     * Set when the server stopped gathering rows because it ran out of time for
+     * this rpc, not because the region or the requested row count was exhausted.
+     * The scanner is still positioned inside the region and the client should
+     * keep calling next on it.
+     * </pre>
+     */
+    public boolean getHeartbeatMessage() {
+      return heartbeatMessage_;
+    }
+
+    // repeated bool partial_flag_per_result = 7;
+    public static final int PARTIAL_FLAG_PER_RESULT_FIELD_NUMBER = 7;
+    private java.util.List<java.lang.Boolean> partialFlagPerResult_;
+    /**
+     * <code>repeated bool partial_flag_per_result = 7;</code>
+     *
+     * <pre>
+     * One flag per Result, in the same order as cells_per_result or results. A
+     * flag is true if that Result holds only part of its row because the row
+     * reached the size limit; the rest of the row follows in later Results.
+     * </pre>
+     */
+    public java.util.List<java.lang.Boolean>
+        getPartialFlagPerResultList() {
+      return partialFlagPerResult_;
+    }
+    /**
+     * <code>repeated bool partial_flag_per_result = 7;</code>
+     *
+     * <pre>
+     * One flag per Result, in the same order as cells_per_result or results. A
+     * flag is true if that Result holds only part of its row because the row
+     * reached the size limit; the rest of the row follows in later Results.
+     * </pre>
+     */
+    public int getPartialFlagPerResultCount() {
+      return partialFlagPerResult_.size();
+    }
+    /**
+     * <code>repeated bool partial_flag_per_result = 7;</code>
+     *
+     * <pre>
+     * One flag per Result, in the same order as cells_per_result or results. A
+     * flag is true if that Result holds only part of its row because the row
+     * reached the size limit; the rest of the row follows in later Results.
+     * </pre>
+     */
+    public boolean getPartialFlagPerResult(int index) {
+      return partialFlagPerResult_.get(index);
+    }
+
     private void initFields() {
       cellsPerResult_ = java.util.Collections.emptyList();
       scannerId_ = 0L;
       moreResults_ = false;
       ttl_ = 0;
       results_ = java.util.Collections.emptyList();
+      heartbeatMessage_ = false;
+      partialFlagPerResult_ = java.util.Collections.emptyList();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -18048,6 +18646,12 @@ public final class ClientProtos {
       for (int i = 0; i < results_.size(); i++) {
         output.writeMessage(5, results_.get(i));
       }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeBool(6, heartbeatMessage_);
+      }
+      for (int i = 0; i < partialFlagPerResult_.size(); i++) {
+        output.writeBool(7, partialFlagPerResult_.get(i));
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -18082,6 +18686,16 @@ public final class ClientProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(5, results_.get(i));
       }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(6, heartbeatMessage_);
+      }
+      {
+        int dataSize = 0;
+        dataSize = 1 * getPartialFlagPerResultList().size();
+        size += dataSize;
+        size += 1 * getPartialFlagPerResultList().size();
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -18124,6 +18738,13 @@ public final class ClientProtos {
       }
       result = result && getResultsList()
           .equals(other.getResultsList());
+      result = result && (hasHeartbeatMessage() == other.hasHeartbeatMessage());
+      if (hasHeartbeatMessage()) {
+        result = result && (getHeartbeatMessage()
+            == other.getHeartbeatMessage());
+      }
+      result = result && getPartialFlagPerResultList()
+          .equals(other.getPartialFlagPerResultList());
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -18157,6 +18778,14 @@ public final class ClientProtos {
         hash = (37 * hash) + RESULTS_FIELD_NUMBER;
         hash = (53 * hash) + getResultsList().hashCode();
       }
+      if (hasHeartbeatMessage()) {
+        hash = (37 * hash) + HEARTBEAT_MESSAGE_FIELD_NUMBER;
+        hash = (53 * hash) + hashBoolean(getHeartbeatMessage());
+      }
+      if (getPartialFlagPerResultCount() > 0) {
+        hash = (37 * hash) + PARTIAL_FLAG_PER_RESULT_FIELD_NUMBER;
+        hash = (53 * hash) + getPartialFlagPerResultList().hashCode();
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -18287,6 +18916,10 @@ public final class ClientProtos {
         } else {
           resultsBuilder_.clear();
         }
+        heartbeatMessage_ = false;
+        bitField0_ = (bitField0_ & ~0x00000020);
+        partialFlagPerResult_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000040);
         return this;
       }
 
@@ -18341,6 +18974,15 @@ public final class ClientProtos {
         } else {
           result.results_ = resultsBuilder_.build();
         }
+        if (((from_bitField0_ & 0x00000020) == 0x00000020)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.heartbeatMessage_ = heartbeatMessage_;
+        if (((bitField0_ & 0x00000040) == 0x00000040)) {
+          partialFlagPerResult_ = java.util.Collections.unmodifiableList(partialFlagPerResult_);
+          bitField0_ = (bitField0_ & ~0x00000040);
+        }
+        result.partialFlagPerResult_ = partialFlagPerResult_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -18402,6 +19044,19 @@ public final class ClientProtos {
             }
           }
         }
+        if (other.hasHeartbeatMessage()) {
+          setHeartbeatMessage(other.getHeartbeatMessage());
+        }
+        if (!other.partialFlagPerResult_.isEmpty()) {
+          if (partialFlagPerResult_.isEmpty()) {
+            partialFlagPerResult_ = other.partialFlagPerResult_;
+            bitField0_ = (bitField0_ & ~0x00000040);
+          } else {
+            ensurePartialFlagPerResultIsMutable();
+            partialFlagPerResult_.addAll(other.partialFlagPerResult_);
+          }
+          onChanged();
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -19012,6 +19667,175 @@ public final class ClientProtos {
         return resultsBuilder_;
       }
 
+      // optional bool heartbeat_message = 6;
+      private boolean heartbeatMessage_ ;
+      /**
+       * <code>optional bool heartbeat_message = 6;</code>
+       *
+       * <pre>
+       * Set when the server stopped gathering rows because it ran out of time for
+       * this rpc, not because the region or the requested row count was exhausted.
+       * The scanner is still positioned inside the region and the client should
+       * keep calling next on it.
+       * </pre>
+       */
+      public boolean hasHeartbeatMessage() {
+        return ((bitField0_ & 0x00000020) == 0x00000020);
+      }
+      /**
+       * <code>optional bool heartbeat_message = 6;</code>
+       *
+       * <pre>
+       * Set when the server stopped gathering rows because it ran out of time for
+       * this rpc, not because the region or the requested row count was exhausted.
+       * The scanner is still positioned inside the region and the client should
+       * keep calling next on it.
+       * </pre>
+       */
+      public boolean getHeartbeatMessage() {
+        return heartbeatMessage_;
+      }
+      /**
+       * <code>optional bool heartbeat_message = 6;</code>
+       *
+       * <pre>
+       * Set when the server stopped gathering rows because it ran out of time for
+       * this rpc, not because the region or the requested row count was exhausted.
+       * The scanner is still positioned inside the region and the client should
+       * keep calling next on it.
+       * </pre>
+       */
+      public Builder setHeartbeatMessage(boolean value) {
+        bitField0_ |= 0x00000020;
+        heartbeatMessage_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool heartbeat_message = 6;</code>
+       *
+       * <pre>
+       * Set when the server stopped gathering rows because it ran out of time for
+       * this rpc, not because the region or the requested row count was exhausted.
+       * The scanner is still positioned inside the region and the client should
+       * keep calling next on it.
+       * </pre>
+       */
+      public Builder clearHeartbeatMessage() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        heartbeatMessage_ = false;
+        onChanged();
+        return this;
+      }
+
+      // repeated bool partial_flag_per_result = 7;
+      private java.util.List<java.lang.Boolean> partialFlagPerResult_ = java.util.Collections.emptyList();
+      private void ensurePartialFlagPerResultIsMutable() {
+        if (!((bitField0_ & 0x00000040) == 0x00000040)) {
+          partialFlagPerResult_ = new java.util.ArrayList<java.lang.Boolean>(partialFlagPerResult_);
+          bitField0_ |= 0x00000040;
+         }
+      }
+      /**
+       * <code>repeated bool partial_flag_per_result = 7;</code>
+       *
+       * <pre>
+       * One flag per Result, in the same order as cells_per_result or results. A
+       * flag is true if that Result holds only part of its row because the row
+       * reached the size limit; the rest of the row follows in later Results.
+       * </pre>
+       */
+      public java.util.List<java.lang.Boolean>
+          getPartialFlagPerResultList() {
+        return java.util.Collections.unmodifiableList(partialFlagPerResult_);
+      }
+      /**
+       * <code>repeated bool partial_flag_per_result = 7;</code>
+       *
+       * <pre>
+       * One flag per Result, in the same order as cells_per_result or results. A
+       * flag is true if that Result holds only part of its row because the row
+       * reached the size limit; the rest of the row follows in later Results.
+       * </pre>
+       */
+      public int getPartialFlagPerResultCount() {
+        return partialFlagPerResult_.size();
+      }
+      /**
+       * <code>repeated bool partial_flag_per_result = 7;</code>
+       *
+       * <pre>
+       * One flag per Result, in the same order as cells_per_result or results. A
+       * flag is true if that Result holds only part of its row because the row
+       * reached the size limit; the rest of the row follows in later Results.
+       * </pre>
+       */
+      public boolean getPartialFlagPerResult(int index) {
+        return partialFlagPerResult_.get(index);
+      }
+      /**
+       * <code>repeated bool partial_flag_per_result = 7;</code>
+       *
+       * <pre>
+       * One flag per Result, in the same order as cells_per_result or results. A
+       * flag is true if that Result holds only part of its row because the row
+       * reached the size limit; the rest of the row follows in later Results.
+       * </pre>
+       */
+      public Builder setPartialFlagPerResult(
+          int index, boolean value) {
+        ensurePartialFlagPerResultIsMutable();
+        partialFlagPerResult_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bool partial_flag_per_result = 7;</code>
+       *
+       * <pre>
+       * One flag per Result, in the same order as cells_per_result or results. A
+       * flag is true if that Result holds only part of its row because the row
+       * reached the size limit; the rest of the row follows in later Results.
+       * </pre>
+       */
+      public Builder addPartialFlagPerResult(boolean value) {
+        ensurePartialFlagPerResultIsMutable();
+        partialFlagPerResult_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bool partial_flag_per_result = 7;</code>
+       *
+       * <pre>
+       * One flag per Result, in the same order as cells_per_result or results. A
+       * flag is true if that Result holds only part of its row because the row
+       * reached the size limit; the rest of the row follows in later Results.
+       * </pre>
+       */
+      public Builder addAllPartialFlagPerResult(
+          java.lang.Iterable<? extends java.lang.Boolean> values) {
+        ensurePartialFlagPerResultIsMutable();
+        super.addAll(values, partialFlagPerResult_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated bool partial_flag_per_result = 7;</code>
+       *
+       * <pre>
+       * One flag per Result, in the same order as cells_per_result or results. A
+       * flag is true if that Result holds only part of its row because the row
+       * reached the size limit; the rest of the row follows in later Results.
+       * </pre>
+       */
+      public Builder clearPartialFlagPerResult() {
+        partialFlagPerResult_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000040);
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:ScanResponse)
     }
 
@@ -23604,6 +24428,20 @@ public final class ClientProtos {
      * <code>optional .Get get = 2;</code>
      */
     org.apache.hadoop.hbase.protobuf.generated.ClientProtos.GetOrBuilder getGetOrBuilder();
+
+    // optional .Condition condition = 3;
+    /**
+     * <code>optional .Condition condition = 3;</code>
+     */
+    boolean hasCondition();
+    /**
+     * <code>optional .Condition condition = 3;</code>
+     */
+    org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition getCondition();
+    /**
+     * <code>optional .Condition condition = 3;</code>
+     */
+    org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ConditionOrBuilder getConditionOrBuilder();
   }
   /**
    * Protobuf type {@code MultiAction}
@@ -23611,7 +24449,10 @@ public final class ClientProtos {
    * <pre>
    **
    * An action that is part of MultiRequest.
-   * This is a union type - exactly one of the fields will be set.
+   * This is a union type - exactly one of mutation and get will be set.
+   *
+   * A put or delete mutation can carry a condition, in which case it
+   * is applied only if the condition is met, as in a MutateRequest.
    * </pre>
    */
   public static final class MultiAction extends
@@ -23688,6 +24529,19 @@ public final class ClientProtos {
               bitField0_ |= 0x00000002;
               break;
             }
+            case 26: {
+              org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000004) == 0x00000004)) {
+                subBuilder = condition_.toBuilder();
+              }
+              condition_ = input.readMessage(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(condition_);
+                condition_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000004;
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -23772,9 +24626,32 @@ public final class ClientProtos {
       return get_;
     }
 
+    // optional .Condition condition = 3;
+    public static final int CONDITION_FIELD_NUMBER = 3;
+    private org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition condition_;
+    /**
+     * <code>optional .Condition condition = 3;</code>
+     */
+    public boolean hasCondition() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional .Condition condition = 3;</code>
+     */
+    public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition getCondition() {
+      return condition_;
+    }
+    /**
+     * <code>optional .Condition condition = 3;</code>
+     */
+    public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ConditionOrBuilder getConditionOrBuilder() {
+      return condition_;
+    }
+
     private void initFields() {
       mutation_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutationProto.getDefaultInstance();
       get_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Get.getDefaultInstance();
+      condition_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -23793,6 +24670,12 @@ public final class ClientProtos {
           return false;
         }
       }
+      if (hasCondition()) {
+        if (!getCondition().isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
       memoizedIsInitialized = 1;
       return true;
     }
@@ -23806,6 +24689,9 @@ public final class ClientProtos {
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
         output.writeMessage(2, get_);
       }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeMessage(3, condition_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -23823,6 +24709,10 @@ public final class ClientProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(2, get_);
       }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(3, condition_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -23856,6 +24746,11 @@ public final class ClientProtos {
         result = result && getGet()
             .equals(other.getGet());
       }
+      result = result && (hasCondition() == other.hasCondition());
+      if (hasCondition()) {
+        result = result && getCondition()
+            .equals(other.getCondition());
+      }
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -23877,6 +24772,10 @@ public final class ClientProtos {
         hash = (37 * hash) + GET_FIELD_NUMBER;
         hash = (53 * hash) + getGet().hashCode();
       }
+      if (hasCondition()) {
+        hash = (37 * hash) + CONDITION_FIELD_NUMBER;
+        hash = (53 * hash) + getCondition().hashCode();
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -23954,7 +24853,10 @@ public final class ClientProtos {
      * <pre>
      **
      * An action that is part of MultiRequest.
-     * This is a union type - exactly one of the fields will be set.
+     * This is a union type - exactly one of mutation and get will be set.
+     *
+     * A put or delete mutation can carry a condition, in which case it
+     * is applied only if the condition is met, as in a MutateRequest.
      * </pre>
      */
     public static final class Builder extends
@@ -23986,6 +24888,7 @@ public final class ClientProtos {
         if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
           getMutationFieldBuilder();
           getGetFieldBuilder();
+          getConditionFieldBuilder();
         }
       }
       private static Builder create() {
@@ -24006,6 +24909,12 @@ public final class ClientProtos {
           getBuilder_.clear();
         }
         bitField0_ = (bitField0_ & ~0x00000002);
+        if (conditionBuilder_ == null) {
+          condition_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.getDefaultInstance();
+        } else {
+          conditionBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
 
@@ -24050,9 +24959,17 @@ public final class ClientProtos {
         } else {
           result.get_ = getBuilder_.build();
         }
-        result.bitField0_ = to_bitField0_;
-        onBuilt();
-        return result;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        if (conditionBuilder_ == null) {
+          result.condition_ = condition_;
+        } else {
+          result.condition_ = conditionBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
       }
 
       public Builder mergeFrom(com.google.protobuf.Message other) {
@@ -24072,6 +24989,9 @@ public final class ClientProtos {
         if (other.hasGet()) {
           mergeGet(other.getGet());
         }
+        if (other.hasCondition()) {
+          mergeCondition(other.getCondition());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -24089,6 +25009,12 @@ public final class ClientProtos {
             return false;
           }
         }
+        if (hasCondition()) {
+          if (!getCondition().isInitialized()) {
+            
+            return false;
+          }
+        }
         return true;
       }
 
@@ -24345,6 +25271,123 @@ public final class ClientProtos {
         return getBuilder_;
       }
 
+      // optional .Condition condition = 3;
+      private org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition condition_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.Builder, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ConditionOrBuilder> conditionBuilder_;
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      public boolean hasCondition() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition getCondition() {
+        if (conditionBuilder_ == null) {
+          return condition_;
+        } else {
+          return conditionBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      public Builder setCondition(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition value) {
+        if (conditionBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          condition_ = value;
+          onChanged();
+        } else {
+          conditionBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      public Builder setCondition(
+          org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.Builder builderForValue) {
+        if (conditionBuilder_ == null) {
+          condition_ = builderForValue.build();
+          onChanged();
+        } else {
+          conditionBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      public Builder mergeCondition(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition value) {
+        if (conditionBuilder_ == null) {
+          if (((bitField0_ & 0x00000004) == 0x00000004) &&
+              condition_ != org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.getDefaultInstance()) {
+            condition_ =
+              org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.newBuilder(condition_).mergeFrom(value).buildPartial();
+          } else {
+            condition_ = value;
+          }
+          onChanged();
+        } else {
+          conditionBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      public Builder clearCondition() {
+        if (conditionBuilder_ == null) {
+          condition_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.getDefaultInstance();
+          onChanged();
+        } else {
+          conditionBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.Builder getConditionBuilder() {
+        bitField0_ |= 0x00000004;
+        onChanged();
+        return getConditionFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ConditionOrBuilder getConditionOrBuilder() {
+        if (conditionBuilder_ != null) {
+          return conditionBuilder_.getMessageOrBuilder();
+        } else {
+          return condition_;
+        }
+      }
+      /**
+       * <code>optional .Condition condition = 3;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.Builder, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ConditionOrBuilder> 
+          getConditionFieldBuilder() {
+        if (conditionBuilder_ == null) {
+          conditionBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Condition.Builder, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ConditionOrBuilder>(
+                  condition_,
+                  getParentForChildren(),
+                  isClean());
+          condition_ = null;
+        }
+        return conditionBuilder_;
+      }
+
       // @@protoc_insertion_point(builder_scope:MultiAction)
     }
 
@@ -24386,6 +25429,24 @@ public final class ClientProtos {
      * <code>optional .NameBytesPair exception = 2;</code>
      */
     org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.NameBytesPairOrBuilder getExceptionOrBuilder();
+
+    // optional bool processed = 3;
+    /**
+     * <code>optional bool processed = 3;</code>
+     *
+     * <pre>
+     * used for conditional mutations to indicate processed only
+     * </pre>
+     */
+    boolean hasProcessed();
+    /**
+     * <code>optional bool processed = 3;</code>
+     *
+     * <pre>
+     * used for conditional mutations to indicate processed only
+     * </pre>
+     */
+    boolean getProcessed();
   }
   /**
    * Protobuf type {@code ActionResult}
@@ -24474,6 +25535,11 @@ public final class ClientProtos {
               bitField0_ |= 0x00000002;
               break;
             }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              processed_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -24558,9 +25624,34 @@ public final class ClientProtos {
       return exception_;
     }
 
+    // optional bool processed = 3;
+    public static final int PROCESSED_FIELD_NUMBER = 3;
+    private boolean processed_;
+    /**
+     * <code>optional bool processed = 3;</code>
+     *
+     * <pre>
+     * used for conditional mutations to indicate processed only
+     * </pre>
+     */
+    public boolean hasProcessed() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional bool processed = 3;</code>
+     *
+     * <pre>
+     * used for conditional mutations to indicate processed only
+     * </pre>
+     */
+    public boolean getProcessed() {
+      return processed_;
+    }
+
     private void initFields() {
       value_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Result.getDefaultInstance();
       exception_ = org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.NameBytesPair.getDefaultInstance();
+      processed_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -24586,6 +25677,9 @@ public final class ClientProtos {
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
         output.writeMessage(2, exception_);
       }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeBool(3, processed_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -24603,6 +25697,10 @@ public final class ClientProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(2, exception_);
       }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(3, processed_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -24636,6 +25734,11 @@ public final class ClientProtos {
         result = result && getException()
             .equals(other.getException());
       }
+      result = result && (hasProcessed() == other.hasProcessed());
+      if (hasProcessed()) {
+        result = result && (getProcessed()
+            == other.getProcessed());
+      }
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -24657,6 +25760,10 @@ public final class ClientProtos {
         hash = (37 * hash) + EXCEPTION_FIELD_NUMBER;
         hash = (53 * hash) + getException().hashCode();
       }
+      if (hasProcessed()) {
+        hash = (37 * hash) + PROCESSED_FIELD_NUMBER;
+        hash = (53 * hash) + hashBoolean(getProcessed());
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -24790,6 +25897,8 @@ public final class ClientProtos {
           exceptionBuilder_.clear();
         }
         bitField0_ = (bitField0_ & ~0x00000002);
+        processed_ = false;
+        bitField0_ = (bitField0_ & ~0x00000004);
         return this;
       }
 
@@ -24834,6 +25943,10 @@ public final class ClientProtos {
         } else {
           result.exception_ = exceptionBuilder_.build();
         }
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.processed_ = processed_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -24856,6 +25969,9 @@ public final class ClientProtos {
         if (other.hasException()) {
           mergeException(other.getException());
         }
+        if (other.hasProcessed()) {
+          setProcessed(other.getProcessed());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -25123,6 +26239,55 @@ public final class ClientProtos {
         return exceptionBuilder_;
       }
 
+      // optional bool processed = 3;
+      private boolean processed_ ;
+      /**
+       * <code>optional bool processed = 3;</code>
+       *
+       * <pre>
+       * used for conditional mutations to indicate processed only
+       * </pre>
+       */
+      public boolean hasProcessed() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional bool processed = 3;</code>
+       *
+       * <pre>
+       * used for conditional mutations to indicate processed only
+       * </pre>
+       */
+      public boolean getProcessed() {
+        return processed_;
+      }
+      /**
+       * <code>optional bool processed = 3;</code>
+       *
+       * <pre>
+       * used for conditional mutations to indicate processed only
+       * </pre>
+       */
+      public Builder setProcessed(boolean value) {
+        bitField0_ |= 0x00000004;
+        processed_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool processed = 3;</code>
+       *
+       * <pre>
+       * used for conditional mutations to indicate processed only
+       * </pre>
+       */
+      public Builder clearProcessed() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        processed_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:ActionResult)
     }
 
@@ -26183,23 +27348,755 @@ public final class ClientProtos {
     // @@protoc_insertion_point(class_scope:MultiRequest)
   }
 
-  public interface MultiResponseOrBuilder
+  public interface RegionLoadStatsOrBuilder
       extends com.google.protobuf.MessageOrBuilder {
 
-    // repeated .ActionResult result = 1;
+    // optional int32 memstoreLoad = 1 [default = 0];
     /**
-     * <code>repeated .ActionResult result = 1;</code>
+     * <code>optional int32 memstoreLoad = 1 [default = 0];</code>
+     *
+     * <pre>
+     * Memstore size against the size at which updates are blocked.
+     * </pre>
      */
-    java.util.List<org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ActionResult> 
-        getResultList();
+    boolean hasMemstoreLoad();
     /**
-     * <code>repeated .ActionResult result = 1;</code>
+     * <code>optional int32 memstoreLoad = 1 [default = 0];</code>
+     *
+     * <pre>
+     * Memstore size against the size at which updates are blocked.
+     * </pre>
      */
-    org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ActionResult getResult(int index);
+    int getMemstoreLoad();
+
+    // optional int32 compactionPressure = 2 [default = 0];
     /**
-     * <code>repeated .ActionResult result = 1;</code>
+     * <code>optional int32 compactionPressure = 2 [default = 0];</code>
+     *
+     * <pre>
+     * Store files in the region's fullest store against the count at which
+     * flushes are held back.
+     * </pre>
      */
-    int getResultCount();
+    boolean hasCompactionPressure();
+    /**
+     * <code>optional int32 compactionPressure = 2 [default = 0];</code>
+     *
+     * <pre>
+     * Store files in the region's fullest store against the count at which
+     * flushes are held back.
+     * </pre>
+     */
+    int getCompactionPressure();
+
+    // optional int32 callQueueLoad = 3 [default = 0];
+    /**
+     * <code>optional int32 callQueueLoad = 3 [default = 0];</code>
+     *
+     * <pre>
+     * Calls waiting in the server's call queue against its capacity.
+     * </pre>
+     */
+    boolean hasCallQueueLoad();
+    /**
+     * <code>optional int32 callQueueLoad = 3 [default = 0];</code>
+     *
+     * <pre>
+     * Calls waiting in the server's call queue against its capacity.
+     * </pre>
+     */
+    int getCallQueueLoad();
+  }
+  /**
+   * Protobuf type {@code RegionLoadStats}
+   *
+   * <pre>
+   **
+   * How loaded a region and its server are, for clients to pace their writes by.
+   * Each is a percentage of the level at which the server starts blocking or
+   * turning away writes.
+   * </pre>
+   */
+  public static final class RegionLoadStats extends
+      com.google.protobuf.GeneratedMessage
+      implements RegionLoadStatsOrBuilder {
+    // Use RegionLoadStats.newBuilder() to construct.
+    private RegionLoadStats(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private RegionLoadStats(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final RegionLoadStats defaultInstance;
+    public static RegionLoadStats getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public RegionLoadStats getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private RegionLoadStats(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              memstoreLoad_ = input.readInt32();
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              compactionPressure_ = input.readInt32();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              callQueueLoad_ = input.readInt32();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return org.apache.hadoop.hbase.protobuf.generated.ClientProtos.internal_static_RegionLoadStats_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return org.apache.hadoop.hbase.protobuf.generated.ClientProtos.internal_static_RegionLoadStats_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.class, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<RegionLoadStats> PARSER =
+        new com.google.protobuf.AbstractParser<RegionLoadStats>() {
+      public RegionLoadStats parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new RegionLoadStats(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<RegionLoadStats> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    // optional int32 memstoreLoad = 1 [default = 0];
+    public static final int MEMSTORELOAD_FIELD_NUMBER = 1;
+    private int memstoreLoad_;
+    /**
+     * <code>optional int32 memstoreLoad = 1 [default = 0];</code>
+     *
+     * <pre>
+     * Memstore size against the size at which updates are blocked.
+     * </pre>
+     */
+    public boolean hasMemstoreLoad() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional int32 memstoreLoad = 1 [default = 0];</code>
+     *
+     * <pre>
+     * Memstore size against the size at which updates are blocked.
+     * </pre>
+     */
+    public int getMemstoreLoad() {
+      return memstoreLoad_;
+    }
+
+    // optional int32 compactionPressure = 2 [default = 0];
+    public static final int COMPACTIONPRESSURE_FIELD_NUMBER = 2;
+    private int compactionPressure_;
+    /**
+     * <code>optional int32 compactionPressure = 2 [default = 0];</code>
+     *
+     * <pre>
+     * Store files in the region's fullest store against the count at which
+     * flushes are held back.
+     * </pre>
+     */
+    public boolean hasCompactionPressure() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional int32 compactionPressure = 2 [default = 0];</code>
+     *
+     * <pre>
+     * Store files in the region's fullest store against the count at which
+     * flushes are held back.
+     * </pre>
+     */
+    public int getCompactionPressure() {
+      return compactionPressure_;
+    }
+
+    // optional int32 callQueueLoad = 3 [default = 0];
+    public static final int CALLQUEUELOAD_FIELD_NUMBER = 3;
+    private int callQueueLoad_;
+    /**
+     * <code>optional int32 callQueueLoad = 3 [default = 0];</code>
+     *
+     * <pre>
+     * Calls waiting in the server's call queue against its capacity.
+     * </pre>
+     */
+    public boolean hasCallQueueLoad() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional int32 callQueueLoad = 3 [default = 0];</code>
+     *
+     * <pre>
+     * Calls waiting in the server's call queue against its capacity.
+     * </pre>
+     */
+    public int getCallQueueLoad() {
+      return callQueueLoad_;
+    }
+
+    private void initFields() {
+      memstoreLoad_ = 0;
+      compactionPressure_ = 0;
+      callQueueLoad_ = 0;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized != -1) return isInitialized == 1;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeInt32(1, memstoreLoad_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeInt32(2, compactionPressure_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeInt32(3, callQueueLoad_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(1, memstoreLoad_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(2, compactionPressure_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(3, callQueueLoad_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats)) {
+        return super.equals(obj);
+      }
+      org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats other = (org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats) obj;
+
+      boolean result = true;
+      result = result && (hasMemstoreLoad() == other.hasMemstoreLoad());
+      if (hasMemstoreLoad()) {
+        result = result && (getMemstoreLoad()
+            == other.getMemstoreLoad());
+      }
+      result = result && (hasCompactionPressure() == other.hasCompactionPressure());
+      if (hasCompactionPressure()) {
+        result = result && (getCompactionPressure()
+            == other.getCompactionPressure());
+      }
+      result = result && (hasCallQueueLoad() == other.hasCallQueueLoad());
+      if (hasCallQueueLoad()) {
+        result = result && (getCallQueueLoad()
+            == other.getCallQueueLoad());
+      }
+      result = result &&
+          getUnknownFields().equals(other.getUnknownFields());
+      return result;
+    }
+
+    private int memoizedHashCode = 0;
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptorForType().hashCode();
+      if (hasMemstoreLoad()) {
+        hash = (37 * hash) + MEMSTORELOAD_FIELD_NUMBER;
+        hash = (53 * hash) + getMemstoreLoad();
+      }
+      if (hasCompactionPressure()) {
+        hash = (37 * hash) + COMPACTIONPRESSURE_FIELD_NUMBER;
+        hash = (53 * hash) + getCompactionPressure();
+      }
+      if (hasCallQueueLoad()) {
+        hash = (37 * hash) + CALLQUEUELOAD_FIELD_NUMBER;
+        hash = (53 * hash) + getCallQueueLoad();
+      }
+      hash = (29 * hash) + getUnknownFields().hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code RegionLoadStats}
+     *
+     * <pre>
+     **
+     * How loaded a region and its server are, for clients to pace their writes by.
+     * Each is a percentage of the level at which the server starts blocking or
+     * turning away writes.
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder>
+       implements org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStatsOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return org.apache.hadoop.hbase.protobuf.generated.ClientProtos.internal_static_RegionLoadStats_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return org.apache.hadoop.hbase.protobuf.generated.ClientProtos.internal_static_RegionLoadStats_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.class, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.Builder.class);
+      }
+
+      // Construct using org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        memstoreLoad_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        compactionPressure_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        callQueueLoad_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return org.apache.hadoop.hbase.protobuf.generated.ClientProtos.internal_static_RegionLoadStats_descriptor;
+      }
+
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats getDefaultInstanceForType() {
+        return org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.getDefaultInstance();
+      }
+
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats build() {
+        org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats buildPartial() {
+        org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats result = new org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.memstoreLoad_ = memstoreLoad_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.compactionPressure_ = compactionPressure_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.callQueueLoad_ = callQueueLoad_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats) {
+          return mergeFrom((org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats other) {
+        if (other == org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.getDefaultInstance()) return this;
+        if (other.hasMemstoreLoad()) {
+          setMemstoreLoad(other.getMemstoreLoad());
+        }
+        if (other.hasCompactionPressure()) {
+          setCompactionPressure(other.getCompactionPressure());
+        }
+        if (other.hasCallQueueLoad()) {
+          setCallQueueLoad(other.getCallQueueLoad());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      // optional int32 memstoreLoad = 1 [default = 0];
+      private int memstoreLoad_ ;
+      /**
+       * <code>optional int32 memstoreLoad = 1 [default = 0];</code>
+       *
+       * <pre>
+       * Memstore size against the size at which updates are blocked.
+       * </pre>
+       */
+      public boolean hasMemstoreLoad() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional int32 memstoreLoad = 1 [default = 0];</code>
+       *
+       * <pre>
+       * Memstore size against the size at which updates are blocked.
+       * </pre>
+       */
+      public int getMemstoreLoad() {
+        return memstoreLoad_;
+      }
+      /**
+       * <code>optional int32 memstoreLoad = 1 [default = 0];</code>
+       *
+       * <pre>
+       * Memstore size against the size at which updates are blocked.
+       * </pre>
+       */
+      public Builder setMemstoreLoad(int value) {
+        bitField0_ |= 0x00000001;
+        memstoreLoad_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 memstoreLoad = 1 [default = 0];</code>
+       *
+       * <pre>
+       * Memstore size against the size at which updates are blocked.
+       * </pre>
+       */
+      public Builder clearMemstoreLoad() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        memstoreLoad_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // optional int32 compactionPressure = 2 [default = 0];
+      private int compactionPressure_ ;
+      /**
+       * <code>optional int32 compactionPressure = 2 [default = 0];</code>
+       *
+       * <pre>
+       * Store files in the region's fullest store against the count at which
+       * flushes are held back.
+       * </pre>
+       */
+      public boolean hasCompactionPressure() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional int32 compactionPressure = 2 [default = 0];</code>
+       *
+       * <pre>
+       * Store files in the region's fullest store against the count at which
+       * flushes are held back.
+       * </pre>
+       */
+      public int getCompactionPressure() {
+        return compactionPressure_;
+      }
+      /**
+       * <code>optional int32 compactionPressure = 2 [default = 0];</code>
+       *
+       * <pre>
+       * Store files in the region's fullest store against the count at which
+       * flushes are held back.
+       * </pre>
+       */
+      public Builder setCompactionPressure(int value) {
+        bitField0_ |= 0x00000002;
+        compactionPressure_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 compactionPressure = 2 [default = 0];</code>
+       *
+       * <pre>
+       * Store files in the region's fullest store against the count at which
+       * flushes are held back.
+       * </pre>
+       */
+      public Builder clearCompactionPressure() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        compactionPressure_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // optional int32 callQueueLoad = 3 [default = 0];
+      private int callQueueLoad_ ;
+      /**
+       * <code>optional int32 callQueueLoad = 3 [default = 0];</code>
+       *
+       * <pre>
+       * Calls waiting in the server's call queue against its capacity.
+       * </pre>
+       */
+      public boolean hasCallQueueLoad() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional int32 callQueueLoad = 3 [default = 0];</code>
+       *
+       * <pre>
+       * Calls waiting in the server's call queue against its capacity.
+       * </pre>
+       */
+      public int getCallQueueLoad() {
+        return callQueueLoad_;
+      }
+      /**
+       * <code>optional int32 callQueueLoad = 3 [default = 0];</code>
+       *
+       * <pre>
+       * Calls waiting in the server's call queue against its capacity.
+       * </pre>
+       */
+      public Builder setCallQueueLoad(int value) {
+        bitField0_ |= 0x00000004;
+        callQueueLoad_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 callQueueLoad = 3 [default = 0];</code>
+       *
+       * <pre>
+       * Calls waiting in the server's call queue against its capacity.
+       * </pre>
+       */
+      public Builder clearCallQueueLoad() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        callQueueLoad_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:RegionLoadStats)
+    }
+
+    static {
+      defaultInstance = new RegionLoadStats(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:RegionLoadStats)
+  }
+
+  public interface MultiResponseOrBuilder
+      extends com.google.protobuf.MessageOrBuilder {
+
+    // repeated .ActionResult result = 1;
+    /**
+     * <code>repeated .ActionResult result = 1;</code>
+     */
+    java.util.List<org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ActionResult> 
+        getResultList();
+    /**
+     * <code>repeated .ActionResult result = 1;</code>
+     */
+    org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ActionResult getResult(int index);
+    /**
+     * <code>repeated .ActionResult result = 1;</code>
+     */
+    int getResultCount();
     /**
      * <code>repeated .ActionResult result = 1;</code>
      */
@@ -26210,6 +28107,20 @@ public final class ClientProtos {
      */
     org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ActionResultOrBuilder getResultOrBuilder(
         int index);
+
+    // optional .RegionLoadStats loadStats = 2;
+    /**
+     * <code>optional .RegionLoadStats loadStats = 2;</code>
+     */
+    boolean hasLoadStats();
+    /**
+     * <code>optional .RegionLoadStats loadStats = 2;</code>
+     */
+    org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats getLoadStats();
+    /**
+     * <code>optional .RegionLoadStats loadStats = 2;</code>
+     */
+    org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStatsOrBuilder getLoadStatsOrBuilder();
   }
   /**
    * Protobuf type {@code MultiResponse}
@@ -26270,6 +28181,19 @@ public final class ClientProtos {
               result_.add(input.readMessage(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ActionResult.PARSER, extensionRegistry));
               break;
             }
+            case 18: {
+              org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = loadStats_.toBuilder();
+              }
+              loadStats_ = input.readMessage(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(loadStats_);
+                loadStats_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -26312,6 +28236,7 @@ public final class ClientProtos {
       return PARSER;
     }
 
+    private int bitField0_;
     // repeated .ActionResult result = 1;
     public static final int RESULT_FIELD_NUMBER = 1;
     private java.util.List<org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ActionResult> result_;
@@ -26348,8 +28273,31 @@ public final class ClientProtos {
       return result_.get(index);
     }
 
+    // optional .RegionLoadStats loadStats = 2;
+    public static final int LOADSTATS_FIELD_NUMBER = 2;
+    private org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats loadStats_;
+    /**
+     * <code>optional .RegionLoadStats loadStats = 2;</code>
+     */
+    public boolean hasLoadStats() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional .RegionLoadStats loadStats = 2;</code>
+     */
+    public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats getLoadStats() {
+      return loadStats_;
+    }
+    /**
+     * <code>optional .RegionLoadStats loadStats = 2;</code>
+     */
+    public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStatsOrBuilder getLoadStatsOrBuilder() {
+      return loadStats_;
+    }
+
     private void initFields() {
       result_ = java.util.Collections.emptyList();
+      loadStats_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -26372,6 +28320,9 @@ public final class ClientProtos {
       for (int i = 0; i < result_.size(); i++) {
         output.writeMessage(1, result_.get(i));
       }
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(2, loadStats_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -26385,6 +28336,10 @@ public final class ClientProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(1, result_.get(i));
       }
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(2, loadStats_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -26410,6 +28365,11 @@ public final class ClientProtos {
       boolean result = true;
       result = result && getResultList()
           .equals(other.getResultList());
+      result = result && (hasLoadStats() == other.hasLoadStats());
+      if (hasLoadStats()) {
+        result = result && getLoadStats()
+            .equals(other.getLoadStats());
+      }
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -26427,6 +28387,10 @@ public final class ClientProtos {
         hash = (37 * hash) + RESULT_FIELD_NUMBER;
         hash = (53 * hash) + getResultList().hashCode();
       }
+      if (hasLoadStats()) {
+        hash = (37 * hash) + LOADSTATS_FIELD_NUMBER;
+        hash = (53 * hash) + getLoadStats().hashCode();
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -26529,6 +28493,7 @@ public final class ClientProtos {
       private void maybeForceBuilderInitialization() {
         if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
           getResultFieldBuilder();
+          getLoadStatsFieldBuilder();
         }
       }
       private static Builder create() {
@@ -26543,6 +28508,12 @@ public final class ClientProtos {
         } else {
           resultBuilder_.clear();
         }
+        if (loadStatsBuilder_ == null) {
+          loadStats_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.getDefaultInstance();
+        } else {
+          loadStatsBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000002);
         return this;
       }
 
@@ -26570,6 +28541,7 @@ public final class ClientProtos {
       public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MultiResponse buildPartial() {
         org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MultiResponse result = new org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MultiResponse(this);
         int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
         if (resultBuilder_ == null) {
           if (((bitField0_ & 0x00000001) == 0x00000001)) {
             result_ = java.util.Collections.unmodifiableList(result_);
@@ -26579,6 +28551,15 @@ public final class ClientProtos {
         } else {
           result.result_ = resultBuilder_.build();
         }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (loadStatsBuilder_ == null) {
+          result.loadStats_ = loadStats_;
+        } else {
+          result.loadStats_ = loadStatsBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
@@ -26620,6 +28601,9 @@ public final class ClientProtos {
             }
           }
         }
+        if (other.hasLoadStats()) {
+          mergeLoadStats(other.getLoadStats());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -26893,6 +28877,123 @@ public final class ClientProtos {
         return resultBuilder_;
       }
 
+      // optional .RegionLoadStats loadStats = 2;
+      private org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats loadStats_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.Builder, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStatsOrBuilder> loadStatsBuilder_;
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      public boolean hasLoadStats() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats getLoadStats() {
+        if (loadStatsBuilder_ == null) {
+          return loadStats_;
+        } else {
+          return loadStatsBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      public Builder setLoadStats(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats value) {
+        if (loadStatsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          loadStats_ = value;
+          onChanged();
+        } else {
+          loadStatsBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      public Builder setLoadStats(
+          org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.Builder builderForValue) {
+        if (loadStatsBuilder_ == null) {
+          loadStats_ = builderForValue.build();
+          onChanged();
+        } else {
+          loadStatsBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      public Builder mergeLoadStats(org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats value) {
+        if (loadStatsBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) == 0x00000002) &&
+              loadStats_ != org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.getDefaultInstance()) {
+            loadStats_ =
+              org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.newBuilder(loadStats_).mergeFrom(value).buildPartial();
+          } else {
+            loadStats_ = value;
+          }
+          onChanged();
+        } else {
+          loadStatsBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      public Builder clearLoadStats() {
+        if (loadStatsBuilder_ == null) {
+          loadStats_ = org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.getDefaultInstance();
+          onChanged();
+        } else {
+          loadStatsBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
+      }
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.Builder getLoadStatsBuilder() {
+        bitField0_ |= 0x00000002;
+        onChanged();
+        return getLoadStatsFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      public org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStatsOrBuilder getLoadStatsOrBuilder() {
+        if (loadStatsBuilder_ != null) {
+          return loadStatsBuilder_.getMessageOrBuilder();
+        } else {
+          return loadStats_;
+        }
+      }
+      /**
+       * <code>optional .RegionLoadStats loadStats = 2;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.Builder, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStatsOrBuilder> 
+          getLoadStatsFieldBuilder() {
+        if (loadStatsBuilder_ == null) {
+          loadStatsBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStats.Builder, org.apache.hadoop.hbase.protobuf.generated.ClientProtos.RegionLoadStatsOrBuilder>(
+                  loadStats_,
+                  getParentForChildren(),
+                  isClean());
+          loadStats_ = null;
+        }
+        return loadStatsBuilder_;
+      }
+
       // @@protoc_insertion_point(builder_scope:MultiResponse)
     }
 
@@ -27687,6 +29788,11 @@ public final class ClientProtos {
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_MultiRequest_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_RegionLoadStats_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_RegionLoadStats_fieldAccessorTable;
   private static com.google.protobuf.Descriptors.Descriptor
     internal_static_MultiResponse_descriptor;
   private static
@@ -27747,7 +29853,7 @@ public final class ClientProtos {
       "gion\030\001 \002(\0132\020.RegionSpecifier\022 \n\010mutation" +
       "\030\002 \002(\0132\016.MutationProto\022\035\n\tcondition\030\003 \001(" +
       "\0132\n.Condition\"<\n\016MutateResponse\022\027\n\006resul" +
-      "t\030\001 \001(\0132\007.Result\022\021\n\tprocessed\030\002 \001(\010\"\344\002\n\004" +
+      "t\030\001 \001(\0132\007.Result\022\021\n\tprocessed\030\002 \001(\010\"\233\003\n\004" +
       "Scan\022\027\n\006column\030\001 \003(\0132\007.Column\022!\n\tattribu" +
       "te\030\002 \003(\0132\016.NameBytesPair\022\021\n\tstart_row\030\003 " +
       "\001(\014\022\020\n\010stop_row\030\004 \001(\014\022\027\n\006filter\030\005 \001(\0132\007.",
@@ -27756,45 +29862,55 @@ public final class ClientProtos {
       "\010 \001(\010:\004true\022\022\n\nbatch_size\030\t \001(\r\022\027\n\017max_r" +
       "esult_size\030\n \001(\004\022\023\n\013store_limit\030\013 \001(\r\022\024\n" +
       "\014store_offset\030\014 \001(\r\022&\n\036load_column_famil" +
-      "ies_on_demand\030\r \001(\010\022\r\n\005small\030\016 \001(\010\"\236\001\n\013S" +
-      "canRequest\022 \n\006region\030\001 \001(\0132\020.RegionSpeci" +
-      "fier\022\023\n\004scan\030\002 \001(\0132\005.Scan\022\022\n\nscanner_id\030" +
-      "\003 \001(\004\022\026\n\016number_of_rows\030\004 \001(\r\022\025\n\rclose_s" +
-      "canner\030\005 \001(\010\022\025\n\rnext_call_seq\030\006 \001(\004\"y\n\014S",
-      "canResponse\022\030\n\020cells_per_result\030\001 \003(\r\022\022\n" +
-      "\nscanner_id\030\002 \001(\004\022\024\n\014more_results\030\003 \001(\010\022" +
-      "\013\n\003ttl\030\004 \001(\r\022\030\n\007results\030\005 \003(\0132\007.Result\"\263" +
-      "\001\n\024BulkLoadHFileRequest\022 \n\006region\030\001 \002(\0132" +
-      "\020.RegionSpecifier\0225\n\013family_path\030\002 \003(\0132 " +
-      ".BulkLoadHFileRequest.FamilyPath\022\026\n\016assi" +
-      "gn_seq_num\030\003 \001(\010\032*\n\nFamilyPath\022\016\n\006family" +
-      "\030\001 \002(\014\022\014\n\004path\030\002 \002(\t\"\'\n\025BulkLoadHFileRes" +
-      "ponse\022\016\n\006loaded\030\001 \002(\010\"a\n\026CoprocessorServ" +
-      "iceCall\022\013\n\003row\030\001 \002(\014\022\024\n\014service_name\030\002 \002",
-      "(\t\022\023\n\013method_name\030\003 \002(\t\022\017\n\007request\030\004 \002(\014" +
-      "\"d\n\031CoprocessorServiceRequest\022 \n\006region\030" +
-      "\001 \002(\0132\020.RegionSpecifier\022%\n\004call\030\002 \002(\0132\027." +
-      "CoprocessorServiceCall\"]\n\032CoprocessorSer" +
-      "viceResponse\022 \n\006region\030\001 \002(\0132\020.RegionSpe" +
-      "cifier\022\035\n\005value\030\002 \002(\0132\016.NameBytesPair\"B\n" +
-      "\013MultiAction\022 \n\010mutation\030\001 \001(\0132\016.Mutatio" +
-      "nProto\022\021\n\003get\030\002 \001(\0132\004.Get\"I\n\014ActionResul" +
-      "t\022\026\n\005value\030\001 \001(\0132\007.Result\022!\n\texception\030\002" +
-      " \001(\0132\016.NameBytesPair\"^\n\014MultiRequest\022 \n\006",
-      "region\030\001 \002(\0132\020.RegionSpecifier\022\034\n\006action" +
-      "\030\002 \003(\0132\014.MultiAction\022\016\n\006atomic\030\003 \001(\010\".\n\r" +
-      "MultiResponse\022\035\n\006result\030\001 \003(\0132\r.ActionRe" +
-      "sult2\342\002\n\rClientService\022 \n\003Get\022\013.GetReque" +
-      "st\032\014.GetResponse\022/\n\010MultiGet\022\020.MultiGetR" +
-      "equest\032\021.MultiGetResponse\022)\n\006Mutate\022\016.Mu" +
-      "tateRequest\032\017.MutateResponse\022#\n\004Scan\022\014.S" +
-      "canRequest\032\r.ScanResponse\022>\n\rBulkLoadHFi" +
-      "le\022\025.BulkLoadHFileRequest\032\026.BulkLoadHFil" +
-      "eResponse\022F\n\013ExecService\022\032.CoprocessorSe",
-      "rviceRequest\032\033.CoprocessorServiceRespons" +
-      "e\022&\n\005Multi\022\r.MultiRequest\032\016.MultiRespons" +
-      "eBB\n*org.apache.hadoop.hbase.protobuf.ge" +
-      "neratedB\014ClientProtosH\001\210\001\001\240\001\001"
+      "ies_on_demand\030\r \001(\010\022\r\n\005small\030\016 \001(\010\022\035\n\025al" +
+      "low_partial_results\030\017 \001(\010\022\026\n\016async_prefe" +
+      "tch\030\020 \001(\010\"\342\001\n\013ScanRequest\022 \n\006region\030\001 \001(" +
+      "\0132\020.RegionSpecifier\022\023\n\004scan\030\002 \001(\0132\005.Scan" +
+      "\022\022\n\nscanner_id\030\003 \001(\004\022\026\n\016number_of_rows\030\004",
+      " \001(\r\022\025\n\rclose_scanner\030\005 \001(\010\022\025\n\rnext_call" +
+      "_seq\030\006 \001(\004\022!\n\031client_handles_heartbeats\030" +
+      "\007 \001(\010\022\037\n\027client_handles_partials\030\010 \001(\010\"\265" +
+      "\001\n\014ScanResponse\022\030\n\020cells_per_result\030\001 \003(" +
+      "\r\022\022\n\nscanner_id\030\002 \001(\004\022\024\n\014more_results\030\003 " +
+      "\001(\010\022\013\n\003ttl\030\004 \001(\r\022\030\n\007results\030\005 \003(\0132\007.Resu" +
+      "lt\022\031\n\021heartbeat_message\030\006 \001(\010\022\037\n\027partial" +
+      "_flag_per_result\030\007 \003(\010\"\263\001\n\024BulkLoadHFile" +
+      "Request\022 \n\006region\030\001 \002(\0132\020.RegionSpecifie" +
+      "r\0225\n\013family_path\030\002 \003(\0132 .BulkLoadHFileRe",
+      "quest.FamilyPath\022\026\n\016assign_seq_num\030\003 \001(\010" +
+      "\032*\n\nFamilyPath\022\016\n\006family\030\001 \002(\014\022\014\n\004path\030\002" +
+      " \002(\t\"\'\n\025BulkLoadHFileResponse\022\016\n\006loaded\030" +
+      "\001 \002(\010\"a\n\026CoprocessorServiceCall\022\013\n\003row\030\001" +
+      " \002(\014\022\024\n\014service_name\030\002 \002(\t\022\023\n\013method_nam" +
+      "e\030\003 \002(\t\022\017\n\007request\030\004 \002(\014\"d\n\031CoprocessorS" +
+      "erviceRequest\022 \n\006region\030\001 \002(\0132\020.RegionSp" +
+      "ecifier\022%\n\004call\030\002 \002(\0132\027.CoprocessorServi" +
+      "ceCall\"]\n\032CoprocessorServiceResponse\022 \n\006" +
+      "region\030\001 \002(\0132\020.RegionSpecifier\022\035\n\005value\030",
+      "\002 \002(\0132\016.NameBytesPair\"a\n\013MultiAction\022 \n\010" +
+      "mutation\030\001 \001(\0132\016.MutationProto\022\021\n\003get\030\002 " +
+      "\001(\0132\004.Get\022\035\n\tcondition\030\003 \001(\0132\n.Condition" +
+      "\"\\\n\014ActionResult\022\026\n\005value\030\001 \001(\0132\007.Result" +
+      "\022!\n\texception\030\002 \001(\0132\016.NameBytesPair\022\021\n\tp" +
+      "rocessed\030\003 \001(\010\"^\n\014MultiRequest\022 \n\006region" +
+      "\030\001 \002(\0132\020.RegionSpecifier\022\034\n\006action\030\002 \003(\013" +
+      "2\014.MultiAction\022\016\n\006atomic\030\003 \001(\010\"c\n\017Region" +
+      "LoadStats\022\027\n\014memstoreLoad\030\001 \001(\005:\0010\022\035\n\022co" +
+      "mpactionPressure\030\002 \001(\005:\0010\022\030\n\rcallQueueLo",
+      "ad\030\003 \001(\005:\0010\"S\n\rMultiResponse\022\035\n\006result\030\001" +
+      " \003(\0132\r.ActionResult\022#\n\tloadStats\030\002 \001(\0132\020" +
+      ".RegionLoadStats2\342\002\n\rClientService\022 \n\003Ge" +
+      "t\022\013.GetRequest\032\014.GetResponse\022/\n\010MultiGet" +
+      "\022\020.MultiGetRequest\032\021.MultiGetResponse\022)\n" +
+      "\006Mutate\022\016.MutateRequest\032\017.MutateResponse" +
+      "\022#\n\004Scan\022\014.ScanRequest\032\r.ScanResponse\022>\n" +
+      "\rBulkLoadHFile\022\025.BulkLoadHFileRequest\032\026." +
+      "BulkLoadHFileResponse\022F\n\013ExecService\022\032.C" +
+      "oprocessorServiceRequest\032\033.CoprocessorSe",
+      "rviceResponse\022&\n\005Multi\022\r.MultiRequest\032\016." +
+      "MultiResponseBB\n*org.apache.hadoop.hbase" +
+      ".protobuf.generatedB\014ClientProtosH\001\210\001\001\240\001" +
+      "\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
       new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
@@ -27884,19 +30000,19 @@ public final class ClientProtos {
           internal_static_Scan_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_Scan_descriptor,
-              new java.lang.String[] { "Column", "Attribute", "StartRow", "StopRow", "Filter", "TimeRange", "MaxVersions", "CacheBlocks", "BatchSize", "MaxResultSize", "StoreLimit", "StoreOffset", "LoadColumnFamiliesOnDemand", "Small", });
+              new java.lang.String[] { "Column", "Attribute", "StartRow", "StopRow", "Filter", "TimeRange", "MaxVersions", "CacheBlocks", "BatchSize", "MaxResultSize", "StoreLimit", "StoreOffset", "LoadColumnFamiliesOnDemand", "Small", "AllowPartialResults", "AsyncPrefetch", });
           internal_static_ScanRequest_descriptor =
             getDescriptor().getMessageTypes().get(12);
           internal_static_ScanRequest_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_ScanRequest_descriptor,
-              new java.lang.String[] { "Region", "Scan", "ScannerId", "NumberOfRows", "CloseScanner", "NextCallSeq", });
+              new java.lang.String[] { "Region", "Scan", "ScannerId", "NumberOfRows", "CloseScanner", "NextCallSeq", "ClientHandlesHeartbeats", "ClientHandlesPartials", });
           internal_static_ScanResponse_descriptor =
             getDescriptor().getMessageTypes().get(13);
           internal_static_ScanResponse_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_ScanResponse_descriptor,
-              new java.lang.String[] { "CellsPerResult", "ScannerId", "MoreResults", "Ttl", "Results", });
+              new java.lang.String[] { "CellsPerResult", "ScannerId", "MoreResults", "Ttl", "Results", "HeartbeatMessage", "PartialFlagPerResult", });
           internal_static_BulkLoadHFileRequest_descriptor =
             getDescriptor().getMessageTypes().get(14);
           internal_static_BulkLoadHFileRequest_fieldAccessorTable = new
@@ -27938,25 +30054,31 @@ public final class ClientProtos {
           internal_static_MultiAction_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_MultiAction_descriptor,
-              new java.lang.String[] { "Mutation", "Get", });
+              new java.lang.String[] { "Mutation", "Get", "Condition", });
           internal_static_ActionResult_descriptor =
             getDescriptor().getMessageTypes().get(20);
           internal_static_ActionResult_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_ActionResult_descriptor,
-              new java.lang.String[] { "Value", "Exception", });
+              new java.lang.String[] { "Value", "Exception", "Processed", });
           internal_static_MultiRequest_descriptor =
             getDescriptor().getMessageTypes().get(21);
           internal_static_MultiRequest_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_MultiRequest_descriptor,
               new java.lang.String[] { "Region", "Action", "Atomic", });
-          internal_static_MultiResponse_descriptor =
+          internal_static_RegionLoadStats_descriptor =
             getDescriptor().getMessageTypes().get(22);
+          internal_static_RegionLoadStats_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_RegionLoadStats_descriptor,
+              new java.lang.String[] { "MemstoreLoad", "CompactionPressure", "CallQueueLoad", });
+          internal_static_MultiResponse_descriptor =
+            getDescriptor().getMessageTypes().get(23);
           internal_static_MultiResponse_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_MultiResponse_descriptor,
-              new java.lang.String[] { "Result", });
+              new java.lang.String[] { "Result", "LoadStats", });
           return null;
         }
       };
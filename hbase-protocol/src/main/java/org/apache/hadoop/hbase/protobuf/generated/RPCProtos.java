@@ -3662,6 +3662,28 @@ public final class RPCProtos {
      * </pre>
      */
     org.apache.hadoop.hbase.protobuf.generated.RPCProtos.CellBlockMetaOrBuilder getCellBlockMetaOrBuilder();
+
+    // optional uint32 timeout = 6;
+    /**
+     * <code>optional uint32 timeout = 6;</code>
+     *
+     * <pre>
+     * TODO: Have client specify priority
+     * How long, in milliseconds, the client waits for a response. The server may skip the call
+     * if it has already waited this long by the time a handler gets to it.
+     * </pre>
+     */
+    boolean hasTimeout();
+    /**
+     * <code>optional uint32 timeout = 6;</code>
+     *
+     * <pre>
+     * TODO: Have client specify priority
+     * How long, in milliseconds, the client waits for a response. The server may skip the call
+     * if it has already waited this long by the time a handler gets to it.
+     * </pre>
+     */
+    int getTimeout();
   }
   /**
    * Protobuf type {@code RequestHeader}
@@ -3759,6 +3781,11 @@ public final class RPCProtos {
               bitField0_ |= 0x00000010;
               break;
             }
+            case 48: {
+              bitField0_ |= 0x00000020;
+              timeout_ = input.readUInt32();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -3946,12 +3973,41 @@ public final class RPCProtos {
       return cellBlockMeta_;
     }
 
+    // optional uint32 timeout = 6;
+    public static final int TIMEOUT_FIELD_NUMBER = 6;
+    private int timeout_;
+    /**
+     * <code>optional uint32 timeout = 6;</code>
+     *
+     * <pre>
+     * TODO: Have client specify priority
+     * How long, in milliseconds, the client waits for a response. The server may skip the call
+     * if it has already waited this long by the time a handler gets to it.
+     * </pre>
+     */
+    public boolean hasTimeout() {
+      return ((bitField0_ & 0x00000020) == 0x00000020);
+    }
+    /**
+     * <code>optional uint32 timeout = 6;</code>
+     *
+     * <pre>
+     * TODO: Have client specify priority
+     * How long, in milliseconds, the client waits for a response. The server may skip the call
+     * if it has already waited this long by the time a handler gets to it.
+     * </pre>
+     */
+    public int getTimeout() {
+      return timeout_;
+    }
+
     private void initFields() {
       callId_ = 0;
       traceInfo_ = org.apache.hadoop.hbase.protobuf.generated.TracingProtos.RPCTInfo.getDefaultInstance();
       methodName_ = "";
       requestParam_ = false;
       cellBlockMeta_ = org.apache.hadoop.hbase.protobuf.generated.RPCProtos.CellBlockMeta.getDefaultInstance();
+      timeout_ = 0;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -3980,6 +4036,9 @@ public final class RPCProtos {
       if (((bitField0_ & 0x00000010) == 0x00000010)) {
         output.writeMessage(5, cellBlockMeta_);
       }
+      if (((bitField0_ & 0x00000020) == 0x00000020)) {
+        output.writeUInt32(6, timeout_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -4009,6 +4068,10 @@ public final class RPCProtos {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(5, cellBlockMeta_);
       }
+      if (((bitField0_ & 0x00000020) == 0x00000020)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt32Size(6, timeout_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -4057,6 +4120,11 @@ public final class RPCProtos {
         result = result && getCellBlockMeta()
             .equals(other.getCellBlockMeta());
       }
+      result = result && (hasTimeout() == other.hasTimeout());
+      if (hasTimeout()) {
+        result = result && (getTimeout()
+            == other.getTimeout());
+      }
       result = result &&
           getUnknownFields().equals(other.getUnknownFields());
       return result;
@@ -4090,6 +4158,10 @@ public final class RPCProtos {
         hash = (37 * hash) + CELL_BLOCK_META_FIELD_NUMBER;
         hash = (53 * hash) + getCellBlockMeta().hashCode();
       }
+      if (hasTimeout()) {
+        hash = (37 * hash) + TIMEOUT_FIELD_NUMBER;
+        hash = (53 * hash) + getTimeout();
+      }
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -4223,6 +4295,8 @@ public final class RPCProtos {
           cellBlockMetaBuilder_.clear();
         }
         bitField0_ = (bitField0_ & ~0x00000010);
+        timeout_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000020);
         return this;
       }
 
@@ -4279,6 +4353,10 @@ public final class RPCProtos {
         } else {
           result.cellBlockMeta_ = cellBlockMetaBuilder_.build();
         }
+        if (((from_bitField0_ & 0x00000020) == 0x00000020)) {
+          to_bitField0_ |= 0x00000020;
+        }
+        result.timeout_ = timeout_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -4312,6 +4390,9 @@ public final class RPCProtos {
         if (other.hasCellBlockMeta()) {
           mergeCellBlockMeta(other.getCellBlockMeta());
         }
+        if (other.hasTimeout()) {
+          setTimeout(other.getTimeout());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -4781,6 +4862,63 @@ public final class RPCProtos {
         return cellBlockMetaBuilder_;
       }
 
+      // optional uint32 timeout = 6;
+      private int timeout_ ;
+      /**
+       * <code>optional uint32 timeout = 6;</code>
+       *
+       * <pre>
+       * TODO: Have client specify priority
+       * How long, in milliseconds, the client waits for a response. The server may skip the call
+       * if it has already waited this long by the time a handler gets to it.
+       * </pre>
+       */
+      public boolean hasTimeout() {
+        return ((bitField0_ & 0x00000020) == 0x00000020);
+      }
+      /**
+       * <code>optional uint32 timeout = 6;</code>
+       *
+       * <pre>
+       * TODO: Have client specify priority
+       * How long, in milliseconds, the client waits for a response. The server may skip the call
+       * if it has already waited this long by the time a handler gets to it.
+       * </pre>
+       */
+      public int getTimeout() {
+        return timeout_;
+      }
+      /**
+       * <code>optional uint32 timeout = 6;</code>
+       *
+       * <pre>
+       * TODO: Have client specify priority
+       * How long, in milliseconds, the client waits for a response. The server may skip the call
+       * if it has already waited this long by the time a handler gets to it.
+       * </pre>
+       */
+      public Builder setTimeout(int value) {
+        bitField0_ |= 0x00000020;
+        timeout_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional uint32 timeout = 6;</code>
+       *
+       * <pre>
+       * TODO: Have client specify priority
+       * How long, in milliseconds, the client waits for a response. The server may skip the call
+       * if it has already waited this long by the time a handler gets to it.
+       * </pre>
+       */
+      public Builder clearTimeout() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        timeout_ = 0;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:RequestHeader)
     }
 
@@ -5797,15 +5935,15 @@ public final class RPCProtos {
       "\001(\r\"|\n\021ExceptionResponse\022\034\n\024exception_cl" +
       "ass_name\030\001 \001(\t\022\023\n\013stack_trace\030\002 \001(\t\022\020\n\010h" +
       "ostname\030\003 \001(\t\022\014\n\004port\030\004 \001(\005\022\024\n\014do_not_re",
-      "try\030\005 \001(\010\"\224\001\n\rRequestHeader\022\017\n\007call_id\030\001" +
+      "try\030\005 \001(\010\"\245\001\n\rRequestHeader\022\017\n\007call_id\030\001" +
       " \001(\r\022\035\n\ntrace_info\030\002 \001(\0132\t.RPCTInfo\022\023\n\013m" +
       "ethod_name\030\003 \001(\t\022\025\n\rrequest_param\030\004 \001(\010\022" +
       "\'\n\017cell_block_meta\030\005 \001(\0132\016.CellBlockMeta" +
-      "\"q\n\016ResponseHeader\022\017\n\007call_id\030\001 \001(\r\022%\n\te" +
-      "xception\030\002 \001(\0132\022.ExceptionResponse\022\'\n\017ce" +
-      "ll_block_meta\030\003 \001(\0132\016.CellBlockMetaB<\n*o" +
-      "rg.apache.hadoop.hbase.protobuf.generate" +
-      "dB\tRPCProtosH\001\240\001\001"
+      "\022\017\n\007timeout\030\006 \001(\r\"q\n\016ResponseHeader\022\017\n\007c" +
+      "all_id\030\001 \001(\r\022%\n\texception\030\002 \001(\0132\022.Except" +
+      "ionResponse\022\'\n\017cell_block_meta\030\003 \001(\0132\016.C" +
+      "ellBlockMetaB<\n*org.apache.hadoop.hbase." +
+      "protobuf.generatedB\tRPCProtosH\001\240\001\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
       new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
@@ -5841,7 +5979,7 @@ public final class RPCProtos {
           internal_static_RequestHeader_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_RequestHeader_descriptor,
-              new java.lang.String[] { "CallId", "TraceInfo", "MethodName", "RequestParam", "CellBlockMeta", });
+              new java.lang.String[] { "CallId", "TraceInfo", "MethodName", "RequestParam", "CellBlockMeta", "Timeout", });
           internal_static_ResponseHeader_descriptor =
             getDescriptor().getMessageTypes().get(5);
           internal_static_ResponseHeader_fieldAccessorTable = new
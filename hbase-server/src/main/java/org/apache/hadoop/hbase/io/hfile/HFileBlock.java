@@ -26,6 +26,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -1047,6 +1048,56 @@ public class HFileBlock implements Cacheable {
       writeHeaderAndData(out);
     }
 
+    /**
+     * Writes a block read from another file as it is stored on disk, without
+     * decompressing or decoding it. The other file must have the compression
+     * and the data block encoding of this writer, and a header with checksum
+     * fields. Only the offset of the previous block of the same type and the
+     * checksums are redone. The block is not available for caching on write.
+     *
+     * @param block the block, as read from the other file
+     * @param onDiskBlock the block as stored in the other file, see
+     *          {@link BlockIterator#getOnDiskBlock()}; its header is rewritten
+     * @param out the file system output stream
+     * @return the on-disk size of the written block, including the header and
+     *         the checksums
+     * @throws IOException
+     */
+    public int writeCopiedBlock(HFileBlock block, byte[] onDiskBlock,
+        FSDataOutputStream out) throws IOException {
+      if (state == State.WRITING && userDataStream.size() > 0) {
+        throw new IllegalStateException("Cannot copy a block while writing one");
+      }
+      if (block.headerSize() != HConstants.HFILEBLOCK_HEADER_SIZE) {
+        throw new IOException("Cannot copy a block of minor version " +
+            block.getMinorVersion());
+      }
+      if (state == State.BLOCK_READY && startOffset != -1) {
+        prevOffsetByType[blockType.getId()] = startOffset;
+      }
+      long offset = out.getPos();
+      blockType = block.getBlockType();
+      prevOffset = prevOffsetByType[blockType.getId()];
+
+      int onDiskDataSizeWithHeader =
+          block.getOnDiskSizeWithHeader() - block.totalChecksumBytes();
+      int numBytes = (int) ChecksumUtil.numBytes(onDiskDataSizeWithHeader,
+          bytesPerChecksum);
+      putHeader(onDiskBlock, 0, onDiskDataSizeWithHeader + numBytes,
+          block.getUncompressedSizeWithoutHeader() + HConstants.HFILEBLOCK_HEADER_SIZE,
+          onDiskDataSizeWithHeader);
+      byte[] checksum = new byte[numBytes];
+      ChecksumUtil.generateChecksums(onDiskBlock, 0, onDiskDataSizeWithHeader,
+          checksum, 0, checksumType, bytesPerChecksum);
+      out.write(onDiskBlock, 0, onDiskDataSizeWithHeader);
+      out.write(checksum);
+
+      prevOffsetByType[blockType.getId()] = offset;
+      startOffset = -1;
+      state = State.INIT;
+      return onDiskDataSizeWithHeader + numBytes;
+    }
+
     /**
      * Creates a new HFileBlock. Checksums have already been validated, so
      * the byte buffer passed into the constructor of this newly created
@@ -1094,6 +1145,16 @@ public class HFileBlock implements Cacheable {
      * exception if incorrect, and returns the HFile block
      */
     HFileBlock nextBlockWithBlockType(BlockType blockType) throws IOException;
+
+    /**
+     * Returns the block last returned by {@link #nextBlock()} as it is stored
+     * on disk, neither decompressed nor decoded, with its header and
+     * checksums. The bytes past the on-disk size of the block are not part of
+     * it.
+     *
+     * @return the on-disk block, or null if this iterator does not keep them
+     */
+    byte[] getOnDiskBlock();
   }
 
   /** A full-fledged reader with iteration ability. */
@@ -1124,6 +1185,20 @@ public class HFileBlock implements Cacheable {
      */
     BlockIterator blockRange(long startOffset, long endOffset);
 
+    /**
+     * Like {@link #blockRange(long, long)}, but optionally also keeps each
+     * block as it was read from disk, so that it can be copied into another
+     * file without reading it again.
+     *
+     * @param startOffset the offset of the block to start iteration with
+     * @param endOffset the offset to end iteration at (exclusive)
+     * @param keepOnDiskBlocks whether {@link BlockIterator#getOnDiskBlock()}
+     *          is to return the blocks as read from disk
+     * @return an iterator of blocks between the two given offsets
+     */
+    BlockIterator blockRange(long startOffset, long endOffset,
+        boolean keepOnDiskBlocks);
+
     /** Closes the backing streams */
     void closeStreams() throws IOException;
   }
@@ -1169,18 +1244,32 @@ public class HFileBlock implements Cacheable {
     @Override
     public BlockIterator blockRange(final long startOffset,
         final long endOffset) {
+      return blockRange(startOffset, endOffset, false);
+    }
+
+    @Override
+    public BlockIterator blockRange(final long startOffset,
+        final long endOffset, final boolean keepOnDiskBlocks) {
       return new BlockIterator() {
         private long offset = startOffset;
+        private final byte[][] onDiskBlock = keepOnDiskBlocks ? new byte[1][] : null;
 
         @Override
         public HFileBlock nextBlock() throws IOException {
+          if (onDiskBlock != null)
+            onDiskBlock[0] = null;
           if (offset >= endOffset)
             return null;
-          HFileBlock b = readBlockData(offset, -1, -1, false);
+          HFileBlock b = readBlockData(offset, -1, -1, false, onDiskBlock);
           offset += b.getOnDiskSizeWithHeader();
           return b;
         }
 
+        @Override
+        public byte[] getOnDiskBlock() {
+          return onDiskBlock == null ? null : onDiskBlock[0];
+        }
+
         @Override
         public HFileBlock nextBlockWithBlockType(BlockType blockType)
             throws IOException {
@@ -1194,6 +1283,16 @@ public class HFileBlock implements Cacheable {
       };
     }
 
+    /**
+     * Reads a block like {@link #readBlockData(long, long, int, boolean)}.
+     *
+     * @param onDiskBlockOut if not null, its first element is set to the
+     *          block as it was read from disk
+     */
+    protected abstract HFileBlock readBlockData(long offset, long onDiskSize,
+        int uncompressedSize, boolean pread, byte[][] onDiskBlockOut)
+        throws IOException;
+
     /**
      * Does a positional read or a seek and read into the given buffer. Returns
      * the on-disk size of the next block, or -1 if it could not be determined.
@@ -1347,6 +1446,14 @@ public class HFileBlock implements Cacheable {
     @Override
     public HFileBlock readBlockData(long offset, long onDiskSizeWithHeaderL,
         int uncompressedSize, boolean pread) throws IOException {
+      return readBlockData(offset, onDiskSizeWithHeaderL, uncompressedSize,
+          pread, null);
+    }
+
+    @Override
+    protected HFileBlock readBlockData(long offset, long onDiskSizeWithHeaderL,
+        int uncompressedSize, boolean pread, byte[][] onDiskBlockOut)
+        throws IOException {
 
       // get a copy of the current state of whether to validate
       // hbase checksums or not for this read call. This is not 
@@ -1359,7 +1466,7 @@ public class HFileBlock implements Cacheable {
       HFileBlock blk = readBlockDataInternal(is, offset, 
                          onDiskSizeWithHeaderL, 
                          uncompressedSize, pread,
-                         doVerificationThruHBaseChecksum);
+                         doVerificationThruHBaseChecksum, onDiskBlockOut);
       if (blk == null) {
         HFile.LOG.warn("HBase checksum verification failed for file " +
                        path + " at offset " +
@@ -1387,7 +1494,8 @@ public class HFileBlock implements Cacheable {
         doVerificationThruHBaseChecksum = false;
         blk = readBlockDataInternal(is, offset, onDiskSizeWithHeaderL,
                                     uncompressedSize, pread,
-                                    doVerificationThruHBaseChecksum);
+                                    doVerificationThruHBaseChecksum,
+                                    onDiskBlockOut);
         if (blk != null) {
           HFile.LOG.warn("HDFS checksum verification suceeded for file " +
                          path + " at offset " +
@@ -1424,11 +1532,13 @@ public class HFileBlock implements Cacheable {
      * @param pread whether to use a positional read
      * @param verifyChecksum Whether to use HBase checksums. 
      *        If HBase checksum is switched off, then use HDFS checksum.
+     * @param onDiskBlockOut if not null, its first element is set to the
+     *        block as read from disk
      * @return the HFileBlock or null if there is a HBase checksum mismatch
      */
     private HFileBlock readBlockDataInternal(FSDataInputStream is, long offset, 
         long onDiskSizeWithHeaderL, int uncompressedSize, boolean pread,
-        boolean verifyChecksum) throws IOException {
+        boolean verifyChecksum, byte[][] onDiskBlockOut) throws IOException {
       if (offset < 0) {
         throw new IOException("Invalid offset=" + offset + " trying to read "
             + "block (onDiskSize=" + onDiskSizeWithHeaderL
@@ -1551,6 +1661,13 @@ public class HFileBlock implements Cacheable {
         return null;             // checksum mismatch
       }
 
+      if (onDiskBlockOut != null) {
+        // An uncompressed block keeps onDiskBlock as its buffer, so hand
+        // back a copy that the caller is free to modify.
+        onDiskBlockOut[0] = isCompressed ? onDiskBlock
+            : Arrays.copyOf(onDiskBlock, onDiskSizeWithHeader);
+      }
+
       if (isCompressed) {
         // This will allocate a new buffer but keep header bytes.
         b.allocateBuffer(nextBlockOnDiskSize > 0);
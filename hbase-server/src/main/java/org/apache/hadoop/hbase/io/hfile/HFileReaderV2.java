@@ -59,7 +59,7 @@ public class HFileReaderV2 extends AbstractHFileReader {
   private boolean includesMemstoreTS = false;
   private boolean decodeMemstoreTS = false;
 
-  private boolean shouldIncludeMemstoreTS() {
+  boolean shouldIncludeMemstoreTS() {
     return includesMemstoreTS;
   }
 
@@ -432,6 +432,117 @@ public class HFileReaderV2 extends AbstractHFileReader {
     return fsBlockReader;
   }
 
+  /**
+   * @return a scanner over the data blocks of this file, to copy them into
+   *         another file with
+   *         {@link HFileWriterV2#appendDataBlock(HFileReaderV2.DataBlockScanner)}
+   */
+  public DataBlockScanner getDataBlockScanner() {
+    return new DataBlockScanner();
+  }
+
+  /**
+   * Iterates the data blocks of this file in order, bypassing the block
+   * cache. The current block can be read both as it is stored on disk and as
+   * the key/values it holds.
+   */
+  public class DataBlockScanner {
+    private final HFileBlock.BlockIterator blockIter;
+    private HFileBlock block;
+    private List<KeyValue> kvs;
+
+    private DataBlockScanner() {
+      blockIter = trailer.getEntryCount() == 0 ? null : fsBlockReader.blockRange(
+          trailer.getFirstDataBlockOffset(), trailer.getLastDataBlockOffset() + 1, true);
+    }
+
+    /**
+     * Moves to the next data block, skipping the inline blocks of the block
+     * index and the Bloom filters.
+     *
+     * @return false if there are no more data blocks
+     */
+    public boolean next() throws IOException {
+      block = null;
+      kvs = null;
+      if (blockIter == null) {
+        return false;
+      }
+      HFileBlock b;
+      while ((b = blockIter.nextBlock()) != null) {
+        if (b.getBlockType() == BlockType.DATA ||
+            b.getBlockType() == BlockType.ENCODED_DATA) {
+          block = b;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    public HFileReaderV2 getReader() {
+      return HFileReaderV2.this;
+    }
+
+    /** @return the current block, decompressed but not decoded */
+    public HFileBlock getBlock() {
+      return block;
+    }
+
+    /**
+     * @return the current block as it was read from disk, see
+     *   {@link HFileBlock.BlockIterator#getOnDiskBlock()}
+     */
+    public byte[] getOnDiskBlock() {
+      return blockIter.getOnDiskBlock();
+    }
+
+    /** @return the key/values of the current block, in order */
+    public List<KeyValue> getKeyValues() throws IOException {
+      if (kvs == null) {
+        kvs = block.getBlockType() == BlockType.ENCODED_DATA ?
+            decodeEncodedBlock() : decodeBlock();
+      }
+      return kvs;
+    }
+
+    private List<KeyValue> decodeBlock() throws IOException {
+      List<KeyValue> result = new ArrayList<KeyValue>();
+      ByteBuffer buf = block.getBufferWithoutHeader();
+      while (buf.hasRemaining()) {
+        int kvOffset = buf.arrayOffset() + buf.position();
+        int keyLen = buf.getInt();
+        int valueLen = buf.getInt();
+        KeyValue kv = new KeyValue(buf.array(), kvOffset,
+            KEY_VALUE_LEN_SIZE + keyLen + valueLen, keyLen);
+        buf.position(buf.position() + keyLen + valueLen);
+        if (includesMemstoreTS) {
+          long memstoreTS = Bytes.readVLong(buf.array(),
+              buf.arrayOffset() + buf.position());
+          kv.setMvccVersion(memstoreTS);
+          buf.position(buf.position() + WritableUtils.getVIntSize(memstoreTS));
+        }
+        result.add(kv);
+      }
+      return result;
+    }
+
+    private List<KeyValue> decodeEncodedBlock() {
+      List<KeyValue> result = new ArrayList<KeyValue>();
+      DataBlockEncoder encoder =
+          DataBlockEncoding.getDataBlockEncoderById(block.getDataBlockEncodingId());
+      DataBlockEncoder.EncodedSeeker seeker =
+          encoder.createSeeker(comparator, includesMemstoreTS);
+      ByteBuffer origBlock = block.getBufferReadOnly();
+      seeker.setCurrentBuffer(ByteBuffer.wrap(origBlock.array(),
+          origBlock.arrayOffset() + block.headerSize() + DataBlockEncoding.ID_SIZE,
+          block.getUncompressedSizeWithoutHeader() - DataBlockEncoding.ID_SIZE).slice());
+      do {
+        result.add(seeker.getKeyValue());
+      } while (seeker.next());
+      return result;
+    }
+  }
+
 
   protected abstract static class AbstractScannerV2
       extends AbstractHFileReader.Scanner {
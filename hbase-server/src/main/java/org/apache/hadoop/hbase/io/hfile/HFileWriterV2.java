@@ -32,6 +32,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.KeyValue.KVComparator;
 import org.apache.hadoop.hbase.io.compress.Compression;
@@ -343,6 +344,79 @@ public class HFileWriterV2 extends AbstractHFileWriter {
     entryCount++;
   }
 
+  /**
+   * @return true if the data blocks of the given file are stored on disk as
+   *         this file stores its own, so that they can be copied with
+   *         {@link #appendDataBlock(HFileReaderV2.DataBlockScanner)}
+   */
+  public boolean canCopyDataBlocks(HFile.Reader reader) {
+    if (!(reader instanceof HFileReaderV2)) {
+      return false;
+    }
+    HFileReaderV2 readerV2 = (HFileReaderV2) reader;
+    return readerV2.getTrailer().getMinorVersion() >= HFileBlock.MINOR_VERSION_WITH_CHECKSUM
+        && readerV2.getCompressionAlgorithm() == compressAlgo
+        && readerV2.getEncodingOnDisk() == blockEncoder.getEncodingOnDisk()
+        && readerV2.shouldIncludeMemstoreTS() == includeMemstoreTS
+        && readerV2.getComparator().getClass() == comparator.getClass();
+  }
+
+  /**
+   * Appends the current data block of the given scanner as it is stored on
+   * disk, without decoding, encoding or compressing its key/values again. The
+   * block index and the file info are kept up to date; the Bloom filters are
+   * left to the caller. The key/values of the block must go after those
+   * already appended.
+   *
+   * @param source a scanner of a file whose data blocks can be copied, see
+   *          {@link #canCopyDataBlocks(HFile.Reader)}
+   * @throws IOException
+   */
+  public void appendDataBlock(HFileReaderV2.DataBlockScanner source)
+      throws IOException {
+    if (!canCopyDataBlocks(source.getReader())) {
+      throw new IOException("Cannot copy the data blocks of " +
+          source.getReader().getPath() + " into " + path);
+    }
+    List<KeyValue> kvs = source.getKeyValues();
+    KeyValue firstKv = kvs.get(0);
+    KeyValue lastKv = kvs.get(kvs.size() - 1);
+    checkKey(firstKv.getBuffer(), firstKv.getKeyOffset(), firstKv.getKeyLength());
+
+    // Write out the block of the key/values appended so far.
+    finishBlock();
+    if (lastKeyLength > 0) {
+      lastKeyOfPreviousBlock = new byte[lastKeyLength];
+      System.arraycopy(lastKeyBuffer, lastKeyOffset, lastKeyOfPreviousBlock, 0, lastKeyLength);
+    }
+
+    long startTimeNs = System.nanoTime();
+    if (firstDataBlockOffset == -1) {
+      firstDataBlockOffset = outputStream.getPos();
+    }
+    lastDataBlockOffset = outputStream.getPos();
+    HFileBlock block = source.getBlock();
+    int onDiskSize = fsBlockWriter.writeCopiedBlock(block, source.getOnDiskBlock(),
+        outputStream);
+    byte[] indexKey = comparator.calcIndexKey(lastKeyOfPreviousBlock, firstKv.getKey());
+    dataBlockIndexWriter.addEntry(indexKey, lastDataBlockOffset, onDiskSize);
+    totalUncompressedBytes +=
+        block.getUncompressedSizeWithoutHeader() + HConstants.HFILEBLOCK_HEADER_SIZE;
+    HFile.offerWriteLatency(System.nanoTime() - startTimeNs);
+
+    for (KeyValue kv : kvs) {
+      totalKeyLength += kv.getKeyLength();
+      totalValueLength += kv.getValueLength();
+      maxMemstoreTS = Math.max(maxMemstoreTS, kv.getMvccVersion());
+    }
+    entryCount += kvs.size();
+    firstKeyInBlock = null;
+    lastKeyBuffer = lastKv.getBuffer();
+    lastKeyOffset = lastKv.getKeyOffset();
+    lastKeyLength = lastKv.getKeyLength();
+    writeInlineBlocks(false);
+  }
+
   @Override
   public void close() throws IOException {
     if (outputStream == null) {
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.ipc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+
+/**
+ * Chain of ByteBuffers that make up one response, written out with gathering writes so the
+ * pieces do not have to be copied into a single buffer first. Not thread safe.
+ */
+@InterfaceAudience.Private
+class BufferChain {
+  private final ByteBuffer[] buffers;
+  private final int size;
+  private int remaining = 0;
+  // Index of the first buffer with bytes left to write.
+  private int bufferOffset = 0;
+
+  /**
+   * @param buffers buffers to write, in order, each flipped and ready for reading; nulls are
+   *   skipped
+   */
+  BufferChain(ByteBuffer ... buffers) {
+    int count = 0;
+    for (ByteBuffer b : buffers) {
+      if (b != null) count++;
+    }
+    this.buffers = new ByteBuffer[count];
+    int i = 0;
+    for (ByteBuffer b : buffers) {
+      if (b == null) continue;
+      this.buffers[i++] = b;
+      this.remaining += b.remaining();
+    }
+    this.size = this.remaining;
+  }
+
+  /**
+   * @return the number of bytes in the chain, written or not
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return true if there are bytes left to write
+   */
+  boolean hasRemaining() {
+    return remaining > 0;
+  }
+
+  /**
+   * @return the number of bytes left to write
+   */
+  int remaining() {
+    return remaining;
+  }
+
+  /**
+   * Writes as much of the chain as the channel takes. Each write hands the channel at most
+   * <code>chunkSize</code> bytes so the JDK does not allocate a temporary direct buffer the
+   * size of the whole response; writing stops early once the channel takes less than offered.
+   * @param channel channel to write to
+   * @param chunkSize most bytes to offer the channel in one write
+   * @return the number of bytes written
+   * @throws IOException
+   */
+  long write(GatheringByteChannel channel, int chunkSize) throws IOException {
+    long written = 0;
+    while (hasRemaining()) {
+      while (!buffers[bufferOffset].hasRemaining()) {
+        bufferOffset++;
+      }
+      // Cover chunkSize bytes with as many buffers as it takes, cutting the last one short.
+      int chunkRemaining = chunkSize;
+      int bufCount = 0;
+      ByteBuffer lastBuffer = null;
+      int restoreLimit = -1;
+      while (chunkRemaining > 0 && bufferOffset + bufCount < buffers.length) {
+        lastBuffer = buffers[bufferOffset + bufCount];
+        bufCount++;
+        if (lastBuffer.remaining() > chunkRemaining) {
+          restoreLimit = lastBuffer.limit();
+          lastBuffer.limit(lastBuffer.position() + chunkRemaining);
+          chunkRemaining = 0;
+        } else {
+          chunkRemaining -= lastBuffer.remaining();
+        }
+      }
+      long offered = chunkSize - chunkRemaining;
+      long ret;
+      try {
+        ret = channel.write(buffers, bufferOffset, bufCount);
+      } finally {
+        if (restoreLimit >= 0) lastBuffer.limit(restoreLimit);
+      }
+      if (ret > 0) {
+        written += ret;
+        remaining -= ret;
+      }
+      if (ret < offered) break;
+    }
+    return written;
+  }
+}
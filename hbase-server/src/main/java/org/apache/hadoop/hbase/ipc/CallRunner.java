@@ -16,6 +16,7 @@ package org.apache.hadoop.hbase.ipc;
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 
 import org.apache.hadoop.classification.InterfaceAudience;
@@ -65,6 +66,31 @@ public class CallRunner {
 
   public void run() {
     try {
+      if (!call.connection.isConnectionOpen()) {
+        // Nobody to answer to.
+        if (RpcServer.LOG.isDebugEnabled()) {
+          RpcServer.LOG.debug(Thread.currentThread().getName() + ": skipped " +
+            call.toShortString() + " since the caller disconnected");
+        }
+        MetricsHBaseServer metrics = this.rpcServer.getMetrics();
+        if (metrics != null) metrics.disconnectedCall();
+        skip();
+        return;
+      }
+      long waited = System.currentTimeMillis() - call.timestamp;
+      if (call.timeout > 0 && waited > call.timeout) {
+        // The client has given up on this call by now; a short error is all it is worth.
+        String msg = "Call waited " + waited + " ms in the queue, longer than the client's " +
+          call.timeout + " ms timeout; skipped";
+        if (RpcServer.LOG.isDebugEnabled()) {
+          RpcServer.LOG.debug(Thread.currentThread().getName() + ": " + call.toShortString() +
+            " " + msg);
+        }
+        MetricsHBaseServer metrics = this.rpcServer.getMetrics();
+        if (metrics != null) metrics.expiredCall();
+        reject(new RpcClient.CallTimeoutException(msg));
+        return;
+      }
       this.status.setStatus("Setting up call");
       this.status.setConnection(call.connection.getHostAddress(), call.connection.getRemotePort());
       if (RpcServer.LOG.isDebugEnabled()) {
@@ -100,6 +126,8 @@ public class CallRunner {
         // Must always clear the request context to avoid leaking
         // credentials between requests.
         RequestContext.clear();
+        // The request has been read; its buffer can go back to the pool.
+        call.releaseRequestBuffer();
       }
       RpcServer.CurCall.set(null);
       this.rpcServer.addCallSize(call.getSize() * -1);
@@ -134,6 +162,26 @@ public class CallRunner {
     }
   }
 
+  /**
+   * Gives up what the call holds without running it.
+   */
+  private void skip() {
+    call.releaseRequestBuffer();
+    this.rpcServer.addCallSize(call.getSize() * -1);
+  }
+
+  /**
+   * Answers the call with <code>error</code> instead of running it. For schedulers that turn
+   * calls down rather than queue them.
+   * @param error what to tell the client
+   * @throws IOException if the response could not be sent
+   */
+  public void reject(IOException error) throws IOException {
+    skip();
+    call.setResponse(null, null, error, error.getMessage());
+    call.sendResponseIfReady();
+  }
+
   MonitoredRPCHandler getStatus() {
     // It is ugly the way we park status up in RpcServer.  Let it be for now.  TODO.
     MonitoredRPCHandler status = RpcServer.MONITORED_RPC.get();
@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.ipc;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+
+/**
+ * A bounded call queue that shares the handlers fairly between tenants, so that one busy user
+ * or table cannot keep the calls of the others waiting. Each tenant has its own FIFO of calls;
+ * the next call is taken from the tenant that has been served least relative to its weight
+ * (start-time fair queueing, counting calls). A tenant that has been idle starts level with the
+ * tenant last served rather than with credit saved up.
+ * <p>
+ * Tenants are users or tables, as set by {@link #FAIR_QUEUE_TENANT_CONF_KEY}. Calls that do not
+ * name a table (admin calls, for example) are queued under their user. Weights are set per
+ * tenant with {@link #FAIR_QUEUE_WEIGHT_CONF_PREFIX}<code>&lt;name&gt;</code> and default to 1; a tenant with weight 2 gets twice the calls of a tenant with weight 1 while both
+ * have calls waiting.
+ */
+@InterfaceAudience.Private
+public class FairCallQueue extends AbstractQueue<CallRunner>
+    implements BlockingQueue<CallRunner> {
+  /** What calls are shared out by: "user" or "table". */
+  public static final String FAIR_QUEUE_TENANT_CONF_KEY = "hbase.ipc.server.callqueue.fair.by";
+  public static final String FAIR_QUEUE_WEIGHT_CONF_PREFIX =
+      "hbase.ipc.server.callqueue.fair.weight.";
+
+  private static final String UNKNOWN_TENANT = "";
+
+  /** The calls of one tenant and how far it has been served. */
+  private static class Tenant implements Comparable<Tenant> {
+    final String name;
+    final double stride;
+    final LinkedList<CallRunner> calls = new LinkedList<CallRunner>();
+    double pass;
+
+    Tenant(String name, double weight) {
+      this.name = name;
+      this.stride = 1 / weight;
+    }
+
+    @Override
+    public int compareTo(Tenant other) {
+      return Double.compare(pass, other.pass);
+    }
+  }
+
+  // Tenant weights that are set; read once, as tenants come and go all the time.
+  private final Map<String, Float> weights = new HashMap<String, Float>();
+  private final boolean byTable;
+  private final int capacity;
+  // Tenants with calls waiting, least served first.
+  private final PriorityQueue<Tenant> active = new PriorityQueue<Tenant>();
+  private final Map<String, Tenant> tenants = new HashMap<String, Tenant>();
+  // Pass of the tenant served last.
+  private double virtualTime = 0;
+  private int count = 0;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+
+  /**
+   * @param conf read for tenant weights
+   * @param capacity most calls the queue holds
+   */
+  public FairCallQueue(Configuration conf, int capacity) {
+    if (capacity <= 0) throw new IllegalArgumentException("capacity=" + capacity);
+    for (Map.Entry<String, String> e : conf) {
+      if (!e.getKey().startsWith(FAIR_QUEUE_WEIGHT_CONF_PREFIX)) continue;
+      try {
+        float weight = Float.parseFloat(e.getValue().trim());
+        if (weight > 0) {
+          weights.put(e.getKey().substring(FAIR_QUEUE_WEIGHT_CONF_PREFIX.length()), weight);
+        }
+      } catch (NumberFormatException nfe) {
+        // Not a weight; the tenant gets the default.
+      }
+    }
+    this.byTable = "table".equalsIgnoreCase(conf.get(FAIR_QUEUE_TENANT_CONF_KEY, "user"));
+    this.capacity = capacity;
+  }
+
+  private String getTenantName(CallRunner task) {
+    RpcServer.Call call = task.getCall();
+    if (byTable) {
+      TableName table = call.getRequestTable();
+      if (table != null) return table.getNameAsString();
+    }
+    String user = call.getRequestUserName();
+    return user == null ? UNKNOWN_TENANT : user;
+  }
+
+  private void enqueue(CallRunner task, String tenantName) {
+    Tenant tenant = tenants.get(tenantName);
+    if (tenant == null) {
+      Float weight = weights.get(tenantName);
+      tenant = new Tenant(tenantName, weight == null ? 1f : weight);
+      tenant.pass = virtualTime;
+      tenants.put(tenantName, tenant);
+      active.add(tenant);
+    }
+    tenant.calls.addLast(task);
+    count++;
+    notEmpty.signal();
+  }
+
+  private CallRunner dequeue() {
+    Tenant tenant = active.poll();
+    CallRunner task = tenant.calls.removeFirst();
+    virtualTime = tenant.pass;
+    if (tenant.calls.isEmpty()) {
+      // Forget idle tenants; they come back level with the others.
+      tenants.remove(tenant.name);
+    } else {
+      tenant.pass += tenant.stride;
+      active.add(tenant);
+    }
+    count--;
+    notFull.signal();
+    return task;
+  }
+
+  @Override
+  public boolean offer(CallRunner task) {
+    String tenantName = getTenantName(task);
+    lock.lock();
+    try {
+      if (count == capacity) return false;
+      enqueue(task, tenantName);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void put(CallRunner task) throws InterruptedException {
+    String tenantName = getTenantName(task);
+    lock.lockInterruptibly();
+    try {
+      while (count == capacity) {
+        notFull.await();
+      }
+      enqueue(task, tenantName);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(CallRunner task, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    String tenantName = getTenantName(task);
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (count == capacity) {
+        if (nanos <= 0) return false;
+        nanos = notFull.awaitNanos(nanos);
+      }
+      enqueue(task, tenantName);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public CallRunner poll() {
+    lock.lock();
+    try {
+      return count == 0 ? null : dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public CallRunner take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (count == 0) {
+        notEmpty.await();
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public CallRunner poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (count == 0) {
+        if (nanos <= 0) return null;
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public CallRunner peek() {
+    lock.lock();
+    try {
+      return count == 0 ? null : active.peek().calls.getFirst();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    lock.lock();
+    try {
+      return capacity - count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super CallRunner> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super CallRunner> c, int maxElements) {
+    if (c == this) throw new IllegalArgumentException();
+    lock.lock();
+    try {
+      int n = 0;
+      while (n < maxElements && count > 0) {
+        c.add(dequeue());
+        n++;
+      }
+      return n;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return an iterator over a snapshot of the queued calls, in no particular order; it does not
+   *   support removal
+   */
+  @Override
+  public Iterator<CallRunner> iterator() {
+    lock.lock();
+    try {
+      List<CallRunner> snapshot = new ArrayList<CallRunner>(count);
+      for (Tenant tenant : active) {
+        snapshot.addAll(tenant.calls);
+      }
+      return Collections.unmodifiableList(snapshot).iterator();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
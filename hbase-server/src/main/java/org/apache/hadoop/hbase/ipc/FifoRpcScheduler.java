@@ -80,6 +80,11 @@ public class FifoRpcScheduler implements RpcScheduler {
     return executor.getQueue().size();
   }
 
+  @Override
+  public int getGeneralQueueCapacity() {
+    return maxQueueLength;
+  }
+
   @Override
   public int getPriorityQueueLength() {
     return 0;
@@ -89,4 +94,19 @@ public class FifoRpcScheduler implements RpcScheduler {
   public int getReplicationQueueLength() {
     return 0;
   }
+
+  @Override
+  public int getReadQueueLength() {
+    return 0;
+  }
+
+  @Override
+  public int getWriteQueueLength() {
+    return 0;
+  }
+
+  @Override
+  public int getScanQueueLength() {
+    return 0;
+  }
 }
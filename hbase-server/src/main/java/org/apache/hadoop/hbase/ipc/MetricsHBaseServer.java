@@ -59,10 +59,34 @@ public class MetricsHBaseServer {
     source.dequeuedCall(qTime);
   }
 
+  void dequeuedReadCall(int qTime) {
+    source.dequeuedReadCall(qTime);
+  }
+
+  void dequeuedWriteCall(int qTime) {
+    source.dequeuedWriteCall(qTime);
+  }
+
+  void dequeuedScanCall(int qTime) {
+    source.dequeuedScanCall(qTime);
+  }
+
   void processedCall(int processingTime) {
     source.processedCall(processingTime);
   }
 
+  void expiredCall() {
+    source.expiredCall();
+  }
+
+  void disconnectedCall() {
+    source.disconnectedCall();
+  }
+
+  void throttledCall() {
+    source.throttledCall();
+  }
+
   public MetricsHBaseServerSource getMetricsSource() {
     return source;
   }
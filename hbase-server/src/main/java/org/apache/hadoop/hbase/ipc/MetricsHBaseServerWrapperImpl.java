@@ -62,6 +62,33 @@ public class MetricsHBaseServerWrapperImpl implements MetricsHBaseServerWrapper
     return server.getScheduler().getPriorityQueueLength();
   }
 
+  @Override
+  public int getReadQueueLength() {
+    if (this.server == null
+        || this.server.getScheduler() == null) {
+      return 0;
+    }
+    return server.getScheduler().getReadQueueLength();
+  }
+
+  @Override
+  public int getWriteQueueLength() {
+    if (this.server == null
+        || this.server.getScheduler() == null) {
+      return 0;
+    }
+    return server.getScheduler().getWriteQueueLength();
+  }
+
+  @Override
+  public int getScanQueueLength() {
+    if (this.server == null
+        || this.server.getScheduler() == null) {
+      return 0;
+    }
+    return server.getScheduler().getScanQueueLength();
+  }
+
   @Override
   public int getNumOpenConnections() {
     if (this.server == null || this.server.connectionList == null) {
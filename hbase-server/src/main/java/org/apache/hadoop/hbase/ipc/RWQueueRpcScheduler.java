@@ -0,0 +1,380 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.ipc;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.classification.InterfaceStability;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.BulkLoadHFileRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MultiAction;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MultiRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutateRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ScanRequest;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.protobuf.Message;
+
+/**
+ * A scheduler that, like {@link SimpleRpcScheduler}, keeps isolated handler pools for
+ * high-priority and replication requests, but splits the general handlers further into pools for
+ * writes, for scans and for all other reads. A burst of long scans then only ties up the scan
+ * handlers, and gets and mutations keep being served.
+ * <p>
+ * Each pool has one or more call queues, each served by its own share of the pool's handlers, so
+ * that handlers do not all contend on the lock of one queue. Calls go to the queues of a pool in
+ * turn. The general queues share the maximum call queue length in proportion to their handlers,
+ * so that together they hold no more calls than the one general queue of
+ * {@link SimpleRpcScheduler}. Quotas are enforced on general calls as in
+ * {@link SimpleRpcScheduler}.
+ */
+@InterfaceAudience.Private
+@InterfaceStability.Evolving
+public class RWQueueRpcScheduler implements RpcScheduler {
+  private static final Log LOG = LogFactory.getLog(RWQueueRpcScheduler.class);
+
+  /** Share of the general handlers that serve reads, scans included; the rest serve writes. */
+  public static final String CALL_QUEUE_READ_SHARE_CONF_KEY =
+      "hbase.ipc.server.callqueue.read.share";
+  /** Share of the read handlers that serve scans only. With zero, scans queue with reads. */
+  public static final String CALL_QUEUE_SCAN_SHARE_CONF_KEY =
+      "hbase.ipc.server.callqueue.scan.share";
+  /** Call queues per handler of a pool; every pool gets at least one queue. */
+  public static final String CALL_QUEUE_HANDLER_FACTOR_CONF_KEY =
+      "hbase.ipc.server.callqueue.handler.factor";
+
+  static final float DEFAULT_CALL_QUEUE_READ_SHARE = 0.5f;
+  static final float DEFAULT_CALL_QUEUE_SCAN_SHARE = 0.5f;
+  static final float DEFAULT_CALL_QUEUE_HANDLER_FACTOR = 0.1f;
+
+  /** The kinds of general calls, each served by its own pool. */
+  enum CallType { READ, WRITE, SCAN }
+
+  /**
+   * Queues of one handler pool, with the handlers bound to them in turn.
+   */
+  static class QueueGroup {
+    final CallType type;
+    final int handlerCount;
+    final int queueCount;
+    final List<BlockingQueue<CallRunner>> queues;
+    // Calls the queues hold at most, together.
+    final int capacity;
+    private final AtomicInteger next = new AtomicInteger(0);
+
+    /**
+     * @param maxQueueLength calls all the general queues hold together; each queue gets the
+     *   share of it that its handlers are of <code>totalHandlerCount</code>
+     */
+    QueueGroup(CallType type, int handlerCount, int queueCount, int maxQueueLength,
+        int totalHandlerCount) {
+      this.type = type;
+      this.handlerCount = handlerCount;
+      this.queueCount = queueCount;
+      this.queues = Lists.newArrayListWithCapacity(queueCount);
+      int capacity = 0;
+      for (int i = 0; i < queueCount; i++) {
+        int queueLength = (int) Math.max(1,
+            (long) maxQueueLength * getHandlerCount(i) / totalHandlerCount);
+        queues.add(new LinkedBlockingQueue<CallRunner>(queueLength));
+        capacity += queueLength;
+      }
+      this.capacity = capacity;
+    }
+
+    /**
+     * @return how many of the handlers of the group serve queue <code>q</code>; they are spread
+     *   evenly over the queues
+     */
+    int getHandlerCount(int q) {
+      return handlerCount / queueCount + (q < handlerCount % queueCount ? 1 : 0);
+    }
+
+    void put(CallRunner task) throws InterruptedException {
+      int i = (next.getAndIncrement() & Integer.MAX_VALUE) % queues.size();
+      queues.get(i).put(task); // queue the call; maybe blocked here
+    }
+
+    int size() {
+      int size = 0;
+      for (BlockingQueue<CallRunner> queue : queues) {
+        size += queue.size();
+      }
+      return size;
+    }
+  }
+
+  private int port;
+  private MetricsHBaseServer metrics;
+  private final int priorityHandlerCount;
+  private final int replicationHandlerCount;
+  private final PriorityFunction priority;
+  final QueueGroup writeQueues;
+  final QueueGroup readQueues;
+  // Null if scans are queued with the other reads.
+  final QueueGroup scanQueues;
+  final BlockingQueue<CallRunner> priorityCallQueue;
+  final BlockingQueue<CallRunner> replicationQueue;
+  // Null if no quotas are set.
+  private final RequestThrottler throttler;
+  private volatile boolean running = false;
+  private final List<Thread> handlers = Lists.newArrayList();
+
+  /** What level a high priority call is at. */
+  private final int highPriorityLevel;
+
+  /**
+   * @param conf
+   * @param handlerCount the number of handler threads that will be used to process general calls;
+   *   every pool gets at least one, so there may be a few more
+   * @param priorityHandlerCount How many threads for priority handling.
+   * @param replicationHandlerCount How many threads for replication handling.
+   * @param priority Function to extract request priority.
+   * @param highPriorityLevel
+   */
+  public RWQueueRpcScheduler(
+      Configuration conf,
+      int handlerCount,
+      int priorityHandlerCount,
+      int replicationHandlerCount,
+      PriorityFunction priority,
+      int highPriorityLevel) {
+    int maxQueueLength = conf.getInt("ipc.server.max.callqueue.length",
+        handlerCount * RpcServer.DEFAULT_MAX_CALLQUEUE_LENGTH_PER_HANDLER);
+    float readShare = clamp(conf.getFloat(CALL_QUEUE_READ_SHARE_CONF_KEY,
+        DEFAULT_CALL_QUEUE_READ_SHARE));
+    float scanShare = clamp(conf.getFloat(CALL_QUEUE_SCAN_SHARE_CONF_KEY,
+        DEFAULT_CALL_QUEUE_SCAN_SHARE));
+    float handlerFactor = Math.max(0f, conf.getFloat(CALL_QUEUE_HANDLER_FACTOR_CONF_KEY,
+        DEFAULT_CALL_QUEUE_HANDLER_FACTOR));
+
+    int writeHandlers = Math.max(1, Math.round(handlerCount * (1 - readShare)));
+    int readHandlers = Math.max(1, handlerCount - writeHandlers);
+    int scanHandlers = 0;
+    if (scanShare > 0) {
+      scanHandlers = Math.max(1, Math.round(readHandlers * scanShare));
+      readHandlers = Math.max(1, readHandlers - scanHandlers);
+    }
+    // The general queues share the length one queue would have, by handler.
+    int generalHandlers = writeHandlers + readHandlers + scanHandlers;
+    this.writeQueues = new QueueGroup(CallType.WRITE, writeHandlers,
+        queueCount(writeHandlers, handlerFactor), maxQueueLength, generalHandlers);
+    this.readQueues = new QueueGroup(CallType.READ, readHandlers,
+        queueCount(readHandlers, handlerFactor), maxQueueLength, generalHandlers);
+    this.scanQueues = scanHandlers > 0
+        ? new QueueGroup(CallType.SCAN, scanHandlers,
+            queueCount(scanHandlers, handlerFactor), maxQueueLength, generalHandlers)
+        : null;
+    this.throttler = RequestThrottler.create(conf);
+    this.priorityHandlerCount = priorityHandlerCount;
+    this.replicationHandlerCount = replicationHandlerCount;
+    this.priority = priority;
+    this.highPriorityLevel = highPriorityLevel;
+    this.priorityCallQueue = priorityHandlerCount > 0
+        ? new LinkedBlockingQueue<CallRunner>(maxQueueLength)
+        : null;
+    this.replicationQueue = replicationHandlerCount > 0
+        ? new LinkedBlockingQueue<CallRunner>(maxQueueLength)
+        : null;
+    LOG.info("Write handlers=" + writeHandlers + " in " + writeQueues.queues.size() +
+        " queue(s), read handlers=" + readHandlers + " in " + readQueues.queues.size() +
+        " queue(s), scan handlers=" + scanHandlers + " in " +
+        (scanQueues == null ? 0 : scanQueues.queues.size()) + " queue(s)");
+  }
+
+  private static float clamp(float share) {
+    return Math.min(1f, Math.max(0f, share));
+  }
+
+  private static int queueCount(int handlerCount, float handlerFactor) {
+    return Math.min(handlerCount, Math.max(1, Math.round(handlerCount * handlerFactor)));
+  }
+
+  @Override
+  public void init(Context context) {
+    this.port = context.getListenerAddress().getPort();
+    this.metrics = context.getMetrics();
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    startHandlers(writeQueues, "Write.");
+    startHandlers(readQueues, "Read.");
+    if (scanQueues != null) {
+      startHandlers(scanQueues, "Scan.");
+    }
+    if (priorityCallQueue != null) {
+      startHandlers(priorityHandlerCount, priorityCallQueue, null, "Priority.");
+    }
+    if (replicationQueue != null) {
+      startHandlers(replicationHandlerCount, replicationQueue, null, "Replication.");
+    }
+  }
+
+  private void startHandlers(QueueGroup group, String threadNamePrefix) {
+    for (int q = 0; q < group.queueCount; q++) {
+      startHandlers(group.getHandlerCount(q), group.queues.get(q), group.type,
+          threadNamePrefix + "Q" + q + ".");
+    }
+  }
+
+  private void startHandlers(
+      int handlerCount,
+      final BlockingQueue<CallRunner> callQueue,
+      final CallType type,
+      String threadNamePrefix) {
+    for (int i = 0; i < handlerCount; i++) {
+      Thread t = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          consumerLoop(callQueue, type);
+        }
+      });
+      t.setDaemon(true);
+      t.setName(Strings.nullToEmpty(threadNamePrefix) + "RpcServer.handler=" + i + ",port=" + port);
+      t.start();
+      handlers.add(t);
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    for (Thread handler : handlers) {
+      handler.interrupt();
+    }
+  }
+
+  @Override
+  public void dispatch(CallRunner callTask) throws IOException, InterruptedException {
+    RpcServer.Call call = callTask.getCall();
+    int level = priority.getPriority(call.header, call.param);
+    if (priorityCallQueue != null && level > highPriorityLevel) {
+      priorityCallQueue.put(callTask);
+    } else if (replicationQueue != null && level == HConstants.REPLICATION_QOS) {
+      replicationQueue.put(callTask);
+    } else if (throttler != null && !RequestThrottler.admit(throttler, callTask, metrics)) {
+      return;
+    } else if (isWriteRequest(call.param)) {
+      writeQueues.put(callTask);
+    } else if (scanQueues != null && isScanRequest(call.param)) {
+      scanQueues.put(callTask);
+    } else {
+      readQueues.put(callTask);
+    }
+  }
+
+  /**
+   * @return true if <code>param</code> changes data: a mutation, a multi carrying at least one
+   *   mutation, or a bulk load
+   */
+  static boolean isWriteRequest(Message param) {
+    if (param instanceof MutateRequest || param instanceof BulkLoadHFileRequest) {
+      return true;
+    }
+    if (param instanceof MultiRequest) {
+      for (MultiAction action : ((MultiRequest) param).getActionList()) {
+        if (action.hasMutation()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  static boolean isScanRequest(Message param) {
+    return param instanceof ScanRequest;
+  }
+
+  @Override
+  public int getGeneralQueueLength() {
+    return getReadQueueLength() + getWriteQueueLength() + getScanQueueLength();
+  }
+
+  @Override
+  public int getGeneralQueueCapacity() {
+    return writeQueues.capacity + readQueues.capacity +
+        (scanQueues == null ? 0 : scanQueues.capacity);
+  }
+
+  @Override
+  public int getPriorityQueueLength() {
+    return priorityCallQueue == null ? 0 : priorityCallQueue.size();
+  }
+
+  @Override
+  public int getReplicationQueueLength() {
+    return replicationQueue == null ? 0 : replicationQueue.size();
+  }
+
+  @Override
+  public int getReadQueueLength() {
+    return readQueues.size();
+  }
+
+  @Override
+  public int getWriteQueueLength() {
+    return writeQueues.size();
+  }
+
+  @Override
+  public int getScanQueueLength() {
+    return scanQueues == null ? 0 : scanQueues.size();
+  }
+
+  private void consumerLoop(BlockingQueue<CallRunner> myQueue, CallType type) {
+    while (running) {
+      try {
+        CallRunner task = myQueue.take();
+        if (type != null && metrics != null) {
+          dequeued(type, (int) (System.currentTimeMillis() - task.getCall().timestamp));
+        }
+        task.run();
+        if (throttler != null) {
+          throttler.responded(task.getCall());
+        }
+      } catch (InterruptedException e) {
+        Thread.interrupted();
+      }
+    }
+  }
+
+  private void dequeued(CallType type, int qTime) {
+    switch (type) {
+      case READ:
+        metrics.dequeuedReadCall(qTime);
+        break;
+      case WRITE:
+        metrics.dequeuedWriteCall(qTime);
+        break;
+      case SCAN:
+        metrics.dequeuedScanCall(qTime);
+        break;
+    }
+  }
+}
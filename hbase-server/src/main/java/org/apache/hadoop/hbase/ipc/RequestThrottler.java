@@ -0,0 +1,243 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.ipc;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.util.EnvironmentEdgeManager;
+
+/**
+ * Enforces request rate and bandwidth quotas per user and per table on the calls a region server
+ * takes in. Each quota is a token bucket that refills at the configured rate and holds up to one
+ * second's worth. A call is turned down while any bucket it draws on is empty. Request bytes are
+ * taken when the call is admitted and response bytes once it has been answered, so a big read
+ * puts its user and table in debt and holds back their next calls.
+ * <p>
+ * Quotas are set in bytes or requests per second with
+ * <code>hbase.ipc.server.throttle.{user,table}.{requests,bytes}.per.sec</code>, which applies to
+ * every user or table, and overridden for one of them by appending <code>.&lt;name&gt;</code>.
+ * Zero, the default, means no quota.
+ * <p>
+ * Buckets are kept per user and table name seen. Those that have refilled, and so are no
+ * different from new ones, are dropped every {@link #PRUNE_INTERVAL_MS} so that users and tables
+ * that are gone do not hold on to memory.
+ */
+@InterfaceAudience.Private
+public class RequestThrottler {
+  static final String CONF_PREFIX = "hbase.ipc.server.throttle.";
+  public static final String USER_REQUESTS_CONF_KEY = CONF_PREFIX + "user.requests.per.sec";
+  public static final String USER_BYTES_CONF_KEY = CONF_PREFIX + "user.bytes.per.sec";
+  public static final String TABLE_REQUESTS_CONF_KEY = CONF_PREFIX + "table.requests.per.sec";
+  public static final String TABLE_BYTES_CONF_KEY = CONF_PREFIX + "table.bytes.per.sec";
+
+  /** How often the buckets that hold no state are dropped, in milliseconds. */
+  static final long PRUNE_INTERVAL_MS = 60 * 1000;
+
+  /**
+   * Token bucket holding up to a second's worth of its rate. It may go into debt by one big
+   * charge, and then turns callers down until it has refilled.
+   */
+  static class TokenBucket {
+    private final double rate;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(long ratePerSec, long now) {
+      this.rate = ratePerSec;
+      this.tokens = ratePerSec;
+      this.lastRefill = now;
+    }
+
+    private void refill(long now) {
+      if (now > lastRefill) {
+        tokens = Math.min(rate, tokens + (now - lastRefill) * rate / 1000);
+        lastRefill = now;
+      }
+    }
+
+    synchronized boolean hasTokens(long now) {
+      refill(now);
+      return tokens > 0;
+    }
+
+    synchronized void take(long amount, long now) {
+      refill(now);
+      tokens -= amount;
+    }
+
+    synchronized boolean isFull(long now) {
+      refill(now);
+      return tokens >= rate;
+    }
+  }
+
+  /** Stands in for a quota that is not set. */
+  private static final TokenBucket UNLIMITED = new TokenBucket(0, 0);
+
+  private final Configuration conf;
+  private final ConcurrentMap<String, TokenBucket> userRequests =
+      new ConcurrentHashMap<String, TokenBucket>();
+  private final ConcurrentMap<String, TokenBucket> userBytes =
+      new ConcurrentHashMap<String, TokenBucket>();
+  private final ConcurrentMap<String, TokenBucket> tableRequests =
+      new ConcurrentHashMap<String, TokenBucket>();
+  private final ConcurrentMap<String, TokenBucket> tableBytes =
+      new ConcurrentHashMap<String, TokenBucket>();
+
+  private final AtomicLong lastPrune;
+
+  private RequestThrottler(Configuration conf) {
+    this.conf = conf;
+    this.lastPrune = new AtomicLong(EnvironmentEdgeManager.currentTimeMillis());
+  }
+
+  /**
+   * @return a throttler for the quotas in <code>conf</code>, or null if it sets none
+   */
+  public static RequestThrottler create(Configuration conf) {
+    for (Map.Entry<String, String> e : conf) {
+      if (e.getKey().startsWith(CONF_PREFIX)) {
+        try {
+          if (Long.parseLong(e.getValue().trim()) > 0) {
+            return new RequestThrottler(conf);
+          }
+        } catch (NumberFormatException nfe) {
+          // Not a quota; ignore.
+        }
+      }
+    }
+    return null;
+  }
+
+  private TokenBucket getBucket(ConcurrentMap<String, TokenBucket> buckets, String key,
+      String name, long now) {
+    if (name == null) return UNLIMITED;
+    TokenBucket bucket = buckets.get(name);
+    if (bucket == null) {
+      long rate = conf.getLong(key + "." + name, conf.getLong(key, 0));
+      bucket = rate > 0 ? new TokenBucket(rate, now) : UNLIMITED;
+      TokenBucket existing = buckets.putIfAbsent(name, bucket);
+      if (existing != null) bucket = existing;
+    }
+    return bucket;
+  }
+
+  /**
+   * Drops the buckets that are full, along with the entries of names without a quota, unless
+   * that was done less than {@link #PRUNE_INTERVAL_MS} ago. A call that drew on a bucket just
+   * as it is dropped may go uncharged; that is all the leeway this gives.
+   */
+  private void maybePrune(long now) {
+    long last = lastPrune.get();
+    if (now - last < PRUNE_INTERVAL_MS || !lastPrune.compareAndSet(last, now)) return;
+    prune(userRequests, now);
+    prune(userBytes, now);
+    prune(tableRequests, now);
+    prune(tableBytes, now);
+  }
+
+  private static void prune(ConcurrentMap<String, TokenBucket> buckets, long now) {
+    for (Map.Entry<String, TokenBucket> e : buckets.entrySet()) {
+      TokenBucket bucket = e.getValue();
+      if (bucket == UNLIMITED || bucket.isFull(now)) {
+        buckets.remove(e.getKey(), bucket);
+      }
+    }
+  }
+
+  /** @return the number of buckets and quota-less names kept */
+  int getBucketCount() {
+    return userRequests.size() + userBytes.size() + tableRequests.size() + tableBytes.size();
+  }
+
+  /**
+   * Admits the call, taking its request and its request bytes from the quotas of its user and
+   * table.
+   * @throws ThrottlingException if its user or table is over quota; nothing is taken then
+   */
+  public void admit(RpcServer.Call call) throws ThrottlingException {
+    String user = call.getRequestUserName();
+    TableName table = call.getRequestTable();
+    String tableName = table == null ? null : table.getNameAsString();
+    long now = EnvironmentEdgeManager.currentTimeMillis();
+    maybePrune(now);
+    TokenBucket ur = getBucket(userRequests, USER_REQUESTS_CONF_KEY, user, now);
+    TokenBucket ub = getBucket(userBytes, USER_BYTES_CONF_KEY, user, now);
+    TokenBucket tr = getBucket(tableRequests, TABLE_REQUESTS_CONF_KEY, tableName, now);
+    TokenBucket tb = getBucket(tableBytes, TABLE_BYTES_CONF_KEY, tableName, now);
+    if (ur != UNLIMITED && !ur.hasTokens(now)) {
+      throw new ThrottlingException("User " + user + " is over its request rate quota");
+    }
+    if (ub != UNLIMITED && !ub.hasTokens(now)) {
+      throw new ThrottlingException("User " + user + " is over its bandwidth quota");
+    }
+    if (tr != UNLIMITED && !tr.hasTokens(now)) {
+      throw new ThrottlingException("Table " + tableName + " is over its request rate quota");
+    }
+    if (tb != UNLIMITED && !tb.hasTokens(now)) {
+      throw new ThrottlingException("Table " + tableName + " is over its bandwidth quota");
+    }
+    if (ur != UNLIMITED) ur.take(1, now);
+    if (tr != UNLIMITED) tr.take(1, now);
+    if (ub != UNLIMITED) ub.take(call.getSize(), now);
+    if (tb != UNLIMITED) tb.take(call.getSize(), now);
+  }
+
+  /**
+   * Admits the call or, if its user or table is over quota, answers it with a
+   * {@link ThrottlingException} and counts it in <code>metrics</code>.
+   * @return true if the call was admitted and should be queued
+   * @throws IOException if the rejection could not be sent
+   */
+  static boolean admit(RequestThrottler throttler, CallRunner task, MetricsHBaseServer metrics)
+      throws IOException {
+    try {
+      throttler.admit(task.getCall());
+      return true;
+    } catch (ThrottlingException e) {
+      if (metrics != null) metrics.throttledCall();
+      task.reject(e);
+      return false;
+    }
+  }
+
+  /**
+   * Takes the bytes of the response to an admitted call from the bandwidth quotas of its user
+   * and table.
+   */
+  public void responded(RpcServer.Call call) {
+    BufferChain response = call.response;
+    long responseSize = response == null ? 0 : response.size();
+    if (responseSize <= 0) return;
+    String user = call.getRequestUserName();
+    TableName table = call.getRequestTable();
+    long now = EnvironmentEdgeManager.currentTimeMillis();
+    TokenBucket ub = getBucket(userBytes, USER_BYTES_CONF_KEY, user, now);
+    TokenBucket tb = getBucket(tableBytes, TABLE_BYTES_CONF_KEY,
+      table == null ? null : table.getNameAsString(), now);
+    if (ub != UNLIMITED) ub.take(responseSize, now);
+    if (tb != UNLIMITED) tb.take(responseSize, now);
+  }
+}
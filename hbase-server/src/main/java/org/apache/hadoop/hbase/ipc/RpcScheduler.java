@@ -33,6 +33,9 @@ public interface RpcScheduler {
   /** Exposes runtime information of a {@code RpcServer} that a {@code RpcScheduler} may need. */
   interface Context {
     InetSocketAddress getListenerAddress();
+
+    /** @return metrics of the server, to report on calls the scheduler queued; may be null */
+    MetricsHBaseServer getMetrics();
   }
 
   /**
@@ -62,9 +65,33 @@ public interface RpcScheduler {
   /** Retrieves length of the general queue for metrics. */
   int getGeneralQueueLength();
 
+  /**
+   * Retrieves how many calls the general queue holds at most, to report its length against; zero
+   * if it is not bounded.
+   */
+  int getGeneralQueueCapacity();
+
   /** Retrieves length of the priority queue for metrics. */
   int getPriorityQueueLength();
 
   /** Retrieves length of the replication queue for metrics. */
   int getReplicationQueueLength();
+
+  /**
+   * Retrieves length of the read queues for metrics; zero if the scheduler does not queue reads
+   * apart.
+   */
+  int getReadQueueLength();
+
+  /**
+   * Retrieves length of the write queues for metrics; zero if the scheduler does not queue writes
+   * apart.
+   */
+  int getWriteQueueLength();
+
+  /**
+   * Retrieves length of the scan queues for metrics; zero if the scheduler does not queue scans
+   * apart.
+   */
+  int getScanQueueLength();
 }
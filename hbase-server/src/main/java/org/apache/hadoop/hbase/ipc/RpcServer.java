@@ -35,6 +35,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.Channels;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
@@ -71,9 +72,17 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Operation;
 import org.apache.hadoop.hbase.codec.Codec;
 import org.apache.hadoop.hbase.exceptions.RegionMovedException;
+import org.apache.hadoop.hbase.io.BoundedByteBufferPool;
 import org.apache.hadoop.hbase.io.ByteBufferOutputStream;
 import org.apache.hadoop.hbase.monitoring.MonitoredRPCHandler;
 import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.BulkLoadHFileRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.GetRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MultiRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutateRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ScanRequest;
+import org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.RegionSpecifier;
+import org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.RegionSpecifier.RegionSpecifierType;
 import org.apache.hadoop.hbase.protobuf.generated.RPCProtos.CellBlockMeta;
 import org.apache.hadoop.hbase.protobuf.generated.RPCProtos.ConnectionHeader;
 import org.apache.hadoop.hbase.protobuf.generated.RPCProtos.ExceptionResponse;
@@ -115,6 +124,7 @@ import org.codehaus.jackson.map.ObjectMapper;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.BlockingService;
 import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.Descriptors.MethodDescriptor;
 import com.google.protobuf.Message;
 import com.google.protobuf.Message.Builder;
@@ -174,6 +184,12 @@ public class RpcServer implements RpcServerInterface {
   private AtomicInteger delayedCalls;
   private final IPCUtil ipcUtil;
 
+  /**
+   * Pool of buffers that readers read request bodies into; null if pooling is off.
+   * A buffer goes back to the pool once the handler is done with its call.
+   */
+  private final BoundedByteBufferPool reservoir;
+
   private static final String AUTH_FAILED_FOR = "Auth failed for ";
   private static final String AUTH_SUCCESSFUL_FOR = "Auth successful for ";
   private static final Log AUDITLOG = LogFactory.getLog("SecurityLogger." +
@@ -273,7 +289,9 @@ public class RpcServer implements RpcServerInterface {
     protected Connection connection;              // connection to client
     protected long timestamp;      // the time received when response is null
                                    // the time served when response is not null
-    protected ByteBuffer response;                // the response for this call
+    protected BufferChain response;               // the response for this call
+    // Cell block of the response, if it came from the reservoir; handed back once written.
+    protected ByteBuffer cellBlock;
     protected boolean delayResponse;
     protected Responder responder;
     protected boolean delayReturnValue;           // if the return value should be
@@ -281,6 +299,13 @@ public class RpcServer implements RpcServerInterface {
     protected long size;                          // size of current call
     protected boolean isError;
     protected TraceInfo tinfo;
+    // How long the client waits for the response, in ms; zero if it did not say.
+    protected int timeout;
+    // Table named by the request, looked up on first use.
+    private TableName requestTable;
+    private boolean requestTableKnown = false;
+    // Pooled buffer the request was read into; param and cellScanner were decoded from it.
+    protected ByteBuffer requestBuffer;
 
     Call(int id, final BlockingService service, final MethodDescriptor md, RequestHeader header,
          Message param, CellScanner cellScanner, Connection connection, Responder responder,
@@ -299,6 +324,7 @@ public class RpcServer implements RpcServerInterface {
       this.isError = false;
       this.size = size;
       this.tinfo = tinfo;
+      this.timeout = header != null && header.hasTimeout() ? header.getTimeout() : 0;
     }
 
     @Override
@@ -337,15 +363,38 @@ public class RpcServer implements RpcServerInterface {
       return result;
     }
 
+    /**
+     * Hands the buffer the request was read into back to the reservoir. Call once the cells
+     * of the request have been consumed.
+     */
+    void releaseRequestBuffer() {
+      if (this.requestBuffer != null) {
+        reservoir.putBuffer(this.requestBuffer);
+        this.requestBuffer = null;
+        this.cellScanner = null;
+      }
+    }
+
+    /**
+     * Hands the cell block buffer of the response back to the reservoir. Call once the response
+     * has been written out.
+     */
+    void done() {
+      if (this.cellBlock != null) {
+        reservoir.putBuffer(this.cellBlock);
+        this.cellBlock = null;
+      }
+    }
+
     protected synchronized void setSaslTokenResponse(ByteBuffer response) {
-      this.response = response;
+      this.response = new BufferChain(response);
     }
 
     protected synchronized void setResponse(Object m, final CellScanner cells,
         Throwable t, String errorMsg) {
       if (this.isError) return;
       if (t != null) this.isError = true;
-      ByteBufferOutputStream bbos = null;
+      BufferChain bc = null;
       try {
         ResponseHeader.Builder headerBuilder = ResponseHeader.newBuilder();
         // Presume it a pb Message.  Could be null.
@@ -368,8 +417,8 @@ public class RpcServer implements RpcServerInterface {
           // Set the exception as the result of the method invocation.
           headerBuilder.setException(exceptionBuilder.build());
         }
-        ByteBuffer cellBlock =
-          ipcUtil.buildCellBlock(this.connection.codec, this.connection.compressionCodec, cells);
+        ByteBuffer cellBlock = ipcUtil.buildCellBlock(this.connection.codec,
+          this.connection.compressionCodec, cells, reservoir);
         if (cellBlock != null) {
           CellBlockMeta.Builder cellBlockBuilder = CellBlockMeta.newBuilder();
           // Presumes the cellBlock bytebuffer has been flipped so limit has total size in it.
@@ -377,20 +426,47 @@ public class RpcServer implements RpcServerInterface {
           headerBuilder.setCellBlockMeta(cellBlockBuilder.build());
         }
         Message header = headerBuilder.build();
-        bbos = IPCUtil.write(header, result, cellBlock);
         if (connection.useWrap) {
+          // The whole response is wrapped as one, so it has to be copied together anyway.
+          ByteBufferOutputStream bbos = IPCUtil.write(header, result, cellBlock);
+          if (cellBlock != null && reservoir != null) reservoir.putBuffer(cellBlock);
           wrapWithSasl(bbos);
+          // TODO: If SASL, maybe buffer already been flipped and written?
+          ByteBuffer bb = bbos.getByteBuffer();
+          bb.position(0);
+          bc = new BufferChain(bb);
+        } else {
+          // The cell block goes out as is, after the header and result.
+          ByteBuffer bb = createHeaderAndMessageBytes(result, header,
+            cellBlock == null? 0: cellBlock.remaining());
+          bc = new BufferChain(bb, cellBlock);
+          if (reservoir != null) this.cellBlock = cellBlock;
         }
       } catch (IOException e) {
         LOG.warn("Exception while creating response " + e);
       }
-      ByteBuffer bb = null;
-      if (bbos != null) {
-        // TODO: If SASL, maybe buffer already been flipped and written?
-        bb = bbos.getByteBuffer();
-        bb.position(0);
+      this.response = bc;
+    }
+
+    /**
+     * @return the length prefix of the whole response followed by the delimited header and
+     *   result, in a buffer ready for reading
+     */
+    private ByteBuffer createHeaderAndMessageBytes(Message result, Message header,
+        int cellBlockSize) throws IOException {
+      int headerAndResultSize = IPCUtil.getTotalSizeWhenWrittenDelimited(header, result);
+      byte [] b = new byte[Bytes.SIZEOF_INT + headerAndResultSize];
+      Bytes.putInt(b, 0, headerAndResultSize + cellBlockSize);
+      CodedOutputStream cos = CodedOutputStream.newInstance(b, Bytes.SIZEOF_INT,
+        headerAndResultSize);
+      cos.writeRawVarint32(header.getSerializedSize());
+      header.writeTo(cos);
+      if (result != null) {
+        cos.writeRawVarint32(result.getSerializedSize());
+        result.writeTo(cos);
       }
-      this.response = bb;
+      cos.checkNoSpaceLeft();
+      return ByteBuffer.wrap(b);
     }
 
     private void wrapWithSasl(ByteBufferOutputStream response)
@@ -468,7 +544,8 @@ public class RpcServer implements RpcServerInterface {
     @Override
     public void throwExceptionIfCallerDisconnected(String regionName)
         throws CallerDisconnectedException {
-      if (!connection.channel.isOpen()) {
+      if (!connection.isConnectionOpen()) {
+        metrics.disconnectedCall();
         long afterTime = System.currentTimeMillis() - timestamp;
         throw new CallerDisconnectedException(
             "Aborting on region " + regionName + ", call " +
@@ -481,6 +558,55 @@ public class RpcServer implements RpcServerInterface {
       return this.size;
     }
 
+    /**
+     * @return short name of the user the call runs as, or null if the connection has none
+     */
+    String getRequestUserName() {
+      UserGroupInformation ugi = this.connection == null ? null : this.connection.user;
+      return ugi == null ? null : ugi.getShortUserName();
+    }
+
+    /**
+     * @return the table the call is against, or null if the request does not name a region or
+     *   an open scanner
+     */
+    TableName getRequestTable() {
+      if (!this.requestTableKnown) {
+        this.requestTable = findRequestTable();
+        this.requestTableKnown = true;
+      }
+      return this.requestTable;
+    }
+
+    private TableName findRequestTable() {
+      RegionSpecifier region = null;
+      if (param instanceof GetRequest) {
+        region = ((GetRequest) param).getRegion();
+      } else if (param instanceof MutateRequest) {
+        region = ((MutateRequest) param).getRegion();
+      } else if (param instanceof MultiRequest) {
+        region = ((MultiRequest) param).getRegion();
+      } else if (param instanceof ScanRequest) {
+        ScanRequest scan = (ScanRequest) param;
+        if (scan.hasRegion()) {
+          region = scan.getRegion();
+        } else if (scan.hasScannerId() && serverInstance instanceof HRegionServer) {
+          // Scanner calls after the first only carry the id of the scanner they go on with.
+          return ((HRegionServer) serverInstance).getScannerTable(scan.getScannerId());
+        }
+      } else if (param instanceof BulkLoadHFileRequest) {
+        region = ((BulkLoadHFileRequest) param).getRegion();
+      }
+      if (region == null || region.getType() != RegionSpecifierType.REGION_NAME) {
+        return null;
+      }
+      try {
+        return HRegionInfo.getTable(region.getValue().toByteArray());
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+
     /**
      * If we have a response, and delay is not set, then respond
      * immediately.  Otherwise, do not respond to client.  This is
@@ -991,11 +1117,12 @@ public class RpcServer implements RpcServerInterface {
           //
           // Send as much data as we can in the non-blocking fashion
           //
-          int numBytes = channelWrite(channel, call.response);
+          long numBytes = channelWrite(channel, call.response);
           if (numBytes < 0) {
             return true;
           }
           if (!call.response.hasRemaining()) {
+            call.done();
             call.connection.decRpcCount();
             //noinspection RedundantIfStatement
             if (numElements == 1) {    // last call fully processes.
@@ -1203,6 +1330,13 @@ public class RpcServer implements RpcServerInterface {
       return lastContact;
     }
 
+    /**
+     * @return false once the client has gone away; responses to it can no longer be sent
+     */
+    boolean isConnectionOpen() {
+      return channel.isOpen();
+    }
+
     /* Return true if the connection has no outstanding rpc */
     private boolean isIdle() {
       return rpcCount.get() == 0;
@@ -1247,7 +1381,7 @@ public class RpcServer implements RpcServerInterface {
               + " for processing by saslServer.unwrap()");
 
         if (!useWrap) {
-          processOneRpc(saslToken);
+          processOneRpc(ByteBuffer.wrap(saslToken));
         } else {
           byte [] plaintextData = saslServer.unwrap(saslToken, 0, saslToken.length);
           processUnwrappedData(plaintextData);
@@ -1460,7 +1594,12 @@ public class RpcServer implements RpcServerInterface {
             throw new IllegalArgumentException("Unexpected data length "
                 + dataLength + "!! from " + getHostAddress());
           }
-          data = ByteBuffer.allocate(dataLength);
+          if (reservoir != null && connectionHeaderRead && !useSasl) {
+            // A request; processRequest hands the buffer on to the Call.
+            data = reservoir.getBuffer(dataLength);
+          } else {
+            data = ByteBuffer.allocate(dataLength);
+          }
           incRpcCount();  // Increment the rpc count
         }
         count = channelRead(channel, data);
@@ -1478,7 +1617,7 @@ public class RpcServer implements RpcServerInterface {
           if (useSasl) {
             saslReadAndProcess(data.array());
           } else {
-            processOneRpc(data.array());
+            processOneRpc(data);
           }
           this.data = null;
           if (!headerRead) {
@@ -1610,17 +1749,17 @@ public class RpcServer implements RpcServerInterface {
         if (unwrappedData.remaining() == 0) {
           unwrappedDataLengthBuffer.clear();
           unwrappedData.flip();
-          processOneRpc(unwrappedData.array());
+          processOneRpc(unwrappedData);
           unwrappedData = null;
         }
       }
     }
 
-    private void processOneRpc(byte[] buf) throws IOException, InterruptedException {
+    private void processOneRpc(ByteBuffer buf) throws IOException, InterruptedException {
       if (connectionHeaderRead) {
         processRequest(buf);
       } else {
-        processConnectionHeader(buf);
+        processConnectionHeader(buf.array());
         this.connectionHeaderRead = true;
         if (!authorizeConnection()) {
           // Throw FatalConnectionException wrapping ACE so client does right thing and closes
@@ -1632,17 +1771,21 @@ public class RpcServer implements RpcServerInterface {
     }
 
     /**
-     * @param buf Has the request header and the request param and optionally encoded data buffer
-     * all in this one array.
+     * @param requestBuffer Has the request header and the request param and optionally encoded
+     * data buffer all in this one heap buffer, from its start to its limit. If it came from the
+     * reservoir it is handed on to the Call, or returned here if no Call is made.
      * @throws IOException
      * @throws InterruptedException
      */
-    protected void processRequest(byte[] buf) throws IOException, InterruptedException {
-      long totalRequestSize = buf.length;
+    protected void processRequest(ByteBuffer requestBuffer)
+    throws IOException, InterruptedException {
+      byte[] buf = requestBuffer.array();
+      int length = requestBuffer.limit();
+      long totalRequestSize = length;
       int offset = 0;
       // Here we read in the header.  We avoid having pb
       // do its default 4k allocation for CodedInputStream.  We force it to use backing array.
-      CodedInputStream cis = CodedInputStream.newInstance(buf, offset, buf.length);
+      CodedInputStream cis = CodedInputStream.newInstance(buf, offset, length);
       int headerSize = cis.readRawVarint32();
       offset = cis.getTotalBytesRead();
       RequestHeader header = RequestHeader.newBuilder().mergeFrom(buf, offset, headerSize).build();
@@ -1662,6 +1805,7 @@ public class RpcServer implements RpcServerInterface {
         setupResponse(responseBuffer, callTooBig, new CallQueueTooBigException(),
           "Call queue is full, is ipc.server.max.callqueue.size too small?");
         responder.doRespond(callTooBig);
+        if (reservoir != null) reservoir.putBuffer(requestBuffer);
         return;
       }
       MethodDescriptor md = null;
@@ -1673,7 +1817,7 @@ public class RpcServer implements RpcServerInterface {
           if (md == null) throw new UnsupportedOperationException(header.getMethodName());
           Builder builder = this.service.getRequestPrototype(md).newBuilderForType();
           // To read the varint, I need an inputstream; might as well be a CIS.
-          cis = CodedInputStream.newInstance(buf, offset, buf.length);
+          cis = CodedInputStream.newInstance(buf, offset, length - offset);
           int paramSize = cis.readRawVarint32();
           offset += cis.getTotalBytesRead();
           if (builder != null) {
@@ -1682,8 +1826,10 @@ public class RpcServer implements RpcServerInterface {
           offset += paramSize;
         }
         if (header.hasCellBlockMeta()) {
+          // Cells are decoded lazily straight from the request buffer as the handler reads
+          // them; each decoded cell gets its own copy since it may outlive the call.
           cellScanner = ipcUtil.createCellScanner(this.codec, this.compressionCodec,
-            buf, offset, buf.length);
+            buf, offset, length - offset);
         }
       } catch (Throwable t) {
         String msg = "Unable to read call parameter from client " + getHostAddress();
@@ -1695,6 +1841,7 @@ public class RpcServer implements RpcServerInterface {
         setupResponse(responseBuffer, readParamsFailedCall, t,
           msg + "; " + t.getMessage());
         responder.doRespond(readParamsFailedCall);
+        if (reservoir != null) reservoir.putBuffer(requestBuffer);
         return;
       }
 
@@ -1704,6 +1851,7 @@ public class RpcServer implements RpcServerInterface {
       Call call = new Call(id, this.service, md, header, param, cellScanner, this, responder,
               totalRequestSize,
               traceInfo);
+      if (reservoir != null) call.requestBuffer = requestBuffer;
       scheduler.dispatch(new CallRunner(RpcServer.this, call));
     }
 
@@ -1837,6 +1985,14 @@ public class RpcServer implements RpcServerInterface {
     this.warnDelayedCalls = conf.getInt(WARN_DELAYED_CALLS, DEFAULT_WARN_DELAYED_CALLS);
     this.delayedCalls = new AtomicInteger(0);
     this.ipcUtil = new IPCUtil(conf);
+    if (conf.getBoolean("hbase.ipc.server.reservoir.enabled", false)) {
+      this.reservoir = new BoundedByteBufferPool(
+        conf.getInt("hbase.ipc.server.reservoir.min.buffer.size", 1024),
+        conf.getInt("hbase.ipc.server.reservoir.max.buffer.size", 64 * 1024 * 1024),
+        conf.getLong("hbase.ipc.server.reservoir.max.size", 128 * 1024 * 1024));
+    } else {
+      this.reservoir = null;
+    }
 
 
     // Create the responder here
@@ -2181,6 +2337,27 @@ public class RpcServer implements RpcServerInterface {
     return count;
   }
 
+  /**
+   * Writes a chain of buffers with gathering writes, at most {@link #NIO_BUFFER_LIMIT} bytes
+   * at a time for the same reason as
+   * {@link #channelWrite(java.nio.channels.WritableByteChannel, java.nio.ByteBuffer)}.
+   *
+   * @param channel gathering byte channel to write to
+   * @param bufferChain buffers to write
+   * @return number of bytes written
+   * @throws java.io.IOException e
+   * @see java.nio.channels.GatheringByteChannel#write(java.nio.ByteBuffer[], int, int)
+   */
+  protected long channelWrite(GatheringByteChannel channel, BufferChain bufferChain)
+  throws IOException {
+    long count = bufferChain.write(channel, NIO_BUFFER_LIMIT);
+    if (count > 0) {
+      // A chain holds one response, so never more than an int's worth.
+      metrics.sentBytes((int)count);
+    }
+    return count;
+  }
+
   /**
    * This is a wrapper around {@link java.nio.channels.ReadableByteChannel#read(java.nio.ByteBuffer)}.
    * If the amount of data is large, it writes to channel in smaller chunks.
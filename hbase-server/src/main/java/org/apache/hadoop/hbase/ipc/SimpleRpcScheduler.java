@@ -17,6 +17,7 @@
  */
 package org.apache.hadoop.hbase.ipc;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -32,19 +33,32 @@ import com.google.common.collect.Lists;
 /**
  * A scheduler that maintains isolated handler pools for general, high-priority and replication
  * requests.
+ * <p>
+ * General calls wait in a FIFO queue or, with {@link #CALL_QUEUE_TYPE_CONF_KEY} set to
+ * {@link #CALL_QUEUE_TYPE_FAIR}, in a {@link FairCallQueue} that shares the handlers out between
+ * users or tables. If any quota is configured, general calls of users and tables over quota are
+ * turned down with a {@link ThrottlingException}; see {@link RequestThrottler}.
  */
 @InterfaceAudience.Private
 @InterfaceStability.Evolving
 public class SimpleRpcScheduler implements RpcScheduler {
+  /** How general calls queue: {@link #CALL_QUEUE_TYPE_FIFO} or {@link #CALL_QUEUE_TYPE_FAIR}. */
+  public static final String CALL_QUEUE_TYPE_CONF_KEY = "hbase.ipc.server.callqueue.type";
+  public static final String CALL_QUEUE_TYPE_FIFO = "fifo";
+  public static final String CALL_QUEUE_TYPE_FAIR = "fair";
 
   private int port;
   private final int handlerCount;
+  private final int maxQueueLength;
   private final int priorityHandlerCount;
   private final int replicationHandlerCount;
   private final PriorityFunction priority;
   final BlockingQueue<CallRunner> callQueue;
   final BlockingQueue<CallRunner> priorityCallQueue;
   final BlockingQueue<CallRunner> replicationQueue;
+  // Null if no quotas are set.
+  private final RequestThrottler throttler;
+  private MetricsHBaseServer metrics;
   private volatile boolean running = false;
   private final List<Thread> handlers = Lists.newArrayList();
 
@@ -68,12 +82,18 @@ public class SimpleRpcScheduler implements RpcScheduler {
       int highPriorityLevel) {
     int maxQueueLength = conf.getInt("ipc.server.max.callqueue.length",
         handlerCount * RpcServer.DEFAULT_MAX_CALLQUEUE_LENGTH_PER_HANDLER);
+    this.maxQueueLength = maxQueueLength;
     this.handlerCount = handlerCount;
     this.priorityHandlerCount = priorityHandlerCount;
     this.replicationHandlerCount = replicationHandlerCount;
     this.priority = priority;
     this.highPriorityLevel = highPriorityLevel;
-    this.callQueue = new LinkedBlockingQueue<CallRunner>(maxQueueLength);
+    if (CALL_QUEUE_TYPE_FAIR.equals(conf.get(CALL_QUEUE_TYPE_CONF_KEY, CALL_QUEUE_TYPE_FIFO))) {
+      this.callQueue = new FairCallQueue(conf, maxQueueLength);
+    } else {
+      this.callQueue = new LinkedBlockingQueue<CallRunner>(maxQueueLength);
+    }
+    this.throttler = RequestThrottler.create(conf);
     this.priorityCallQueue = priorityHandlerCount > 0
         ? new LinkedBlockingQueue<CallRunner>(maxQueueLength)
         : null;
@@ -85,6 +105,7 @@ public class SimpleRpcScheduler implements RpcScheduler {
   @Override
   public void init(Context context) {
     this.port = context.getListenerAddress().getPort();
+    this.metrics = context.getMetrics();
   }
 
   @Override
@@ -126,14 +147,14 @@ public class SimpleRpcScheduler implements RpcScheduler {
   }
 
   @Override
-  public void dispatch(CallRunner callTask) throws InterruptedException {
+  public void dispatch(CallRunner callTask) throws IOException, InterruptedException {
     RpcServer.Call call = callTask.getCall();
     int level = priority.getPriority(call.header, call.param);
     if (priorityCallQueue != null && level > highPriorityLevel) {
       priorityCallQueue.put(callTask);
     } else if (replicationQueue != null && level == HConstants.REPLICATION_QOS) {
       replicationQueue.put(callTask);
-    } else {
+    } else if (throttler == null || RequestThrottler.admit(throttler, callTask, metrics)) {
       callQueue.put(callTask); // queue the call; maybe blocked here
     }
   }
@@ -143,6 +164,11 @@ public class SimpleRpcScheduler implements RpcScheduler {
     return callQueue.size();
   }
 
+  @Override
+  public int getGeneralQueueCapacity() {
+    return maxQueueLength;
+  }
+
   @Override
   public int getPriorityQueueLength() {
     return priorityCallQueue == null ? 0 : priorityCallQueue.size();
@@ -153,11 +179,29 @@ public class SimpleRpcScheduler implements RpcScheduler {
     return replicationQueue == null ? 0 : replicationQueue.size();
   }
 
+  @Override
+  public int getReadQueueLength() {
+    return 0;
+  }
+
+  @Override
+  public int getWriteQueueLength() {
+    return 0;
+  }
+
+  @Override
+  public int getScanQueueLength() {
+    return 0;
+  }
+
   private void consumerLoop(BlockingQueue<CallRunner> myQueue) {
     while (running) {
       try {
         CallRunner task = myQueue.take();
         task.run();
+        if (throttler != null) {
+          throttler.responded(task.getCall());
+        }
       } catch (InterruptedException e) {
         Thread.interrupted();
       }
@@ -30,6 +30,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.monitoring.MonitoredTask;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 import org.apache.hadoop.hbase.util.CollectionBackedScanner;
 import org.apache.hadoop.util.StringUtils;
 
@@ -47,7 +48,7 @@ public class DefaultStoreFlusher extends StoreFlusher {
   @Override
   public List<Path> flushSnapshot(SortedSet<KeyValue> snapshot, long cacheFlushId,
       TimeRangeTracker snapshotTimeRangeTracker, AtomicLong flushedSize,
-      MonitoredTask status) throws IOException {
+      MonitoredTask status, ThroughputController throughputController) throws IOException {
     ArrayList<Path> result = new ArrayList<Path>();
     if (snapshot.size() == 0) return result; // don't flush if there are no entries
 
@@ -76,7 +77,7 @@ public class DefaultStoreFlusher extends StoreFlusher {
             snapshot.size(), store.getFamily().getCompression(), false, true);
         writer.setTimeRangeTracker(snapshotTimeRangeTracker);
         try {
-          flushed = performFlush(scanner, writer, smallestReadPoint);
+          flushed = performFlush(scanner, writer, smallestReadPoint, throughputController);
         } finally {
           finalizeWriter(writer, cacheFlushId, status);
         }
@@ -0,0 +1,67 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import java.io.IOException;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.hbase.client.Result;
+
+/**
+ * The outcome of one get of a batch done by {@link HRegion#get(java.util.List)}: the
+ * {@link Result} of the get if it succeeded, or the exception it failed with.
+ */
+@InterfaceAudience.Private
+public class GetStatus {
+
+  private final Result result;
+
+  private final IOException exception;
+
+  public GetStatus(Result result) {
+    this.result = result;
+    this.exception = null;
+  }
+
+  public GetStatus(IOException exception) {
+    this.result = null;
+    this.exception = exception;
+  }
+
+  /**
+   * @return true if the get succeeded
+   */
+  public boolean isSuccess() {
+    return exception == null;
+  }
+
+  /**
+   * @return the result of the get, or null if it failed
+   */
+  public Result getResult() {
+    return result;
+  }
+
+  /**
+   * @return the exception the get failed with, or null if it succeeded
+   */
+  public IOException getException() {
+    return exception;
+  }
+}
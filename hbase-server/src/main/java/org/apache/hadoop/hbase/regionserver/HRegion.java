@@ -29,19 +29,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -84,6 +83,7 @@ import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.backup.HFileArchiver;
 import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Durability;
 import org.apache.hadoop.hbase.client.Get;
@@ -113,6 +113,7 @@ import org.apache.hadoop.hbase.master.AssignmentManager;
 import org.apache.hadoop.hbase.monitoring.MonitoredTask;
 import org.apache.hadoop.hbase.monitoring.TaskMonitor;
 import org.apache.hadoop.hbase.protobuf.generated.AdminProtos.GetRegionInfoResponse.CompactionState;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos;
 import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.CoprocessorServiceCall;
 import org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.SnapshotDescription;
 import org.apache.hadoop.hbase.protobuf.generated.WALProtos.CompactionDescriptor;
@@ -139,7 +140,6 @@ import org.cliffc.high_scale_lib.Counter;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.Closeables;
 import com.google.protobuf.Descriptors;
@@ -223,9 +223,8 @@ public class HRegion implements HeapSize { // , Writable{
   //////////////////////////////////////////////////////////////////////////////
 
   // map from a locked row to the context for that lock including:
-  // - CountDownLatch for threads waiting on that row
-  // - the thread that owns the lock (allow reentrancy)
-  // - reference count of (reentrant) locks held by the thread
+  // - the shared/exclusive lock of the row, reentrant per thread
+  // - count of the locks handed out on the row and not yet released
   // - the row itself
   private final ConcurrentHashMap<HashedBytes, RowLockContext> lockedRows =
       new ConcurrentHashMap<HashedBytes, RowLockContext>();
@@ -765,6 +764,27 @@ public class HRegion implements HeapSize { // , Writable{
     return memstoreSize;
   }
 
+  /**
+   * @return how close this region is to blocking updates, for clients to pace their writes by;
+   *   the call queue load is left for the region server to fill in
+   */
+  public ClientProtos.RegionLoadStats getLoadStatistics() {
+    int compactionPressure = 0;
+    for (Store store : stores.values()) {
+      long blockingFileCount = store.getBlockingFileCount();
+      if (blockingFileCount > 0) {
+        compactionPressure = Math.max(compactionPressure,
+          (int) Math.min(100, 100L * store.getStorefilesCount() / blockingFileCount));
+      }
+    }
+    int memstoreLoad = this.blockingMemStoreSize <= 0 ? 0 :
+      (int) Math.min(100, 100 * this.memstoreSize.get() / this.blockingMemStoreSize);
+    return ClientProtos.RegionLoadStats.newBuilder()
+      .setMemstoreLoad(memstoreLoad)
+      .setCompactionPressure(compactionPressure)
+      .build();
+  }
+
   /**
    * Increase the size of mem store in this region and the size of global mem
    * store
@@ -1879,12 +1899,24 @@ public class HRegion implements HeapSize { // , Writable{
     T[] operations;
     int nextIndexToProcess = 0;
     OperationStatus[] retCodeDetails;
+    // Null unless observed
     WALEdit[] walEditsFromCoprocessors;
-
-    public BatchOperationInProgress(T[] operations) {
+    // Whether RegionObservers see the operations; if not, their hooks are not run at all
+    final boolean observed;
+    // Working space of the mini-batches, sized once for the whole batch
+    final Map<byte[], List<Cell>>[] familyMaps;
+    final List<RowLock> acquiredRowLocks;
+
+    @SuppressWarnings("unchecked")
+    public BatchOperationInProgress(T[] operations, boolean observed) {
       this.operations = operations;
       this.retCodeDetails = new OperationStatus[operations.length];
-      this.walEditsFromCoprocessors = new WALEdit[operations.length];
+      this.observed = observed;
+      if (observed) {
+        this.walEditsFromCoprocessors = new WALEdit[operations.length];
+      }
+      this.familyMaps = new Map[operations.length];
+      this.acquiredRowLocks = new ArrayList<RowLock>(operations.length);
       Arrays.fill(this.retCodeDetails, OperationStatus.NOT_RUN);
     }
 
@@ -1915,8 +1947,9 @@ public class HRegion implements HeapSize { // , Writable{
    */
   OperationStatus[] batchMutate(Mutation[] mutations, boolean isReplay)
       throws IOException {
-    BatchOperationInProgress<Mutation> batchOp =
-      new BatchOperationInProgress<Mutation>(mutations);
+    BatchOperationInProgress<Mutation> batchOp = new BatchOperationInProgress<Mutation>(
+        mutations, !isReplay && coprocessorHost != null &&
+            coprocessorHost.hasBatchMutationObservers());
 
     boolean initialized = false;
 
@@ -1957,60 +1990,48 @@ public class HRegion implements HeapSize { // , Writable{
   private void doPreMutationHook(BatchOperationInProgress<Mutation> batchOp)
       throws IOException {
     /* Run coprocessor pre hook outside of locks to avoid deadlock */
-    WALEdit walEdit = new WALEdit();
-    if (coprocessorHost != null) {
-      for (int i = 0 ; i < batchOp.operations.length; i++) {
-        Mutation m = batchOp.operations[i];
-        if (m instanceof Put) {
-          if (coprocessorHost.prePut((Put) m, walEdit, m.getDurability())) {
-            // pre hook says skip this Put
-            // mark as success and skip in doMiniBatchMutation
-            batchOp.retCodeDetails[i] = OperationStatus.SUCCESS;
-          }
-        } else if (m instanceof Delete) {
-          if (coprocessorHost.preDelete((Delete) m, walEdit, m.getDurability())) {
-            // pre hook says skip this Delete
-            // mark as success and skip in doMiniBatchMutation
-            batchOp.retCodeDetails[i] = OperationStatus.SUCCESS;
-          }
-        } else {
-          // In case of passing Append mutations along with the Puts and Deletes in batchMutate
-          // mark the operation return code as failure so that it will not be considered in
-          // the doMiniBatchMutation
-          batchOp.retCodeDetails[i] = new OperationStatus(OperationStatusCode.FAILURE,
-              "Put/Delete mutations only supported in batchMutate() now");
+    WALEdit walEdit = batchOp.observed ? new WALEdit() : null;
+    for (int i = 0 ; i < batchOp.operations.length; i++) {
+      Mutation m = batchOp.operations[i];
+      if (m instanceof Put) {
+        if (batchOp.observed && coprocessorHost.prePut((Put) m, walEdit, m.getDurability())) {
+          // pre hook says skip this Put
+          // mark as success and skip in doMiniBatchMutation
+          batchOp.retCodeDetails[i] = OperationStatus.SUCCESS;
         }
-        if (!walEdit.isEmpty()) {
-          batchOp.walEditsFromCoprocessors[i] = walEdit;
-          walEdit = new WALEdit();
+      } else if (m instanceof Delete) {
+        if (batchOp.observed &&
+            coprocessorHost.preDelete((Delete) m, walEdit, m.getDurability())) {
+          // pre hook says skip this Delete
+          // mark as success and skip in doMiniBatchMutation
+          batchOp.retCodeDetails[i] = OperationStatus.SUCCESS;
         }
+      } else {
+        // In case of passing Append mutations along with the Puts and Deletes in batchMutate
+        // mark the operation return code as failure so that it will not be considered in
+        // the doMiniBatchMutation
+        batchOp.retCodeDetails[i] = new OperationStatus(OperationStatusCode.FAILURE,
+            "Put/Delete mutations only supported in batchMutate() now");
+      }
+      if (batchOp.observed && !walEdit.isEmpty()) {
+        batchOp.walEditsFromCoprocessors[i] = walEdit;
+        walEdit = new WALEdit();
       }
     }
   }
 
-  @SuppressWarnings("unchecked")
   private long doMiniBatchMutation(BatchOperationInProgress<Mutation> batchOp,
       boolean isInReplay) throws IOException {
-
-    // variable to note if all Put items are for the same CF -- metrics related
-    boolean putsCfSetConsistent = true;
-    //The set of columnFamilies first seen for Put.
-    Set<byte[]> putsCfSet = null;
-    // variable to note if all Delete items are for the same CF -- metrics related
-    boolean deletesCfSetConsistent = true;
-    //The set of columnFamilies first seen for Delete.
-    Set<byte[]> deletesCfSet = null;
-
-    WALEdit walEdit = new WALEdit(isInReplay);
+    WALEdit walEdit = null;
     MultiVersionConsistencyControl.WriteEntry w = null;
     long txid = 0;
     boolean walSyncSuccessful = false;
     boolean locked = false;
 
     /** Keep track of the locks we hold so we can release them in finally clause */
-    List<RowLock> acquiredRowLocks = Lists.newArrayListWithCapacity(batchOp.operations.length);
+    List<RowLock> acquiredRowLocks = batchOp.acquiredRowLocks;
     // reference family maps directly so coprocessors can mutate them if desired
-    Map<byte[], List<Cell>>[] familyMaps = new Map[batchOp.operations.length];
+    Map<byte[], List<Cell>>[] familyMaps = batchOp.familyMaps;
     // We try to set up a batch in the range [firstIndex,lastIndexExclusive)
     int firstIndex = batchOp.nextIndexToProcess;
     int lastIndexExclusive = firstIndex;
@@ -2069,7 +2090,9 @@ public class HRegion implements HeapSize { // , Writable{
         boolean shouldBlock = numReadyToWrite == 0;
         RowLock rowLock = null;
         try {
-          rowLock = getRowLock(mutation.getRow(), shouldBlock);
+          // A put only needs mvcc to be atomic, so puts to a row can go in
+          // parallel. A delete may read the latest versions to mark them.
+          rowLock = getRowLock(mutation.getRow(), shouldBlock, isPutMutation);
         } catch (IOException ioe) {
           LOG.warn("Failed getting lock in batch put, row="
             + Bytes.toStringBinary(mutation.getRow()), ioe);
@@ -2084,25 +2107,6 @@ public class HRegion implements HeapSize { // , Writable{
 
         lastIndexExclusive++;
         numReadyToWrite++;
-
-        if (isPutMutation) {
-          // If Column Families stay consistent through out all of the
-          // individual puts then metrics can be reported as a mutliput across
-          // column families in the first put.
-          if (putsCfSet == null) {
-            putsCfSet = mutation.getFamilyCellMap().keySet();
-          } else {
-            putsCfSetConsistent = putsCfSetConsistent
-                && mutation.getFamilyCellMap().keySet().equals(putsCfSet);
-          }
-        } else {
-          if (deletesCfSet == null) {
-            deletesCfSet = mutation.getFamilyCellMap().keySet();
-          } else {
-            deletesCfSetConsistent = deletesCfSetConsistent
-                && mutation.getFamilyCellMap().keySet().equals(deletesCfSet);
-          }
-        }
       }
 
       // we should record the timestamp only after we have acquired the rowLock,
@@ -2118,6 +2122,7 @@ public class HRegion implements HeapSize { // , Writable{
       // ------------------------------------
       // STEP 2. Update any LATEST_TIMESTAMP timestamps
       // ----------------------------------
+      int cellCount = 0;
       for (int i = firstIndex; i < lastIndexExclusive; i++) {
         // skip invalid
         if (batchOp.retCodeDetails[i].getOperationStatusCode()
@@ -2125,13 +2130,17 @@ public class HRegion implements HeapSize { // , Writable{
 
         Mutation mutation = batchOp.operations[i];
         if (mutation instanceof Put) {
-          updateKVTimestamps(familyMaps[i].values(), byteNow);
+          cellCount += updateKVTimestamps(familyMaps[i].values(), byteNow);
           noOfPuts++;
         } else {
           prepareDeleteTimestamps(familyMaps[i], byteNow);
+          for (List<Cell> cells : familyMaps[i].values()) {
+            cellCount += cells.size();
+          }
           noOfDeletes++;
         }
       }
+      walEdit = new WALEdit(isInReplay, cellCount);
 
       lock(this.updatesLock.readLock(), numReadyToWrite);
       locked = true;
@@ -2143,7 +2152,7 @@ public class HRegion implements HeapSize { // , Writable{
       w = mvcc.beginMemstoreInsert();
 
       // calling the pre CP hook for batch mutation
-      if (!isInReplay && coprocessorHost != null) {
+      if (batchOp.observed) {
         MiniBatchOperationInProgress<Mutation> miniBatchOp = 
           new MiniBatchOperationInProgress<Mutation>(batchOp.operations, 
           batchOp.retCodeDetails, batchOp.walEditsFromCoprocessors, firstIndex, lastIndexExclusive);
@@ -2191,7 +2200,7 @@ public class HRegion implements HeapSize { // , Writable{
         }
 
         // Add WAL edits by CP
-        WALEdit fromCP = batchOp.walEditsFromCoprocessors[i];
+        WALEdit fromCP = batchOp.observed ? batchOp.walEditsFromCoprocessors[i] : null;
         if (fromCP != null) {
           for (KeyValue kv : fromCP.getKeyValues()) {
             walEdit.add(kv);
@@ -2227,7 +2236,7 @@ public class HRegion implements HeapSize { // , Writable{
       }
       walSyncSuccessful = true;
       // calling the post CP hook for batch mutation
-      if (!isInReplay && coprocessorHost != null) {
+      if (batchOp.observed) {
         MiniBatchOperationInProgress<Mutation> miniBatchOp = 
           new MiniBatchOperationInProgress<Mutation>(batchOp.operations, 
           batchOp.retCodeDetails, batchOp.walEditsFromCoprocessors, firstIndex, lastIndexExclusive);
@@ -2246,7 +2255,7 @@ public class HRegion implements HeapSize { // , Writable{
       // STEP 9. Run coprocessor post hooks. This should be done after the wal is
       // synced so that the coprocessor contract is adhered to.
       // ------------------------------------
-      if (!isInReplay && coprocessorHost != null) {
+      if (batchOp.observed) {
         for (int i = firstIndex; i < lastIndexExclusive; i++) {
           // only for successful puts
           if (batchOp.retCodeDetails[i].getOperationStatusCode()
@@ -2277,12 +2286,6 @@ public class HRegion implements HeapSize { // , Writable{
       }
       releaseRowLocks(acquiredRowLocks);
 
-      // See if the column families were consistent through the whole thing.
-      // if they were then keep them. If they were not then pass a null.
-      // null will be treated as unknown.
-      // Total time taken might be involving Puts and Deletes.
-      // Split the time for puts and deletes based on the total number of Puts and Deletes.
-
       if (noOfPuts > 0) {
         // There were some Puts in the batch.
         if (this.metricsRegion != null) {
@@ -2357,45 +2360,8 @@ public class HRegion implements HeapSize { // , Writable{
       RowLock rowLock = getRowLock(get.getRow());
       // wait for all previous transactions to complete (with lock held)
       mvcc.completeMemstoreInsert(mvcc.beginMemstoreInsert());
-      List<Cell> result;
       try {
-        result = get(get, false);
-
-        boolean valueIsNull = comparator.getValue() == null ||
-          comparator.getValue().length == 0;
-        boolean matches = false;
-        if (result.size() == 0 && valueIsNull) {
-          matches = true;
-        } else if (result.size() > 0 && result.get(0).getValueLength() == 0 &&
-            valueIsNull) {
-          matches = true;
-        } else if (result.size() == 1 && !valueIsNull) {
-          Cell kv = result.get(0);
-          int compareResult = comparator.compareTo(kv.getValueArray(),
-              kv.getValueOffset(), kv.getValueLength());
-          switch (compareOp) {
-          case LESS:
-            matches = compareResult <= 0;
-            break;
-          case LESS_OR_EQUAL:
-            matches = compareResult < 0;
-            break;
-          case EQUAL:
-            matches = compareResult == 0;
-            break;
-          case NOT_EQUAL:
-            matches = compareResult != 0;
-            break;
-          case GREATER_OR_EQUAL:
-            matches = compareResult > 0;
-            break;
-          case GREATER:
-            matches = compareResult >= 0;
-            break;
-          default:
-            throw new RuntimeException("Unknown Compare op " + compareOp.name());
-          }
-        }
+        boolean matches = matches(get(get, false), compareOp, comparator);
         //If matches put the new put or delete the new delete
         if (matches) {
           // All edits for the given row (across all column families) must
@@ -2414,6 +2380,123 @@ public class HRegion implements HeapSize { // , Writable{
     }
   }
 
+  /**
+   * Does {@link #checkAndMutate(byte[], byte[], byte[], CompareOp, ByteArrayComparable, Mutation,
+   * boolean)} for each of <code>checks</code>. The checks are done in mini batches: the rows of
+   * a mini batch are locked, waiting for the first lock only, their checks are done under the
+   * locks and the mutations that pass go through a single {@link #batchMutate(Mutation[])}. A
+   * mini batch stops at a row it has locked already, so that checks on one row see the
+   * mutations before them.
+   *
+   * @param checks the conditional mutations
+   * @return for each check, in order, SUCCESS if its mutation was applied, NOT_RUN if the check
+   *   did not pass, or why the mutation failed
+   * @throws IOException
+   */
+  public OperationStatus[] checkAndMutate(CheckAndMutate[] checks) throws IOException {
+    checkReadOnly();
+    checkResources();
+    OperationStatus[] statuses = new OperationStatus[checks.length];
+    startRegionOperation();
+    try {
+      List<RowLock> acquiredRowLocks = new ArrayList<RowLock>(checks.length);
+      TreeMap<byte[], Integer> rowsInBatch = new TreeMap<byte[], Integer>(Bytes.BYTES_COMPARATOR);
+      List<Mutation> toApply = new ArrayList<Mutation>(checks.length);
+      int[] applyIndex = new int[checks.length];
+      int next = 0;
+      while (next < checks.length) {
+        try {
+          for (; next < checks.length; next++) {
+            CheckAndMutate check = checks[next];
+            if (rowsInBatch.containsKey(check.getRow())) break;
+            try {
+              checkFamily(check.getFamily());
+            } catch (NoSuchColumnFamilyException nscf) {
+              statuses[next] = new OperationStatus(OperationStatusCode.BAD_FAMILY,
+                nscf.getMessage());
+              continue;
+            }
+            RowLock rowLock = getRowLock(check.getRow(), acquiredRowLocks.isEmpty());
+            if (rowLock == null) break;
+            acquiredRowLocks.add(rowLock);
+            rowsInBatch.put(check.getRow(), next);
+          }
+          // wait for all previous transactions to complete (with locks held)
+          mvcc.completeMemstoreInsert(mvcc.beginMemstoreInsert());
+          for (int i : rowsInBatch.values()) {
+            CheckAndMutate check = checks[i];
+            Get get = new Get(check.getRow());
+            get.addColumn(check.getFamily(), check.getQualifier());
+            if (matches(get(get, false), check.getCompareOp(), check.getComparator())) {
+              applyIndex[toApply.size()] = i;
+              toApply.add(check.getMutation());
+            } else {
+              statuses[i] = OperationStatus.NOT_RUN;
+              this.checkAndMutateChecksFailed.increment();
+            }
+          }
+          if (!toApply.isEmpty()) {
+            // Relocks the rows, which we hold already.
+            OperationStatus[] applied = batchMutate(toApply.toArray(new Mutation[toApply.size()]));
+            for (int j = 0; j < applied.length; j++) {
+              statuses[applyIndex[j]] = applied[j];
+              if (applied[j].getOperationStatusCode() == OperationStatusCode.SUCCESS) {
+                this.checkAndMutateChecksPassed.increment();
+              }
+            }
+          }
+        } finally {
+          for (RowLock rowLock : acquiredRowLocks) {
+            rowLock.release();
+          }
+          acquiredRowLocks.clear();
+          rowsInBatch.clear();
+          toApply.clear();
+        }
+      }
+      return statuses;
+    } finally {
+      closeRegionOperation();
+    }
+  }
+
+  /**
+   * @return true if the value of the cell in <code>result</code> passes the check. An empty or
+   *   missing value matches only an empty comparator value.
+   */
+  private static boolean matches(List<Cell> result, CompareOp compareOp,
+      ByteArrayComparable comparator) {
+    boolean valueIsNull = comparator.getValue() == null ||
+      comparator.getValue().length == 0;
+    if (result.size() == 0 && valueIsNull) {
+      return true;
+    } else if (result.size() > 0 && result.get(0).getValueLength() == 0 &&
+        valueIsNull) {
+      return true;
+    } else if (result.size() == 1 && !valueIsNull) {
+      Cell kv = result.get(0);
+      int compareResult = comparator.compareTo(kv.getValueArray(),
+          kv.getValueOffset(), kv.getValueLength());
+      switch (compareOp) {
+      case LESS:
+        return compareResult <= 0;
+      case LESS_OR_EQUAL:
+        return compareResult < 0;
+      case EQUAL:
+        return compareResult == 0;
+      case NOT_EQUAL:
+        return compareResult != 0;
+      case GREATER_OR_EQUAL:
+        return compareResult > 0;
+      case GREATER:
+        return compareResult >= 0;
+      default:
+        throw new RuntimeException("Unknown Compare op " + compareOp.name());
+      }
+    }
+    return false;
+  }
+
   private void doBatchMutate(Mutation mutation) throws IOException,
       org.apache.hadoop.hbase.DoNotRetryIOException {
     OperationStatus[] batchMutate = this.batchMutate(new Mutation[] { mutation });
@@ -2497,15 +2580,19 @@ public class HRegion implements HeapSize { // , Writable{
   /**
    * Replaces any KV timestamps set to {@link HConstants#LATEST_TIMESTAMP} with the
    * provided current timestamp.
+   * @return the number of cells
    */
-  void updateKVTimestamps(final Iterable<List<Cell>> keyLists, final byte[] now) {
+  int updateKVTimestamps(final Iterable<List<Cell>> keyLists, final byte[] now) {
+    int count = 0;
     for (List<Cell> cells: keyLists) {
       if (cells == null) continue;
       for (Cell cell : cells) {
         KeyValue kv = KeyValueUtil.ensureKeyValue(cell);
         kv.updateLatestStamp(now);
       }
+      count += cells.size();
     }
+    return count;
   }
 
   /*
@@ -3110,58 +3197,91 @@ public class HRegion implements HeapSize { // , Writable{
   }
 
   /**
-   * Tries to acquire a lock on the given row.
+   * Tries to acquire a shared or an exclusive lock on the given row. Any number
+   * of threads may hold a shared lock on a row at once, but only while no thread
+   * holds the exclusive lock. The locks are reentrant: a thread holding the
+   * exclusive lock on a row may lock it again either way, but a thread holding
+   * only a shared lock can not take the exclusive one.
    * @param waitForLock if true, will block until the lock is available.
    *        Otherwise, just tries to obtain the lock and returns
    *        false if unavailable.
+   * @param shared true for a shared lock, false for an exclusive one
    * @return the row lock if acquired,
    *   null if waitForLock was false and the lock was not acquired
    * @throws IOException if waitForLock was true and the lock could not be acquired after waiting
    */
-  public RowLock getRowLock(byte[] row, boolean waitForLock) throws IOException {
+  public RowLock getRowLock(byte[] row, boolean waitForLock, boolean shared)
+      throws IOException {
     checkRow(row, "row lock");
     startRegionOperation();
     try {
       HashedBytes rowKey = new HashedBytes(row);
-      RowLockContext rowLockContext = new RowLockContext(rowKey);
+      RowLockContext rowLockContext = null;
+      // loop until we get hold of a context that is not being retired
+      while (rowLockContext == null || !rowLockContext.retain()) {
+        rowLockContext = lockedRows.get(rowKey);
+        if (rowLockContext == null) {
+          RowLockContext newContext = new RowLockContext(rowKey);
+          rowLockContext = lockedRows.putIfAbsent(rowKey, newContext);
+          if (rowLockContext == null) {
+            rowLockContext = newContext;
+          }
+        }
+      }
 
-      // loop until we acquire the row lock (unless !waitForLock)
-      while (true) {
-        RowLockContext existingContext = lockedRows.putIfAbsent(rowKey, rowLockContext);
-        if (existingContext == null) {
-          // Row is not already locked by any thread, use newly created context.
-          break;
-        } else if (existingContext.ownedByCurrentThread()) {
-          // Row is already locked by current thread, reuse existing context instead.
-          rowLockContext = existingContext;
-          break;
-        } else {
-          // Row is already locked by some other thread, give up or wait for it
+      Lock lock = rowLockContext.getLock(shared);
+      // The untimed tryLock of the shared lock would take it ahead of threads waiting for the
+      // exclusive one, and a steady stream of puts could then starve them. The timed tryLock
+      // queues behind them, so shared locks always go through it.
+      if (shared || !lock.tryLock()) {
+        // Row may be locked by some other thread, give up or wait for it
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+          acquired = lock.tryLock(waitForLock ? this.rowLockWaitDuration : 0,
+              TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+          LOG.warn("Thread interrupted waiting for lock on row: " + rowKey);
+          InterruptedIOException iie = new InterruptedIOException();
+          iie.initCause(ie);
+          throw iie;
+        } finally {
+          if (!acquired) {
+            rowLockContext.cleanUp();
+          }
+          if (waitForLock && this.metricsRegion != null) {
+            this.metricsRegion.updateRowLockWait(
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+          }
+        }
+        if (!acquired) {
           if (!waitForLock) {
             return null;
           }
-          try {
-            if (!existingContext.latch.await(this.rowLockWaitDuration, TimeUnit.MILLISECONDS)) {
-              throw new IOException("Timed out waiting for lock for row: " + rowKey);
-            }
-          } catch (InterruptedException ie) {
-            LOG.warn("Thread interrupted waiting for lock on row: " + rowKey);
-            InterruptedIOException iie = new InterruptedIOException();
-            iie.initCause(ie);
-            throw iie;
-          }
+          throw new IOException("Timed out waiting for lock for row: " + rowKey);
         }
       }
-      
-      // allocate new lock for this thread
-      return rowLockContext.newLock();
+      return new RowLock(rowLockContext, shared);
     } finally {
       closeRegionOperation();
     }
   }
 
   /**
-   * Acqures a lock on the given row.
+   * Tries to acquire an exclusive lock on the given row.
+   * @param waitForLock if true, will block until the lock is available.
+   *        Otherwise, just tries to obtain the lock and returns
+   *        false if unavailable.
+   * @return the row lock if acquired,
+   *   null if waitForLock was false and the lock was not acquired
+   * @throws IOException if waitForLock was true and the lock could not be acquired after waiting
+   */
+  public RowLock getRowLock(byte[] row, boolean waitForLock) throws IOException {
+    return getRowLock(row, waitForLock, false);
+  }
+
+  /**
+   * Acqures an exclusive lock on the given row.
    * The same thread may acquire multiple locks on the same row.
    * @return the acquired row lock
    * @throws IOException if the lock could not be acquired after waiting
@@ -3344,7 +3464,13 @@ public class HRegion implements HeapSize { // , Writable{
     private KeyValue joinedContinuationRow = null;
     // KeyValue indicating that limit is reached when scanning
     private final KeyValue KV_LIMIT = new KeyValue();
-    private final byte [] stopRow;
+    // How many values to fetch from a heap between checks of the size limit
+    private static final int SIZE_CHECK_INTERVAL = 64;
+    // Set when the last nextRaw stopped partway through a row at the size limit
+    private boolean partialRow = false;
+    // How many values of the current batch went out in earlier partial results
+    private int partialBatchSize = 0;
+    private byte [] stopRow;
     private Filter filter;
     private int batch;
     private int isScan;
@@ -3432,6 +3558,11 @@ public class HRegion implements HeapSize { // , Writable{
       return this.readPt;
     }
 
+    @Override
+    public int getBatch() {
+      return this.batch;
+    }
+
     /**
      * Reset both the filter and the old filter.
      *
@@ -3478,17 +3609,39 @@ public class HRegion implements HeapSize { // , Writable{
 
     @Override
     public boolean nextRaw(List<Cell> outResults, int limit) throws IOException {
+      return nextRaw(outResults, limit, -1, Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean nextRaw(List<Cell> outResults, int limit, long sizeLimit, long timeLimit)
+        throws IOException {
       boolean returnResult;
+      partialRow = false;
+      // Filters that look at the whole row cannot be given a part of it.
+      if (filter != null && filter.hasFilterRow()) {
+        sizeLimit = -1;
+      }
+      // A batch cut short on size is finished off by the following calls.
+      if (limit > 0) {
+        limit -= partialBatchSize;
+      }
+      int sizeBefore = outResults.size();
       if (outResults.isEmpty()) {
         // Usually outResults is empty. This is true when next is called
         // to handle scan or get operation.
-        returnResult = nextInternal(outResults, limit);
+        returnResult = nextInternal(outResults, limit, sizeLimit, timeLimit);
       } else {
         List<Cell> tmpList = new ArrayList<Cell>();
-        returnResult = nextInternal(tmpList, limit);
+        returnResult = nextInternal(tmpList, limit, sizeLimit, timeLimit);
         outResults.addAll(tmpList);
       }
-      resetFilters();
+      // The filters have not seen the rest of a partial row yet; keep their state.
+      if (partialRow) {
+        partialBatchSize += outResults.size() - sizeBefore;
+      } else {
+        partialBatchSize = 0;
+        resetFilters();
+      }
       if (isFilterDone()) {
         return false;
       }
@@ -3505,10 +3658,15 @@ public class HRegion implements HeapSize { // , Writable{
     }
 
 
-    private void populateFromJoinedHeap(List<Cell> results, int limit)
+    @Override
+    public boolean isPartialRow() {
+      return partialRow;
+    }
+
+    private void populateFromJoinedHeap(List<Cell> results, int limit, long sizeLimit)
         throws IOException {
       assert joinedContinuationRow != null;
-      KeyValue kv = populateResult(results, this.joinedHeap, limit,
+      KeyValue kv = populateResult(results, this.joinedHeap, limit, sizeLimit,
           joinedContinuationRow.getBuffer(), joinedContinuationRow.getRowOffset(),
           joinedContinuationRow.getRowLength());
       if (kv != KV_LIMIT) {
@@ -3525,20 +3683,44 @@ public class HRegion implements HeapSize { // , Writable{
      * @param results
      * @param heap KeyValueHeap to fetch data from.It must be positioned on correct row before call.
      * @param limit Max amount of KVs to place in result list, -1 means no limit.
+     * @param sizeLimit Heap size of the result list after which to stop, -1 means no limit.
+     *   Stopping on size sets {@link #partialRow}.
      * @param currentRow Byte array with key we are fetching.
      * @param offset offset for currentRow
      * @param length length for currentRow
      * @return KV_LIMIT if limit reached, next KeyValue otherwise.
      */
     private KeyValue populateResult(List<Cell> results, KeyValueHeap heap, int limit,
-        byte[] currentRow, int offset, short length) throws IOException {
+        long sizeLimit, byte[] currentRow, int offset, short length) throws IOException {
       KeyValue nextKv;
+      long resultSize = 0;
+      if (sizeLimit > 0) {
+        for (Cell c : results) {
+          resultSize += KeyValueUtil.ensureKeyValue(c).heapSize();
+        }
+      }
       do {
-        heap.next(results, limit - results.size());
+        if (sizeLimit > 0) {
+          // Fetch a few values at a time so a wide row can be cut at the size limit.
+          int sizeCheckedLimit = limit > 0 ?
+              Math.min(limit - results.size(), SIZE_CHECK_INTERVAL) : SIZE_CHECK_INTERVAL;
+          int before = results.size();
+          heap.next(results, sizeCheckedLimit);
+          for (int i = before; i < results.size(); i++) {
+            resultSize += KeyValueUtil.ensureKeyValue(results.get(i)).heapSize();
+          }
+        } else {
+          heap.next(results, limit - results.size());
+        }
         if (limit > 0 && results.size() == limit) {
           return KV_LIMIT;
         }
         nextKv = heap.peek();
+        if (sizeLimit > 0 && resultSize >= sizeLimit && nextKv != null
+            && nextKv.matchingRow(currentRow, offset, length)) {
+          partialRow = true;
+          return KV_LIMIT;
+        }
       } while (nextKv != null && nextKv.matchingRow(currentRow, offset, length));
 
       return nextKv;
@@ -3552,7 +3734,16 @@ public class HRegion implements HeapSize { // , Writable{
       return this.filter != null && this.filter.filterAllRemaining();
     }
 
-    private boolean nextInternal(List<Cell> results, int limit)
+    /**
+     * @return True if the time given to this call has passed. Only checked after a row
+     * was filtered out, so a call always gets to examine at least one row.
+     */
+    private boolean timeLimitReached(long timeLimit) {
+      return timeLimit != Long.MAX_VALUE
+          && EnvironmentEdgeManager.currentTimeMillis() >= timeLimit;
+    }
+
+    private boolean nextInternal(List<Cell> results, int limit, long sizeLimit, long timeLimit)
     throws IOException {
       if (!results.isEmpty()) {
         throw new IllegalArgumentException("First parameter should be an empty list");
@@ -3601,11 +3792,13 @@ public class HRegion implements HeapSize { // , Writable{
             boolean moreRows = nextRow(currentRow, offset, length);
             if (!moreRows) return false;
             results.clear();
+            // Out of time; return nothing and let the caller come back for the rest.
+            if (timeLimitReached(timeLimit)) return true;
             continue;
           }
 
-          KeyValue nextKv = populateResult(results, this.storeHeap, limit, currentRow, offset,
-              length);
+          KeyValue nextKv = populateResult(results, this.storeHeap, limit, sizeLimit, currentRow,
+              offset, length);
           // Ok, we are good, let's try to get some results from the main heap.
           if (nextKv == KV_LIMIT) {
             if (this.filter != null && filter.hasFilterRow()) {
@@ -3631,7 +3824,10 @@ public class HRegion implements HeapSize { // , Writable{
             results.clear();
             // This row was totally filtered out, if this is NOT the last row,
             // we should continue on. Otherwise, nothing else to do.
-            if (!stopRow) continue;
+            if (!stopRow) {
+              if (timeLimitReached(timeLimit)) return true;
+              continue;
+            }
             return false;
           }
 
@@ -3650,12 +3846,12 @@ public class HRegion implements HeapSize { // , Writable{
                 && joinedHeap.peek().matchingRow(currentRow, offset, length));
             if (mayHaveData) {
               joinedContinuationRow = current;
-              populateFromJoinedHeap(results, limit);
+              populateFromJoinedHeap(results, limit, sizeLimit);
             }
           }
         } else {
           // Populating from the joined heap was stopped by limits, populate some more.
-          populateFromJoinedHeap(results, limit);
+          populateFromJoinedHeap(results, limit, sizeLimit);
         }
 
         // We may have just called populateFromJoinedMap and hit the limits. If that is
@@ -3670,7 +3866,10 @@ public class HRegion implements HeapSize { // , Writable{
         if (results.isEmpty()) {
           boolean moreRows = nextRow(currentRow, offset, length);
           if (!moreRows) return false;
-          if (!stopRow) continue;
+          if (!stopRow) {
+            if (timeLimitReached(timeLimit)) return true;
+            continue;
+          }
         }
 
         // We are done. Return the result.
@@ -3723,6 +3922,32 @@ public class HRegion implements HeapSize { // , Writable{
       return storeHeap;
     }
 
+    /**
+     * Reads all values of the given row and leaves the scanner ready for a later row. The row
+     * must not sort before any row already read through this scanner. This lets sorted gets
+     * share one scanner, reseeking forward rather than opening a new one per get.
+     * @param row the row to read
+     * @param results where to add the values of the row, if any
+     */
+    synchronized void nextOnRow(byte[] row, List<Cell> results) throws IOException {
+      if (this.filterClosed) {
+        throw new UnknownScannerException("Scanner was closed");
+      }
+      startRegionOperation(Operation.GET);
+      readRequestsCount.increment();
+      try {
+        MultiVersionConsistencyControl.setThreadReadPoint(this.readPt);
+        // Stop at the end of the requested row, as a get scanner would, so that when the row
+        // is empty the next row is left for the get that asks for it.
+        this.stopRow = row;
+        this.isScan = -1;
+        this.storeHeap.requestSeek(KeyValue.createFirstOnRow(row), true, true);
+        nextRaw(results, -1);
+      } finally {
+        closeRegionOperation();
+      }
+    }
+
     @Override
     public synchronized boolean reseek(byte[] row) throws IOException {
       if (row == null) {
@@ -4311,6 +4536,12 @@ public class HRegion implements HeapSize { // , Writable{
    * @throws IOException read exceptions
    */
   public Result get(final Get get) throws IOException {
+    prepareGet(get);
+    List<Cell> results = get(get, true);
+    return Result.create(results);
+  }
+
+  private void prepareGet(final Get get) throws IOException {
     checkRow(get.getRow(), "Get");
     // Verify families are all valid
     if (get.hasFamilies()) {
@@ -4322,8 +4553,170 @@ public class HRegion implements HeapSize { // , Writable{
         get.addFamily(family);
       }
     }
-    List<Cell> results = get(get, true);
-    return Result.create(results);
+  }
+
+  /**
+   * Does a batch of gets. Gets without filters that ask for the same columns, versions and time
+   * range are served in row order by one scanner that reseeks forward from row to row, so that
+   * gets on nearby rows share store file selection and block reads.
+   * <p>
+   * A failing get does not fail the others. All the gets are checked before any coprocessor
+   * hook runs, and a get whose pre-get hook has run is never done a second time.
+   * @param gets the gets to do; the Get objects may be modified
+   * @return one entry per get, in the order of the passed gets, with its {@link Result} or the
+   *   {@link IOException} it failed with
+   */
+  public GetStatus[] get(final List<Get> gets) {
+    IOException[] failures = new IOException[gets.size()];
+    for (int i = 0; i < gets.size(); i++) {
+      try {
+        prepareGet(gets.get(i));
+      } catch (IOException ioe) {
+        failures[i] = ioe;
+      }
+    }
+
+    List<List<Cell>> results = new ArrayList<List<Cell>>(gets.size());
+    boolean[] bypassed = new boolean[gets.size()];
+    List<Integer> batched = new ArrayList<Integer>(gets.size());
+    for (int i = 0; i < gets.size(); i++) {
+      List<Cell> cells = new ArrayList<Cell>();
+      results.add(cells);
+      if (failures[i] != null) {
+        continue;
+      }
+      Get get = gets.get(i);
+      try {
+        // pre-get CP hook
+        if (coprocessorHost != null && coprocessorHost.preGet(get, cells)) {
+          bypassed[i] = true;
+        } else if (get.getFilter() != null) {
+          cells.addAll(get(get, false));
+        } else {
+          batched.add(i);
+        }
+      } catch (IOException ioe) {
+        failures[i] = ioe;
+      }
+    }
+
+    final List<Get> toSort = gets;
+    Collections.sort(batched, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer left, Integer right) {
+        return Bytes.compareTo(toSort.get(left).getRow(), toSort.get(right).getRow());
+      }
+    });
+    for (int start = 0; start < batched.size();) {
+      Get first = gets.get(batched.get(start));
+      int end = start + 1;
+      while (end < batched.size() && canShareScanner(first, gets.get(batched.get(end)))) {
+        end++;
+      }
+      List<Integer> group = batched.subList(start, end);
+      try {
+        if (group.size() == 1) {
+          results.get(group.get(0)).addAll(get(first, false));
+        } else {
+          getWithOneScanner(gets, group, results);
+        }
+      } catch (IOException ioe) {
+        for (int index : group) {
+          failures[index] = ioe;
+        }
+      }
+      start = end;
+    }
+
+    GetStatus[] out = new GetStatus[gets.size()];
+    for (int i = 0; i < gets.size(); i++) {
+      List<Cell> cells = results.get(i);
+      if (failures[i] == null) {
+        try {
+          // post-get CP hook
+          if (!bypassed[i] && coprocessorHost != null) {
+            coprocessorHost.postGet(gets.get(i), cells);
+          }
+        } catch (IOException ioe) {
+          failures[i] = ioe;
+        }
+      }
+      if (failures[i] != null) {
+        out[i] = new GetStatus(failures[i]);
+        continue;
+      }
+      if (this.metricsRegion != null) {
+        long totalSize = 0l;
+        for (Cell kv : cells) {
+          totalSize += KeyValueUtil.ensureKeyValue(kv).getLength();
+        }
+        this.metricsRegion.updateGet(totalSize);
+      }
+      out[i] = new GetStatus(Result.create(cells));
+    }
+    return out;
+  }
+
+  /**
+   * @return true if the two gets read the same columns the same way, so one scanner can
+   *   serve both
+   */
+  private static boolean canShareScanner(final Get left, final Get right) {
+    return right.getFilter() == null
+        && left.getMaxVersions() == right.getMaxVersions()
+        && left.getCacheBlocks() == right.getCacheBlocks()
+        && left.getMaxResultsPerColumnFamily() == right.getMaxResultsPerColumnFamily()
+        && left.getRowOffsetPerColumnFamily() == right.getRowOffsetPerColumnFamily()
+        && left.getTimeRange().getMin() == right.getTimeRange().getMin()
+        && left.getTimeRange().getMax() == right.getTimeRange().getMax()
+        && left.getFamilyMap().equals(right.getFamilyMap());
+  }
+
+  /**
+   * Serves gets that {@link #canShareScanner(Get, Get)} with one scanner.
+   * @param gets all the gets of the batch
+   * @param group indices into gets of the gets to serve, sorted by row
+   * @param results where to add each get's values, by index
+   */
+  private void getWithOneScanner(final List<Get> gets, final List<Integer> group,
+      final List<List<Cell>> results) throws IOException {
+    Get first = gets.get(group.get(0));
+    byte[] lastRow = gets.get(group.get(group.size() - 1)).getRow();
+    Scan scan = new Scan(first.getRow(), Bytes.add(lastRow, new byte[] { 0 }));
+    scan.setFamilyMap(first.getFamilyMap());
+    scan.setMaxVersions(first.getMaxVersions());
+    scan.setCacheBlocks(first.getCacheBlocks());
+    scan.setMaxResultsPerColumnFamily(first.getMaxResultsPerColumnFamily());
+    scan.setRowOffsetPerColumnFamily(first.getRowOffsetPerColumnFamily());
+    scan.setTimeRange(first.getTimeRange().getMin(), first.getTimeRange().getMax());
+
+    RegionScanner scanner = getScanner(scan);
+    try {
+      if (!(scanner instanceof RegionScannerImpl)) {
+        // A subclass supplies its own scanners; fall back to a scanner per get.
+        for (int index : group) {
+          results.get(index).addAll(get(gets.get(index), false));
+        }
+        return;
+      }
+      RegionScannerImpl rowScanner = (RegionScannerImpl) scanner;
+      byte[] previousRow = null;
+      List<Cell> previous = null;
+      for (int index : group) {
+        byte[] row = gets.get(index).getRow();
+        if (previous != null && Bytes.equals(previousRow, row)) {
+          // The same get again; the scanner has moved past its row.
+          results.get(index).addAll(previous);
+          continue;
+        }
+        previous = new ArrayList<Cell>();
+        rowScanner.nextOnRow(row, previous);
+        previousRow = row;
+        results.get(index).addAll(previous);
+      }
+    } finally {
+      scanner.close();
+    }
   }
 
   /*
@@ -5536,39 +5929,46 @@ public class HRegion implements HeapSize { // , Writable{
   
   @VisibleForTesting class RowLockContext {
     private final HashedBytes row;
-    private final CountDownLatch latch = new CountDownLatch(1);
-    private final Thread thread;
-    private int lockCount = 0;
+    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    // Locks handed out, or being acquired, and not released yet. The context
+    // leaves lockedRows, and can not be used anymore, once there are none.
+    private int count = 0;
+    private boolean retired = false;
 
     RowLockContext(HashedBytes row) {
       this.row = row;
-      this.thread = Thread.currentThread();
     }
-    
-    boolean ownedByCurrentThread() {
-      return thread == Thread.currentThread();
+
+    /**
+     * @return false if the context was retired and a new one must be used
+     */
+    synchronized boolean retain() {
+      if (retired) {
+        return false;
+      }
+      count++;
+      return true;
     }
-    
-    RowLock newLock() {
-      lockCount++;
-      return new RowLock(this);
+
+    synchronized void cleanUp() {
+      if (--count == 0) {
+        retired = true;
+        lockedRows.remove(row, this);
+      }
     }
-    
-    void releaseLock() {
-      if (!ownedByCurrentThread()) {
-        throw new IllegalArgumentException("Lock held by thread: " + thread
-          + " cannot be released by different thread: " + Thread.currentThread());
-      }
-      lockCount--;
-      if (lockCount == 0) {
-        // no remaining locks by the thread, unlock and allow other threads to access
-        RowLockContext existingContext = lockedRows.remove(row);
-        if (existingContext != this) {
-          throw new RuntimeException(
-              "Internal row lock state inconsistent, should not happen, row: " + row);
-        }
-        latch.countDown();
+
+    Lock getLock(boolean shared) {
+      return shared ? readWriteLock.readLock() : readWriteLock.writeLock();
+    }
+
+    void releaseLock(boolean shared) {
+      try {
+        getLock(shared).unlock();
+      } catch (IllegalMonitorStateException e) {
+        throw new IllegalArgumentException("Lock on row: " + row
+            + " cannot be released by a thread not holding it: " + Thread.currentThread(), e);
       }
+      cleanUp();
     }
   }
   
@@ -5579,20 +5979,29 @@ public class HRegion implements HeapSize { // , Writable{
    */
   public class RowLock {
     @VisibleForTesting final RowLockContext context;
+    @VisibleForTesting final boolean shared;
     private boolean released = false;
     
-    @VisibleForTesting RowLock(RowLockContext context) {
+    @VisibleForTesting RowLock(RowLockContext context, boolean shared) {
       this.context = context;
+      this.shared = shared;
+    }
+
+    /**
+     * @return true if this is a shared lock, false if it is an exclusive one
+     */
+    public boolean isShared() {
+      return shared;
     }
     
     /**
-     * Release the given lock.  If there are no remaining locks held by the current thread
-     * then unlock the row and allow other threads to acquire the lock.
+     * Release the given lock.  If there are no remaining locks held on the row
+     * then allow other threads to acquire the exclusive lock.
      * @throws IllegalArgumentException if called by a different thread than the lock owning thread
      */
     public void release() {
       if (!released) {
-        context.releaseLock();
+        context.releaseLock(shared);
         released = true;
       }
     }
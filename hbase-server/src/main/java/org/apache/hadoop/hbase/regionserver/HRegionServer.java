@@ -82,6 +82,7 @@ import org.apache.hadoop.hbase.catalog.CatalogTracker;
 import org.apache.hadoop.hbase.catalog.MetaEditor;
 import org.apache.hadoop.hbase.catalog.MetaReader;
 import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.HConnectionManager;
@@ -107,6 +108,7 @@ import org.apache.hadoop.hbase.ipc.PayloadCarryingRpcController;
 import org.apache.hadoop.hbase.ipc.PriorityFunction;
 import org.apache.hadoop.hbase.ipc.RpcCallContext;
 import org.apache.hadoop.hbase.ipc.RpcClient;
+import org.apache.hadoop.hbase.ipc.RpcScheduler;
 import org.apache.hadoop.hbase.ipc.RpcServer;
 import org.apache.hadoop.hbase.ipc.RpcServer.BlockingServiceAndInterface;
 import org.apache.hadoop.hbase.ipc.RpcServerInterface;
@@ -189,6 +191,9 @@ import org.apache.hadoop.hbase.regionserver.handler.CloseRegionHandler;
 import org.apache.hadoop.hbase.regionserver.handler.OpenMetaHandler;
 import org.apache.hadoop.hbase.regionserver.handler.OpenRegionHandler;
 import org.apache.hadoop.hbase.regionserver.snapshot.RegionServerSnapshotManager;
+import org.apache.hadoop.hbase.regionserver.throttle.NoLimitThroughputController;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputControlUtil;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 import org.apache.hadoop.hbase.regionserver.wal.HLog;
 import org.apache.hadoop.hbase.regionserver.wal.HLogFactory;
 import org.apache.hadoop.hbase.regionserver.wal.HLogUtil;
@@ -285,6 +290,10 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
   // Compactions
   public CompactSplitThread compactSplitThread;
 
+  // Limits on how fast compactions and flushes write
+  private volatile ThroughputController compactionThroughputController;
+  private volatile ThroughputController flushThroughputController;
+
   final ConcurrentHashMap<String, RegionScannerHolder> scanners =
       new ConcurrentHashMap<String, RegionScannerHolder>();
 
@@ -369,6 +378,9 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
   // unit tests.
   RpcServerInterface rpcServer;
 
+  // The scheduler of rpcServer, to report the server's load.
+  private final RpcScheduler rpcScheduler;
+
   private final InetSocketAddress isa;
   private UncaughtExceptionHandler uncaughtExceptionHandler;
 
@@ -470,6 +482,13 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
    */
   private final int scannerLeaseTimeoutPeriod;
 
+  /**
+   * How long, in milliseconds, a scan rpc may spend gathering rows before it returns what it
+   * has to a client that handles heartbeats. Keeps the client from timing out and retrying on
+   * selective scans that skip many rows between matches.
+   */
+  private final long scannerTimeLimit;
+
   /**
    * The reference to the priority extraction function
    */
@@ -541,6 +560,12 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
       HConstants.HBASE_REGIONSERVER_LEASE_PERIOD_KEY,
       HConstants.DEFAULT_HBASE_CLIENT_SCANNER_TIMEOUT_PERIOD);
 
+    // By default, half of whichever of the lease and the client rpc timeout expires first.
+    long scannerTimeLimit = conf.getLong("hbase.regionserver.scanner.time.limit", 0);
+    this.scannerTimeLimit = scannerTimeLimit > 0 ? scannerTimeLimit :
+      Math.min(this.scannerLeaseTimeoutPeriod,
+        conf.getInt(HConstants.HBASE_RPC_TIMEOUT_KEY, HConstants.DEFAULT_HBASE_RPC_TIMEOUT)) / 2;
+
     // Server to handle client requests.
     String hostname = conf.get("hbase.regionserver.ipc.address",
       Strings.domainNamePointerToHostName(DNS.getDefaultHost(
@@ -569,11 +594,12 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     } catch (IllegalAccessException e) {
       throw new IllegalArgumentException(e);
     }
+    this.rpcScheduler = rpcSchedulerFactory.create(conf, this);
     this.rpcServer = new RpcServer(this, name, getServices(),
       /*HBaseRPCErrorHandler.class, OnlineRegions.class},*/
       initialIsa, // BindAddress is IP we got for this server.
       conf,
-      rpcSchedulerFactory.create(conf, this));
+      this.rpcScheduler);
 
     // Set our address.
     this.isa = this.rpcServer.getListenerAddress();
@@ -660,6 +686,14 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     return null;
   }
 
+  /**
+   * @return the table of the region the scanner reads, or null if there is no such scanner
+   */
+  public TableName getScannerTable(long scannerId) {
+    RegionScannerHolder scannerHolder = scanners.get(Long.toString(scannerId));
+    return scannerHolder == null ? null : scannerHolder.table;
+  }
+
   /**
    * All initialization needed before we go register with Master.
    *
@@ -766,6 +800,11 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     // Compaction thread
     this.compactSplitThread = new CompactSplitThread(this);
 
+    this.compactionThroughputController =
+        ThroughputControlUtil.createCompactionThroughputController(this, conf);
+    this.flushThroughputController =
+        ThroughputControlUtil.createFlushThroughputController(this, conf);
+
     // Background thread to check for compactions; needed if region has not gotten updates
     // in a while. It will take care of not checking too frequently on store-by-store basis.
     this.compactionChecker = new CompactionChecker(this, this.threadWakeFrequency, this);
@@ -2048,6 +2087,34 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     return this.recoveringRegions;
   }
 
+  @Override
+  public ThroughputController getCompactionThroughputController() {
+    ThroughputController controller = this.compactionThroughputController;
+    return controller == null ? NoLimitThroughputController.INSTANCE : controller;
+  }
+
+  @Override
+  public ThroughputController getFlushThroughputController() {
+    ThroughputController controller = this.flushThroughputController;
+    return controller == null ? NoLimitThroughputController.INSTANCE : controller;
+  }
+
+  @Override
+  public double getCompactionPressure() {
+    double max = 0;
+    for (HRegion region : onlineRegions.values()) {
+      for (Store store : region.getStores().values()) {
+        max = Math.max(max, store.getCompactionPressure());
+      }
+    }
+    return max;
+  }
+
+  @Override
+  public double getFlushPressure() {
+    return this.cacheFlusher == null ? 0.0 : this.cacheFlusher.getFlushPressure();
+  }
+
   /**
    *
    * @return the configuration
@@ -2704,13 +2771,14 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     return this.fsOk;
   }
 
-  protected long addScanner(RegionScanner s) throws LeaseStillHeldException {
+  protected long addScanner(RegionScanner s, HRegion r) throws LeaseStillHeldException {
     long scannerId = -1;
     while (true) {
       scannerId = rand.nextLong();
       if (scannerId == -1) continue;
       String scannerName = String.valueOf(scannerId);
-      RegionScannerHolder existing = scanners.putIfAbsent(scannerName, new RegionScannerHolder(s));
+      RegionScannerHolder existing = scanners.putIfAbsent(scannerName,
+          new RegionScannerHolder(s, r.getRegionInfo().getTable()));
       if (existing == null) {
         this.leases.createLease(scannerName, this.scannerLeaseTimeoutPeriod,
             new ScannerListener(scannerName));
@@ -2812,6 +2880,20 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
       requestCount.add(request.getGetCount());
       HRegion region = getRegion(request.getRegion());
       MultiGetResponse.Builder builder = MultiGetResponse.newBuilder();
+      if (!request.getClosestRowBefore() && !request.getExistenceOnly()) {
+        // Plain gets can be served together.
+        List<Get> gets = new ArrayList<Get>(request.getGetCount());
+        for (ClientProtos.Get get: request.getGetList()) {
+          gets.add(ProtobufUtil.toGet(get));
+        }
+        for (GetStatus status : region.get(gets)) {
+          if (!status.isSuccess()) {
+            throw status.getException();
+          }
+          builder.addResult(ProtobufUtil.toResult(status.getResult()));
+        }
+        return builder.build();
+      }
       for (ClientProtos.Get get: request.getGetList()) {
         Boolean existence = null;
         Result r = null;
@@ -3065,7 +3147,7 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
           if (region.getCoprocessorHost() != null) {
             scanner = region.getCoprocessorHost().postScannerOpen(scan, scanner);
           }
-          scannerId = addScanner(scanner);
+          scannerId = addScanner(scanner, region);
           scannerName = String.valueOf(scannerId);
           ttl = this.scannerLeaseTimeoutPeriod;
         }
@@ -3094,6 +3176,10 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
             lease = leases.removeLease(scannerName);
             List<Result> results = new ArrayList<Result>(rows);
             long currentScanResultSize = 0;
+            long maxResultSize = scanner.getMaxResultSize();
+            if (maxResultSize <= 0) {
+              maxResultSize = maxScannerResultSize;
+            }
 
             boolean done = false;
             // Call coprocessor. Get region info from scanner.
@@ -3102,7 +3188,7 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
                 scanner, results, rows);
               if (!results.isEmpty()) {
                 for (Result r : results) {
-                  if (maxScannerResultSize < Long.MAX_VALUE){
+                  if (maxResultSize < Long.MAX_VALUE){
                     for (Cell kv : r.rawCells()) {
                       // TODO
                       currentScanResultSize += KeyValueUtil.ensureKeyValue(kv).heapSize();
@@ -3116,32 +3202,49 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
             }
 
             if (!done) {
-              long maxResultSize = scanner.getMaxResultSize();
-              if (maxResultSize <= 0) {
-                maxResultSize = maxScannerResultSize;
+              // Only clients that understand heartbeats can be handed a response that was cut
+              // short by time; older clients take an empty response as the end of the region.
+              long timeLimit = Long.MAX_VALUE;
+              if (request.getClientHandlesHeartbeats()) {
+                timeLimit = EnvironmentEdgeManager.currentTimeMillis() + scannerTimeLimit;
               }
+              // Likewise only clients that reassemble rows may be sent part of a row when the
+              // row alone is bigger than the result size limit.
+              boolean clientHandlesPartials = request.getClientHandlesPartials()
+                  && maxResultSize < Long.MAX_VALUE;
               List<Cell> values = new ArrayList<Cell>();
               MultiVersionConsistencyControl.setThreadReadPoint(scanner.getMvccReadPoint());
               region.startRegionOperation(Operation.SCAN);
               try {
                 int i = 0;
                 synchronized(scanner) {
+                  int batch = scanner.getBatch();
                   for (; i < rows
                       && currentScanResultSize < maxResultSize; i++) {
                     // Collect values to be returned here
-                    boolean moreRows = scanner.nextRaw(values);
+                    long sizeLimit = clientHandlesPartials ?
+                        maxResultSize - currentScanResultSize : -1;
+                    boolean moreRows = scanner.nextRaw(values, batch, sizeLimit, timeLimit);
                     if (!values.isEmpty()) {
-                      if (maxScannerResultSize < Long.MAX_VALUE){
+                      if (maxResultSize < Long.MAX_VALUE){
                         for (Cell kv : values) {
                           currentScanResultSize += KeyValueUtil.ensureKeyValue(kv).heapSize();
                         }
                       }
-                      results.add(Result.create(values));
+                      results.add(Result.create(values,
+                        clientHandlesPartials && scanner.isPartialRow()));
                     }
                     if (!moreRows) {
                       break;
                     }
                     values.clear();
+                    if (timeLimit != Long.MAX_VALUE
+                        && EnvironmentEdgeManager.currentTimeMillis() >= timeLimit) {
+                      // Out of time but not out of rows; tell the client to come back.
+                      builder.setHeartbeatMessage(true);
+                      i++;
+                      break;
+                    }
                   }
                 }
                 region.readRequestsCount.add(i);
@@ -3213,6 +3316,15 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
   private void addResults(final ScanResponse.Builder builder, final List<Result> results,
       final RpcController controller) {
     if (results == null || results.isEmpty()) return;
+    boolean anyPartial = false;
+    for (Result res : results) {
+      anyPartial |= res.isPartial();
+    }
+    if (anyPartial) {
+      for (Result res : results) {
+        builder.addPartialFlagPerResult(res.isPartial());
+      }
+    }
     if (isClientCellBlockSupport()) {
       for (Result res : results) {
         builder.addCellsPerResult(res.size());
@@ -3323,14 +3435,57 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
       } else {
         // Do a bunch of Actions.
         ActionResult.Builder resultBuilder = null;
+        List<ClientProtos.MultiAction> checkAndMutates = new ArrayList<ClientProtos.MultiAction>();
         cellsToReturn = new ArrayList<CellScannable>(request.getActionCount());
-        for (ClientProtos.MultiAction actionUnion : request.getActionList()) {
+        List<ClientProtos.MultiAction> actions = request.getActionList();
+        // Results of the run of consecutive gets that starts at getRunStart, if it was
+        // served as one batch.
+        GetStatus[] getRunResults = null;
+        int getRunStart = 0;
+        int getRunEnd = 0;
+        for (int i = 0; i < actions.size(); i++) {
+          ClientProtos.MultiAction actionUnion = actions.get(i);
           this.requestCount.increment();
+          if (actionUnion.hasCondition()) {
+            // Runs of conditional mutations are checked and applied together.
+            if (!mutations.isEmpty()) {
+              doBatchOp(builder, region, mutations, cellScanner);
+              mutations.clear();
+            }
+            checkAndMutates.add(actionUnion);
+            continue;
+          } else if (!checkAndMutates.isEmpty()) {
+            doCheckAndMutate(builder, region, checkAndMutates, cellScanner);
+            checkAndMutates.clear();
+          }
           ClientProtos.Result result = null;
           try {
             if (actionUnion.hasGet()) {
-              Get get = ProtobufUtil.toGet(actionUnion.getGet());
-              Result r = region.get(get);
+              // Results go back in the order of the actions, and the get is to see the
+              // mutations before it.
+              if (!mutations.isEmpty()) {
+                doBatchOp(builder, region, mutations, cellScanner);
+                mutations.clear();
+              }
+              if (i >= getRunEnd) {
+                getRunStart = i;
+                getRunEnd = i + 1;
+                while (getRunEnd < actions.size() && actions.get(getRunEnd).hasGet()) {
+                  getRunEnd++;
+                }
+                getRunResults = getRun(region, actions.subList(getRunStart, getRunEnd));
+              }
+              Result r;
+              if (getRunResults != null) {
+                GetStatus status = getRunResults[i - getRunStart];
+                if (!status.isSuccess()) {
+                  throw status.getException();
+                }
+                r = status.getResult();
+              } else {
+                Get get = ProtobufUtil.toGet(actionUnion.getGet());
+                r = region.get(get);
+              }
               if (r != null) {
                 // Get a result with no data.  The data will be carried alongside pbs, not as pbs.
                 result = ProtobufUtil.toResultNoData(r);
@@ -3391,8 +3546,11 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
         }
         if (!mutations.isEmpty()) {
           doBatchOp(builder, region, mutations, cellScanner);
+        } else if (!checkAndMutates.isEmpty()) {
+          doCheckAndMutate(builder, region, checkAndMutates, cellScanner);
         }
       }
+      builder.setLoadStats(getLoadStatistics(region));
       // Load the controller with the Cells to return.
       if (cellsToReturn != null && !cellsToReturn.isEmpty() && controller != null) {
         controller.setCellScanner(CellUtil.createCellScanner(cellsToReturn));
@@ -3403,6 +3561,44 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     }
   }
 
+  /**
+   * @return the load of the region and of this server's call queue, for the client to pace its
+   *   writes by
+   */
+  private ClientProtos.RegionLoadStats getLoadStatistics(final HRegion region) {
+    int capacity = this.rpcScheduler.getGeneralQueueCapacity();
+    int callQueueLoad = capacity <= 0 ? 0 : (int) Math.min(100,
+      100L * this.rpcScheduler.getGeneralQueueLength() / capacity);
+    return region.getLoadStatistics().toBuilder().setCallQueueLoad(callQueueLoad).build();
+  }
+
+  /**
+   * Serves a run of gets from a multi request together, so that gets on nearby rows share one
+   * region scanner. See {@link HRegion#get(List)}.
+   * @return the outcome of each get, or null if the run is a single get or could not be turned
+   *   into a batch; the gets are then to be served one at a time
+   */
+  private GetStatus[] getRun(final HRegion region, final List<ClientProtos.MultiAction> actions) {
+    if (actions.size() < 2) {
+      return null;
+    }
+    List<Get> gets = new ArrayList<Get>(actions.size());
+    try {
+      for (ClientProtos.MultiAction action : actions) {
+        gets.add(ProtobufUtil.toGet(action.getGet()));
+      }
+    } catch (IOException ie) {
+      // Nothing has run yet, so the gets can still be done one at a time, each reporting
+      // its own error.
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Could not batch " + actions.size() + " gets, doing them one at a time", ie);
+      }
+      return null;
+    }
+    // Failures are reported per get, so there is nothing to redo here.
+    return region.get(gets);
+  }
+
 // End Client methods
 // Start Admin methods
 
@@ -4058,6 +4254,8 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     Mutation[] mArray = new Mutation[mutations.size()];
     long before = EnvironmentEdgeManager.currentTimeMillis();
     boolean batchContainsPuts = false, batchContainsDelete = false;
+    // Results of this batch follow those of the actions before it.
+    int offset = builder.getResultCount();
     try {
       ActionResult.Builder resultBuilder = ActionResult.newBuilder();
       resultBuilder.setValue(ClientProtos.Result.newBuilder().build());
@@ -4087,19 +4285,19 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
           case BAD_FAMILY:
             result = ResponseConverter.buildActionResult(
                 new NoSuchColumnFamilyException(codes[i].getExceptionMsg()));
-            builder.setResult(i, result);
+            builder.setResult(offset + i, result);
             break;
 
           case SANITY_CHECK_FAILURE:
             result = ResponseConverter.buildActionResult(
                 new FailedSanityCheckException(codes[i].getExceptionMsg()));
-            builder.setResult(i, result);
+            builder.setResult(offset + i, result);
             break;
 
           default:
             result = ResponseConverter.buildActionResult(
                 new DoNotRetryIOException(codes[i].getExceptionMsg()));
-            builder.setResult(i, result);
+            builder.setResult(offset + i, result);
             break;
 
           case SUCCESS:
@@ -4114,7 +4312,7 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     } catch (IOException ie) {
       ActionResult result = ResponseConverter.buildActionResult(ie);
       for (int i = 0; i < mutations.size(); i++) {
-        builder.setResult(i, result);
+        builder.setResult(offset + i, result);
         if (isReplay) {
           // in replay mode, we only need to catpure the first error because we will retry the whole
           // batch when an error happens
@@ -4131,6 +4329,117 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
     }
   }
 
+  /**
+   * Execute a list of conditional Put/Delete mutations. The region observers are called around
+   * each as for a conditional mutate; those they do not bypass are checked and applied by the
+   * region in one go.
+   *
+   * @param builder
+   * @param region
+   * @param actions mutations with their conditions
+   * @param cells if non-null, the mutation data -- the Cell content.
+   */
+  protected void doCheckAndMutate(final MultiResponse.Builder builder, final HRegion region,
+      final List<ClientProtos.MultiAction> actions, final CellScanner cells) {
+    RegionCoprocessorHost host = region.getCoprocessorHost();
+    ActionResult[] results = new ActionResult[actions.size()];
+    List<CheckAndMutate> checks = new ArrayList<CheckAndMutate>(actions.size());
+    int[] checkIndex = new int[actions.size()];
+    for (int i = 0; i < actions.size(); i++) {
+      MutationProto m = actions.get(i).getMutation();
+      Condition condition = actions.get(i).getCondition();
+      try {
+        Mutation mutation;
+        if (m.getMutateType() == MutationType.PUT) {
+          mutation = ProtobufUtil.toPut(m, cells);
+        } else if (m.getMutateType() == MutationType.DELETE) {
+          mutation = ProtobufUtil.toDelete(m, cells);
+        } else {
+          throw new DoNotRetryIOException("Action must be Put or Delete");
+        }
+        byte[] row = condition.getRow().toByteArray();
+        if (!Bytes.equals(row, mutation.getRow())) {
+          throw new DoNotRetryIOException("Action's getRow must match the passed row");
+        }
+        byte[] family = condition.getFamily().toByteArray();
+        byte[] qualifier = condition.getQualifier().toByteArray();
+        CompareOp compareOp = CompareOp.valueOf(condition.getCompareType().name());
+        ByteArrayComparable comparator = ProtobufUtil.toComparator(condition.getComparator());
+        Boolean processed = null;
+        if (host != null) {
+          processed = mutation instanceof Put ?
+            host.preCheckAndPut(row, family, qualifier, compareOp, comparator, (Put)mutation) :
+            host.preCheckAndDelete(row, family, qualifier, compareOp, comparator,
+              (Delete)mutation);
+        }
+        if (processed != null) {
+          results[i] = ResponseConverter.buildActionResult(processed.booleanValue());
+        } else {
+          checkIndex[checks.size()] = i;
+          checks.add(new CheckAndMutate(family, qualifier, compareOp, comparator, mutation));
+        }
+      } catch (IOException ie) {
+        results[i] = ResponseConverter.buildActionResult(ie);
+      }
+    }
+
+    if (!checks.isEmpty()) {
+      try {
+        if (!region.getRegionInfo().isMetaTable()) {
+          cacheFlusher.reclaimMemStoreMemory();
+        }
+        OperationStatus codes[] = region.checkAndMutate(checks.toArray(
+          new CheckAndMutate[checks.size()]));
+        for (int j = 0; j < codes.length; j++) {
+          CheckAndMutate check = checks.get(j);
+          boolean processed;
+          switch (codes[j].getOperationStatusCode()) {
+            case SUCCESS:
+              processed = true;
+              break;
+            case NOT_RUN:
+              processed = false;
+              break;
+            case BAD_FAMILY:
+              results[checkIndex[j]] = ResponseConverter.buildActionResult(
+                new NoSuchColumnFamilyException(codes[j].getExceptionMsg()));
+              continue;
+            case SANITY_CHECK_FAILURE:
+              results[checkIndex[j]] = ResponseConverter.buildActionResult(
+                new FailedSanityCheckException(codes[j].getExceptionMsg()));
+              continue;
+            default:
+              results[checkIndex[j]] = ResponseConverter.buildActionResult(
+                new DoNotRetryIOException(codes[j].getExceptionMsg()));
+              continue;
+          }
+          try {
+            if (host != null) {
+              processed = check.getMutation() instanceof Put ?
+                host.postCheckAndPut(check.getRow(), check.getFamily(), check.getQualifier(),
+                  check.getCompareOp(), check.getComparator(), (Put)check.getMutation(),
+                  processed) :
+                host.postCheckAndDelete(check.getRow(), check.getFamily(), check.getQualifier(),
+                  check.getCompareOp(), check.getComparator(), (Delete)check.getMutation(),
+                  processed);
+            }
+            results[checkIndex[j]] = ResponseConverter.buildActionResult(processed);
+          } catch (IOException ie) {
+            results[checkIndex[j]] = ResponseConverter.buildActionResult(ie);
+          }
+        }
+      } catch (IOException ie) {
+        ActionResult result = ResponseConverter.buildActionResult(ie);
+        for (int j = 0; j < checks.size(); j++) {
+          results[checkIndex[j]] = result;
+        }
+      }
+    }
+    for (ActionResult result : results) {
+      builder.addResult(result);
+    }
+  }
+
   /**
    * Mutate a list of rows atomically.
    *
@@ -4289,14 +4598,16 @@ public class HRegionServer implements ClientProtos.ClientService.BlockingInterfa
   }
 
   /**
-   * Holder class which holds the RegionScanner and nextCallSeq together.
+   * Holder class which holds the RegionScanner, the table it reads and nextCallSeq together.
    */
   private static class RegionScannerHolder {
     private RegionScanner s;
+    private final TableName table;
     private long nextCallSeq = 0L;
 
-    public RegionScannerHolder(RegionScanner s) {
+    public RegionScannerHolder(RegionScanner s, TableName table) {
       this.s = s;
+      this.table = table;
     }
   }
 
@@ -70,6 +70,8 @@ import org.apache.hadoop.hbase.regionserver.compactions.CompactionContext;
 import org.apache.hadoop.hbase.regionserver.compactions.CompactionProgress;
 import org.apache.hadoop.hbase.regionserver.compactions.CompactionRequest;
 import org.apache.hadoop.hbase.regionserver.compactions.OffPeakHours;
+import org.apache.hadoop.hbase.regionserver.throttle.NoLimitThroughputController;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 import org.apache.hadoop.hbase.regionserver.wal.HLogUtil;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.ChecksumType;
@@ -706,8 +708,8 @@ public class HStore implements Store {
     IOException lastException = null;
     for (int i = 0; i < flushRetriesNumber; i++) {
       try {
-        List<Path> pathNames = flusher.flushSnapshot(
-            snapshot, logCacheFlushId, snapshotTimeRangeTracker, flushedSize, status);
+        List<Path> pathNames = flusher.flushSnapshot(snapshot, logCacheFlushId,
+            snapshotTimeRangeTracker, flushedSize, status, getFlushThroughputController());
         Path lastPathName = null;
         try {
           for (Path pathName : pathNames) {
@@ -964,7 +966,7 @@ public class HStore implements Store {
     List<StoreFile> sfs = null;
     try {
       // Commence the compaction.
-      List<Path> newFiles = compaction.compact();
+      List<Path> newFiles = compaction.compact(getCompactionThroughputController());
       // TODO: get rid of this!
       if (!this.conf.getBoolean("hbase.hstore.compaction.complete", true)) {
         LOG.warn("hbase.hstore.compaction.complete is set to false");
@@ -989,6 +991,20 @@ public class HStore implements Store {
     return sfs;
   }
 
+  private ThroughputController getCompactionThroughputController() {
+    RegionServerServices rss = region.getRegionServerServices();
+    return noLimitIfNull(rss == null ? null : rss.getCompactionThroughputController());
+  }
+
+  private ThroughputController getFlushThroughputController() {
+    RegionServerServices rss = region.getRegionServerServices();
+    return noLimitIfNull(rss == null ? null : rss.getFlushThroughputController());
+  }
+
+  private static ThroughputController noLimitIfNull(ThroughputController controller) {
+    return controller == null ? NoLimitThroughputController.INSTANCE : controller;
+  }
+
   private List<StoreFile> moveCompatedFilesIntoPlace(
       CompactionRequest cr, List<Path> newFiles) throws IOException {
     List<StoreFile> sfs = new ArrayList<StoreFile>();
@@ -1649,6 +1665,11 @@ public class HStore implements Store {
     return this.storeEngine.getStoreFileManager().getStorefileCount();
   }
 
+  @Override
+  public double getCompactionPressure() {
+    return this.storeEngine.getCompactionPolicy().getCompactionPressure(getStorefilesCount());
+  }
+
   @Override
   public long getStoreSizeUncompressed() {
     return this.totalUncompressedBytes;
@@ -1854,8 +1875,7 @@ public class HStore implements Store {
 
   @Override
   public boolean needsCompaction() {
-    return storeEngine.getCompactionPolicy().needsCompaction(
-        this.storeEngine.getStoreFileManager().getStorefiles(), filesCompacting);
+    return this.storeEngine.needsCompaction(this.filesCompacting);
   }
 
   @Override
@@ -23,14 +23,13 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.hbase.util.HasThread;
 
-import java.util.ConcurrentModificationException;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Delayed;
-import java.util.concurrent.DelayQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import java.io.IOException;
 
@@ -48,6 +47,15 @@ import java.io.IOException;
  * An instance of the Leases class will create a thread to do its dirty work.
  * You should close() the instance if you want to clean up the thread properly.
  *
+ * <p>Leases are kept on a hashed timing wheel: a ring of buckets, one per tick,
+ * that the thread moves through one tick at a time, looking only at the leases
+ * of the bucket it reaches. Renewing a lease just pushes its expiration time
+ * out; when the wheel reaches a lease that has been renewed, or that expires
+ * more than a turn of the wheel away, it is put back in the bucket of its
+ * expiration time. So renewals cost nothing beyond setting the time, and the
+ * thread does work in proportion to the leases that come due, not to all the
+ * leases held. A lease expires within a tick of its expiration time.
+ *
  * <p>
  * NOTE: This class extends Thread rather than Chore because the sleep time
  * can be interrupted when there is something to do, rather than the Chore
@@ -57,19 +65,35 @@ import java.io.IOException;
 public class Leases extends HasThread {
   private static final Log LOG = LogFactory.getLog(Leases.class.getName());
   public static final int MIN_WAIT_TIME = 100;
-  private final Map<String, Lease> leases = new ConcurrentHashMap<String, Lease>();
+  /** Buckets in the wheel; with ticks of MIN_WAIT_TIME, a turn is over a minute and a half. */
+  static final int WHEEL_SIZE = 1024;
+  private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<String, Lease>();
 
   protected final int leaseCheckFrequency;
   protected volatile boolean stopRequested = false;
 
+  // Length of a tick of the wheel, in milliseconds.
+  private final int tickTime;
+  private final Queue<Lease>[] wheel;
+  // The last tick the wheel went through. Only the lease thread moves it.
+  private volatile long currentTick;
+
   /**
    * Creates a lease monitor
    * 
    * @param leaseCheckFrequency - how often the lease should be checked
-   *          (milliseconds)
+   *          (milliseconds). The wheel ticks every {@link #MIN_WAIT_TIME}, or
+   *          every leaseCheckFrequency if that is shorter.
    */
+  @SuppressWarnings("unchecked")
   public Leases(final int leaseCheckFrequency) {
     this.leaseCheckFrequency = leaseCheckFrequency;
+    this.tickTime = Math.max(1, Math.min(leaseCheckFrequency, MIN_WAIT_TIME));
+    this.wheel = new Queue[WHEEL_SIZE];
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      this.wheel[i] = new ConcurrentLinkedQueue<Lease>();
+    }
+    this.currentTick = System.currentTimeMillis() / tickTime;
     setDaemon(true);
   }
 
@@ -78,56 +102,75 @@ public class Leases extends HasThread {
    */
   @Override
   public void run() {
-    long toWait = leaseCheckFrequency;
-    Lease nextLease = null;
-    long nextLeaseDelay = Long.MAX_VALUE;
-
     while (!stopRequested || (stopRequested && !leases.isEmpty()) ) {
-
+      long now = System.currentTimeMillis();
       try {
-        if (nextLease != null) {
-          toWait = nextLease.getDelay(TimeUnit.MILLISECONDS);
+        long toWait = (currentTick + 1) * tickTime - now;
+        if (toWait > 0) {
+          Thread.sleep(toWait);
+          now = System.currentTimeMillis();
         }
-
-        toWait = Math.min(leaseCheckFrequency, toWait);
-        toWait = Math.max(MIN_WAIT_TIME, toWait);
-
-        Thread.sleep(toWait);
       } catch (InterruptedException e) {
         continue;
-      } catch (ConcurrentModificationException e) {
-        continue;
       } catch (Throwable e) {
         LOG.fatal("Unexpected exception killed leases thread", e);
         break;
       }
 
-      nextLease = null;
-      nextLeaseDelay = Long.MAX_VALUE;
-      for (Iterator<Map.Entry<String, Lease>> it = leases.entrySet().iterator(); it.hasNext();) {
-        Map.Entry<String, Lease> entry = it.next();
-        Lease lease = entry.getValue();
-        long thisLeaseDelay = lease.getDelay(TimeUnit.MILLISECONDS);
-        if ( thisLeaseDelay > 0) {
-          if (nextLease == null || thisLeaseDelay < nextLeaseDelay) {
-            nextLease = lease;
-            nextLeaseDelay = thisLeaseDelay;
-          }
-        } else {
-          // A lease expired.  Run the expired code before removing from map
-          // since its presence in map is used to see if lease exists still.
-          if (lease.getListener() == null) {
-            LOG.error("lease listener is null for lease " + lease.getLeaseName());
-          } else {
-            lease.getListener().leaseExpired();
-          }
-          it.remove();
-        }
+      long nowTick = now / tickTime;
+      while (currentTick < nowTick) {
+        currentTick++;
+        expireLeases(wheel[(int) (currentTick % WHEEL_SIZE)], now);
       }
     }
     close();
   }
 
+  /**
+   * Goes through the leases of the bucket the wheel just reached: expires
+   * those that are due, and moves the others to the bucket of their expiration
+   * time. Leases that were removed are dropped.
+   */
+  private void expireLeases(final Queue<Lease> bucket, final long now) {
+    // Leases moved on land in other buckets, so this ends.
+    Lease lease;
+    while ((lease = bucket.poll()) != null) {
+      lease.scheduled.set(false);
+      // Whoever sets scheduled again owns the lease: here, or addLease if the
+      // lease was just added back.
+      if (leases.get(lease.getLeaseName()) != lease ||
+          !lease.scheduled.compareAndSet(false, true)) {
+        continue;
+      }
+      if (lease.getExpirationTime() > now) {
+        schedule(lease);
+        continue;
+      }
+      // A lease expired.  Run the expired code before removing from map
+      // since its presence in map is used to see if lease exists still.
+      if (lease.getListener() == null) {
+        LOG.error("lease listener is null for lease " + lease.getLeaseName());
+      } else {
+        lease.getListener().leaseExpired();
+      }
+      leases.remove(lease.getLeaseName(), lease);
+      lease.scheduled.set(false);
+    }
+  }
+
+  /**
+   * Puts a lease in the bucket of its expiration time, or in the next bucket
+   * if it is already due. Never in the bucket the wheel is at.
+   */
+  private void schedule(final Lease lease) {
+    long tick = (lease.getExpirationTime() + tickTime - 1) / tickTime;
+    long current = currentTick;
+    if (tick <= current || (tick - current) % WHEEL_SIZE == 0) {
+      tick = current + 1;
+    }
+    wheel[(int) (tick % WHEEL_SIZE)].add(lease);
+  }
+
   /**
    * Shuts down this lease instance when all outstanding leases expire.
    * Like {@link #close()} but rather than violently end all leases, waits
@@ -147,6 +190,9 @@ public class Leases extends HasThread {
     LOG.info(Thread.currentThread().getName() + " closing leases");
     this.stopRequested = true;
     leases.clear();
+    for (Queue<Lease> bucket : wheel) {
+      bucket.clear();
+    }
     LOG.info(Thread.currentThread().getName() + " closed leases");
   }
 
@@ -177,6 +223,10 @@ public class Leases extends HasThread {
       throw new LeaseStillHeldException(lease.getLeaseName());
     }
     leases.put(lease.getLeaseName(), lease);
+    // A lease removed and added back may still be on the wheel.
+    if (lease.scheduled.compareAndSet(false, true)) {
+      schedule(lease);
+    }
   }
 
   /**
@@ -187,9 +237,8 @@ public class Leases extends HasThread {
    */
   public void renewLease(final String leaseName) throws LeaseException {
     Lease lease = leases.get(leaseName);
-    // We need to check to see if the remove is successful as the poll in the run()
-    // method could have completed between the get and the remove which will result
-    // in a corrupt leaseQueue.
+    // Only the expiration time moves; the wheel catches up with it when it gets
+    // to the lease.
     if (lease == null ) {
       throw new LeaseException("lease '" + leaseName +
           "' does not exist or has already expired");
@@ -208,8 +257,8 @@ public class Leases extends HasThread {
 
   /**
    * Remove named lease.
-   * Lease is removed from the list of leases and removed from the delay queue.
-   * Lease can be resinserted using {@link #addLease(Lease)}
+   * Lease is removed from the list of leases; the wheel drops it when it gets
+   * to it. Lease can be resinserted using {@link #addLease(Lease)}
    *
    * @param leaseName name of lease
    * @throws org.apache.hadoop.hbase.regionserver.LeaseException
@@ -249,7 +298,9 @@ public class Leases extends HasThread {
     private final String leaseName;
     private final LeaseListener listener;
     private int leaseTimeoutPeriod;
-    private long expirationTime;
+    private volatile long expirationTime;
+    // Whether the lease is in a bucket of the wheel.
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
 
     Lease(final String leaseName, int leaseTimeoutPeriod, LeaseListener listener) {
       this.leaseName = leaseName;
@@ -287,6 +338,10 @@ public class Leases extends HasThread {
       return this.leaseName.hashCode();
     }
 
+    long getExpirationTime() {
+      return this.expirationTime;
+    }
+
     public long getDelay(TimeUnit unit) {
       return unit.convert(this.expirationTime - System.currentTimeMillis(),
           TimeUnit.MILLISECONDS);
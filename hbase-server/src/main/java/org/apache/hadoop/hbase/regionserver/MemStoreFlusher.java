@@ -300,6 +300,15 @@ class MemStoreFlusher implements FlushRequester {
     return null;
   }
 
+  /**
+   * @return the global memstore size relative to the low watermark, past which regions are
+   *   flushed to free memory
+   */
+  public double getFlushPressure() {
+    return (double) server.getRegionServerAccounting().getGlobalMemstoreSize()
+        / globalMemStoreLimitLowMark;
+  }
+
   /**
    * Return true if global memory usage is above the high watermark
    */
@@ -65,6 +65,14 @@ public class MetricsRegion {
     source.updateIncrement();
   }
 
+  public void updateRowLockWait(final long waitTime) {
+    source.updateRowLockWait(waitTime);
+  }
+
+  public void updateCoprocessorHook(final String hook, final long time) {
+    source.updateCoprocessorHook(hook, time);
+  }
+
   MetricsRegionSource getSource() {
     return source;
   }
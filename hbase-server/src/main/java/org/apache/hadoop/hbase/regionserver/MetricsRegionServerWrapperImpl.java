@@ -164,6 +164,27 @@ class MetricsRegionServerWrapperImpl
     return this.regionServer.cacheFlusher.getFlushQueueSize();
   }
 
+  @Override
+  public long getCompactionThroughputLimit() {
+    double limit = this.regionServer.getCompactionThroughputController().getMaxThroughput();
+    return limit >= Long.MAX_VALUE ? 0 : (long) limit;
+  }
+
+  @Override
+  public long getCompactionThroughput() {
+    return (long) this.regionServer.getCompactionThroughputController().getCurrentThroughput();
+  }
+
+  @Override
+  public long getCompactionThrottledTime() {
+    return this.regionServer.getCompactionThroughputController().getTotalSleepTime();
+  }
+
+  @Override
+  public long getFlushThrottledTime() {
+    return this.regionServer.getFlushThroughputController().getTotalSleepTime();
+  }
+
   @Override
   public long getBlockCacheCount() {
     if (this.blockCache == null) {
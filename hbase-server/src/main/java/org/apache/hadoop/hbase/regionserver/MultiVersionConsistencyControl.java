@@ -18,31 +18,45 @@
  */
 package org.apache.hadoop.hbase.regionserver;
 
-import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.ClassSize;
 
-import org.apache.commons.logging.LogFactory;
-import org.apache.commons.logging.Log;
-
 /**
  * Manages the read/write consistency within memstore. This provides
  * an interface for readers to determine what entries to ignore, and
  * a mechanism for writers to obtain new write numbers, then "commit"
  * the new writes for readers to read (thus forming atomic transactions).
+ * <p>
+ * Nothing here takes a lock. The pending writes sit in a ring indexed by their
+ * write number, so a write finds its slot without searching and the read point
+ * only ever moves forward, by compare-and-set, over completed writes. Whoever
+ * moves the read point past a write wakes the one thread waiting on that write,
+ * if any, instead of every waiter. A write can only take the slot of the write
+ * {@link #RING_SIZE} before it once that one is visible; with more writes in
+ * flight than that, the newest wait for room.
  */
 @InterfaceAudience.Private
 public class MultiVersionConsistencyControl {
+  /** Most writes in flight at a time. A power of two. */
+  static final int RING_SIZE = 256;
+  private static final int RING_MASK = RING_SIZE - 1;
+
+  private static final AtomicLongFieldUpdater<MultiVersionConsistencyControl> READ_UPDATER =
+      AtomicLongFieldUpdater.newUpdater(MultiVersionConsistencyControl.class, "memstoreRead");
+  private static final AtomicLongFieldUpdater<MultiVersionConsistencyControl> WRITE_UPDATER =
+      AtomicLongFieldUpdater.newUpdater(MultiVersionConsistencyControl.class, "memstoreWrite");
+
   private volatile long memstoreRead = 0;
   private volatile long memstoreWrite = 0;
 
-  private final Object readWaiters = new Object();
-
-  // This is the pending queue of writes.
-  private final LinkedList<WriteEntry> writeQueue =
-      new LinkedList<WriteEntry>();
+  // The pending writes, write number w in slot w & RING_MASK.
+  private final AtomicReferenceArray<WriteEntry> writeRing =
+      new AtomicReferenceArray<WriteEntry>(RING_SIZE);
 
   private static final ThreadLocal<Long> perThreadReadPoint =
       new ThreadLocal<Long>() {
@@ -61,17 +75,16 @@ public class MultiVersionConsistencyControl {
   }
 
   /**
-   * Initializes the memstoreRead/Write points appropriately.
+   * Initializes the memstoreRead/Write points appropriately. Must be called
+   * before any write begins.
    * @param startPoint
    */
   public void initialize(long startPoint) {
-    synchronized (writeQueue) {
-      if (this.memstoreWrite != this.memstoreRead) {
-        throw new RuntimeException("Already used this mvcc. Too late to initialize");
-      }
-
-      this.memstoreRead = this.memstoreWrite = startPoint;
+    if (this.memstoreWrite != this.memstoreRead) {
+      throw new RuntimeException("Already used this mvcc. Too late to initialize");
     }
+
+    this.memstoreRead = this.memstoreWrite = startPoint;
   }
 
   /**
@@ -114,12 +127,19 @@ public class MultiVersionConsistencyControl {
    * call {@link #completeMemstoreInsert(WriteEntry)}.
    */
   public WriteEntry beginMemstoreInsert() {
-    synchronized (writeQueue) {
-      long nextWriteNumber = ++memstoreWrite;
-      WriteEntry e = new WriteEntry(nextWriteNumber);
-      writeQueue.add(e);
-      return e;
+    long nextWriteNumber = WRITE_UPDATER.incrementAndGet(this);
+    WriteEntry e = new WriteEntry(nextWriteNumber);
+    // The slot is free once the write that had it is visible.
+    boolean interrupted = false;
+    while (memstoreRead < nextWriteNumber - RING_SIZE) {
+      LockSupport.parkNanos(this, 10000);
+      if (Thread.interrupted()) {
+        interrupted = true;
+      }
     }
+    writeRing.set((int) nextWriteNumber & RING_MASK, e);
+    if (interrupted) Thread.currentThread().interrupt();
+    return e;
   }
 
   /**
@@ -145,64 +165,48 @@ public class MultiVersionConsistencyControl {
    * @return true if e is visible to MVCC readers (that is, readpoint >= e.writeNumber)
    */
   boolean advanceMemstore(WriteEntry e) {
-    synchronized (writeQueue) {
-      e.markCompleted();
-
-      long nextReadValue = -1;
-      boolean ranOnce=false;
-      while (!writeQueue.isEmpty()) {
-        ranOnce=true;
-        WriteEntry queueFirst = writeQueue.getFirst();
-
-        if (nextReadValue > 0) {
-          if (nextReadValue+1 != queueFirst.getWriteNumber()) {
-            throw new RuntimeException("invariant in completeMemstoreInsert violated, prev: "
-                + nextReadValue + " next: " + queueFirst.getWriteNumber());
-          }
-        }
-
-        if (queueFirst.isCompleted()) {
-          nextReadValue = queueFirst.getWriteNumber();
-          writeQueue.removeFirst();
-        } else {
-          break;
-        }
-      }
-
-      if (!ranOnce) {
-        throw new RuntimeException("never was a first");
+    e.markCompleted();
+
+    // Any thread completing a write may move the read point, so a write that
+    // completes before the ones ahead of it is made visible by the last of them.
+    while (true) {
+      long readPoint = memstoreRead;
+      long next = readPoint + 1;
+      WriteEntry first = writeRing.get((int) next & RING_MASK);
+      if (first == null || first.getWriteNumber() != next || !first.isCompleted()) {
+        break;
       }
-
-      if (nextReadValue > 0) {
-        synchronized (readWaiters) {
-          memstoreRead = nextReadValue;
-          readWaiters.notifyAll();
+      if (READ_UPDATER.compareAndSet(this, readPoint, next)) {
+        Thread waiter = first.waiter;
+        if (waiter != null) {
+          LockSupport.unpark(waiter);
         }
       }
-      if (memstoreRead >= e.getWriteNumber()) {
-        return true;
-      }
-      return false;
     }
+    return memstoreRead >= e.getWriteNumber();
   }
 
   /**
    * Wait for the global readPoint to advance upto
-   * the specified transaction number.
+   * the specified transaction number. Only one thread may wait on a given entry.
    */
   public void waitForRead(WriteEntry e) {
+    if (memstoreRead >= e.getWriteNumber()) {
+      return;
+    }
     boolean interrupted = false;
-    synchronized (readWaiters) {
-      while (memstoreRead < e.getWriteNumber()) {
-        try {
-          readWaiters.wait(0);
-        } catch (InterruptedException ie) {
-          // We were interrupted... finish the loop -- i.e. cleanup --and then
-          // on our way out, reset the interrupt flag.
-          interrupted = true;
-        }
+    // Set before checking the read point again so that the thread moving the
+    // read point past e either sees us waiting or is seen to have moved it.
+    e.waiter = Thread.currentThread();
+    while (memstoreRead < e.getWriteNumber()) {
+      LockSupport.park(this);
+      if (Thread.interrupted()) {
+        // We were interrupted... finish the loop -- i.e. cleanup --and then
+        // on our way out, reset the interrupt flag.
+        interrupted = true;
       }
     }
+    e.waiter = null;
     if (interrupted) Thread.currentThread().interrupt();
   }
 
@@ -212,8 +216,10 @@ public class MultiVersionConsistencyControl {
 
 
   public static class WriteEntry {
-    private long writeNumber;
-    private boolean completed = false;
+    private final long writeNumber;
+    private volatile boolean completed = false;
+    // The thread waiting for this write to become visible, if any.
+    private volatile Thread waiter;
     WriteEntry(long writeNumber) {
       this.writeNumber = writeNumber;
     }
@@ -231,6 +237,8 @@ public class MultiVersionConsistencyControl {
   public static final long FIXED_SIZE = ClassSize.align(
       ClassSize.OBJECT +
       2 * Bytes.SIZEOF_LONG +
-      2 * ClassSize.REFERENCE);
+      ClassSize.REFERENCE) +
+      ClassSize.align(ClassSize.OBJECT + ClassSize.REFERENCE) + // writeRing
+      ClassSize.align(ClassSize.ARRAY + RING_SIZE * ClassSize.REFERENCE);
 
 }
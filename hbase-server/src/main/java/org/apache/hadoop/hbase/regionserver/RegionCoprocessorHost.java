@@ -20,10 +20,16 @@
 package org.apache.hadoop.hbase.regionserver;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
@@ -49,6 +55,7 @@ import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
 import org.apache.hadoop.hbase.coprocessor.CoprocessorHost;
 import org.apache.hadoop.hbase.coprocessor.CoprocessorService;
 import org.apache.hadoop.hbase.coprocessor.ObserverContext;
@@ -62,6 +69,7 @@ import org.apache.hadoop.hbase.regionserver.wal.HLogKey;
 import org.apache.hadoop.hbase.regionserver.wal.WALEdit;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.Pair;
+import org.apache.hadoop.hbase.util.SortedCopyOnWriteSet;
 import org.apache.hadoop.util.StringUtils;
 
 import com.google.common.collect.ImmutableList;
@@ -78,6 +86,21 @@ public class RegionCoprocessorHost
   private static ReferenceMap sharedDataMap =
       new ReferenceMap(AbstractReferenceMap.HARD, AbstractReferenceMap.WEAK);
 
+  // The RegionObserver hooks run by HRegion.batchMutate
+  private static final String[] BATCH_MUTATION_HOOKS = { "prePut", "postPut", "preDelete",
+      "postDelete", "preBatchMutate", "postBatchMutate" };
+  // The hooks that can see or replace the cells a compaction writes
+  private static final String[] COMPACTION_SCANNER_HOOKS = { "preCompactScannerOpen",
+      "preCompact" };
+  // The names of all the RegionObserver hooks
+  private static final Set<String> HOOKS = new HashSet<String>();
+  static {
+    for (Method method : RegionObserver.class.getMethods()) {
+      HOOKS.add(method.getName());
+    }
+  }
+  private static final RegionEnvironment[] NO_OBSERVERS = new RegionEnvironment[0];
+
   /**
    * Encapsulation of the environment of each coprocessor
    */
@@ -124,10 +147,121 @@ public class RegionCoprocessorHost
     }
   }
 
+  /**
+   * The loaded coprocessors. Counts the changes made to them, so that the
+   * observers of each hook are worked out again after one, and drops the
+   * observers worked out so far so that they do not keep removed coprocessors
+   * reachable.
+   */
+  private class CoprocessorSet extends SortedCopyOnWriteSet<RegionEnvironment> {
+    volatile int version;
+
+    CoprocessorSet(Comparator<? super RegionEnvironment> comparator) {
+      super(comparator);
+    }
+
+    @Override
+    public synchronized boolean add(RegionEnvironment e) {
+      boolean changed = super.add(e);
+      changed();
+      return changed;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+      boolean changed = super.remove(o);
+      changed();
+      return changed;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends RegionEnvironment> c) {
+      boolean changed = super.addAll(c);
+      changed();
+      return changed;
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> c) {
+      boolean changed = super.retainAll(c);
+      changed();
+      return changed;
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<?> c) {
+      boolean changed = super.removeAll(c);
+      changed();
+      return changed;
+    }
+
+    @Override
+    public synchronized void clear() {
+      super.clear();
+      changed();
+    }
+
+    private void changed() {
+      version++;
+      hookIndex = null;
+    }
+  }
+
+  /**
+   * The RegionObservers that override each hook, in priority order, as of a
+   * version of the loaded coprocessors.
+   */
+  private static class HookIndex {
+    final int version;
+    final Map<String, RegionEnvironment[]> observers =
+        new HashMap<String, RegionEnvironment[]>();
+
+    HookIndex(CoprocessorSet coprocessors) {
+      this.version = coprocessors.version;
+      Map<String, List<RegionEnvironment>> byHook = new HashMap<String, List<RegionEnvironment>>();
+      for (RegionEnvironment env : coprocessors) {
+        if (!(env.getInstance() instanceof RegionObserver)) {
+          continue;
+        }
+        for (String hook : getOverriddenHooks(env.getInstance().getClass())) {
+          List<RegionEnvironment> envs = byHook.get(hook);
+          if (envs == null) {
+            envs = new ArrayList<RegionEnvironment>();
+            byHook.put(hook, envs);
+          }
+          envs.add(env);
+        }
+      }
+      for (Map.Entry<String, List<RegionEnvironment>> e : byHook.entrySet()) {
+        observers.put(e.getKey(), e.getValue().toArray(new RegionEnvironment[e.getValue().size()]));
+      }
+    }
+
+    /**
+     * @return the hooks <code>observerClass</code> implements: all of them, unless it is a
+     *   {@link BaseRegionObserver}, which leaves the hooks it does not override alone
+     */
+    private static Set<String> getOverriddenHooks(Class<?> observerClass) {
+      if (!BaseRegionObserver.class.isAssignableFrom(observerClass)) {
+        return HOOKS;
+      }
+      Set<String> hooks = new HashSet<String>();
+      for (Method method : observerClass.getMethods()) {
+        if (method.getDeclaringClass() != BaseRegionObserver.class &&
+            HOOKS.contains(method.getName())) {
+          hooks.add(method.getName());
+        }
+      }
+      return hooks;
+    }
+  }
+
   /** The region server services */
   RegionServerServices rsServices;
   /** The region */
   HRegion region;
+  private final CoprocessorSet loaded;
+  private volatile HookIndex hookIndex;
 
   /**
    * Constructor
@@ -141,6 +275,8 @@ public class RegionCoprocessorHost
     this.rsServices = rsServices;
     this.region = region;
     this.pathPrefix = Integer.toString(this.region.getRegionInfo().hashCode());
+    this.loaded = new CoprocessorSet(this.coprocessors.comparator());
+    this.coprocessors = this.loaded;
 
     // load system default cp's from configuration.
     loadSystemCoprocessors(conf, REGION_COPROCESSOR_CONF_KEY);
@@ -154,6 +290,58 @@ public class RegionCoprocessorHost
     loadTableCoprocessors(conf);
   }
 
+  /**
+   * @return true if a loaded RegionObserver implements a hook run by
+   *   {@link HRegion#batchMutate(org.apache.hadoop.hbase.client.Mutation[])}. If not, the
+   *   region skips these hooks, and what it prepares for them, altogether.
+   */
+  public boolean hasBatchMutationObservers() {
+    for (String hook : BATCH_MUTATION_HOOKS) {
+      if (getObservers(hook).length > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if a loaded RegionObserver implements a hook that sees the cells of a
+   *   compaction. If not, a compaction may copy the data blocks of its files as they are.
+   */
+  public boolean hasCompactionScannerObservers() {
+    for (String hook : COMPACTION_SCANNER_HOOKS) {
+      if (getObservers(hook).length > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the loaded RegionObservers that override <code>hook</code>, in priority order.
+   *   Hooks left to {@link BaseRegionObserver} are skipped without making a context for them.
+   */
+  RegionEnvironment[] getObservers(String hook) {
+    HookIndex index = this.hookIndex;
+    if (index == null || index.version != loaded.version) {
+      index = new HookIndex(loaded);
+      this.hookIndex = index;
+    }
+    RegionEnvironment[] envs = index.observers.get(hook);
+    return envs != null ? envs : NO_OBSERVERS;
+  }
+
+  /**
+   * Records the time spent in a RegionObserver hook since <code>startTime</code>, in the
+   * metrics of the region.
+   */
+  private void updateHookTime(String hook, long startTime) {
+    MetricsRegion metrics = region.getMetrics();
+    if (metrics != null) {
+      metrics.updateCoprocessorHook(hook, (System.nanoTime() - startTime) / 1000);
+    }
+  }
+
   void loadTableCoprocessors(final Configuration conf) {
     // scan the table attributes for coprocessor load specifications
     // initialize the coprocessors
@@ -275,17 +463,19 @@ public class RegionCoprocessorHost
    */
   public void preOpen() throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-         try {
-          ((RegionObserver) env.getInstance()).preOpen(ctx);
-         } catch (Throwable e) {
-           handleCoprocessorThrowable(env, e);
-         }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preOpen";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).preOpen(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -295,17 +485,19 @@ public class RegionCoprocessorHost
    */
   public void postOpen() {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).postOpen(ctx);
-        } catch (Throwable e) {
-          handleCoprocessorThrowableNoRethrow(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postOpen";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).postOpen(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowableNoRethrow(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -316,14 +508,16 @@ public class RegionCoprocessorHost
    */
   public void preClose(boolean abortRequested) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).preClose(ctx, abortRequested);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
+    String hook = "preClose";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).preClose(ctx, abortRequested);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
       }
     }
   }
@@ -356,18 +550,20 @@ public class RegionCoprocessorHost
       ScanType scanType, long earliestPutTs, CompactionRequest request) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
     InternalScanner s = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          s = ((RegionObserver) env.getInstance()).preCompactScannerOpen(ctx, store, scanners,
-            scanType, earliestPutTs, s, request);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env,e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preCompactScannerOpen";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        s = ((RegionObserver) env.getInstance()).preCompactScannerOpen(ctx, store, scanners,
+          scanType, earliestPutTs, s, request);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env,e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return s;
@@ -386,19 +582,21 @@ public class RegionCoprocessorHost
       CompactionRequest request) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
     boolean bypass = false;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).preCompactSelection(ctx, store, candidates, request);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env,e);
-
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preCompactSelection";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).preCompactSelection(ctx, store, candidates, request);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env,e);
+
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -414,17 +612,19 @@ public class RegionCoprocessorHost
   public void postCompactSelection(Store store, ImmutableList<StoreFile> selected,
       CompactionRequest request) {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).postCompactSelection(ctx, store, selected, request);
-        } catch (Throwable e) {
-          handleCoprocessorThrowableNoRethrow(env,e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postCompactSelection";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).postCompactSelection(ctx, store, selected, request);
+      } catch (Throwable e) {
+        handleCoprocessorThrowableNoRethrow(env,e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -441,19 +641,21 @@ public class RegionCoprocessorHost
       CompactionRequest request) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
     boolean bypass = false;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          scanner = ((RegionObserver) env.getInstance()).preCompact(ctx, store, scanner, scanType,
-            request);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env,e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preCompact";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        scanner = ((RegionObserver) env.getInstance()).preCompact(ctx, store, scanner, scanType,
+          request);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env,e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? null : scanner;
@@ -469,17 +671,19 @@ public class RegionCoprocessorHost
   public void postCompact(Store store, StoreFile resultFile, CompactionRequest request)
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).postCompact(ctx, store, resultFile, request);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postCompact";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).postCompact(ctx, store, resultFile, request);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -491,19 +695,21 @@ public class RegionCoprocessorHost
   public InternalScanner preFlush(Store store, InternalScanner scanner) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
     boolean bypass = false;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          scanner = ((RegionObserver)env.getInstance()).preFlush(
-              ctx, store, scanner);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env,e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preFlush";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        scanner = ((RegionObserver)env.getInstance()).preFlush(
+            ctx, store, scanner);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env,e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? null : scanner;
@@ -515,17 +721,19 @@ public class RegionCoprocessorHost
    */
   public void preFlush() throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preFlush(ctx);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preFlush";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preFlush(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -539,18 +747,20 @@ public class RegionCoprocessorHost
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
     InternalScanner s = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          s = ((RegionObserver) env.getInstance())
-            .preFlushScannerOpen(ctx, store, memstoreScanner, s);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preFlushScannerOpen";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        s = ((RegionObserver) env.getInstance())
+          .preFlushScannerOpen(ctx, store, memstoreScanner, s);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return s;
@@ -562,17 +772,19 @@ public class RegionCoprocessorHost
    */
   public void postFlush() throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postFlush(ctx);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postFlush";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postFlush(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -583,17 +795,19 @@ public class RegionCoprocessorHost
    */
   public void postFlush(final Store store, final StoreFile storeFile) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postFlush(ctx, store, storeFile);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postFlush";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postFlush(ctx, store, storeFile);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -604,17 +818,19 @@ public class RegionCoprocessorHost
    */
   public void preSplit() throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preSplit(ctx);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preSplit";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preSplit(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -625,17 +841,19 @@ public class RegionCoprocessorHost
    */
   public void preSplit(byte[] splitRow) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preSplit(ctx, splitRow);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preSplit";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preSplit(ctx, splitRow);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -648,17 +866,19 @@ public class RegionCoprocessorHost
    */
   public void postSplit(HRegion l, HRegion r) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postSplit(ctx, l, r);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postSplit";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postSplit(ctx, l, r);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -666,19 +886,21 @@ public class RegionCoprocessorHost
   public boolean preSplitBeforePONR(byte[] splitKey, List<Mutation> metaEntries) throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).preSplitBeforePONR(ctx,
-              splitKey, metaEntries);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preSplitBeforePONR";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).preSplitBeforePONR(ctx,
+            splitKey, metaEntries);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -686,17 +908,19 @@ public class RegionCoprocessorHost
 
   public void preSplitAfterPONR() throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).preSplitAfterPONR(ctx);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preSplitAfterPONR";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).preSplitAfterPONR(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -707,17 +931,19 @@ public class RegionCoprocessorHost
    */
   public void preRollBackSplit() throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).preRollBackSplit(ctx);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preRollBackSplit";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).preRollBackSplit(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -728,17 +954,19 @@ public class RegionCoprocessorHost
    */
   public void postRollBackSplit() throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).postRollBackSplit(ctx);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postRollBackSplit";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).postRollBackSplit(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -749,17 +977,19 @@ public class RegionCoprocessorHost
    */
   public void postCompleteSplit() throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).postCompleteSplit(ctx);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postCompleteSplit";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).postCompleteSplit(ctx);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -776,19 +1006,21 @@ public class RegionCoprocessorHost
       final Result result) throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preGetClosestRowBefore(ctx, row,
-              family, result);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preGetClosestRowBefore";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preGetClosestRowBefore(ctx, row,
+            family, result);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -803,18 +1035,20 @@ public class RegionCoprocessorHost
   public void postGetClosestRowBefore(final byte[] row, final byte[] family,
       final Result result) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postGetClosestRowBefore(ctx, row,
-              family, result);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postGetClosestRowBefore";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postGetClosestRowBefore(ctx, row,
+            family, result);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -828,18 +1062,20 @@ public class RegionCoprocessorHost
       throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preGetOp(ctx, get, results);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preGetOp";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preGetOp(ctx, get, results);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -853,17 +1089,19 @@ public class RegionCoprocessorHost
   public void postGet(final Get get, final List<Cell> results)
   throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postGetOp(ctx, get, results);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postGetOp";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postGetOp(ctx, get, results);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -878,18 +1116,20 @@ public class RegionCoprocessorHost
     boolean bypass = false;
     boolean exists = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          exists = ((RegionObserver)env.getInstance()).preExists(ctx, get, exists);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preExists";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        exists = ((RegionObserver)env.getInstance()).preExists(ctx, get, exists);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? exists : null;
@@ -904,17 +1144,19 @@ public class RegionCoprocessorHost
   public boolean postExists(final Get get, boolean exists)
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          exists = ((RegionObserver)env.getInstance()).postExists(ctx, get, exists);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postExists";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        exists = ((RegionObserver)env.getInstance()).postExists(ctx, get, exists);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return exists;
@@ -931,18 +1173,20 @@ public class RegionCoprocessorHost
       final Durability durability) throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).prePut(ctx, put, edit, durability);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "prePut";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).prePut(ctx, put, edit, durability);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -957,17 +1201,19 @@ public class RegionCoprocessorHost
   public void postPut(Put put, WALEdit edit,
       final Durability durability) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postPut(ctx, put, edit, durability);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postPut";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postPut(ctx, put, edit, durability);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -983,18 +1229,20 @@ public class RegionCoprocessorHost
       final Durability durability) throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preDelete(ctx, delete, edit, durability);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preDelete";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preDelete(ctx, delete, edit, durability);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -1009,17 +1257,19 @@ public class RegionCoprocessorHost
   public void postDelete(Delete delete, WALEdit edit,
       final Durability durability) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postDelete(ctx, delete, edit, durability);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postDelete";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postDelete(ctx, delete, edit, durability);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -1033,18 +1283,20 @@ public class RegionCoprocessorHost
       final MiniBatchOperationInProgress<Mutation> miniBatchOp) throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).preBatchMutate(ctx, miniBatchOp);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preBatchMutate";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).preBatchMutate(ctx, miniBatchOp);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -1057,17 +1309,19 @@ public class RegionCoprocessorHost
   public void postBatchMutate(
       final MiniBatchOperationInProgress<Mutation> miniBatchOp) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver) env.getInstance()).postBatchMutate(ctx, miniBatchOp);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postBatchMutate";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver) env.getInstance()).postBatchMutate(ctx, miniBatchOp);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -1090,21 +1344,23 @@ public class RegionCoprocessorHost
     boolean bypass = false;
     boolean result = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          result = ((RegionObserver)env.getInstance()).preCheckAndPut(ctx, row, family,
-            qualifier, compareOp, comparator, put, result);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
+    String hook = "preCheckAndPut";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        result = ((RegionObserver)env.getInstance()).preCheckAndPut(ctx, row, family,
+          qualifier, compareOp, comparator, put, result);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
 
 
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? result : null;
@@ -1125,18 +1381,20 @@ public class RegionCoprocessorHost
       boolean result)
     throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          result = ((RegionObserver)env.getInstance()).postCheckAndPut(ctx, row,
-            family, qualifier, compareOp, comparator, put, result);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postCheckAndPut";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        result = ((RegionObserver)env.getInstance()).postCheckAndPut(ctx, row,
+          family, qualifier, compareOp, comparator, put, result);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return result;
@@ -1160,19 +1418,21 @@ public class RegionCoprocessorHost
     boolean bypass = false;
     boolean result = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          result = ((RegionObserver)env.getInstance()).preCheckAndDelete(ctx, row,
-            family, qualifier, compareOp, comparator, delete, result);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preCheckAndDelete";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        result = ((RegionObserver)env.getInstance()).preCheckAndDelete(ctx, row,
+          family, qualifier, compareOp, comparator, delete, result);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? result : null;
@@ -1193,19 +1453,21 @@ public class RegionCoprocessorHost
       boolean result)
     throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          result = ((RegionObserver)env.getInstance())
-            .postCheckAndDelete(ctx, row, family, qualifier, compareOp,
-              comparator, delete, result);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postCheckAndDelete";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        result = ((RegionObserver)env.getInstance())
+          .postCheckAndDelete(ctx, row, family, qualifier, compareOp,
+            comparator, delete, result);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return result;
@@ -1222,18 +1484,20 @@ public class RegionCoprocessorHost
     boolean bypass = false;
     Result result = null;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          result = ((RegionObserver)env.getInstance()).preAppend(ctx, append);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preAppend";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        result = ((RegionObserver)env.getInstance()).preAppend(ctx, append);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? result : null;
@@ -1250,18 +1514,20 @@ public class RegionCoprocessorHost
     boolean bypass = false;
     Result result = null;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          result = ((RegionObserver)env.getInstance()).preIncrement(ctx, increment);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preIncrement";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        result = ((RegionObserver)env.getInstance()).preIncrement(ctx, increment);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? result : null;
@@ -1275,17 +1541,19 @@ public class RegionCoprocessorHost
   public void postAppend(final Append append, Result result)
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postAppend(ctx, append, result);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postAppend";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postAppend(ctx, append, result);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -1298,17 +1566,19 @@ public class RegionCoprocessorHost
   public Result postIncrement(final Increment increment, Result result)
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          result = ((RegionObserver)env.getInstance()).postIncrement(ctx, increment, result);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postIncrement";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        result = ((RegionObserver)env.getInstance()).postIncrement(ctx, increment, result);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return result;
@@ -1324,18 +1594,20 @@ public class RegionCoprocessorHost
     boolean bypass = false;
     RegionScanner s = null;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          s = ((RegionObserver)env.getInstance()).preScannerOpen(ctx, scan, s);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preScannerOpen";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        s = ((RegionObserver)env.getInstance()).preScannerOpen(ctx, scan, s);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? s : null;
@@ -1350,18 +1622,20 @@ public class RegionCoprocessorHost
       final NavigableSet<byte[]> targetCols) throws IOException {
     KeyValueScanner s = null;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          s = ((RegionObserver) env.getInstance()).preStoreScannerOpen(ctx, store, scan,
-              targetCols, s);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preStoreScannerOpen";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        s = ((RegionObserver) env.getInstance()).preStoreScannerOpen(ctx, store, scan,
+            targetCols, s);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return s;
@@ -1376,17 +1650,19 @@ public class RegionCoprocessorHost
   public RegionScanner postScannerOpen(final Scan scan, RegionScanner s)
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          s = ((RegionObserver)env.getInstance()).postScannerOpen(ctx, scan, s);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postScannerOpen";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        s = ((RegionObserver)env.getInstance()).postScannerOpen(ctx, scan, s);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return s;
@@ -1405,19 +1681,21 @@ public class RegionCoprocessorHost
     boolean bypass = false;
     boolean hasNext = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          hasNext = ((RegionObserver)env.getInstance()).preScannerNext(ctx, s, results,
-            limit, hasNext);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preScannerNext";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        hasNext = ((RegionObserver)env.getInstance()).preScannerNext(ctx, s, results,
+          limit, hasNext);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass ? hasNext : null;
@@ -1435,18 +1713,20 @@ public class RegionCoprocessorHost
       final List<Result> results, final int limit, boolean hasMore)
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          hasMore = ((RegionObserver)env.getInstance()).postScannerNext(ctx, s,
-            results, limit, hasMore);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postScannerNext";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        hasMore = ((RegionObserver)env.getInstance()).postScannerNext(ctx, s,
+          results, limit, hasMore);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return hasMore;
@@ -1464,18 +1744,20 @@ public class RegionCoprocessorHost
       throws IOException {
     boolean hasMore = true; // By default assume more rows there.
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env : coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          hasMore = ((RegionObserver) env.getInstance()).postScannerFilterRow(ctx, s, currentRow,
-              hasMore);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postScannerFilterRow";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        hasMore = ((RegionObserver) env.getInstance()).postScannerFilterRow(ctx, s, currentRow,
+            hasMore);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return hasMore;
@@ -1490,18 +1772,20 @@ public class RegionCoprocessorHost
       throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preScannerClose(ctx, s);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preScannerClose";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preScannerClose(ctx, s);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -1514,17 +1798,19 @@ public class RegionCoprocessorHost
   public void postScannerClose(final InternalScanner s)
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postScannerClose(ctx, s);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postScannerClose";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postScannerClose(ctx, s);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -1540,19 +1826,21 @@ public class RegionCoprocessorHost
       WALEdit logEdit) throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preWALRestore(ctx, info, logKey,
-              logEdit);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preWALRestore";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preWALRestore(ctx, info, logKey,
+            logEdit);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
     return bypass;
@@ -1567,18 +1855,20 @@ public class RegionCoprocessorHost
   public void postWALRestore(HRegionInfo info, HLogKey logKey,
       WALEdit logEdit) throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).postWALRestore(ctx, info,
-              logKey, logEdit);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postWALRestore";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).postWALRestore(ctx, info,
+            logKey, logEdit);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
   }
@@ -1591,18 +1881,20 @@ public class RegionCoprocessorHost
   public boolean preBulkLoadHFile(List<Pair<byte[], String>> familyPaths) throws IOException {
     boolean bypass = false;
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          ((RegionObserver)env.getInstance()).preBulkLoadHFile(ctx, familyPaths);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        bypass |= ctx.shouldBypass();
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "preBulkLoadHFile";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        ((RegionObserver)env.getInstance()).preBulkLoadHFile(ctx, familyPaths);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      bypass |= ctx.shouldBypass();
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
 
@@ -1618,18 +1910,20 @@ public class RegionCoprocessorHost
   public boolean postBulkLoadHFile(List<Pair<byte[], String>> familyPaths, boolean hasLoaded)
       throws IOException {
     ObserverContext<RegionCoprocessorEnvironment> ctx = null;
-    for (RegionEnvironment env: coprocessors) {
-      if (env.getInstance() instanceof RegionObserver) {
-        ctx = ObserverContext.createAndPrepare(env, ctx);
-        try {
-          hasLoaded = ((RegionObserver)env.getInstance()).postBulkLoadHFile(ctx,
-            familyPaths, hasLoaded);
-        } catch (Throwable e) {
-          handleCoprocessorThrowable(env, e);
-        }
-        if (ctx.shouldComplete()) {
-          break;
-        }
+    String hook = "postBulkLoadHFile";
+    for (RegionEnvironment env: getObservers(hook)) {
+      ctx = ObserverContext.createAndPrepare(env, ctx);
+      long startTime = System.nanoTime();
+      try {
+        hasLoaded = ((RegionObserver)env.getInstance()).postBulkLoadHFile(ctx,
+          familyPaths, hasLoaded);
+      } catch (Throwable e) {
+        handleCoprocessorThrowable(env, e);
+      } finally {
+        updateHookTime(hook, startTime);
+      }
+      if (ctx.shouldComplete()) {
+        break;
       }
     }
 
@@ -64,6 +64,12 @@ public interface RegionScanner extends InternalScanner {
    */
   long getMvccReadPoint();
 
+  /**
+   * @return The limit on the number of values returned per call, as set by
+   *   {@link Scan#setBatch(int)}; -1 if the scan is not batched
+   */
+  int getBatch();
+
   /**
    * Grab the next row's worth of values with the default limit on the number of values
    * to return.
@@ -103,4 +109,37 @@ public interface RegionScanner extends InternalScanner {
    * @throws IOException e
    */
   boolean nextRaw(List<Cell> result, int limit) throws IOException;
+
+  /**
+   * Grab the next row's worth of values with a limit on the number of values
+   * to return, stopping early on size or time.
+   * <p>
+   * Once the heap size of the values gathered reaches <code>sizeLimit</code>
+   * the call returns even if the row has more values, and {@link #isPartialRow()}
+   * returns true until the rest of the row has been returned by later calls.
+   * Rows are only split this way when no filter needs to see whole rows.
+   * <p>
+   * Rows that filters exclude are skipped inside the scanner, so a selective
+   * scan may otherwise run for a long time without producing a value. When the
+   * time limit passes while skipping such rows, this returns true with nothing
+   * added to <code>result</code>; the scanner stays positioned so that the next
+   * call resumes where this one stopped.
+   * <p>
+   * Same calling conventions as {@link #nextRaw(List, int)}.
+   * @param result return output array
+   * @param limit limit on row count to get
+   * @param sizeLimit heap size of values after which to stop, even mid row; -1 for no limit
+   * @param timeLimit wall clock time, in milliseconds, after which to stop skipping
+   *   filtered rows; Long.MAX_VALUE for no limit
+   * @return true if more rows may exist after this one, false if scanner is done
+   * @throws IOException e
+   */
+  boolean nextRaw(List<Cell> result, int limit, long sizeLimit, long timeLimit)
+      throws IOException;
+
+  /**
+   * @return true if the last call to {@link #nextRaw(List, int, long, long)} stopped partway
+   *   through a row because it reached the size limit
+   */
+  boolean isPartialRow();
 }
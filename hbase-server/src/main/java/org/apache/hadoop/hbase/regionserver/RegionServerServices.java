@@ -26,6 +26,7 @@ import org.apache.hadoop.hbase.executor.ExecutorService;
 import org.apache.hadoop.hbase.ipc.PriorityFunction;
 import org.apache.hadoop.hbase.ipc.RpcServerInterface;
 import org.apache.hadoop.hbase.master.TableLockManager;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 import org.apache.hadoop.hbase.regionserver.wal.HLog;
 import org.apache.zookeeper.KeeperException;
 
@@ -115,4 +116,26 @@ public interface RegionServerServices
    * @return set of recovering regions on the hosting region server
    */
   Map<String, HRegion> getRecoveringRegions();
+
+  /**
+   * @return the controller that limits the throughput of the compactions on this server
+   */
+  ThroughputController getCompactionThroughputController();
+
+  /**
+   * @return the controller that limits the throughput of the flushes on this server
+   */
+  ThroughputController getFlushThroughputController();
+
+  /**
+   * @return how close the fullest store of this server is to blocking updates, see
+   *   {@link Store#getCompactionPressure()}
+   */
+  double getCompactionPressure();
+
+  /**
+   * @return how full the memstores of this server are, relative to the global memstore
+   *   limit's low mark; over 1.0, they are being flushed to free memory
+   */
+  double getFlushPressure();
 }
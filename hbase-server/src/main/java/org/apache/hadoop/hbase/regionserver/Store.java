@@ -274,6 +274,12 @@ public interface Store extends HeapSize, StoreConfigInformation {
    */
   int getStorefilesCount();
 
+  /**
+   * @return how close the store is to blocking updates on its store file count: 0.0 while it
+   *   has no more files than a compaction needs, over 1.0 past the blocking count
+   */
+  double getCompactionPressure();
+
   /**
    * @return The size of the store files, in bytes, uncompressed.
    */
@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.UUID;
@@ -49,6 +50,7 @@ import org.apache.hadoop.hbase.io.hfile.BlockType;
 import org.apache.hadoop.hbase.io.hfile.CacheConfig;
 import org.apache.hadoop.hbase.io.hfile.HFile;
 import org.apache.hadoop.hbase.io.hfile.HFileDataBlockEncoder;
+import org.apache.hadoop.hbase.io.hfile.HFileReaderV2;
 import org.apache.hadoop.hbase.io.hfile.HFileScanner;
 import org.apache.hadoop.hbase.io.hfile.HFileWriterV2;
 import org.apache.hadoop.hbase.io.hfile.NoOpDataBlockEncoder;
@@ -340,6 +342,14 @@ public class StoreFile {
     return Bytes.toLong(metadataMap.get(BULKLOAD_TIME_KEY));
   }
 
+  /**
+   * @param key a key of the file info, e.g. one written by the store engine
+   * @return value associated with the metadata key, or null
+   */
+  public byte[] getMetadataValue(byte[] key) {
+    return metadataMap.get(key);
+  }
+
   /**
    * @return the cached value of HDFS blocks distribution. The cached value is
    * calculated when store file is opened.
@@ -984,6 +994,35 @@ public class StoreFile {
       trackTimestamps(kv);
     }
 
+    /**
+     * @return true if the data blocks of the given store file can be copied
+     *   into this one with {@link #appendDataBlock(HFileReaderV2.DataBlockScanner)}
+     */
+    public boolean canCopyDataBlocks(final Reader reader) {
+      return writer instanceof HFileWriterV2
+          && ((HFileWriterV2) writer).canCopyDataBlocks(reader.getHFileReader());
+    }
+
+    /**
+     * Appends the current data block of the scanner as it is stored on disk.
+     * Its key/values still go into the Bloom filters and the time range of
+     * this file.
+     * @param source a scanner of a file with copyable data blocks, see
+     *   {@link #canCopyDataBlocks(Reader)}
+     */
+    public void appendDataBlock(final HFileReaderV2.DataBlockScanner source)
+        throws IOException {
+      List<KeyValue> kvs = source.getKeyValues();
+      for (KeyValue kv : kvs) {
+        appendGeneralBloomfilter(kv);
+        appendDeleteFamilyBloomFilter(kv);
+      }
+      ((HFileWriterV2) writer).appendDataBlock(source);
+      for (KeyValue kv : kvs) {
+        trackTimestamps(kv);
+      }
+    }
+
     public Path getPath() {
       return this.writer.getPath();
     }
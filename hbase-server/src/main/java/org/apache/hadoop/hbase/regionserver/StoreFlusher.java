@@ -19,6 +19,7 @@
 package org.apache.hadoop.hbase.regionserver;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -37,6 +38,8 @@ import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.monitoring.MonitoredTask;
 import org.apache.hadoop.hbase.regionserver.compactions.Compactor;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputControlUtil;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 
 /**
  * Store flusher interface. Turns a snapshot of memstore into a set of store files (usually one).
@@ -60,11 +63,12 @@ abstract class StoreFlusher {
    *                                 pertaining to the snapshot.
    * @param flushedSize Out parameter for the size of the KVs flushed.
    * @param status Task that represents the flush operation and may be updated with status.
+   * @param throughputController Limits how fast the flush writes.
    * @return List of files written. Can be empty; must not be null.
    */
   public abstract List<Path> flushSnapshot(SortedSet<KeyValue> snapshot, long cacheFlushSeqNum,
-      TimeRangeTracker snapshotTimeRangeTracker, AtomicLong flushedSize, MonitoredTask status)
-      throws IOException;
+      TimeRangeTracker snapshotTimeRangeTracker, AtomicLong flushedSize, MonitoredTask status,
+      ThroughputController throughputController) throws IOException;
 
   protected void finalizeWriter(StoreFile.Writer writer, long cacheFlushSeqNum,
       MonitoredTask status) throws IOException {
@@ -113,35 +117,45 @@ abstract class StoreFlusher {
    * @param scanner Scanner to get data from.
    * @param sink Sink to write data to. Could be StoreFile.Writer.
    * @param smallestReadPoint Smallest read point used for the flush.
+   * @param throughputController Limits how fast the flush writes.
    * @return Bytes flushed.
-s   */
-  protected long performFlush(InternalScanner scanner,
-      Compactor.CellSink sink, long smallestReadPoint) throws IOException {
+   */
+  protected long performFlush(InternalScanner scanner, Compactor.CellSink sink,
+      long smallestReadPoint, ThroughputController throughputController) throws IOException {
     int compactionKVMax =
       conf.getInt(HConstants.COMPACTION_KV_MAX, HConstants.COMPACTION_KV_MAX_DEFAULT);
     List<Cell> kvs = new ArrayList<Cell>();
     boolean hasMore;
     long flushed = 0;
-    do {
-      hasMore = scanner.next(kvs, compactionKVMax);
-      if (!kvs.isEmpty()) {
-        for (Cell c : kvs) {
-          // If we know that this KV is going to be included always, then let us
-          // set its memstoreTS to 0. This will help us save space when writing to
-          // disk.
-          KeyValue kv = KeyValueUtil.ensureKeyValue(c);
-          if (kv.getMvccVersion() <= smallestReadPoint) {
-            // let us not change the original KV. It could be in the memstore
-            // changing its memstoreTS could affect other threads/scanners.
-            kv = kv.shallowCopy();
-            kv.setMvccVersion(0);
+    String flushName = ThroughputControlUtil.getNameForThrottling(store, "flush");
+    throughputController.start(flushName);
+    try {
+      do {
+        hasMore = scanner.next(kvs, compactionKVMax);
+        if (!kvs.isEmpty()) {
+          for (Cell c : kvs) {
+            // If we know that this KV is going to be included always, then let us
+            // set its memstoreTS to 0. This will help us save space when writing to
+            // disk.
+            KeyValue kv = KeyValueUtil.ensureKeyValue(c);
+            if (kv.getMvccVersion() <= smallestReadPoint) {
+              // let us not change the original KV. It could be in the memstore
+              // changing its memstoreTS could affect other threads/scanners.
+              kv = kv.shallowCopy();
+              kv.setMvccVersion(0);
+            }
+            sink.append(kv);
+            flushed += MemStore.heapSizeChange(kv, true);
+            throughputController.control(flushName, kv.getLength());
           }
-          sink.append(kv);
-          flushed += MemStore.heapSizeChange(kv, true);
+          kvs.clear();
         }
-        kvs.clear();
-      }
-    } while (hasMore);
+      } while (hasMore);
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException("Interrupted while throttling flush of " + store);
+    } finally {
+      throughputController.finish(flushName);
+    }
     return flushed;
   }
 }
@@ -0,0 +1,120 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HConstants;
+
+/**
+ * Configuration class for stripe store and compactions.
+ * See {@link StripeStoreFileManager} for general documentation.
+ * See getters for the description of each setting.
+ */
+@InterfaceAudience.Private
+public class StripeStoreConfig {
+  static final Log LOG = LogFactory.getLog(StripeStoreConfig.class);
+
+  /** The minimum number of files to compact within a stripe; same as for regular compaction. */
+  public static final String MIN_FILES_KEY = "hbase.store.stripe.compaction.minFiles";
+  /** The maximum number of files to compact within a stripe; same as for regular compaction. */
+  public static final String MAX_FILES_KEY = "hbase.store.stripe.compaction.maxFiles";
+  /** The minimum number of files to compact when compacting L0. */
+  public static final String MIN_FILES_L0_KEY = "hbase.store.stripe.compaction.minFilesL0";
+  /** The size above which a stripe is split into several when all its files are compacted. */
+  public static final String SIZE_TO_SPLIT_KEY = "hbase.store.stripe.sizeToSplit";
+  /** The target count of new stripes to produce when splitting a stripe. */
+  public static final String SPLIT_PARTS_KEY = "hbase.store.stripe.splitPartCount";
+
+  private static final int LEVEL0_MIN_FILES_DEFAULT = 4;
+
+  private final int level0CompactMinFiles;
+  private final int stripeCompactMinFiles;
+  private final int stripeCompactMaxFiles;
+  private final long sizeToSplit;
+  private final int splitPartCount;
+  private final long splitPartSize;
+
+  public StripeStoreConfig(Configuration config) {
+    this.level0CompactMinFiles = config.getInt(MIN_FILES_L0_KEY, LEVEL0_MIN_FILES_DEFAULT);
+    // Zero or less, the default, means the same as for regular compactions.
+    int minFiles = config.getInt(MIN_FILES_KEY, 0);
+    this.stripeCompactMinFiles = minFiles > 0 ? minFiles
+        : Math.max(2, config.getInt("hbase.hstore.compaction.min", 3));
+    int maxFiles = config.getInt(MAX_FILES_KEY, 0);
+    this.stripeCompactMaxFiles = maxFiles > 0 ? maxFiles
+        : config.getInt("hbase.hstore.compaction.max", 10);
+    // By default, a region at its split size is made of about four stripes.
+    long sizeToSplit = config.getLong(SIZE_TO_SPLIT_KEY, 0);
+    this.sizeToSplit = sizeToSplit > 0 ? sizeToSplit : config.getLong(
+        HConstants.HREGION_MAX_FILESIZE, HConstants.DEFAULT_MAX_FILE_SIZE) / 4;
+    int splitPartCount = config.getInt(SPLIT_PARTS_KEY, 2);
+    if (splitPartCount < 2) {
+      LOG.error("Invalid " + SPLIT_PARTS_KEY + " " + splitPartCount + "; using 2");
+      splitPartCount = 2;
+    }
+    this.splitPartCount = splitPartCount;
+    this.splitPartSize = Math.max(1, this.sizeToSplit / this.splitPartCount);
+  }
+
+  /**
+   * @return the number of files in L0 that triggers their compaction into stripes
+   */
+  public int getLevel0MinFiles() {
+    return level0CompactMinFiles;
+  }
+
+  /**
+   * @return the number of files in a stripe that triggers its compaction
+   */
+  public int getStripeCompactMinFiles() {
+    return stripeCompactMinFiles;
+  }
+
+  /**
+   * @return the most files of a stripe compacted at once
+   */
+  public int getStripeCompactMaxFiles() {
+    return stripeCompactMaxFiles;
+  }
+
+  /**
+   * @return the size above which a stripe is split when it is compacted as a whole
+   */
+  public long getSizeToSplit() {
+    return sizeToSplit;
+  }
+
+  /**
+   * @return the number of stripes a stripe is split into
+   */
+  public int getSplitPartCount() {
+    return splitPartCount;
+  }
+
+  /**
+   * @return the size of the stripes written when splitting a stripe, or when writing
+   *   the first stripes of a store
+   */
+  public long getSplitPartSize() {
+    return splitPartSize;
+  }
+}
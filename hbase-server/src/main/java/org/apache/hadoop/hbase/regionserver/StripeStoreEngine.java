@@ -0,0 +1,99 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.KeyValue.KVComparator;
+import org.apache.hadoop.hbase.regionserver.compactions.CompactionContext;
+import org.apache.hadoop.hbase.regionserver.compactions.CompactionRequest;
+import org.apache.hadoop.hbase.regionserver.compactions.StripeCompactionPolicy;
+import org.apache.hadoop.hbase.regionserver.compactions.StripeCompactionPolicy.StripeCompactionRequest;
+import org.apache.hadoop.hbase.regionserver.compactions.StripeCompactor;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
+
+/**
+ * The storage engine that implements the stripe-based store/compaction scheme: the key space
+ * of the store is partitioned into stripes, each with its own files, that are flushed into
+ * and compacted independently. See {@link StripeStoreFileManager}.
+ * To use it, set {@link StoreEngine#STORE_ENGINE_CLASS_KEY} to this class, for the table or
+ * the column family.
+ */
+@InterfaceAudience.Private
+public class StripeStoreEngine extends StoreEngine<StripeStoreFlusher,
+  StripeCompactionPolicy, StripeCompactor, StripeStoreFileManager> {
+
+  @Override
+  protected void createComponents(
+      Configuration conf, Store store, KVComparator comparator) throws IOException {
+    StripeStoreConfig config = new StripeStoreConfig(conf);
+    this.storeFileManager = new StripeStoreFileManager(comparator, conf);
+    this.storeFlusher = new StripeStoreFlusher(conf, store, this.storeFileManager);
+    this.compactionPolicy = new StripeCompactionPolicy(conf, store, config);
+    this.compactor = new StripeCompactor(conf, store);
+  }
+
+  @Override
+  public boolean needsCompaction(List<StoreFile> filesCompacting) {
+    return this.compactionPolicy.needsCompactions(this.storeFileManager, filesCompacting);
+  }
+
+  @Override
+  public CompactionContext createCompaction() {
+    return new StripeCompaction();
+  }
+
+  /** Represents one instance of stripe compaction, with the necessary context and flow. */
+  private class StripeCompaction extends CompactionContext {
+    private StripeCompactionRequest stripeRequest = null;
+
+    @Override
+    public List<StoreFile> preSelect(List<StoreFile> filesCompacting) {
+      return compactionPolicy.preSelectFilesForCoprocessor(storeFileManager, filesCompacting);
+    }
+
+    @Override
+    public boolean select(List<StoreFile> filesCompacting, boolean isUserCompaction,
+        boolean mayUseOffPeak, boolean forceMajor) throws IOException {
+      this.stripeRequest = compactionPolicy.selectCompaction(
+          storeFileManager, filesCompacting, forceMajor);
+      this.request = stripeRequest != null
+          ? stripeRequest : new CompactionRequest(new ArrayList<StoreFile>());
+      return this.stripeRequest != null;
+    }
+
+    @Override
+    public List<Path> compact(ThroughputController throughputController)
+        throws IOException {
+      assert this.request != null : "Cannot compact without selection";
+      if (this.stripeRequest == null) {
+        // Selected by a coprocessor; the results go to L0.
+        return compactor.compact(request, throughputController);
+      }
+      return compactor.compact(request, stripeRequest.getTargetBoundaries(),
+          stripeRequest.getTargetSize(), stripeRequest.isDropDeletes() || request.isMajor(),
+          throughputController);
+    }
+  }
+}
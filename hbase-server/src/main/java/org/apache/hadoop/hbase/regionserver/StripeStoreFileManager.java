@@ -0,0 +1,535 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValue.KVComparator;
+import org.apache.hadoop.hbase.regionserver.compactions.StripeCompactionPolicy;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Stripe implementation of StoreFileManager.
+ * Not thread safe - relies on external locking (in HStore). Collections that this class
+ * returns are immutable or unique to the call, so they should be safe.
+ * Stripe store splits the key space of the region into non-overlapping stripes, as well as
+ * some recent files that have all the keys (level 0). Each stripe contains a set of files.
+ * When L0 is compacted, it's split into the files corresponding to existing stripe boundaries,
+ * that can thus be added to stripes.
+ * When scan or get happens, it only has to read the files from the corresponding stripes.
+ * See {@link StripeCompactionPolicy} on how the stripes are determined; this class doesn't care.
+ *
+ * The boundaries of the stripe a file belongs to are kept in the file metadata. A file without
+ * them, or whose boundaries do not match the stripes of the store, is kept in L0, which is
+ * always correct to read, if slower; so the boundaries of files never have to be trusted.
+ */
+@InterfaceAudience.Private
+public class StripeStoreFileManager
+    implements StoreFileManager, StripeCompactionPolicy.StripeInformationProvider {
+  static final Log LOG = LogFactory.getLog(StripeStoreFileManager.class);
+
+  /** The file metadata fields that contain the stripe information. */
+  public static final byte[] STRIPE_START_KEY = Bytes.toBytes("STRIPE_START_KEY");
+  public static final byte[] STRIPE_END_KEY = Bytes.toBytes("STRIPE_END_KEY");
+
+  /** The key value used for range boundary, indicating that the boundary is open (i.e. +-inf). */
+  public static final byte[] OPEN_KEY = HConstants.EMPTY_BYTE_ARRAY;
+
+  /**
+   * The state class. Used solely to replace results atomically during
+   * compactions and avoid complicated error handling.
+   */
+  private static class State {
+    /**
+     * The boundaries of the stripes; stripe i covers the rows from boundary i, inclusive,
+     * to boundary i + 1, exclusive. The first and the last boundaries are open. Empty if
+     * the store has no stripes yet.
+     */
+    public ImmutableList<byte[]> stripeBoundaries = ImmutableList.of();
+    /** Files by stripe. Each element of the list corresponds to one stripe. */
+    public ImmutableList<ImmutableList<StoreFile>> stripeFiles = ImmutableList.of();
+    /** Level 0. The files are sorted by sequence id. */
+    public ImmutableList<StoreFile> level0Files = ImmutableList.of();
+    /** Cached list of all files in the structure, sorted by sequence id. */
+    public ImmutableList<StoreFile> allFilesCached = ImmutableList.of();
+  }
+  private volatile State state = new State();
+
+  private final KVComparator kvComparator;
+  private final Configuration conf;
+
+  public StripeStoreFileManager(KVComparator kvComparator, Configuration conf) {
+    this.kvComparator = kvComparator;
+    this.conf = conf;
+  }
+
+  @Override
+  public void loadFiles(List<StoreFile> storeFiles) {
+    List<StoreFile> level0Files = new ArrayList<StoreFile>();
+    List<Range> ranges = new ArrayList<Range>();
+    for (StoreFile sf : storeFiles) {
+      byte[][] boundaries = getStripeBoundaries(sf);
+      if (boundaries == null) {
+        level0Files.add(sf);
+      } else {
+        addToRange(ranges, boundaries[0], boundaries[1], sf);
+      }
+    }
+    Collections.sort(ranges, rangeComparator);
+    State newState = new State();
+    if (!ranges.isEmpty() && isCover(ranges, OPEN_KEY, OPEN_KEY)) {
+      setStripes(newState, ranges);
+    } else {
+      if (!ranges.isEmpty()) {
+        LOG.warn("The stripes of the files do not cover the key space; loading them into L0");
+      }
+      for (Range range : ranges) {
+        level0Files.addAll(range.files);
+      }
+    }
+    newState.level0Files = sortedCopy(level0Files);
+    setState(newState);
+  }
+
+  @Override
+  public Collection<StoreFile> getStorefiles() {
+    return state.allFilesCached;
+  }
+
+  @Override
+  public void insertNewFile(StoreFile sf) {
+    State oldState = state;
+    State newState = new State();
+    newState.stripeBoundaries = oldState.stripeBoundaries;
+    newState.stripeFiles = oldState.stripeFiles;
+    newState.level0Files = oldState.level0Files;
+    int stripe = findStripe(oldState, getStripeBoundaries(sf));
+    if (stripe < 0) {
+      newState.level0Files = addToSortedCopy(oldState.level0Files, sf);
+    } else {
+      List<ImmutableList<StoreFile>> stripeFiles =
+          new ArrayList<ImmutableList<StoreFile>>(oldState.stripeFiles);
+      stripeFiles.set(stripe, addToSortedCopy(stripeFiles.get(stripe), sf));
+      newState.stripeFiles = ImmutableList.copyOf(stripeFiles);
+    }
+    setState(newState);
+  }
+
+  @Override
+  public ImmutableCollection<StoreFile> clearFiles() {
+    ImmutableCollection<StoreFile> result = state.allFilesCached;
+    state = new State();
+    return result;
+  }
+
+  @Override
+  public int getStorefileCount() {
+    return state.allFilesCached.size();
+  }
+
+  /**
+   * Adds the compaction results. The results that match a stripe are added to it. The others
+   * must together cover a run of whole stripes, which they then replace; the files left in
+   * the replaced stripes are moved to L0. Results that fit neither way go to L0 too.
+   */
+  @Override
+  public void addCompactionResults(
+      Collection<StoreFile> compactedFiles, Collection<StoreFile> results) {
+    State oldState = state;
+    Set<StoreFile> compacted = new HashSet<StoreFile>(compactedFiles);
+    List<StoreFile> level0Files = new ArrayList<StoreFile>();
+    for (StoreFile sf : oldState.level0Files) {
+      if (!compacted.contains(sf)) level0Files.add(sf);
+    }
+    List<Range> stripes = new ArrayList<Range>(oldState.stripeFiles.size());
+    for (int i = 0; i < oldState.stripeFiles.size(); ++i) {
+      Range stripe = new Range(oldState.stripeBoundaries.get(i),
+          oldState.stripeBoundaries.get(i + 1));
+      for (StoreFile sf : oldState.stripeFiles.get(i)) {
+        if (!compacted.contains(sf)) stripe.files.add(sf);
+      }
+      stripes.add(stripe);
+    }
+
+    List<Range> newRanges = new ArrayList<Range>();
+    for (StoreFile sf : results) {
+      byte[][] boundaries = getStripeBoundaries(sf);
+      int stripe = findStripe(oldState, boundaries);
+      if (stripe >= 0) {
+        stripes.get(stripe).files.add(sf);
+      } else if (boundaries == null) {
+        level0Files.add(sf);
+      } else {
+        addToRange(newRanges, boundaries[0], boundaries[1], sf);
+      }
+    }
+    Collections.sort(newRanges, rangeComparator);
+    // Replace the stripes covered by each run of contiguous new ranges.
+    int runStart = 0;
+    for (int i = 1; i <= newRanges.size(); ++i) {
+      if (i < newRanges.size() && !isOpen(newRanges.get(i - 1).end)
+          && compareRows(newRanges.get(i - 1).end, newRanges.get(i).start) == 0) {
+        continue;
+      }
+      List<Range> run = newRanges.subList(runStart, i);
+      if (!replaceStripes(stripes, run, level0Files)) {
+        LOG.warn("Compaction results " + run + " do not match the stripes; adding them to L0");
+        for (Range range : run) {
+          level0Files.addAll(range.files);
+        }
+      }
+      runStart = i;
+    }
+
+    State newState = new State();
+    setStripes(newState, stripes);
+    newState.level0Files = sortedCopy(level0Files);
+    setState(newState);
+  }
+
+  /**
+   * Replaces the stripes covered by a run of contiguous ranges with these ranges.
+   * @return false if the run does not start and end at the boundaries of stripes
+   */
+  private boolean replaceStripes(List<Range> stripes, List<Range> run, List<StoreFile> level0) {
+    byte[] start = run.get(0).start, end = run.get(run.size() - 1).end;
+    int first, last;
+    if (stripes.isEmpty()) {
+      if (!isOpen(start) || !isOpen(end)) return false;
+      first = 0;
+      last = -1;
+    } else {
+      first = -1;
+      last = -1;
+      for (int i = 0; i < stripes.size(); ++i) {
+        if (rowsEqual(stripes.get(i).start, start)) first = i;
+        if (rowsEqual(stripes.get(i).end, end)) last = i;
+      }
+      if (first < 0 || last < first) return false;
+    }
+    List<Range> replaced = stripes.subList(first, last + 1);
+    for (Range stripe : replaced) {
+      level0.addAll(stripe.files);
+    }
+    replaced.clear();
+    stripes.addAll(first, run);
+    return true;
+  }
+
+  @Override
+  public Iterator<StoreFile> getCandidateFilesForRowKeyBefore(final KeyValue targetKey) {
+    State state = this.state;
+    if (state.stripeFiles.isEmpty()) {
+      return new ArrayList<StoreFile>(Lists.reverse(state.allFilesCached)).iterator();
+    }
+    // The stripes after the one of the target row cannot have a row before it.
+    int lastStripe = findStripeForRow(state, targetKey.getRow());
+    List<StoreFile> files = new ArrayList<StoreFile>(state.level0Files);
+    for (int i = 0; i <= lastStripe; ++i) {
+      files.addAll(state.stripeFiles.get(i));
+    }
+    Collections.sort(files, Collections.reverseOrder(StoreFile.Comparators.SEQ_ID));
+    return files.iterator();
+  }
+
+  @Override
+  public Iterator<StoreFile> updateCandidateFilesForRowKeyBefore(
+      Iterator<StoreFile> candidateFiles, final KeyValue targetKey, final KeyValue candidate) {
+    return candidateFiles;
+  }
+
+  /**
+   * Splits at the stripe boundary that best halves the store. If there is no such boundary
+   * close enough to the middle, splits the largest file, as the default store does.
+   */
+  @Override
+  public byte[] getSplitPoint() throws IOException {
+    State state = this.state;
+    if (state.allFilesCached.isEmpty()) {
+      return null;
+    }
+    if (state.stripeFiles.size() > 1) {
+      long[] sizes = new long[state.stripeFiles.size()];
+      long total = 0;
+      for (int i = 0; i < sizes.length; ++i) {
+        sizes[i] = getTotalSize(state.stripeFiles.get(i));
+        total += sizes[i];
+      }
+      long left = 0, bestDiff = Long.MAX_VALUE;
+      int best = -1;
+      for (int i = 0; i < sizes.length - 1; ++i) {
+        left += sizes[i];
+        long diff = Math.abs(total - 2 * left);
+        if (diff < bestDiff) {
+          bestDiff = diff;
+          best = i + 1;
+        }
+      }
+      // Good enough when neither side is more than twice the other.
+      if (bestDiff * 3 <= total) {
+        return state.stripeBoundaries.get(best);
+      }
+    }
+    return StoreUtils.getLargestFile(state.allFilesCached).getFileSplitPoint(this.kvComparator);
+  }
+
+  @Override
+  public Collection<StoreFile> getFilesForScanOrGet(
+      boolean isGet, byte[] startRow, byte[] stopRow) {
+    State state = this.state;
+    if (state.stripeFiles.isEmpty()) {
+      return state.allFilesCached;
+    }
+    int firstStripe = findStripeForRow(state, startRow);
+    int lastStripe = isGet ? firstStripe
+        : (isOpen(stopRow) ? state.stripeFiles.size() - 1 : findStripeForRow(state, stopRow));
+    if (lastStripe < firstStripe) {
+      // Reversed range; there is nothing to read in the stripes.
+      return state.level0Files;
+    }
+    List<StoreFile> files = new ArrayList<StoreFile>(state.level0Files);
+    for (int i = firstStripe; i <= lastStripe; ++i) {
+      files.addAll(state.stripeFiles.get(i));
+    }
+    return files;
+  }
+
+  /**
+   * A read goes through L0 and the files of one stripe, so these, rather than all the files,
+   * are what blocks updates.
+   */
+  @Override
+  public int getStoreCompactionPriority() {
+    int blockingFileCount = conf.getInt(
+        HStore.BLOCKING_STOREFILES_KEY, HStore.DEFAULT_BLOCKING_STOREFILE_COUNT);
+    State state = this.state;
+    int maxStripeFiles = 0;
+    for (ImmutableList<StoreFile> stripe : state.stripeFiles) {
+      maxStripeFiles = Math.max(maxStripeFiles, stripe.size());
+    }
+    int priority = blockingFileCount - (state.level0Files.size() + maxStripeFiles);
+    return (priority == HStore.PRIORITY_USER) ? priority + 1 : priority;
+  }
+
+  @Override
+  public List<StoreFile> getLevel0Files() {
+    return state.level0Files;
+  }
+
+  @Override
+  public List<byte[]> getStripeBoundaries() {
+    return state.stripeBoundaries;
+  }
+
+  @Override
+  public List<ImmutableList<StoreFile>> getStripes() {
+    return state.stripeFiles;
+  }
+
+  @Override
+  public int getStripeCount() {
+    return state.stripeFiles.size();
+  }
+
+  /**
+   * @return the stripe that contains <code>row</code>; an open row is in the first stripe
+   */
+  private int findStripeForRow(State state, byte[] row) {
+    if (isOpen(row)) return 0;
+    // Stripe i starts at boundary i; find the last inner boundary at or before the row.
+    int low = 1, high = state.stripeBoundaries.size() - 2;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (compareRows(state.stripeBoundaries.get(mid), row) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low - 1;
+  }
+
+  /**
+   * @return the stripe with exactly the given boundaries, or -1
+   */
+  private int findStripe(State state, byte[][] boundaries) {
+    if (boundaries == null || state.stripeFiles.isEmpty()) return -1;
+    int stripe = isOpen(boundaries[0]) ? 0 : findStripeForRow(state, boundaries[0]);
+    if (rowsEqual(state.stripeBoundaries.get(stripe), boundaries[0])
+        && rowsEqual(state.stripeBoundaries.get(stripe + 1), boundaries[1])) {
+      return stripe;
+    }
+    return -1;
+  }
+
+  /**
+   * @return the start and end row of the stripe the file was written for, or null if
+   *   it belongs to L0
+   */
+  private byte[][] getStripeBoundaries(StoreFile sf) {
+    if (sf.isReference()) {
+      // Half of a file of the parent region; its stripe is not one of ours.
+      return null;
+    }
+    byte[] start = sf.getMetadataValue(STRIPE_START_KEY);
+    byte[] end = sf.getMetadataValue(STRIPE_END_KEY);
+    if (start == null || end == null) {
+      return null;
+    }
+    if (!isOpen(start) && !isOpen(end) && compareRows(start, end) >= 0) {
+      LOG.warn("Store file " + sf + " has an invalid stripe range ["
+          + Bytes.toStringBinary(start) + ", " + Bytes.toStringBinary(end) + ")");
+      return null;
+    }
+    return new byte[][] { start, end };
+  }
+
+  /**
+   * @return whether the sorted ranges are contiguous and cover exactly [start, end)
+   */
+  private boolean isCover(List<Range> ranges, byte[] start, byte[] end) {
+    if (!rowsEqual(ranges.get(0).start, start)
+        || !rowsEqual(ranges.get(ranges.size() - 1).end, end)) {
+      return false;
+    }
+    for (int i = 1; i < ranges.size(); ++i) {
+      byte[] previousEnd = ranges.get(i - 1).end;
+      if (isOpen(previousEnd) || compareRows(previousEnd, ranges.get(i).start) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addToRange(List<Range> ranges, byte[] start, byte[] end, StoreFile sf) {
+    for (Range range : ranges) {
+      if (rowsEqual(range.start, start) && rowsEqual(range.end, end)) {
+        range.files.add(sf);
+        return;
+      }
+    }
+    Range range = new Range(start, end);
+    range.files.add(sf);
+    ranges.add(range);
+  }
+
+  private void setStripes(State state, List<Range> stripes) {
+    if (stripes.isEmpty()) {
+      return;
+    }
+    ImmutableList.Builder<byte[]> boundaries = ImmutableList.builder();
+    ImmutableList.Builder<ImmutableList<StoreFile>> stripeFiles = ImmutableList.builder();
+    boundaries.add(OPEN_KEY);
+    for (Range stripe : stripes) {
+      boundaries.add(stripe.end);
+      stripeFiles.add(sortedCopy(stripe.files));
+    }
+    state.stripeBoundaries = boundaries.build();
+    state.stripeFiles = stripeFiles.build();
+  }
+
+  private void setState(State newState) {
+    List<StoreFile> allFiles = new ArrayList<StoreFile>(newState.level0Files);
+    for (ImmutableList<StoreFile> stripe : newState.stripeFiles) {
+      allFiles.addAll(stripe);
+    }
+    newState.allFilesCached = sortedCopy(allFiles);
+    this.state = newState;
+  }
+
+  private static ImmutableList<StoreFile> sortedCopy(List<StoreFile> files) {
+    List<StoreFile> sorted = new ArrayList<StoreFile>(files);
+    Collections.sort(sorted, StoreFile.Comparators.SEQ_ID);
+    return ImmutableList.copyOf(sorted);
+  }
+
+  private static ImmutableList<StoreFile> addToSortedCopy(List<StoreFile> files, StoreFile sf) {
+    List<StoreFile> newFiles = new ArrayList<StoreFile>(files);
+    newFiles.add(sf);
+    return sortedCopy(newFiles);
+  }
+
+  private static long getTotalSize(Collection<StoreFile> files) {
+    long size = 0;
+    for (StoreFile sf : files) {
+      StoreFile.Reader r = sf.getReader();
+      if (r != null) size += r.length();
+    }
+    return size;
+  }
+
+  private static boolean isOpen(byte[] key) {
+    return key == null || key.length == 0;
+  }
+
+  private boolean rowsEqual(byte[] a, byte[] b) {
+    if (isOpen(a) || isOpen(b)) return isOpen(a) && isOpen(b);
+    return compareRows(a, b) == 0;
+  }
+
+  private int compareRows(byte[] a, byte[] b) {
+    return kvComparator.compareRows(a, 0, a.length, b, 0, b.length);
+  }
+
+  /** Orders ranges by start row, an open start first. */
+  private final Comparator<Range> rangeComparator = new Comparator<Range>() {
+    @Override
+    public int compare(Range r1, Range r2) {
+      if (isOpen(r1.start) || isOpen(r2.start)) {
+        return (isOpen(r1.start) ? 0 : 1) - (isOpen(r2.start) ? 0 : 1);
+      }
+      return compareRows(r1.start, r2.start);
+    }
+  };
+
+  /** A key range, and the files of it. */
+  private static class Range {
+    final byte[] start;
+    final byte[] end;
+    final List<StoreFile> files = new ArrayList<StoreFile>();
+
+    Range(byte[] start, byte[] end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public String toString() {
+      return "[" + Bytes.toStringBinary(start) + ", " + Bytes.toStringBinary(end) + ")";
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.monitoring.MonitoredTask;
+import org.apache.hadoop.hbase.regionserver.compactions.StripeMultiFileWriter;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
+import org.apache.hadoop.hbase.util.CollectionBackedScanner;
+import org.apache.hadoop.util.StringUtils;
+
+/**
+ * Stripe implementation of StoreFlusher. Flushes the memstore into a file per stripe, so that
+ * the files go straight into the stripes; before the store has stripes, flushes into L0.
+ */
+@InterfaceAudience.Private
+public class StripeStoreFlusher extends StoreFlusher {
+  private static final Log LOG = LogFactory.getLog(StripeStoreFlusher.class);
+  private final StripeStoreFileManager stripes;
+
+  public StripeStoreFlusher(Configuration conf, Store store, StripeStoreFileManager stripes) {
+    super(conf, store);
+    this.stripes = stripes;
+  }
+
+  @Override
+  public List<Path> flushSnapshot(SortedSet<KeyValue> snapshot, long cacheFlushSeqNum,
+      TimeRangeTracker snapshotTimeRangeTracker, AtomicLong flushedSize, MonitoredTask status,
+      ThroughputController throughputController) throws IOException {
+    List<Path> result = new ArrayList<Path>();
+    if (snapshot.size() == 0) return result; // don't flush if there are no entries
+
+    long smallestReadPoint = store.getSmallestReadPoint();
+    KeyValueScanner memstoreScanner =
+        new CollectionBackedScanner(snapshot, store.getComparator());
+    InternalScanner scanner = preCreateCoprocScanner(memstoreScanner);
+    if (scanner == null) {
+      scanner = createStoreScanner(smallestReadPoint, memstoreScanner);
+    }
+    scanner = postCreateCoprocScanner(scanner);
+    if (scanner == null) {
+      return result; // NULL scanner returned from coprocessor hooks means skip normal processing
+    }
+
+    // Should the stripes change before the files are added, they go to L0 instead.
+    List<byte[]> boundaries = stripes.getStripeCount() > 0 ? stripes.getStripeBoundaries() : null;
+    final long maxKeyCount = snapshot.size();
+    StripeMultiFileWriter writer = new StripeMultiFileWriter(store.getComparator(), boundaries,
+        Long.MAX_VALUE, cacheFlushSeqNum, false, new StripeMultiFileWriter.WriterFactory() {
+          @Override
+          public StoreFile.Writer createWriter() throws IOException {
+            return store.createWriterInTmp(
+                maxKeyCount, store.getFamily().getCompression(), false, true);
+          }
+        });
+    long flushed = 0;
+    boolean success = false;
+    try {
+      status.setStatus("Flushing " + store + ": writing "
+          + (boundaries == null ? "L0" : (boundaries.size() - 1) + " stripes"));
+      flushed = performFlush(scanner, writer, smallestReadPoint, throughputController);
+      status.setStatus("Flushing " + store + ": closing flushed files");
+      result = writer.close();
+      success = true;
+    } finally {
+      if (!success) {
+        for (Path path : writer.abort()) {
+          store.getFileSystem().delete(path, false);
+        }
+      }
+      flushedSize.set(flushed);
+      scanner.close();
+    }
+    LOG.info("Flushed, sequenceid=" + cacheFlushSeqNum + ", memsize="
+        + StringUtils.humanReadableInt(flushed) + ", into " + result.size() + " tmp file(s)");
+    return result;
+  }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 
 
 /**
@@ -66,9 +67,11 @@ public abstract class CompactionContext {
 
   /**
    * Runs the compaction based on current selection. select/forceSelect must have been called.
+   * @param throughputController limits how fast the compaction writes.
    * @return The new file paths resulting from compaction.
    */
-  public abstract List<Path> compact() throws IOException;
+  public abstract List<Path> compact(ThroughputController throughputController)
+      throws IOException;
 
   public CompactionRequest getRequest() {
     assert hasSelection();
@@ -63,6 +63,20 @@ public abstract class CompactionPolicy {
   public abstract boolean needsCompaction(final Collection<StoreFile> storeFiles,
       final List<StoreFile> filesCompacting);
 
+  /**
+   * @param storefileCount Current number of store files.
+   * @return how close the store is to blocking updates: 0.0 while it has no more files than a
+   *   compaction needs, 1.0 at the blocking store file count
+   */
+  public double getCompactionPressure(int storefileCount) {
+    int minFiles = comConf.getMinFilesToCompact();
+    if (storefileCount <= minFiles) {
+      return 0.0;
+    }
+    long blockingFileCount = Math.max(minFiles + 1, storeConfigInfo.getBlockingFileCount());
+    return (double) (storefileCount - minFiles) / (blockingFileCount - minFiles);
+  }
+
   /**
    * Inform the policy that some configuration has been change,
    * so cached value should be updated it any.
@@ -18,8 +18,11 @@
 package org.apache.hadoop.hbase.regionserver.compactions;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -31,20 +34,27 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValue.KVComparator;
 import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.io.CellOutputStream;
 import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.hfile.HFileReaderV2;
 import org.apache.hadoop.hbase.io.hfile.HFileWriterV2;
 import org.apache.hadoop.hbase.regionserver.HStore;
 import org.apache.hadoop.hbase.regionserver.InternalScanner;
 import org.apache.hadoop.hbase.regionserver.MultiVersionConsistencyControl;
+import org.apache.hadoop.hbase.regionserver.RegionCoprocessorHost;
 import org.apache.hadoop.hbase.regionserver.ScanType;
 import org.apache.hadoop.hbase.regionserver.Store;
 import org.apache.hadoop.hbase.regionserver.StoreFile;
 import org.apache.hadoop.hbase.regionserver.StoreFileScanner;
 import org.apache.hadoop.hbase.regionserver.StoreScanner;
+import org.apache.hadoop.hbase.regionserver.throttle.NoLimitThroughputController;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputControlUtil;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.EnvironmentEdgeManager;
 import org.apache.hadoop.util.StringUtils;
 
 /**
@@ -54,12 +64,20 @@ import org.apache.hadoop.util.StringUtils;
 @InterfaceAudience.Private
 public abstract class Compactor {
   private static final Log LOG = LogFactory.getLog(Compactor.class);
+
+  /**
+   * Whether minor compactions of files that hold disjoint row ranges copy the data blocks of
+   * these files as they are, instead of merging their cells.
+   */
+  public static final String COMPACTION_COPY_DATA_BLOCKS_KEY =
+      "hbase.hstore.compaction.copy.data.blocks";
   protected CompactionProgress progress;
   protected Configuration conf;
   protected Store store;
 
   private int compactionKVMax;
   protected Compression.Algorithm compactionCompression;
+  private final boolean copyDataBlocks;
 
   //TODO: depending on Store is not good but, realistically, all compactors currently do.
   Compactor(final Configuration conf, final Store store) {
@@ -69,6 +87,7 @@ public abstract class Compactor {
       this.conf.getInt(HConstants.COMPACTION_KV_MAX, HConstants.COMPACTION_KV_MAX_DEFAULT);
     this.compactionCompression = (this.store.getFamily() == null) ?
         Compression.Algorithm.NONE : this.store.getFamily().getCompactionCompression();
+    this.copyDataBlocks = this.conf.getBoolean(COMPACTION_COPY_DATA_BLOCKS_KEY, false);
   }
 
   /**
@@ -81,15 +100,17 @@ public abstract class Compactor {
   /**
    * Do a minor/major compaction on an explicit set of storefiles from a Store.
    * @param request the requested compaction
+   * @param throughputController limits how fast the compaction writes
    * @return Product of compaction or an empty list if all cells expired or deleted and nothing made
    *         it through the compaction.
    * @throws IOException
    */
-  public abstract List<Path> compact(final CompactionRequest request) throws IOException;
+  public abstract List<Path> compact(final CompactionRequest request,
+      ThroughputController throughputController) throws IOException;
 
   /**
    * Compact a list of files for testing. Creates a fake {@link CompactionRequest} to pass to
-   * {@link #compact(CompactionRequest)};
+   * {@link #compact(CompactionRequest, ThroughputController)};
    * @param filesToCompact the files to compact. These are used as the compactionSelection for the
    *          generated {@link CompactionRequest}.
    * @param isMajor true to major compact (prune all deletes, max versions, etc)
@@ -101,7 +122,7 @@ public abstract class Compactor {
       throws IOException {
     CompactionRequest cr = new CompactionRequest(filesToCompact);
     cr.setIsMajor(isMajor);
-    return this.compact(cr);
+    return this.compact(cr, NoLimitThroughputController.INSTANCE);
   }
 
   public CompactionProgress getProgress() {
@@ -195,8 +216,8 @@ public abstract class Compactor {
   }
 
   @SuppressWarnings("deprecation")
-  protected boolean performCompaction(InternalScanner scanner,
-      CellSink writer, long smallestReadPoint) throws IOException {
+  protected boolean performCompaction(InternalScanner scanner, CellSink writer,
+      long smallestReadPoint, ThroughputController throughputController) throws IOException {
     int bytesWritten = 0;
     // Since scanner.next() can return 'false' but still be delivering data,
     // we have to use a do/while loop.
@@ -204,33 +225,163 @@ public abstract class Compactor {
     // Limit to "hbase.hstore.compaction.kv.max" (default 10) to avoid OOME
     int closeCheckInterval = HStore.getCloseCheckInterval();
     boolean hasMore;
-    do {
-      hasMore = scanner.next(kvs, compactionKVMax);
-      // output to writer:
-      for (Cell c : kvs) {
-        KeyValue kv = KeyValueUtil.ensureKeyValue(c);
-        if (kv.getMvccVersion() <= smallestReadPoint) {
-          kv.setMvccVersion(0);
+    String compactionName = ThroughputControlUtil.getNameForThrottling(store, "compaction");
+    throughputController.start(compactionName);
+    try {
+      do {
+        hasMore = scanner.next(kvs, compactionKVMax);
+        // output to writer:
+        for (Cell c : kvs) {
+          KeyValue kv = KeyValueUtil.ensureKeyValue(c);
+          if (kv.getMvccVersion() <= smallestReadPoint) {
+            kv.setMvccVersion(0);
+          }
+          writer.append(kv);
+          ++progress.currentCompactedKVs;
+          throughputController.control(compactionName, kv.getLength());
+
+          // check periodically to see if a system stop is requested
+          if (closeCheckInterval > 0) {
+            bytesWritten += kv.getLength();
+            if (bytesWritten > closeCheckInterval) {
+              bytesWritten = 0;
+              if (!store.areWritesEnabled()) {
+                progress.cancel();
+                return false;
+              }
+            }
+          }
+        }
+        kvs.clear();
+      } while (hasMore);
+    } catch (InterruptedException e) {
+      progress.cancel();
+      throw new InterruptedIOException("Interrupted while throttling compaction of " + store);
+    } finally {
+      throughputController.finish(compactionName);
+    }
+    progress.complete();
+    return true;
+  }
+
+  /**
+   * Finds whether a compaction can write its files out by copying their data blocks rather than
+   * by merging their cells: a minor compaction of files that each hold a row range of their
+   * own, with no expired cells and no coprocessor to see the cells. The copied cells keep their
+   * memstore timestamps, and versions past the maximum are left to the next major compaction.
+   * @return the files in row order, or null if their data blocks cannot be copied
+   */
+  protected List<StoreFile> getFilesToCopy(final CompactionRequest request) {
+    if (!copyDataBlocks || request.isMajor() || request.getFiles().size() < 2) {
+      return null;
+    }
+    RegionCoprocessorHost cpHost = store.getCoprocessorHost();
+    if (cpHost != null && cpHost.hasCompactionScannerObservers()) {
+      return null;
+    }
+    long ttl = store.getScanInfo().getTtl();
+    long oldestUnexpiredTs = ttl == Long.MAX_VALUE ?
+        Long.MIN_VALUE : EnvironmentEdgeManager.currentTimeMillis() - ttl;
+    List<StoreFile> files = new ArrayList<StoreFile>(request.getFiles());
+    for (StoreFile file : files) {
+      StoreFile.Reader r = file.getReader();
+      if (file.isReference() || r == null || r.getEntries() == 0) {
+        return null;
+      }
+      Long minTimestamp = file.getMinimumTimestamp();
+      if (minTimestamp == null || minTimestamp < oldestUnexpiredTs) {
+        return null;
+      }
+    }
+    final KVComparator comparator = store.getComparator();
+    Collections.sort(files, new Comparator<StoreFile>() {
+      @Override
+      public int compare(StoreFile left, StoreFile right) {
+        byte[] leftRow = left.getReader().getHFileReader().getFirstRowKey();
+        byte[] rightRow = right.getReader().getHFileReader().getFirstRowKey();
+        return comparator.compareRows(leftRow, 0, leftRow.length, rightRow, 0, rightRow.length);
+      }
+    });
+    byte[] lastRow = null;
+    for (StoreFile file : files) {
+      byte[] firstRow = file.getReader().getHFileReader().getFirstRowKey();
+      if (lastRow != null && comparator.compareRows(
+          lastRow, 0, lastRow.length, firstRow, 0, firstRow.length) >= 0) {
+        return null;
+      }
+      lastRow = file.getReader().getHFileReader().getLastRowKey();
+    }
+    return files;
+  }
+
+  /**
+   * Writes the files of a compaction out by copying their data blocks, in order.
+   * @param filesToCopy the files of the compaction, see {@link #getFilesToCopy(CompactionRequest)}
+   * @param throughputController limits how fast the compaction writes
+   * @return the new file, or null if the files do not store their data blocks as the new file
+   *   would
+   */
+  protected List<Path> copyDataBlocks(final CompactionRequest request, FileDetails fd,
+      List<StoreFile> filesToCopy, ThroughputController throughputController)
+      throws IOException {
+    StoreFile.Writer writer = store.createWriterInTmp(fd.maxKeyCount, this.compactionCompression,
+        true, true);
+    for (StoreFile file : filesToCopy) {
+      if (!writer.canCopyDataBlocks(file.getReader())) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Not copying the data blocks of " + file + " into " + writer.getPath()
+              + ", they are stored differently");
         }
-        writer.append(kv);
-        ++progress.currentCompactedKVs;
-
-        // check periodically to see if a system stop is requested
-        if (closeCheckInterval > 0) {
-          bytesWritten += kv.getLength();
-          if (bytesWritten > closeCheckInterval) {
-            bytesWritten = 0;
-            if (!store.areWritesEnabled()) {
-              progress.cancel();
-              return false;
+        abortWriter(writer);
+        return null;
+      }
+    }
+    int closeCheckInterval = HStore.getCloseCheckInterval();
+    int bytesWritten = 0;
+    String compactionName = ThroughputControlUtil.getNameForThrottling(store, "compaction");
+    boolean finished = false;
+    throughputController.start(compactionName);
+    try {
+      for (StoreFile file : filesToCopy) {
+        HFileReaderV2.DataBlockScanner blocks =
+            ((HFileReaderV2) file.getReader().getHFileReader()).getDataBlockScanner();
+        while (blocks.next()) {
+          writer.appendDataBlock(blocks);
+          int size = blocks.getBlock().getOnDiskSizeWithHeader();
+          progress.currentCompactedKVs += blocks.getKeyValues().size();
+          throughputController.control(compactionName, size);
+
+          // check periodically to see if a system stop is requested
+          if (closeCheckInterval > 0) {
+            bytesWritten += size;
+            if (bytesWritten > closeCheckInterval) {
+              bytesWritten = 0;
+              if (!store.areWritesEnabled()) {
+                progress.cancel();
+                throw new InterruptedIOException("Aborting compaction of store " + store +
+                    " in region " + store.getRegionInfo().getRegionNameAsString() +
+                    " because it was interrupted.");
+              }
             }
           }
         }
       }
-      kvs.clear();
-    } while (hasMore);
+      finished = true;
+    } catch (InterruptedException e) {
+      progress.cancel();
+      throw new InterruptedIOException("Interrupted while throttling compaction of " + store);
+    } finally {
+      throughputController.finish(compactionName);
+      if (!finished) {
+        abortWriter(writer);
+      }
+    }
     progress.complete();
-    return true;
+    writer.appendMetadata(fd.maxSeqId, request.isMajor());
+    writer.close();
+    List<Path> newFiles = new ArrayList<Path>();
+    newFiles.add(writer.getPath());
+    return newFiles;
   }
 
   protected void abortWriter(final StoreFile.Writer writer) throws IOException {
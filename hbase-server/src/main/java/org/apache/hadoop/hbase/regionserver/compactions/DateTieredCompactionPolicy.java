@@ -0,0 +1,176 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.compactions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.regionserver.StoreConfigInformation;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.util.EnvironmentEdgeManager;
+
+/**
+ * Compaction policy for time-series data, that groups the store files into time windows by
+ * the newest timestamp they hold and only compacts files of the same window together. Old
+ * data is thus not rewritten again and again together with the new flushes, and each file
+ * covers a narrow time range that scans with a time range can skip the file by.
+ * <p>
+ * The windows are laid out backwards from now: the newest ones are of the base size, and
+ * every {@link #WINDOWS_PER_TIER_KEY} windows of a tier make up a window of the next tier.
+ * Windows that ended more than {@link #MAX_STOREFILE_AGE_KEY} ago are frozen, and their files
+ * are not compacted any more. Files are only compacted in runs that are contiguous in
+ * sequence id order, as any compaction must.
+ * <p>
+ * There are no periodic major compactions. Delete markers, the cells they delete and, in the
+ * files that are no longer compacted, expired cells stay on disk until a major compaction is
+ * asked for.
+ * <p>
+ * To use it, set
+ * {@link org.apache.hadoop.hbase.regionserver.DefaultStoreEngine#DEFAULT_COMPACTION_POLICY_CLASS_KEY}
+ * to this class.
+ */
+@InterfaceAudience.Private
+public class DateTieredCompactionPolicy extends RatioBasedCompactionPolicy {
+  private static final Log LOG = LogFactory.getLog(DateTieredCompactionPolicy.class);
+
+  /** The size of the newest windows, in milliseconds. */
+  public static final String BASE_WINDOW_MILLIS_KEY =
+      "hbase.hstore.compaction.date.tiered.base.window.millis";
+  /** How many windows of a tier make up a window of the next one. */
+  public static final String WINDOWS_PER_TIER_KEY =
+      "hbase.hstore.compaction.date.tiered.windows.per.tier";
+  /** The age past which windows are frozen, in milliseconds. */
+  public static final String MAX_STOREFILE_AGE_KEY =
+      "hbase.hstore.compaction.date.tiered.max.storefile.age.millis";
+
+  private long baseWindowMillis;
+  private int windowsPerTier;
+  private long maxStoreFileAgeMillis;
+
+  public DateTieredCompactionPolicy(final Configuration conf,
+      final StoreConfigInformation storeConfigInfo) {
+    super(conf, storeConfigInfo);
+    readConf(conf);
+  }
+
+  @Override
+  public void setConf(Configuration conf) {
+    super.setConf(conf);
+    readConf(conf);
+  }
+
+  private void readConf(Configuration conf) {
+    this.baseWindowMillis = Math.max(1, conf.getLong(BASE_WINDOW_MILLIS_KEY, 6 * 3600 * 1000L));
+    this.windowsPerTier = Math.max(2, conf.getInt(WINDOWS_PER_TIER_KEY, 4));
+    this.maxStoreFileAgeMillis = conf.getLong(MAX_STOREFILE_AGE_KEY, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param candidates files to pick from, sorted by sequence id
+   * @return the newest run of files of the same window, not frozen, that has enough files;
+   *   or, if there is none and the store may be stuck, the ratio-based selection
+   */
+  @Override
+  ArrayList<StoreFile> applyCompactionPolicy(ArrayList<StoreFile> candidates,
+      boolean mayUseOffPeak, boolean mayBeStuck) throws IOException {
+    long now = EnvironmentEdgeManager.currentTimeMillis();
+    long frozenBefore =
+        maxStoreFileAgeMillis >= now ? Long.MIN_VALUE : now - maxStoreFileAgeMillis;
+    int minFiles = comConf.getMinFilesToCompact();
+
+    int runEnd = candidates.size();
+    while (runEnd > 0) {
+      Window window = getWindow(now, candidates.get(runEnd - 1).getReader().getMaxTimestamp());
+      int runStart = runEnd - 1;
+      while (runStart > 0 && getWindow(now,
+          candidates.get(runStart - 1).getReader().getMaxTimestamp()).start == window.start) {
+        --runStart;
+      }
+      if (runEnd - runStart >= minFiles && window.end() > frozenBefore) {
+        // Oldest files first; the remaining ones make a run of their own next time.
+        int end = Math.min(runEnd, runStart + comConf.getMaxFilesToCompact());
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Selecting " + (end - runStart) + " files of the time window starting at "
+              + window.start + ", " + window.size + "ms long");
+        }
+        return new ArrayList<StoreFile>(candidates.subList(runStart, end));
+      }
+      runEnd = runStart;
+    }
+    if (mayBeStuck) {
+      return super.applyCompactionPolicy(candidates, mayUseOffPeak, mayBeStuck);
+    }
+    return new ArrayList<StoreFile>();
+  }
+
+  /**
+   * Periodic major compactions would merge all the windows back together, so there are none;
+   * deletes are dropped by the major compactions that users ask for.
+   */
+  @Override
+  public boolean isMajorCompaction(Collection<StoreFile> filesToCompact) throws IOException {
+    return false;
+  }
+
+  /**
+   * @return the window the timestamp falls into, laid out back from now; timestamps
+   *   in the future fall into the newest window
+   */
+  Window getWindow(long now, long timestamp) {
+    Window window = new Window(baseWindowMillis, now / baseWindowMillis);
+    while (timestamp < window.start) {
+      window = window.previous();
+    }
+    return window;
+  }
+
+  /** A time window, the index-th of its size since the epoch. */
+  class Window {
+    final long size;
+    final long index;
+    final long start;
+
+    Window(long size, long index) {
+      this.size = size;
+      this.index = index;
+      this.start = size * index;
+    }
+
+    long end() {
+      return start + size;
+    }
+
+    /**
+     * @return the window right before this one; once a tier's worth of windows of this size
+     *   lies behind it, that is a window of the next tier
+     */
+    Window previous() {
+      if (index % windowsPerTier == 0 && size <= Long.MAX_VALUE / windowsPerTier / 2) {
+        long nextSize = size * windowsPerTier;
+        return new Window(nextSize, index / windowsPerTier - 1);
+      }
+      return new Window(size, index - 1);
+    }
+  }
+}
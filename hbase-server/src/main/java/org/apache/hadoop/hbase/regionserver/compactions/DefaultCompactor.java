@@ -30,9 +30,11 @@ import org.apache.hadoop.hbase.regionserver.InternalScanner;
 import org.apache.hadoop.hbase.regionserver.ScanType;
 import org.apache.hadoop.hbase.regionserver.StoreFile;
 import org.apache.hadoop.hbase.regionserver.StoreFileScanner;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 
 /**
- * Compact passed set of files. Create an instance and then call {@link #compact(CompactionRequest)}
+ * Compact passed set of files. Create an instance and then call
+ * {@link #compact(CompactionRequest, ThroughputController)}
  */
 @InterfaceAudience.Private
 public class DefaultCompactor extends Compactor {
@@ -43,10 +45,19 @@ public class DefaultCompactor extends Compactor {
   /**
    * Do a minor/major compaction on an explicit set of storefiles from a Store.
    */
-  public List<Path> compact(final CompactionRequest request) throws IOException {
+  public List<Path> compact(final CompactionRequest request,
+      ThroughputController throughputController) throws IOException {
     FileDetails fd = getFileDetails(request.getFiles(), request.isMajor());
     this.progress = new CompactionProgress(fd.maxKeyCount);
 
+    List<StoreFile> filesToCopy = getFilesToCopy(request);
+    if (filesToCopy != null) {
+      List<Path> newFiles = copyDataBlocks(request, fd, filesToCopy, throughputController);
+      if (newFiles != null) {
+        return newFiles;
+      }
+    }
+
     List<StoreFileScanner> scanners = createFileScanners(request.getFiles());
 
     StoreFile.Writer writer = null;
@@ -72,7 +83,8 @@ public class DefaultCompactor extends Compactor {
         // because we need record the max seq id for the store file, see HBASE-6059
         writer = store.createWriterInTmp(fd.maxKeyCount, this.compactionCompression, true,
             fd.maxMVCCReadpoint >= smallestReadPoint);
-        boolean finished = performCompaction(scanner, writer, smallestReadPoint);
+        boolean finished =
+            performCompaction(scanner, writer, smallestReadPoint, throughputController);
         if (!finished) {
           abortWriter(writer);
           writer = null;
@@ -0,0 +1,265 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.compactions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.regionserver.StoreConfigInformation;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.regionserver.StripeStoreConfig;
+import org.apache.hadoop.hbase.regionserver.StripeStoreFileManager;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Stripe store compaction policy. Picks, in this order:
+ * <ul>
+ * <li>on a forced major compaction, all the files, rewritten into the existing stripes;</li>
+ * <li>once L0 has enough files, all of them, split into the existing stripes, or into new
+ * stripes of the split size if there are none yet. This waits for other compactions to
+ * finish, as they may change the stripes;</li>
+ * <li>otherwise, the stripe with the most files, once it has enough of them. When all its
+ * files are compacted and it has grown over the split size, it is split into new stripes.</li>
+ * </ul>
+ * Each compaction but the forced one thus rewrites at most one stripe, or L0, however
+ * large the store grows.
+ */
+@InterfaceAudience.Private
+public class StripeCompactionPolicy extends CompactionPolicy {
+  private final static Log LOG = LogFactory.getLog(StripeCompactionPolicy.class);
+
+  /** The stripe structure of the store, as the policy needs it. */
+  public interface StripeInformationProvider {
+    Collection<StoreFile> getStorefiles();
+
+    /**
+     * @return the boundaries of the stripes, from the open start of the first to the open
+     *   end of the last; empty if there are no stripes
+     */
+    List<byte[]> getStripeBoundaries();
+
+    /**
+     * @return the files of each stripe, sorted by sequence id
+     */
+    List<ImmutableList<StoreFile>> getStripes();
+
+    /**
+     * @return the files that belong to no stripe, sorted by sequence id
+     */
+    List<StoreFile> getLevel0Files();
+
+    int getStripeCount();
+  }
+
+  private final StripeStoreConfig config;
+
+  public StripeCompactionPolicy(
+      Configuration conf, StoreConfigInformation storeConfigInfo, StripeStoreConfig config) {
+    super(conf, storeConfigInfo);
+    this.config = config;
+  }
+
+  public List<StoreFile> preSelectFilesForCoprocessor(
+      StripeInformationProvider si, List<StoreFile> filesCompacting) {
+    List<StoreFile> candidates = new ArrayList<StoreFile>(si.getStorefiles());
+    candidates.removeAll(filesCompacting);
+    return candidates;
+  }
+
+  /**
+   * @param si the stripes of the store
+   * @param filesCompacting files currently compacting
+   * @param forceMajor whether to compact all the files
+   * @return the compaction to run, or null if there is none
+   */
+  public StripeCompactionRequest selectCompaction(StripeInformationProvider si,
+      List<StoreFile> filesCompacting, boolean forceMajor) {
+    List<StoreFile> level0Files = si.getLevel0Files();
+    List<byte[]> boundaries = si.getStripeCount() > 0 ? si.getStripeBoundaries()
+        : Collections.nCopies(2, StripeStoreFileManager.OPEN_KEY);
+    if (forceMajor) {
+      if (!filesCompacting.isEmpty()) return null;
+      LOG.debug("Selecting all " + si.getStorefiles().size() + " files for a major compaction");
+      return new StripeCompactionRequest(si.getStorefiles(), boundaries,
+          getNewStripeSize(si), true);
+    }
+
+    if (level0Files.size() >= config.getLevel0MinFiles()) {
+      // Stripe compactions may change the stripes the L0 files are split into; wait for them.
+      if (!filesCompacting.isEmpty()) return null;
+      LOG.debug("Selecting " + level0Files.size() + " L0 files to compact into "
+          + Math.max(1, si.getStripeCount()) + " stripes");
+      long targetSize = getNewStripeSize(si);
+      return new StripeCompactionRequest(level0Files, boundaries, targetSize, false);
+    }
+    if (!Collections.disjoint(level0Files, filesCompacting)) {
+      // L0 is being compacted into the stripes.
+      return null;
+    }
+
+    int stripe = selectStripe(si, filesCompacting);
+    if (stripe < 0) {
+      return null;
+    }
+    List<StoreFile> files = si.getStripes().get(stripe);
+    List<byte[]> stripeBoundaries = si.getStripeBoundaries().subList(stripe, stripe + 2);
+    if (files.size() > config.getStripeCompactMaxFiles()) {
+      // Compact the oldest files, keeping the stripe as it is.
+      files = files.subList(0, config.getStripeCompactMaxFiles());
+      return new StripeCompactionRequest(files, stripeBoundaries, Long.MAX_VALUE, false);
+    }
+    long targetSize = getTotalSize(files) > config.getSizeToSplit()
+        ? config.getSplitPartSize() : Long.MAX_VALUE;
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Selecting all " + files.size() + " files of stripe ["
+          + Bytes.toStringBinary(stripeBoundaries.get(0)) + ", "
+          + Bytes.toStringBinary(stripeBoundaries.get(1)) + ")"
+          + (targetSize == Long.MAX_VALUE ? "" : " to split it"));
+    }
+    // No older data for the stripe is left anywhere else unless L0 has some.
+    return new StripeCompactionRequest(files, stripeBoundaries, targetSize, level0Files.isEmpty());
+  }
+
+  /**
+   * @return the target size of the files when rewriting all the stripes, or L0 into them:
+   *   only a store without stripes yet is split into new ones
+   */
+  private long getNewStripeSize(StripeInformationProvider si) {
+    return si.getStripeCount() > 0 ? Long.MAX_VALUE : config.getSplitPartSize();
+  }
+
+  /**
+   * @return whether L0 or some stripe has enough files to compact
+   */
+  public boolean needsCompactions(StripeInformationProvider si, List<StoreFile> filesCompacting) {
+    int level0Candidates = 0;
+    for (StoreFile sf : si.getLevel0Files()) {
+      if (!filesCompacting.contains(sf)) ++level0Candidates;
+    }
+    return level0Candidates >= config.getLevel0MinFiles()
+        || selectStripe(si, filesCompacting) >= 0;
+  }
+
+  /**
+   * @return the stripe with the most files, among those with none compacting that have
+   *   enough files, or are large enough to split; or -1
+   */
+  private int selectStripe(StripeInformationProvider si, List<StoreFile> filesCompacting) {
+    int best = -1, bestCount = 0;
+    long bestSize = 0;
+    List<ImmutableList<StoreFile>> stripes = si.getStripes();
+    for (int i = 0; i < stripes.size(); ++i) {
+      List<StoreFile> files = stripes.get(i);
+      if (files.isEmpty() || !Collections.disjoint(files, filesCompacting)) continue;
+      long size = getTotalSize(files);
+      boolean eligible = files.size() >= config.getStripeCompactMinFiles()
+          || (files.size() > 1 && size > config.getSizeToSplit());
+      if (eligible && (files.size() > bestCount || (files.size() == bestCount && size > bestSize))) {
+        best = i;
+        bestCount = files.size();
+        bestSize = size;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Stripe compactions never are major: deletes are dropped in the stripes compacted whole.
+   */
+  @Override
+  public boolean isMajorCompaction(Collection<StoreFile> filesToCompact) {
+    return false;
+  }
+
+  @Override
+  public boolean throttleCompaction(long compactionSize) {
+    return compactionSize > comConf.getThrottlePoint();
+  }
+
+  /**
+   * Without the stripes this can only tell whether there are enough files not being compacted
+   * for L0 or a single stripe to qualify; the store engine uses
+   * {@link #needsCompactions(StripeInformationProvider, List)} instead.
+   */
+  @Override
+  public boolean needsCompaction(Collection<StoreFile> storeFiles,
+      List<StoreFile> filesCompacting) {
+    int candidates = 0;
+    for (StoreFile sf : storeFiles) {
+      if (!filesCompacting.contains(sf)) ++candidates;
+    }
+    return candidates >= Math.min(config.getLevel0MinFiles(), config.getStripeCompactMinFiles());
+  }
+
+  private static long getTotalSize(Collection<StoreFile> files) {
+    long size = 0;
+    for (StoreFile sf : files) {
+      StoreFile.Reader r = sf.getReader();
+      if (r != null) size += r.length();
+    }
+    return size;
+  }
+
+  /**
+   * A compaction selected by the stripe policy, and how to write its results.
+   */
+  public static class StripeCompactionRequest extends CompactionRequest {
+    private final List<byte[]> targetBoundaries;
+    private final long targetSize;
+    private final boolean dropDeletes;
+
+    public StripeCompactionRequest(Collection<StoreFile> files, List<byte[]> targetBoundaries,
+        long targetSize, boolean dropDeletes) {
+      super(new ArrayList<StoreFile>(files));
+      this.targetBoundaries = targetBoundaries;
+      this.targetSize = targetSize;
+      this.dropDeletes = dropDeletes;
+    }
+
+    /**
+     * @return the boundaries of the stripes to write the results into
+     */
+    public List<byte[]> getTargetBoundaries() {
+      return targetBoundaries;
+    }
+
+    /**
+     * @return the size at which to start a new file within a stripe, splitting it
+     */
+    public long getTargetSize() {
+      return targetSize;
+    }
+
+    /**
+     * @return whether deletes can be dropped, the files being all the store has for
+     *   the stripes
+     */
+    public boolean isDropDeletes() {
+      return dropDeletes;
+    }
+  }
+}
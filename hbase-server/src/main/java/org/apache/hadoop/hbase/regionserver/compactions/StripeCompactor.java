@@ -0,0 +1,119 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.compactions;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.regionserver.InternalScanner;
+import org.apache.hadoop.hbase.regionserver.ScanType;
+import org.apache.hadoop.hbase.regionserver.Store;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.regionserver.StoreFileScanner;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
+
+/**
+ * Compactor of the stripe store. Writes the result of a compaction into a file per stripe,
+ * see {@link StripeMultiFileWriter}.
+ */
+@InterfaceAudience.Private
+public class StripeCompactor extends Compactor {
+  public StripeCompactor(final Configuration conf, final Store store) {
+    super(conf, store);
+  }
+
+  /**
+   * Compacts files selected outside of the stripe policy, e.g. by a coprocessor, into a single
+   * file that belongs to no stripe.
+   */
+  @Override
+  public List<Path> compact(final CompactionRequest request,
+      ThroughputController throughputController) throws IOException {
+    return compact(request, null, Long.MAX_VALUE, request.isMajor(), throughputController);
+  }
+
+  /**
+   * @param request the requested compaction
+   * @param boundaries the boundaries of the stripes to write the results into, or null to
+   *   write a single file that belongs to no stripe
+   * @param targetSize the size of the files to split the stripes into
+   * @param dropDeletes whether the files compacted are all the store has for their stripes,
+   *   so that deletes can be dropped, as in a major compaction
+   * @param throughputController limits how fast the compaction writes
+   * @return the new files
+   */
+  public List<Path> compact(final CompactionRequest request, List<byte[]> boundaries,
+      long targetSize, boolean dropDeletes, ThroughputController throughputController)
+      throws IOException {
+    FileDetails fd = getFileDetails(request.getFiles(), dropDeletes);
+    this.progress = new CompactionProgress(fd.maxKeyCount);
+
+    List<StoreFileScanner> scanners = createFileScanners(request.getFiles());
+
+    // Find the smallest read point across all the Scanners.
+    long smallestReadPoint = setSmallestReadPoint();
+    final long maxKeyCount = fd.maxKeyCount;
+    final boolean includeMVCCReadpoint = fd.maxMVCCReadpoint >= smallestReadPoint;
+    StripeMultiFileWriter writer = new StripeMultiFileWriter(store.getComparator(), boundaries,
+        targetSize, fd.maxSeqId, request.isMajor(), new StripeMultiFileWriter.WriterFactory() {
+          @Override
+          public StoreFile.Writer createWriter() throws IOException {
+            return store.createWriterInTmp(
+                maxKeyCount, compactionCompression, true, includeMVCCReadpoint);
+          }
+        });
+    boolean finished = false;
+    InternalScanner scanner = null;
+    try {
+      ScanType scanType =
+          dropDeletes ? ScanType.COMPACT_DROP_DELETES : ScanType.COMPACT_RETAIN_DELETES;
+      scanner = preCreateCoprocScanner(request, scanType, fd.earliestPutTs, scanners);
+      if (scanner == null) {
+        scanner = createScanner(store, scanners, scanType, smallestReadPoint, fd.earliestPutTs);
+      }
+      scanner = postCreateCoprocScanner(request, scanType, scanner);
+      if (scanner == null) {
+        // NULL scanner returned from coprocessor hooks means skip normal processing.
+        finished = true;
+        return new ArrayList<Path>();
+      }
+      finished = performCompaction(scanner, writer, smallestReadPoint, throughputController);
+      if (!finished) {
+        throw new InterruptedIOException("Aborting compaction of store " + store +
+            " in region " + store.getRegionInfo().getRegionNameAsString() +
+            " because it was interrupted.");
+      }
+    } finally {
+      if (scanner != null) {
+        scanner.close();
+      }
+      if (!finished) {
+        for (Path path : writer.abort()) {
+          store.getFileSystem().delete(path, false);
+        }
+      }
+    }
+    return writer.close();
+  }
+}
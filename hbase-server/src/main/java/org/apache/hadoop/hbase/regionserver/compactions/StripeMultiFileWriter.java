@@ -0,0 +1,167 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.compactions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.KeyValue.KVComparator;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.regionserver.StripeStoreFileManager;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Writes the cells of a flush or compaction, in order, into one file per stripe, and records
+ * the stripe of each file in its metadata. Within a stripe, starts a new file at the next row
+ * once the current one reaches the target size, which splits the stripe. Stripes without
+ * cells get no file.
+ */
+@InterfaceAudience.Private
+public class StripeMultiFileWriter implements Compactor.CellSink {
+  private static final Log LOG = LogFactory.getLog(StripeMultiFileWriter.class);
+
+  /** Creates the writers of the files. */
+  public interface WriterFactory {
+    StoreFile.Writer createWriter() throws IOException;
+  }
+
+  private final KVComparator comparator;
+  private final List<byte[]> boundaries;
+  private final long targetSize;
+  private final long maxSequenceId;
+  private final boolean majorCompaction;
+  private final WriterFactory writerFactory;
+
+  private final List<Path> paths = new ArrayList<Path>();
+  private int stripeIndex = 0;
+  private byte[] currentStart;
+  private StoreFile.Writer currentWriter;
+  private long currentSize;
+  private KeyValue lastKv;
+
+  /**
+   * @param comparator the comparator of the rows
+   * @param boundaries the boundaries of the stripes to write, from the start of the first to
+   *   the end of the last; null to write a single file that belongs to no stripe (L0)
+   * @param targetSize the size at which to start a new file within a stripe;
+   *   Long.MAX_VALUE not to split stripes
+   * @param maxSequenceId the sequence id to record in the files
+   * @param majorCompaction whether the files are the result of a major compaction
+   * @param writerFactory creates the writers
+   */
+  public StripeMultiFileWriter(KVComparator comparator, List<byte[]> boundaries, long targetSize,
+      long maxSequenceId, boolean majorCompaction, WriterFactory writerFactory) {
+    assert boundaries == null || boundaries.size() >= 2;
+    this.comparator = comparator;
+    this.boundaries = boundaries;
+    this.targetSize = targetSize;
+    this.maxSequenceId = maxSequenceId;
+    this.majorCompaction = majorCompaction;
+    this.writerFactory = writerFactory;
+    this.currentStart = boundaries == null ? null : boundaries.get(0);
+  }
+
+  @Override
+  public void append(KeyValue kv) throws IOException {
+    if (boundaries != null) {
+      // Move on to the stripe of the row.
+      while (stripeIndex < boundaries.size() - 2
+          && compareRow(kv, boundaries.get(stripeIndex + 1)) >= 0) {
+        closeCurrent(boundaries.get(stripeIndex + 1));
+        ++stripeIndex;
+        currentStart = boundaries.get(stripeIndex);
+      }
+      if (currentWriter != null && currentSize >= targetSize && !sameRow(kv, lastKv)) {
+        byte[] row = kv.getRow();
+        closeCurrent(row);
+        currentStart = row;
+      }
+    }
+    if (currentWriter == null) {
+      currentWriter = writerFactory.createWriter();
+    }
+    currentWriter.append(kv);
+    currentSize += kv.getLength();
+    lastKv = kv;
+  }
+
+  /**
+   * Closes the last file. If nothing at all was written, still writes an empty file, for the
+   * sequence id it records.
+   * @return the paths of the files written
+   */
+  public List<Path> close() throws IOException {
+    if (currentWriter == null && paths.isEmpty()) {
+      currentWriter = writerFactory.createWriter();
+    }
+    closeCurrent(boundaries == null ? null : boundaries.get(stripeIndex + 1));
+    return paths;
+  }
+
+  /**
+   * Closes the current file, if any, and gives up the files written.
+   * @return the paths of the files written, to delete
+   */
+  public List<Path> abort() throws IOException {
+    if (currentWriter != null) {
+      paths.add(currentWriter.getPath());
+      currentWriter.close();
+      currentWriter = null;
+    }
+    return paths;
+  }
+
+  private void closeCurrent(byte[] end) throws IOException {
+    if (currentWriter == null) {
+      return;
+    }
+    if (boundaries != null) {
+      currentWriter.appendFileInfo(StripeStoreFileManager.STRIPE_START_KEY, currentStart);
+      currentWriter.appendFileInfo(StripeStoreFileManager.STRIPE_END_KEY, end);
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Closing " + currentWriter.getPath() + " for stripe ["
+            + Bytes.toStringBinary(currentStart) + ", " + Bytes.toStringBinary(end) + ")");
+      }
+    }
+    currentWriter.appendMetadata(maxSequenceId, majorCompaction);
+    currentWriter.close();
+    paths.add(currentWriter.getPath());
+    currentWriter = null;
+    currentSize = 0;
+  }
+
+  private int compareRow(KeyValue kv, byte[] row) {
+    if (row.length == 0) {
+      // Open end.
+      return -1;
+    }
+    return comparator.compareRows(
+        kv.getBuffer(), kv.getRowOffset(), kv.getRowLength(), row, 0, row.length);
+  }
+
+  private boolean sameRow(KeyValue kv, KeyValue other) {
+    return other != null && comparator.compareRows(kv, other) == 0;
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.throttle;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.regionserver.compactions.OffPeakHours;
+
+/**
+ * Limits the compactions of a region server to between a lower and a higher bound, depending
+ * on the compaction pressure of its stores: the lower bound when no store has more files than
+ * it needs to compact, the higher one as the fullest store approaches the blocking store file
+ * count, and no limit past it, so that compactions never fall behind enough to block writes.
+ * The off-peak hours have a limit of their own.
+ */
+@InterfaceAudience.Private
+public class PressureAwareCompactionThroughputController
+    extends PressureAwareThroughputController {
+
+  public static final String HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_HIGHER_BOUND =
+      "hbase.hstore.compaction.throughput.higher.bound";
+  private static final long DEFAULT_HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_HIGHER_BOUND =
+      20L * 1024 * 1024;
+  public static final String HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_LOWER_BOUND =
+      "hbase.hstore.compaction.throughput.lower.bound";
+  private static final long DEFAULT_HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_LOWER_BOUND =
+      10L * 1024 * 1024;
+  public static final String HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_OFFPEAK =
+      "hbase.hstore.compaction.throughput.offpeak";
+  public static final String HBASE_HSTORE_COMPACTION_THROUGHPUT_TUNE_PERIOD =
+      "hbase.hstore.compaction.throughput.tune.period";
+  private static final long DEFAULT_HSTORE_COMPACTION_THROUGHPUT_TUNE_PERIOD = 60 * 1000;
+  public static final String HBASE_HSTORE_COMPACTION_THROUGHPUT_CONTROL_CHECK_INTERVAL =
+      "hbase.hstore.compaction.throughput.control.check.interval";
+
+  private final long maxThroughputHigherBound;
+  private final long maxThroughputLowerBound;
+  private final long maxThroughputOffPeak;
+  private final OffPeakHours offPeakHours;
+
+  public PressureAwareCompactionThroughputController(Configuration conf) {
+    super(conf.getLong(HBASE_HSTORE_COMPACTION_THROUGHPUT_CONTROL_CHECK_INTERVAL,
+        conf.getLong(HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_LOWER_BOUND,
+            DEFAULT_HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_LOWER_BOUND)),
+        conf.getLong(HBASE_HSTORE_COMPACTION_THROUGHPUT_TUNE_PERIOD,
+            DEFAULT_HSTORE_COMPACTION_THROUGHPUT_TUNE_PERIOD));
+    this.maxThroughputHigherBound = conf.getLong(
+        HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_HIGHER_BOUND,
+        DEFAULT_HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_HIGHER_BOUND);
+    this.maxThroughputLowerBound = conf.getLong(
+        HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_LOWER_BOUND,
+        DEFAULT_HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_LOWER_BOUND);
+    this.maxThroughputOffPeak =
+        conf.getLong(HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_OFFPEAK, Long.MAX_VALUE);
+    this.offPeakHours = OffPeakHours.getInstance(conf);
+  }
+
+  @Override
+  protected double tuneMaxThroughput() {
+    double compactionPressure = server == null ? 0.0 : server.getCompactionPressure();
+    if (compactionPressure > 1.0) {
+      // Some store is over the blocking file count; let the compactions catch up.
+      return Double.MAX_VALUE;
+    }
+    if (offPeakHours.isOffPeakHour()) {
+      return maxThroughputOffPeak == Long.MAX_VALUE ? Double.MAX_VALUE : maxThroughputOffPeak;
+    }
+    return maxThroughputLowerBound
+        + (maxThroughputHigherBound - maxThroughputLowerBound) * compactionPressure;
+  }
+}
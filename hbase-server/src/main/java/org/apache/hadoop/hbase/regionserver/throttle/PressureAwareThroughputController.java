@@ -0,0 +1,178 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.throttle;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+import org.apache.hadoop.hbase.util.EnvironmentEdgeManager;
+import org.apache.hadoop.util.StringUtils;
+
+/**
+ * Splits a limit that depends on how far behind the server is, as told by
+ * {@link #tuneMaxThroughput()}, evenly between the running operations. The limit is tuned
+ * again at most once per tuning period, as operations start and write.
+ */
+@InterfaceAudience.Private
+public abstract class PressureAwareThroughputController implements ThroughputController {
+  private static final Log LOG = LogFactory.getLog(PressureAwareThroughputController.class);
+
+  /** Stores the information of one running operation. */
+  private static final class ActiveOperation {
+    private final long startTime;
+    private volatile long totalSize;
+    private long lastControlTime;
+    private long lastControlSize;
+    private long numberOfSleeps;
+    private long totalSleepTime;
+
+    ActiveOperation(long now) {
+      this.startTime = now;
+      this.lastControlTime = now;
+    }
+  }
+
+  private final ConcurrentMap<String, ActiveOperation> activeOperations =
+      new ConcurrentHashMap<String, ActiveOperation>();
+  private final AtomicLong totalSleepTime = new AtomicLong();
+  private final long controlPerSize;
+  private final long tuningPeriod;
+
+  protected RegionServerServices server;
+  private volatile double maxThroughput = Double.MAX_VALUE;
+  private volatile long lastTuneTime = Long.MIN_VALUE;
+
+  /**
+   * @param controlPerSize bytes an operation writes between two checks of its rate
+   * @param tuningPeriod milliseconds between two tunings of the limit
+   */
+  protected PressureAwareThroughputController(long controlPerSize, long tuningPeriod) {
+    this.controlPerSize = controlPerSize;
+    this.tuningPeriod = tuningPeriod;
+  }
+
+  /**
+   * @return the limit for the current pressure, in bytes per second; or
+   *   {@link Double#MAX_VALUE} for none
+   */
+  protected abstract double tuneMaxThroughput();
+
+  @Override
+  public void setup(RegionServerServices server) {
+    this.server = server;
+  }
+
+  private void maybeTune(long now) {
+    if (lastTuneTime != Long.MIN_VALUE && now - lastTuneTime < tuningPeriod) {
+      return;
+    }
+    lastTuneTime = now;
+    double newMaxThroughput = tuneMaxThroughput();
+    if (newMaxThroughput != maxThroughput && LOG.isDebugEnabled()) {
+      LOG.debug(this + ": max throughput tuned to " + throughputDesc(newMaxThroughput));
+    }
+    maxThroughput = newMaxThroughput;
+  }
+
+  @Override
+  public void start(String name) {
+    long now = EnvironmentEdgeManager.currentTimeMillis();
+    maybeTune(now);
+    activeOperations.put(name, new ActiveOperation(now));
+  }
+
+  @Override
+  public long control(String name, long size) throws InterruptedException {
+    ActiveOperation operation = activeOperations.get(name);
+    operation.totalSize += size;
+    long deltaSize = operation.totalSize - operation.lastControlSize;
+    if (deltaSize < controlPerSize) {
+      return 0;
+    }
+    long now = EnvironmentEdgeManager.currentTimeMillis();
+    maybeTune(now);
+    operation.lastControlSize = operation.totalSize;
+    double maxThroughputPerOperation = maxThroughput / activeOperations.size();
+    long minTimeAllowed = (long) (deltaSize / maxThroughputPerOperation * 1000);
+    long elapsedTime = now - operation.lastControlTime;
+    if (elapsedTime >= minTimeAllowed) {
+      operation.lastControlTime = now;
+      return 0;
+    }
+    long sleepTime = minTimeAllowed - elapsedTime;
+    Thread.sleep(sleepTime);
+    operation.numberOfSleeps++;
+    operation.totalSleepTime += sleepTime;
+    totalSleepTime.addAndGet(sleepTime);
+    operation.lastControlTime = EnvironmentEdgeManager.currentTimeMillis();
+    return sleepTime;
+  }
+
+  @Override
+  public void finish(String name) {
+    ActiveOperation operation = activeOperations.remove(name);
+    if (operation != null && LOG.isDebugEnabled()) {
+      long elapsedTime = Math.max(1, EnvironmentEdgeManager.currentTimeMillis()
+          - operation.startTime);
+      LOG.debug(name + " average throughput is "
+          + throughputDesc(operation.totalSize * 1000.0 / elapsedTime) + ", slept "
+          + operation.numberOfSleeps + " time(s) and total slept time is "
+          + operation.totalSleepTime + " ms. " + activeOperations.size()
+          + " active operations remaining, total limit is " + throughputDesc(maxThroughput));
+    }
+  }
+
+  @Override
+  public double getMaxThroughput() {
+    return maxThroughput;
+  }
+
+  @Override
+  public double getCurrentThroughput() {
+    long now = EnvironmentEdgeManager.currentTimeMillis();
+    double throughput = 0;
+    for (ActiveOperation operation : activeOperations.values()) {
+      throughput += operation.totalSize * 1000.0 / Math.max(1, now - operation.startTime);
+    }
+    return throughput;
+  }
+
+  @Override
+  public long getTotalSleepTime() {
+    return totalSleepTime.get();
+  }
+
+  protected static String throughputDesc(double speed) {
+    if (speed >= Double.MAX_VALUE) {
+      return "unlimited";
+    }
+    return StringUtils.humanReadableInt((long) speed) + "/sec";
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " [maxThroughput=" + throughputDesc(maxThroughput)
+        + ", activeOperations=" + activeOperations.size() + "]";
+  }
+}
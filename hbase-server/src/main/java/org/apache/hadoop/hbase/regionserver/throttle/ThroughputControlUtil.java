@@ -0,0 +1,82 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.throttle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+import org.apache.hadoop.hbase.regionserver.Store;
+import org.apache.hadoop.hbase.util.ReflectionUtils;
+
+/**
+ * Creates the throughput controllers of a region server, and names the operations they control.
+ */
+@InterfaceAudience.Private
+public final class ThroughputControlUtil {
+  private static final Log LOG = LogFactory.getLog(ThroughputControlUtil.class);
+
+  /** The {@link ThroughputController} class for the compactions. */
+  public static final String COMPACTION_THROUGHPUT_CONTROLLER_KEY =
+      "hbase.regionserver.compaction.throughput.controller";
+  /** The {@link ThroughputController} class for the flushes. */
+  public static final String FLUSH_THROUGHPUT_CONTROLLER_KEY =
+      "hbase.regionserver.flush.throughput.controller";
+
+  private static final AtomicInteger NAME_COUNTER = new AtomicInteger(0);
+
+  private ThroughputControlUtil() {
+  }
+
+  /**
+   * @return a unique name for the operation on the store, to pass to a controller
+   */
+  public static String getNameForThrottling(Store store, String opName) {
+    return store.getRegionInfo().getEncodedName() + "#" + store.getColumnFamilyName() + "#"
+        + opName + "#" + NAME_COUNTER.getAndIncrement();
+  }
+
+  public static ThroughputController createCompactionThroughputController(
+      RegionServerServices server, Configuration conf) {
+    return create(server, conf, COMPACTION_THROUGHPUT_CONTROLLER_KEY);
+  }
+
+  public static ThroughputController createFlushThroughputController(
+      RegionServerServices server, Configuration conf) {
+    return create(server, conf, FLUSH_THROUGHPUT_CONTROLLER_KEY);
+  }
+
+  private static ThroughputController create(
+      RegionServerServices server, Configuration conf, String key) {
+    String className = conf.get(key, NoLimitThroughputController.class.getName());
+    ThroughputController controller;
+    try {
+      controller = ReflectionUtils.instantiateWithCustomCtor(className,
+          new Class[] { Configuration.class }, new Object[] { conf });
+    } catch (Exception e) {
+      LOG.warn("Unable to create " + className + " from " + key + ", not limiting throughput", e);
+      controller = new NoLimitThroughputController();
+    }
+    controller.setup(server);
+    return controller;
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.throttle;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+
+/**
+ * Limits the rate at which compactions or flushes write, shared by all those running on a
+ * region server. Each operation calls {@link #start(String)}, then {@link #control(String, long)}
+ * as it writes, which sleeps as needed, and {@link #finish(String)} when it is done.
+ */
+@InterfaceAudience.Private
+public interface ThroughputController {
+
+  /**
+   * Called once, before any operation starts.
+   * @param server the region server the operations run on; null outside of one
+   */
+  void setup(RegionServerServices server);
+
+  /**
+   * @param name unique name of the operation, see {@link ThroughputControlUtil}
+   */
+  void start(String name);
+
+  /**
+   * Accounts for the bytes written and sleeps if the operation goes faster than allowed.
+   * @param name name of the operation, as passed to {@link #start(String)}
+   * @param size bytes written since the last call
+   * @return the time slept, in milliseconds
+   */
+  long control(String name, long size) throws InterruptedException;
+
+  /**
+   * @param name name of the operation, as passed to {@link #start(String)}
+   */
+  void finish(String name);
+
+  /**
+   * @return the current limit for all the operations, in bytes per second; or
+   *   {@link Double#MAX_VALUE} if there is none
+   */
+  double getMaxThroughput();
+
+  /**
+   * @return the rate all the running operations write at, in bytes per second
+   */
+  double getCurrentThroughput();
+
+  /**
+   * @return the time all the operations have slept for so far, in milliseconds
+   */
+  long getTotalSleepTime();
+}
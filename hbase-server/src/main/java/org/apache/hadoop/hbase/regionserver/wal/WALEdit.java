@@ -85,7 +85,7 @@ public class WALEdit implements Writable, HeapSize {
   private final int VERSION_2 = -1;
   private final boolean isReplay;
 
-  private final ArrayList<KeyValue> kvs = new ArrayList<KeyValue>();
+  private final ArrayList<KeyValue> kvs;
 
   // Only here for legacy writable deserialization
   @Deprecated
@@ -99,6 +99,15 @@ public class WALEdit implements Writable, HeapSize {
 
   public WALEdit(boolean isReplay) {
     this.isReplay = isReplay;
+    this.kvs = new ArrayList<KeyValue>();
+  }
+
+  /**
+   * @param expectedSize how many KeyValues the edit is expected to hold
+   */
+  public WALEdit(boolean isReplay, int expectedSize) {
+    this.isReplay = isReplay;
+    this.kvs = new ArrayList<KeyValue>(expectedSize);
   }
 
   /**
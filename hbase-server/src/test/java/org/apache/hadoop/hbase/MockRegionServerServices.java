@@ -40,6 +40,8 @@ import org.apache.hadoop.hbase.regionserver.HRegion;
 import org.apache.hadoop.hbase.regionserver.Leases;
 import org.apache.hadoop.hbase.regionserver.RegionServerAccounting;
 import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+import org.apache.hadoop.hbase.regionserver.throttle.NoLimitThroughputController;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 import org.apache.hadoop.hbase.regionserver.wal.HLog;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.zookeeper.ZooKeeperWatcher;
@@ -217,6 +219,26 @@ class MockRegionServerServices implements RegionServerServices {
     return null;
   }
 
+  @Override
+  public ThroughputController getCompactionThroughputController() {
+    return NoLimitThroughputController.INSTANCE;
+  }
+
+  @Override
+  public ThroughputController getFlushThroughputController() {
+    return NoLimitThroughputController.INSTANCE;
+  }
+
+  @Override
+  public double getCompactionPressure() {
+    return 0;
+  }
+
+  @Override
+  public double getFlushPressure() {
+    return 0;
+  }
+
   @Override
   public int getPriority(RPCProtos.RequestHeader header, Message param) {
     return 0;
@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.MediumTests;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.regionserver.HRegionServer;
+import org.apache.hadoop.hbase.regionserver.NoSuchColumnFamilyException;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
+@Category(MediumTests.class)
+public class TestAsyncTable {
+  private final static HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+  private static final byte[] FAMILY = Bytes.toBytes("testFamily");
+  private static final byte[] QUALIFIER = Bytes.toBytes("testQualifier");
+  private static final byte[] VALUE = Bytes.toBytes("testValue");
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    TEST_UTIL.startMiniCluster(2);
+  }
+
+  @AfterClass
+  public static void tearDownAfterClass() throws Exception {
+    TEST_UTIL.shutdownMiniCluster();
+  }
+
+  @Test
+  public void testSingleOperations() throws Exception {
+    TableName tableName = TableName.valueOf("testSingleOperations");
+    TEST_UTIL.createTable(tableName, FAMILY).close();
+    AsyncTable table = new AsyncTable(TEST_UTIL.getConfiguration(), tableName);
+    try {
+      byte[] row = Bytes.toBytes("row");
+      Put put = new Put(row);
+      put.add(FAMILY, QUALIFIER, VALUE);
+      table.put(put).get();
+      assertArrayEquals(VALUE, table.get(new Get(row)).get().getValue(FAMILY, QUALIFIER));
+
+      byte[] counter = Bytes.toBytes("counter");
+      Increment increment = new Increment(row);
+      increment.addColumn(FAMILY, counter, 2);
+      table.increment(increment).get();
+      Result result = table.increment(increment).get();
+      assertEquals(4, Bytes.toLong(result.getValue(FAMILY, counter)));
+
+      Put other = new Put(row);
+      other.add(FAMILY, QUALIFIER, Bytes.toBytes("other"));
+      assertFalse(table.checkAndPut(row, FAMILY, QUALIFIER, Bytes.toBytes("wrong"), other).get());
+      assertTrue(table.checkAndPut(row, FAMILY, QUALIFIER, VALUE, other).get());
+      Delete delete = new Delete(row);
+      assertTrue(table.checkAndDelete(row, FAMILY, QUALIFIER, Bytes.toBytes("other"), delete)
+          .get());
+      assertTrue(table.get(new Get(row)).get().isEmpty());
+
+      table.put(put).get();
+      table.delete(new Delete(row)).get();
+      assertTrue(table.get(new Get(row)).get().isEmpty());
+    } finally {
+      table.close();
+    }
+  }
+
+  @Test
+  public void testBatchAndCallbacks() throws Exception {
+    TableName tableName = TableName.valueOf("testBatchAndCallbacks");
+    TEST_UTIL.createTable(tableName, new byte[][] { FAMILY }, 1, Bytes.toBytes("aaaaa"),
+        Bytes.toBytes("zzzzz"), 5).close();
+    AsyncTable table = new AsyncTable(TEST_UTIL.getConfiguration(), tableName);
+    try {
+      List<Row> puts = new ArrayList<Row>();
+      List<Row> gets = new ArrayList<Row>();
+      for (char c = 'a'; c <= 'z'; c++) {
+        byte[] row = Bytes.toBytes(c + "row");
+        Put put = new Put(row);
+        put.add(FAMILY, QUALIFIER, row);
+        puts.add(put);
+        gets.add(new Get(row));
+      }
+      assertEquals(puts.size(), table.batch(puts).get().length);
+
+      final CountDownLatch latch = new CountDownLatch(1);
+      final AtomicReference<Object[]> results = new AtomicReference<Object[]>();
+      Futures.addCallback(table.batch(gets), new FutureCallback<Object[]>() {
+        @Override
+        public void onSuccess(Object[] result) {
+          results.set(result);
+          latch.countDown();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          latch.countDown();
+        }
+      });
+      latch.await();
+      assertEquals(gets.size(), results.get().length);
+      for (int i = 0; i < gets.size(); i++) {
+        byte[] row = gets.get(i).getRow();
+        assertArrayEquals(row, ((Result) results.get()[i]).getValue(FAMILY, QUALIFIER));
+      }
+    } finally {
+      table.close();
+    }
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    TableName tableName = TableName.valueOf("testFailure");
+    TEST_UTIL.createTable(tableName, FAMILY).close();
+    AsyncTable table = new AsyncTable(TEST_UTIL.getConfiguration(), tableName);
+    try {
+      Put put = new Put(Bytes.toBytes("row"));
+      put.add(Bytes.toBytes("noSuchFamily"), QUALIFIER, VALUE);
+      try {
+        table.put(put).get();
+        fail("Put to a missing family should fail");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof NoSuchColumnFamilyException);
+      }
+      List<Row> actions = new ArrayList<Row>();
+      actions.add(put);
+      actions.add(new Get(Bytes.toBytes("row")));
+      try {
+        table.batch(actions).get();
+        fail("Put to a missing family should fail");
+      } catch (ExecutionException e) {
+        RetriesExhaustedWithDetailsException ree =
+            (RetriesExhaustedWithDetailsException) e.getCause();
+        assertEquals(1, ree.getNumExceptions());
+        assertTrue(ree.getRow(0) == put);
+      }
+    } finally {
+      table.close();
+    }
+  }
+
+  @Test
+  public void testRegionMoved() throws Exception {
+    TableName tableName = TableName.valueOf("testRegionMoved");
+    HTable htable = TEST_UTIL.createTable(tableName, FAMILY);
+    byte[] row = Bytes.toBytes("row");
+    Put put = new Put(row);
+    put.add(FAMILY, QUALIFIER, VALUE);
+    htable.put(put);
+    AsyncTable table = new AsyncTable(tableName, htable.getConnection());
+    try {
+      // Cache the location, then move the region away from it.
+      assertArrayEquals(VALUE, table.get(new Get(row)).get().getValue(FAMILY, QUALIFIER));
+      HRegionLocation location = htable.getRegionLocation(row);
+      byte[] regionName = location.getRegionInfo().getRegionName();
+      HRegionServer destServer = null;
+      for (int i = 0; i < 2; i++) {
+        HRegionServer rs = TEST_UTIL.getMiniHBaseCluster().getRegionServer(i);
+        if (!rs.getServerName().equals(location.getServerName())) destServer = rs;
+      }
+      ServerName dest = destServer.getServerName();
+      TEST_UTIL.getHBaseAdmin().move(location.getRegionInfo().getEncodedNameAsBytes(),
+          Bytes.toBytes(dest.getServerName()));
+      while (destServer.getOnlineRegion(regionName) == null || TEST_UTIL.getMiniHBaseCluster()
+          .getMaster().getAssignmentManager().getRegionStates().isRegionsInTransition()) {
+        Thread.sleep(10);
+      }
+      assertArrayEquals(VALUE, table.get(new Get(row)).get().getValue(FAMILY, QUALIFIER));
+      assertEquals(dest, htable.getConnection().locateRegion(tableName, row).getServerName());
+    } finally {
+      table.close();
+      htable.close();
+    }
+  }
+}
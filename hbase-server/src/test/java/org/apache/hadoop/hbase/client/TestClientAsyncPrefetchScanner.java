@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.MediumTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Tests that a scan prefetching in the background returns the same rows, in order, across
+ * several regions, and that it can be closed while a fetch is outstanding.
+ */
+@Category(MediumTests.class)
+public class TestClientAsyncPrefetchScanner {
+  private final static HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+
+  private static final TableName TABLE_NAME =
+      TableName.valueOf("testClientAsyncPrefetchScanner");
+  private static final byte[] FAMILY = Bytes.toBytes("f");
+  private static final byte[] QUALIFIER = Bytes.toBytes("q");
+  private static final int NUM_ROWS = 1000;
+  private static final int CACHING = 10;
+
+  private static HTable table;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    TEST_UTIL.startMiniCluster();
+    byte[][] splits = new byte[][] { row(250), row(500), row(750) };
+    HTable loader = TEST_UTIL.createTable(TABLE_NAME, FAMILY, splits);
+    List<Put> puts = new ArrayList<Put>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Put p = new Put(row(i));
+      p.setDurability(Durability.SKIP_WAL);
+      p.add(FAMILY, QUALIFIER, Bytes.toBytes(i));
+      puts.add(p);
+    }
+    loader.put(puts);
+    loader.flushCommits();
+    loader.close();
+
+    Configuration conf = HBaseConfiguration.create(TEST_UTIL.getConfiguration());
+    conf.setBoolean(HConstants.HBASE_CLIENT_SCANNER_ASYNC_PREFETCH_KEY, true);
+    // A few batches ahead at most.
+    conf.setLong(HConstants.HBASE_CLIENT_SCANNER_MAX_PREFETCH_SIZE_KEY, 4 * 1024);
+    table = new HTable(conf, TABLE_NAME);
+  }
+
+  @AfterClass
+  public static void tearDownAfterClass() throws Exception {
+    table.close();
+    TEST_UTIL.shutdownMiniCluster();
+  }
+
+  private static byte[] row(int i) {
+    return Bytes.toBytes(String.format("row%04d", i));
+  }
+
+  @Test
+  public void testPrefetchedScanReturnsAllRows() throws Exception {
+    Scan scan = new Scan();
+    scan.setCaching(CACHING);
+    scan.setAttribute(Scan.SCAN_ATTRIBUTES_METRICS_ENABLE, Bytes.toBytes(Boolean.TRUE));
+    ResultScanner scanner = table.getScanner(scan);
+    assertTrue(scanner instanceof ClientAsyncPrefetchScanner);
+    int i = 0;
+    for (Result r : scanner) {
+      assertEquals(i, Bytes.toInt(r.getValue(FAMILY, QUALIFIER)));
+      i++;
+    }
+    assertEquals(NUM_ROWS, i);
+    assertNull(scanner.next());
+    scanner.close();
+
+    byte[] metricsBytes = scan.getAttribute(Scan.SCAN_ATTRIBUTES_METRICS_DATA);
+    assertNotNull(metricsBytes);
+    ScanMetrics metrics = ProtobufUtil.toScanMetrics(metricsBytes);
+    assertEquals(4, metrics.countOfRegions.get());
+    assertTrue(metrics.getMetricsMap().containsKey("MILLIS_WAITING_FOR_PREFETCH"));
+  }
+
+  @Test
+  public void testScanOverridesConfiguration() throws Exception {
+    Scan scan = new Scan();
+    scan.setAsyncPrefetch(false);
+    ResultScanner scanner = table.getScanner(scan);
+    assertTrue(!(scanner instanceof ClientAsyncPrefetchScanner));
+    scanner.close();
+  }
+
+  @Test
+  public void testCloseWhilePrefetching() throws Exception {
+    for (int attempt = 0; attempt < 10; attempt++) {
+      Scan scan = new Scan();
+      scan.setCaching(CACHING);
+      ResultScanner scanner = table.getScanner(scan);
+      for (int i = 0; i < CACHING * attempt + 1; i++) {
+        assertEquals(i, Bytes.toInt(scanner.next().getValue(FAMILY, QUALIFIER)));
+      }
+      scanner.close();
+      assertNull(scanner.next());
+    }
+  }
+}
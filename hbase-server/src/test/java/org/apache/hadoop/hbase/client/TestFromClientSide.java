@@ -4724,6 +4724,46 @@ public class TestFromClientSide {
 
   }
 
+  @Test
+  public void testBatchedCheckAndMutate() throws Exception {
+    final byte [] anotherrow = Bytes.toBytes("anotherrow");
+    final byte [] value2 = Bytes.toBytes("abcd");
+
+    HTable table = TEST_UTIL.createTable(Bytes.toBytes("testBatchedCheckAndMutate"),
+      new byte [][] {FAMILY});
+    Put put1 = new Put(ROW);
+    put1.add(FAMILY, QUALIFIER, VALUE);
+    table.put(put1);
+
+    Put put2 = new Put(ROW);
+    put2.add(FAMILY, QUALIFIER, value2);
+    Put put3 = new Put(anotherrow);
+    put3.add(FAMILY, QUALIFIER, VALUE);
+    Delete delete = new Delete(anotherrow);
+    List<CheckAndMutate> checks = new ArrayList<CheckAndMutate>();
+    checks.add(new CheckAndMutate(FAMILY, QUALIFIER, VALUE, put2));
+    // The row exists, so this one does not match.
+    checks.add(new CheckAndMutate(FAMILY, QUALIFIER, (byte[])null, put1));
+    checks.add(new CheckAndMutate(FAMILY, QUALIFIER, (byte[])null, put3));
+    checks.add(new CheckAndMutate(FAMILY, QUALIFIER, value2, delete));
+    boolean[] processed = table.checkAndMutate(checks);
+    assertTrue(Arrays.equals(new boolean[] {true, false, true, false}, processed));
+    assertTrue(Bytes.equals(value2, table.get(new Get(ROW)).getValue(FAMILY, QUALIFIER)));
+    assertTrue(Bytes.equals(VALUE, table.get(new Get(anotherrow)).getValue(FAMILY, QUALIFIER)));
+
+    // Mixed with other actions in a batch.
+    List<Row> actions = new ArrayList<Row>();
+    actions.add(new Get(ROW));
+    actions.add(new CheckAndMutate(FAMILY, QUALIFIER, VALUE, delete));
+    actions.add(put1);
+    Object[] results = table.batch(actions);
+    assertTrue(Bytes.equals(value2, ((Result)results[0]).getValue(FAMILY, QUALIFIER)));
+    assertEquals(Boolean.TRUE, results[1]);
+    assertTrue(results[2] instanceof Result);
+    assertTrue(table.get(new Get(anotherrow)).isEmpty());
+    assertTrue(Bytes.equals(VALUE, table.get(new Get(ROW)).getValue(FAMILY, QUALIFIER)));
+  }
+
   /**
   * Test ScanMetrics
   * @throws Exception
@@ -21,9 +21,11 @@ package org.apache.hadoop.hbase.client;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,6 +38,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 @Category(LargeTests.class)
 public class TestHTableMultiplexer {
   final Log LOG = LogFactory.getLog(getClass());
@@ -134,4 +138,45 @@ public class TestHTableMultiplexer {
           Bytes.compareTo(VALUE2, r.getValue(FAMILY, QUALIFIER)) != 0);
     }
   }
+
+  @Test
+  public void testSubmitWaitsForRoom() throws Exception {
+    TableName TABLE = TableName.valueOf("testSubmitWaitsForRoom");
+    HTable ht = TEST_UTIL.createTable(TABLE, FAMILY);
+    TEST_UTIL.waitUntilAllRegionsAssigned(TABLE);
+    // A queue of one put: every put after the first has to wait for the flushes.
+    HTableMultiplexer multiplexer = new HTableMultiplexer(TEST_UTIL.getConfiguration(), 1);
+
+    List<ListenableFuture<Void>> futures = new ArrayList<ListenableFuture<Void>>();
+    for (int i = 0; i < 20; i++) {
+      Put put = new Put(Bytes.toBytes("row" + i));
+      put.add(FAMILY, QUALIFIER, VALUE1);
+      futures.add(multiplexer.submit(TABLE, put));
+    }
+    for (ListenableFuture<Void> future : futures) {
+      future.get();
+    }
+    for (int i = 0; i < 20; i++) {
+      Result r = ht.get(new Get(Bytes.toBytes("row" + i)));
+      assertEquals(0, Bytes.compareTo(VALUE1, r.getValue(FAMILY, QUALIFIER)));
+    }
+
+    HTableMultiplexer.HTableMultiplexerStatus status =
+        multiplexer.getHTableMultiplexerStatus();
+    assertEquals(0, status.getTotalFailedCounter());
+    assertTrue(status.getOverallLatencyPercentile(50) <=
+        status.getOverallLatencyPercentile(99));
+    assertEquals(1, status.getLatencyPercentileForEachRegionServer(99).size());
+
+    // A put to a missing family fails its future once its retries are used up.
+    Put bad = new Put(Bytes.toBytes("row"));
+    bad.add(Bytes.toBytes("noSuchFamily"), QUALIFIER, VALUE1);
+    try {
+      multiplexer.submit(TABLE, bad).get();
+      fail("Put to a missing family should fail");
+    } catch (ExecutionException e) {
+      // expected
+    }
+    ht.close();
+  }
 }
@@ -548,6 +548,32 @@ public class TestMultiParallel {
     table.close();
   }
 
+  @Test(timeout=300000)
+  public void testBatchWithGetsOfPriorMutations() throws Exception {
+    LOG.info("test=testBatchWithGetsOfPriorMutations");
+    HTable table = new HTable(UTIL.getConfiguration(), TEST_TABLE);
+    table.delete(new Delete(ONE_ROW));
+
+    // All on one row, so they go to the region server in one multi, in this order.
+    List<Row> actions = new ArrayList<Row>();
+    Put put = new Put(ONE_ROW);
+    put.add(BYTES_FAMILY, QUALIFIER, VALUE);
+    actions.add(put);
+    actions.add(new Get(ONE_ROW));
+    actions.add(new Delete(ONE_ROW));
+    actions.add(new Get(ONE_ROW));
+
+    Object[] results = table.batch(actions);
+
+    // Results come back in the order of the actions, and each get sees the mutations
+    // before it.
+    validateEmpty(results[0]);
+    validateResult(results[1]);
+    validateEmpty(results[2]);
+    validateEmpty(results[3]);
+    table.close();
+  }
+
   // // Helper methods ////
 
   private void validateResult(Object r) {
@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.MediumTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Tests that rows bigger than the scan's max result size come back from the server in parts,
+ * and that the client puts them back together unless the scan allows partial results.
+ */
+@Category(MediumTests.class)
+public class TestPartialResultsFromClientSide {
+  private final static HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+
+  private static final TableName TABLE_NAME =
+      TableName.valueOf("testPartialResultsFromClientSide");
+  private static final byte[] FAMILY = Bytes.toBytes("f");
+  private static final int NUM_ROWS = 5;
+  private static final int NUM_QUALIFIERS = 200;
+  private static final int VALUE_SIZE = 100;
+  /** Small enough that each row needs several rpcs. */
+  private static final long MAX_RESULT_SIZE = 4 * 1024;
+
+  private static HTable table;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    TEST_UTIL.startMiniCluster();
+    table = TEST_UTIL.createTable(TABLE_NAME, FAMILY);
+    List<Put> puts = new ArrayList<Put>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Put p = new Put(row(i));
+      p.setDurability(Durability.SKIP_WAL);
+      for (int j = 0; j < NUM_QUALIFIERS; j++) {
+        p.add(FAMILY, qualifier(j), new byte[VALUE_SIZE]);
+      }
+      puts.add(p);
+    }
+    table.put(puts);
+    table.flushCommits();
+  }
+
+  @AfterClass
+  public static void tearDownAfterClass() throws Exception {
+    table.close();
+    TEST_UTIL.shutdownMiniCluster();
+  }
+
+  private static byte[] row(int i) {
+    return Bytes.toBytes(String.format("row%02d", i));
+  }
+
+  private static byte[] qualifier(int j) {
+    return Bytes.toBytes(String.format("q%03d", j));
+  }
+
+  private static Scan createScan(boolean allowPartialResults) {
+    Scan scan = new Scan();
+    scan.setMaxResultSize(MAX_RESULT_SIZE);
+    scan.setAllowPartialResults(allowPartialResults);
+    return scan;
+  }
+
+  @Test
+  public void testWholeRowsByDefault() throws Exception {
+    ResultScanner scanner = table.getScanner(createScan(false));
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Result r = scanner.next();
+      assertFalse(r.isPartial());
+      assertTrue(Bytes.equals(row(i), r.getRow()));
+      assertEquals(NUM_QUALIFIERS, r.size());
+      Cell[] cells = r.rawCells();
+      for (int j = 0; j < NUM_QUALIFIERS; j++) {
+        assertTrue(CellUtil.matchingQualifier(cells[j], qualifier(j)));
+      }
+    }
+    assertNull(scanner.next());
+    scanner.close();
+  }
+
+  @Test
+  public void testPartialResultsReassemble() throws Exception {
+    ResultScanner scanner = table.getScanner(createScan(true));
+    List<Result> parts = new ArrayList<Result>();
+    int rows = 0;
+    int partialCount = 0;
+    for (Result r : scanner) {
+      parts.add(r);
+      if (r.isPartial()) {
+        partialCount++;
+        continue;
+      }
+      Result whole = Result.createCompleteResult(parts);
+      parts.clear();
+      assertFalse(whole.isPartial());
+      assertTrue(Bytes.equals(row(rows), whole.getRow()));
+      assertEquals(NUM_QUALIFIERS, whole.size());
+      assertTrue(Bytes.equals(whole.getRow(), table.get(new Get(whole.getRow())).getRow()));
+      rows++;
+    }
+    scanner.close();
+    assertTrue(parts.isEmpty());
+    assertEquals(NUM_ROWS, rows);
+    // Each row is several times the max result size.
+    assertTrue(partialCount >= NUM_ROWS * 2);
+  }
+
+  @Test
+  public void testPartialResultsWithFilter() throws Exception {
+    // A filter that looks at whole rows; even a scan that allows partial results must then get
+    // every row whole, although each row is several times the max result size.
+    SingleColumnValueFilter filter = new SingleColumnValueFilter(FAMILY, qualifier(0),
+        CompareOp.EQUAL, new byte[VALUE_SIZE]);
+    filter.setFilterIfMissing(true);
+    assertTrue(filter.hasFilterRow());
+    Scan scan = createScan(true);
+    scan.setFilter(filter);
+    ResultScanner scanner = table.getScanner(scan);
+    int rows = 0;
+    for (Result r : scanner) {
+      assertFalse(r.isPartial());
+      assertTrue(Bytes.equals(row(rows), r.getRow()));
+      assertEquals(NUM_QUALIFIERS, r.size());
+      rows++;
+    }
+    scanner.close();
+    assertEquals(NUM_ROWS, rows);
+  }
+
+  @Test
+  public void testSmallBatchAndPartialResults() throws Exception {
+    Scan scan = createScan(false);
+    scan.setBatch(NUM_QUALIFIERS / 2);
+    ResultScanner scanner = table.getScanner(scan);
+    int results = 0;
+    for (Result r : scanner) {
+      assertFalse(r.isPartial());
+      assertEquals(NUM_QUALIFIERS / 2, r.size());
+      results++;
+    }
+    scanner.close();
+    assertEquals(NUM_ROWS * 2, results);
+  }
+}
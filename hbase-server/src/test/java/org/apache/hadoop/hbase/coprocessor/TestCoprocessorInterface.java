@@ -105,6 +105,17 @@ public class TestCoprocessorInterface {
       return delegate.nextRaw(result, limit);
     }
 
+    @Override
+    public boolean nextRaw(List<Cell> result, int limit, long sizeLimit, long timeLimit)
+        throws IOException {
+      return delegate.nextRaw(result, limit, sizeLimit, timeLimit);
+    }
+
+    @Override
+    public boolean isPartialRow() {
+      return delegate.isPartialRow();
+    }
+
     @Override
     public void close() throws IOException {
       delegate.close();
@@ -134,6 +145,11 @@ public class TestCoprocessorInterface {
     public long getMvccReadPoint() {
       return delegate.getMvccReadPoint();
     }
+
+    @Override
+    public int getBatch() {
+      return delegate.getBatch();
+    }
   }
 
   public static class CoprocessorImpl extends BaseRegionObserver {
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.filter.Filter.ReturnCode;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+/**
+ * Evaluates {@link FuzzyRowFilter} matching and hinting cost for growing numbers of fuzzy
+ * keys. Rows are laid out like a telemetry table: a 4 byte device id, a 2 byte metric id and
+ * an 8 byte timestamp; each fuzzy key selects one metric of one device for any timestamp.
+ */
+public class FuzzyRowFilterPerformance {
+  public static final Log LOG = LogFactory.getLog(FuzzyRowFilterPerformance.class);
+
+  private static final int DEVICE_LENGTH = 4;
+  private static final int METRIC_LENGTH = 2;
+  private static final int TS_LENGTH = Bytes.SIZEOF_LONG;
+  private static final int ROW_LENGTH = DEVICE_LENGTH + METRIC_LENGTH + TS_LENGTH;
+
+  static List<Pair<byte[], byte[]>> getFuzzyKeys(final int howMany, final Random rand) {
+    List<Pair<byte[], byte[]>> fuzzyKeys = new ArrayList<Pair<byte[], byte[]>>(howMany);
+    byte[] meta = new byte[ROW_LENGTH];
+    Arrays.fill(meta, DEVICE_LENGTH + METRIC_LENGTH, ROW_LENGTH, (byte) 1);
+    for (int i = 0; i < howMany; i++) {
+      byte[] key = new byte[ROW_LENGTH];
+      Bytes.putInt(key, 0, rand.nextInt(Short.MAX_VALUE));
+      Bytes.putShort(key, DEVICE_LENGTH, (short) rand.nextInt(16));
+      fuzzyKeys.add(new Pair<byte[], byte[]>(key, meta));
+    }
+    return fuzzyKeys;
+  }
+
+  static Cell[] getCells(final int howMany, final Random rand) {
+    Cell[] cells = new Cell[howMany];
+    byte[] family = Bytes.toBytes("f");
+    byte[] qualifier = Bytes.toBytes("q");
+    for (int i = 0; i < howMany; i++) {
+      byte[] row = new byte[ROW_LENGTH];
+      Bytes.putInt(row, 0, rand.nextInt(Short.MAX_VALUE));
+      Bytes.putShort(row, DEVICE_LENGTH, (short) rand.nextInt(16));
+      Bytes.putLong(row, DEVICE_LENGTH + METRIC_LENGTH, rand.nextLong());
+      cells[i] = new KeyValue(row, family, qualifier, row);
+    }
+    Arrays.sort(cells, KeyValue.COMPARATOR);
+    return cells;
+  }
+
+  /**
+   * Feeds the sorted cells through a fresh filter the way StoreScanner would, asking for a
+   * hint whenever the filter requests a seek.
+   * @return number of cells included
+   */
+  static int runFilter(final List<Pair<byte[], byte[]>> fuzzyKeys, final Cell[] cells) {
+    FuzzyRowFilter filter = new FuzzyRowFilter(fuzzyKeys);
+    int included = 0;
+    byte[] seekTo = null;
+    for (Cell cell : cells) {
+      if (seekTo != null && Bytes.compareTo(cell.getRowArray(), cell.getRowOffset(),
+          cell.getRowLength(), seekTo, 0, seekTo.length) < 0) {
+        continue;
+      }
+      seekTo = null;
+      ReturnCode code = filter.filterKeyValue(cell);
+      if (code == ReturnCode.INCLUDE) {
+        included++;
+      } else if (code == ReturnCode.SEEK_NEXT_USING_HINT) {
+        seekTo = filter.getNextCellHint(cell).getRow();
+      } else if (filter.filterAllRemaining()) {
+        break;
+      }
+    }
+    return included;
+  }
+
+  static void doFilter(final int keyCount, final Cell[] cells, final int cycles,
+      final Random rand) {
+    List<Pair<byte[], byte[]>> fuzzyKeys = getFuzzyKeys(keyCount, rand);
+    for (int i = 0; i < cycles; i++) {
+      long startTime = System.nanoTime();
+      int included = runFilter(fuzzyKeys, cells);
+      long elapsed = System.nanoTime() - startTime;
+      LOG.info("" + i + " keys=" + keyCount + " cells=" + cells.length + " included=" +
+        included + " in " + (elapsed / 1000000) + "ms, " + (elapsed / cells.length) +
+        "ns/cell");
+    }
+  }
+
+  public static void main(String[] args) {
+    // How many Cells to filter on each cycle.
+    final int count = 1000000;
+    // How many times to do an operation; repeat gives hotspot chance to warm up.
+    final int cycles = 10;
+
+    Random rand = new Random(20131019);
+    Cell[] cells = getCells(count, rand);
+    for (int keyCount : new int[] { 1, 10, 100, 1000, 10000 }) {
+      doFilter(keyCount, cells, cycles, rand);
+    }
+  }
+}
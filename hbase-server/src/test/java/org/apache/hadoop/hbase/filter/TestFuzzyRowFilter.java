@@ -17,7 +17,15 @@
  */
 package org.apache.hadoop.hbase.filter;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.filter.Filter.ReturnCode;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -193,6 +201,69 @@ public class TestFuzzyRowFilter {
             new byte[]{0, 0, 1, 0}));
   }
 
+  /**
+   * Runs the filter over increasing rows with many rules and checks every decision and hint
+   * against a brute force evaluation of each rule.
+   */
+  @Test
+  public void testManyFuzzyKeys() {
+    Random rand = new Random(12345);
+    int keyLength = 11;
+    List<Pair<byte[], byte[]>> fuzzyKeysData = new ArrayList<Pair<byte[], byte[]>>();
+    for (int i = 0; i < 200; i++) {
+      byte[] key = new byte[keyLength];
+      byte[] meta = new byte[keyLength];
+      rand.nextBytes(key);
+      for (int j = 0; j < keyLength; j++) {
+        meta[j] = (byte) (j % 3 == 0 ? 1 : 0);
+      }
+      fuzzyKeysData.add(new Pair<byte[], byte[]>(key, meta));
+    }
+    FuzzyRowFilter filter = new FuzzyRowFilter(fuzzyKeysData);
+
+    byte[] row = new byte[keyLength];
+    for (int step = 0; step < 20000; step++) {
+      ReturnCode code = filter.filterKeyValue(KeyValue.createFirstOnRow(row));
+      boolean anySatisfies = false;
+      byte[] expectedNext = null;
+      for (Pair<byte[], byte[]> fuzzyData : fuzzyKeysData) {
+        if (FuzzyRowFilter.satisfies(row, fuzzyData.getFirst(), fuzzyData.getSecond())
+            == FuzzyRowFilter.SatisfiesCode.YES) {
+          anySatisfies = true;
+        }
+        byte[] candidate = FuzzyRowFilter.getNextForFuzzyRule(row, fuzzyData.getFirst(),
+            fuzzyData.getSecond());
+        if (candidate != null
+            && (expectedNext == null || Bytes.compareTo(candidate, expectedNext) < 0)) {
+          expectedNext = candidate;
+        }
+      }
+      if (anySatisfies) {
+        Assert.assertEquals(ReturnCode.INCLUDE, code);
+        // the next row of the same length; rows only move forward during a scan
+        row = Bytes.add(row, new byte[0]);
+        int i = keyLength - 1;
+        while (i >= 0 && ++row[i] == 0) {
+          i--;
+        }
+        if (i < 0) {
+          break;
+        }
+        continue;
+      }
+      if (code == ReturnCode.NEXT_ROW) {
+        Assert.assertNull(expectedNext);
+        Assert.assertTrue(filter.filterAllRemaining());
+        break;
+      }
+      Assert.assertEquals(ReturnCode.SEEK_NEXT_USING_HINT, code);
+      byte[] hint = filter.getNextCellHint(KeyValue.createFirstOnRow(row)).getRow();
+      Assert.assertArrayEquals(expectedNext, hint);
+      Assert.assertTrue(Bytes.compareTo(hint, row) > 0);
+      row = hint;
+    }
+  }
+
   private void assertNext(byte[] fuzzyRow, byte[] mask, byte[] current, byte[] expected) {
     byte[] nextForFuzzyRule = FuzzyRowFilter.getNextForFuzzyRule(current, fuzzyRow, mask);
     Assert.assertArrayEquals(expected, nextForFuzzyRule);
@@ -39,6 +39,21 @@ public class MetricsHBaseServerWrapperStub implements MetricsHBaseServerWrapper{
     return 104;
   }
 
+  @Override
+  public int getReadQueueLength() {
+    return 106;
+  }
+
+  @Override
+  public int getWriteQueueLength() {
+    return 107;
+  }
+
+  @Override
+  public int getScanQueueLength() {
+    return 108;
+  }
+
   @Override
   public int getNumOpenConnections() {
     return 105;
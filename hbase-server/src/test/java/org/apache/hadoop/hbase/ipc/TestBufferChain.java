@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.ipc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestBufferChain {
+  private static final byte[][] HELLO_WORLD_CHUNKS = new byte[][] {
+      Bytes.toBytes("hello"),
+      Bytes.toBytes(" "),
+      Bytes.toBytes("world")
+  };
+
+  @Test
+  public void testWriteAll() throws IOException {
+    BufferChain chain = new BufferChain(wrapArrays(HELLO_WORLD_CHUNKS));
+    assertEquals(11, chain.remaining());
+    Sink sink = new Sink(Integer.MAX_VALUE);
+    assertEquals(11, chain.write(sink, 1024));
+    assertFalse(chain.hasRemaining());
+    assertEquals("hello world", sink.toString());
+    // Each write got the whole chain.
+    assertEquals(1, sink.writes);
+  }
+
+  @Test
+  public void testChunking() throws IOException {
+    BufferChain chain = new BufferChain(wrapArrays(HELLO_WORLD_CHUNKS));
+    Sink sink = new Sink(Integer.MAX_VALUE);
+    assertEquals(11, chain.write(sink, 3));
+    assertEquals("hello world", sink.toString());
+    assertEquals(4, sink.writes);
+    assertTrue(sink.mostOffered <= 3);
+  }
+
+  @Test
+  public void testShortWrites() throws IOException {
+    ByteBuffer[] buffers = wrapArrays(HELLO_WORLD_CHUNKS);
+    BufferChain chain = new BufferChain(buffers[0], null, buffers[1], buffers[2]);
+    // The channel only takes four bytes at a time, so each write stops after one short write.
+    Sink sink = new Sink(4);
+    assertEquals(4, chain.write(sink, 1024));
+    assertEquals(7, chain.remaining());
+    assertEquals(4, chain.write(sink, 1024));
+    assertEquals(3, chain.write(sink, 1024));
+    assertFalse(chain.hasRemaining());
+    assertEquals(0, chain.write(sink, 1024));
+    assertEquals("hello world", sink.toString());
+    // Limits cut for chunking are put back.
+    for (int i = 0; i < buffers.length; i++) {
+      assertEquals(HELLO_WORLD_CHUNKS[i].length, buffers[i].limit());
+    }
+  }
+
+  private static ByteBuffer[] wrapArrays(byte[][] arrays) {
+    ByteBuffer[] buffers = new ByteBuffer[arrays.length];
+    for (int i = 0; i < arrays.length; i++) {
+      buffers[i] = ByteBuffer.wrap(arrays[i]);
+    }
+    return buffers;
+  }
+
+  /**
+   * Channel that takes at most <code>maxPerWrite</code> bytes per write.
+   */
+  private static class Sink implements GatheringByteChannel {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final int maxPerWrite;
+    int writes = 0;
+    long mostOffered = 0;
+
+    Sink(int maxPerWrite) {
+      this.maxPerWrite = maxPerWrite;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+      writes++;
+      long offered = 0;
+      for (int i = offset; i < offset + length; i++) {
+        offered += srcs[i].remaining();
+      }
+      mostOffered = Math.max(mostOffered, offered);
+      int written = 0;
+      for (int i = offset; i < offset + length && written < maxPerWrite; i++) {
+        while (srcs[i].hasRemaining() && written < maxPerWrite) {
+          out.write(srcs[i].get());
+          written++;
+        }
+      }
+      return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) {
+      return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      return (int)write(new ByteBuffer[] { src });
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+      return Bytes.toString(out.toByteArray());
+    }
+  }
+}
@@ -17,11 +17,21 @@
  */
 package org.apache.hadoop.hbase.ipc;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.isNull;
+
+import org.apache.hadoop.hbase.CellScanner;
 import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.monitoring.MonitoredRPCHandler;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
 
+import com.google.protobuf.BlockingService;
+import com.google.protobuf.Descriptors.MethodDescriptor;
+import com.google.protobuf.Message;
+
 @Category(SmallTests.class)
 public class TestCallRunner {
   /**
@@ -33,7 +43,54 @@ public class TestCallRunner {
     Mockito.when(mockRpcServer.isStarted()).thenReturn(true);
     RpcServer.Call mockCall = Mockito.mock(RpcServer.Call.class);
     mockCall.connection = Mockito.mock(RpcServer.Connection.class);
+    Mockito.when(mockCall.connection.isConnectionOpen()).thenReturn(true);
+    CallRunner cr = new CallRunner(mockRpcServer, mockCall);
+    cr.run();
+  }
+
+  /**
+   * A call that waited in the queue longer than the client's timeout is answered with an error
+   * without being run.
+   */
+  @Test
+  public void testExpiredCallIsSkipped() throws Exception {
+    RpcServerInterface mockRpcServer = Mockito.mock(RpcServerInterface.class);
+    Mockito.when(mockRpcServer.isStarted()).thenReturn(true);
+    RpcServer.Call mockCall = Mockito.mock(RpcServer.Call.class);
+    mockCall.connection = Mockito.mock(RpcServer.Connection.class);
+    Mockito.when(mockCall.connection.isConnectionOpen()).thenReturn(true);
+    mockCall.timeout = 100;
+    mockCall.timestamp = System.currentTimeMillis() - 1000;
     CallRunner cr = new CallRunner(mockRpcServer, mockCall);
     cr.run();
+    verifyNotRun(mockRpcServer);
+    Mockito.verify(mockCall).setResponse(isNull(), (CellScanner) isNull(),
+      any(RpcClient.CallTimeoutException.class), Mockito.anyString());
+    Mockito.verify(mockCall).sendResponseIfReady();
+    Mockito.verify(mockCall).releaseRequestBuffer();
+  }
+
+  /**
+   * A call whose client went away is dropped without being run or answered.
+   */
+  @Test
+  public void testCallOfDisconnectedClientIsSkipped() throws Exception {
+    RpcServerInterface mockRpcServer = Mockito.mock(RpcServerInterface.class);
+    Mockito.when(mockRpcServer.isStarted()).thenReturn(true);
+    RpcServer.Call mockCall = Mockito.mock(RpcServer.Call.class);
+    mockCall.connection = Mockito.mock(RpcServer.Connection.class);
+    Mockito.when(mockCall.connection.isConnectionOpen()).thenReturn(false);
+    CallRunner cr = new CallRunner(mockRpcServer, mockCall);
+    cr.run();
+    verifyNotRun(mockRpcServer);
+    Mockito.verify(mockCall, Mockito.never()).sendResponseIfReady();
+    Mockito.verify(mockCall).releaseRequestBuffer();
+  }
+
+  private static void verifyNotRun(RpcServerInterface mockRpcServer) throws Exception {
+    Mockito.verify(mockRpcServer, Mockito.never()).call(any(BlockingService.class),
+      any(MethodDescriptor.class), any(Message.class),
+      any(CellScanner.class), anyLong(),
+      any(MonitoredRPCHandler.class));
   }
-}
\ No newline at end of file
+}
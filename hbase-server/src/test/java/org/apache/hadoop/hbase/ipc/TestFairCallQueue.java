@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.ipc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.TableName;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.google.common.collect.Maps;
+
+@Category(SmallTests.class)
+public class TestFairCallQueue {
+  private Configuration conf;
+  private Map<CallRunner, String> tenants;
+
+  @Before
+  public void setUp() {
+    conf = HBaseConfiguration.create();
+    tenants = Maps.newHashMap();
+  }
+
+  @Test
+  public void testTenantsTakeTurns() throws InterruptedException {
+    FairCallQueue queue = new FairCallQueue(conf, 100);
+    for (int i = 0; i < 10; i++) {
+      queue.put(createMockTask("a", null));
+    }
+    queue.put(createMockTask("b", null));
+    queue.put(createMockTask("b", null));
+    assertEquals(12, queue.size());
+    // The calls of b do not wait behind all those of a.
+    assertEquals(2, countTaken(queue, 4, "b"));
+    assertEquals(8, queue.size());
+    assertEquals(8, countTaken(queue, 8, "a"));
+    assertNull(queue.poll());
+  }
+
+  @Test
+  public void testWeights() throws InterruptedException {
+    conf.setFloat(FairCallQueue.FAIR_QUEUE_WEIGHT_CONF_PREFIX + "a", 3f);
+    FairCallQueue queue = new FairCallQueue(conf, 100);
+    for (int i = 0; i < 30; i++) {
+      queue.put(createMockTask("a", null));
+      queue.put(createMockTask("b", null));
+    }
+    assertEquals(6, countTaken(queue, 8, "a"));
+  }
+
+  @Test
+  public void testIdleTenantHasNoCredit() throws InterruptedException {
+    FairCallQueue queue = new FairCallQueue(conf, 100);
+    for (int i = 0; i < 10; i++) {
+      queue.put(createMockTask("a", null));
+    }
+    countTaken(queue, 5, "a");
+    for (int i = 0; i < 5; i++) {
+      queue.put(createMockTask("b", null));
+    }
+    // b comes in level with a instead of being owed the calls a had while b was idle.
+    int taken = countTaken(queue, 4, "b");
+    assertTrue("b took " + taken, taken >= 2 && taken <= 3);
+  }
+
+  @Test
+  public void testByTable() throws InterruptedException {
+    conf.set(FairCallQueue.FAIR_QUEUE_TENANT_CONF_KEY, "table");
+    FairCallQueue queue = new FairCallQueue(conf, 100);
+    TableName t1 = TableName.valueOf("t1");
+    TableName t2 = TableName.valueOf("t2");
+    for (int i = 0; i < 5; i++) {
+      queue.put(createMockTask("u", t1));
+    }
+    queue.put(createMockTask("u", t2));
+    // Calls that name no table are shared out by user.
+    queue.put(createMockTask("u", null));
+    CallRunner first = queue.take();
+    CallRunner second = queue.take();
+    CallRunner third = queue.take();
+    int t1Count = 0;
+    for (CallRunner task : new CallRunner[] { first, second, third }) {
+      if (t1.equals(task.getCall().getRequestTable())) t1Count++;
+    }
+    assertEquals(1, t1Count);
+  }
+
+  @Test
+  public void testCapacity() throws InterruptedException {
+    FairCallQueue queue = new FairCallQueue(conf, 2);
+    CallRunner first = createMockTask("a", null);
+    assertTrue(queue.offer(first));
+    assertTrue(queue.offer(createMockTask("b", null)));
+    assertFalse(queue.offer(createMockTask("c", null)));
+    assertFalse(queue.offer(createMockTask("c", null), 10, TimeUnit.MILLISECONDS));
+    assertEquals(0, queue.remainingCapacity());
+    assertEquals(2, queue.size());
+    int seen = 0;
+    for (CallRunner task : queue) {
+      assertTrue(tenants.containsKey(task));
+      seen++;
+    }
+    assertEquals(2, seen);
+
+    assertSame(first, queue.peek());
+    assertSame(first, queue.poll());
+    assertEquals(1, queue.remainingCapacity());
+    assertTrue(queue.offer(createMockTask("c", null)));
+    assertEquals(2, queue.drainTo(new ArrayList<CallRunner>()));
+    assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testPutBlocksWhileFull() throws Exception {
+    final FairCallQueue queue = new FairCallQueue(conf, 1);
+    queue.put(createMockTask("a", null));
+    final CallRunner blocked = createMockTask("b", null);
+    Thread putter = new Thread() {
+      @Override
+      public void run() {
+        try {
+          queue.put(blocked);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    putter.start();
+    putter.join(100);
+    assertTrue(putter.isAlive());
+    queue.take();
+    putter.join(10000);
+    assertFalse(putter.isAlive());
+    assertSame(blocked, queue.take());
+  }
+
+  private int countTaken(FairCallQueue queue, int n, String tenant)
+      throws InterruptedException {
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      if (tenant.equals(tenants.get(queue.take()))) count++;
+    }
+    return count;
+  }
+
+  private CallRunner createMockTask(String user, TableName table) {
+    RpcServer.Call call = mock(RpcServer.Call.class);
+    when(call.getRequestUserName()).thenReturn(user);
+    when(call.getRequestTable()).thenReturn(table);
+    CallRunner task = mock(CallRunner.class);
+    when(task.getCall()).thenReturn(call);
+    tenants.put(task, user);
+    return task;
+  }
+}
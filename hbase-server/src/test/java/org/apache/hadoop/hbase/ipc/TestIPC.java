@@ -19,6 +19,8 @@
 package org.apache.hadoop.hbase.ipc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -32,7 +34,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
 import java.io.IOException;
+import java.net.ConnectException;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
@@ -53,6 +57,7 @@ import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.KeyValue;
 import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.ServerName;
 import org.apache.hadoop.hbase.SmallTests;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.RowMutations;
@@ -239,6 +244,87 @@ public class TestIPC {
     }
   }
 
+  /**
+   * Responses are read by a shared reader rather than a thread per connection.
+   */
+  @Test
+  public void testSharedReader() throws IOException, InterruptedException {
+    Configuration conf = new Configuration(HBaseConfiguration.create());
+    conf.setInt(RpcClient.READ_THREADPOOL_SIZE_KEY, 1);
+    doSimpleTest(conf, new RpcClient(conf, HConstants.CLUSTER_ID_DEFAULT));
+  }
+
+  /**
+   * Calls made through a non-blocking channel get their responses, and cells, in a callback;
+   * many can be outstanding on one connection.
+   */
+  @Test
+  public void testRpcChannel() throws IOException, InterruptedException {
+    Configuration conf = new Configuration(HBaseConfiguration.create());
+    conf.setInt(RpcClient.READ_THREADPOOL_SIZE_KEY, 2);
+    RpcClient client = new RpcClient(conf, HConstants.CLUSTER_ID_DEFAULT);
+    TestRpcServer rpcServer = new TestRpcServer();
+    try {
+      rpcServer.start();
+      InetSocketAddress address = rpcServer.getListenerAddress();
+      TestRpcServiceProtos.TestProtobufRpcProto.Stub stub =
+        TestRpcServiceProtos.TestProtobufRpcProto.newStub(client.createRpcChannel(
+          new ServerName(address.getHostName(), address.getPort(), System.currentTimeMillis()),
+          User.getCurrent(), 0));
+      int count = 20;
+      List<PayloadCarryingRpcController> controllers = Lists.newArrayList();
+      List<BlockingRpcCallback<EchoResponseProto>> callbacks = Lists.newArrayList();
+      for (int i = 0; i < count; i++) {
+        PayloadCarryingRpcController pcrc =
+          new PayloadCarryingRpcController(CellUtil.createCellScanner(ImmutableList.of(CELL)));
+        BlockingRpcCallback<EchoResponseProto> callback =
+          new BlockingRpcCallback<EchoResponseProto>();
+        stub.echo(pcrc, EchoRequestProto.newBuilder().setMessage("hello" + i).build(), callback);
+        controllers.add(pcrc);
+        callbacks.add(callback);
+      }
+      for (int i = 0; i < count; i++) {
+        EchoResponseProto response = callbacks.get(i).get();
+        PayloadCarryingRpcController pcrc = controllers.get(i);
+        assertFalse(pcrc.failed());
+        assertEquals("hello" + i, response.getMessage());
+        assertTrue(pcrc.cellScanner().advance());
+        assertTrue(CELL.equals(pcrc.cellScanner().current()));
+      }
+    } finally {
+      client.stop();
+      rpcServer.stop();
+    }
+  }
+
+  /**
+   * A call through a non-blocking channel that cannot be made fails through its controller.
+   */
+  @Test
+  public void testRpcChannelFailure() throws IOException {
+    Configuration conf = new Configuration(HBaseConfiguration.create());
+    conf.setInt(RpcClient.READ_THREADPOOL_SIZE_KEY, 1);
+    RpcClient client = new RpcClient(conf, HConstants.CLUSTER_ID_DEFAULT);
+    // A port nobody listens on.
+    ServerSocket socket = new ServerSocket(0);
+    int port = socket.getLocalPort();
+    socket.close();
+    try {
+      TestRpcServiceProtos.TestProtobufRpcProto.Stub stub =
+        TestRpcServiceProtos.TestProtobufRpcProto.newStub(client.createRpcChannel(
+          new ServerName("localhost", port, System.currentTimeMillis()), User.getCurrent(), 0));
+      PayloadCarryingRpcController pcrc = new PayloadCarryingRpcController();
+      BlockingRpcCallback<EchoResponseProto> callback =
+        new BlockingRpcCallback<EchoResponseProto>();
+      stub.echo(pcrc, EchoRequestProto.newBuilder().setMessage("hello").build(), callback);
+      assertNull(callback.get());
+      assertTrue(pcrc.failed());
+      assertTrue(pcrc.getFailed() instanceof ConnectException);
+    } finally {
+      client.stop();
+    }
+  }
+
   @Test
   public void testRTEDuringConnectionSetup() throws Exception {
     Configuration conf = HBaseConfiguration.create();
@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.ipc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.ipc.RpcServer.Call;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.Get;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.GetRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MultiAction;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MultiRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutateRequest;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutationProto;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ScanRequest;
+import org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.RegionSpecifier;
+import org.apache.hadoop.hbase.protobuf.generated.HBaseProtos.RegionSpecifier.RegionSpecifierType;
+import org.apache.hadoop.hbase.protobuf.generated.RPCProtos.RequestHeader;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.collect.Maps;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+
+@Category(SmallTests.class)
+public class TestRWQueueRpcScheduler {
+
+  private final RpcScheduler.Context CONTEXT = new RpcScheduler.Context() {
+    @Override
+    public InetSocketAddress getListenerAddress() {
+      return InetSocketAddress.createUnresolved("127.0.0.1", 1000);
+    }
+
+    @Override
+    public MetricsHBaseServer getMetrics() {
+      return null;
+    }
+  };
+  private static final RegionSpecifier REGION = RegionSpecifier.newBuilder()
+      .setType(RegionSpecifierType.REGION_NAME).setValue(ByteString.copyFromUtf8("r")).build();
+  private static final Get GET = Get.newBuilder().setRow(ByteString.copyFromUtf8("row")).build();
+  private static final MutationProto MUTATION = MutationProto.newBuilder()
+      .setRow(ByteString.copyFromUtf8("row")).setMutateType(MutationProto.MutationType.PUT)
+      .build();
+  private Configuration conf;
+  private PriorityFunction qosFunction;
+
+  @Before
+  public void setUp() {
+    conf = HBaseConfiguration.create();
+    qosFunction = mock(PriorityFunction.class);
+  }
+
+  @Test
+  public void testClassification() {
+    assertTrue(RWQueueRpcScheduler.isWriteRequest(mutate()));
+    assertTrue(RWQueueRpcScheduler.isWriteRequest(multi(true)));
+    assertFalse(RWQueueRpcScheduler.isWriteRequest(multi(false)));
+    assertFalse(RWQueueRpcScheduler.isWriteRequest(get()));
+    assertFalse(RWQueueRpcScheduler.isWriteRequest(scan()));
+    assertTrue(RWQueueRpcScheduler.isScanRequest(scan()));
+    assertFalse(RWQueueRpcScheduler.isScanRequest(get()));
+  }
+
+  @Test
+  public void testHandlerShares() {
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_READ_SHARE_CONF_KEY, 0.6f);
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_SCAN_SHARE_CONF_KEY, 0.5f);
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_HANDLER_FACTOR_CONF_KEY, 0.5f);
+    RWQueueRpcScheduler scheduler = new RWQueueRpcScheduler(conf, 20, 0, 0, qosFunction, 0);
+    assertEquals(8, scheduler.writeQueues.handlerCount);
+    assertEquals(4, scheduler.writeQueues.queues.size());
+    assertEquals(6, scheduler.readQueues.handlerCount);
+    assertEquals(3, scheduler.readQueues.queues.size());
+    assertEquals(6, scheduler.scanQueues.handlerCount);
+    assertEquals(3, scheduler.scanQueues.queues.size());
+
+    // No scan pool; at least one handler and queue for the rest even with few handlers.
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_SCAN_SHARE_CONF_KEY, 0f);
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_HANDLER_FACTOR_CONF_KEY, 0f);
+    scheduler = new RWQueueRpcScheduler(conf, 1, 0, 0, qosFunction, 0);
+    assertNull(scheduler.scanQueues);
+    assertEquals(1, scheduler.writeQueues.handlerCount);
+    assertEquals(1, scheduler.writeQueues.queues.size());
+    assertEquals(1, scheduler.readQueues.handlerCount);
+    assertEquals(1, scheduler.readQueues.queues.size());
+  }
+
+  @Test
+  public void testQueueLengths() {
+    conf.setInt("ipc.server.max.callqueue.length", 105);
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_READ_SHARE_CONF_KEY, 0.6f);
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_SCAN_SHARE_CONF_KEY, 0.5f);
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_HANDLER_FACTOR_CONF_KEY, 0.3f);
+    RWQueueRpcScheduler scheduler = new RWQueueRpcScheduler(conf, 21, 0, 0, qosFunction, 0);
+    // 8 write, 6 read and 7 scan handlers, in two queues each; five calls a handler.
+    assertQueueLengths(scheduler.writeQueues, 20, 20);
+    assertQueueLengths(scheduler.readQueues, 15, 15);
+    assertQueueLengths(scheduler.scanQueues, 20, 15);
+    assertEquals(105, scheduler.getGeneralQueueCapacity());
+  }
+
+  private static void assertQueueLengths(RWQueueRpcScheduler.QueueGroup group,
+      int... lengths) {
+    assertEquals(lengths.length, group.queues.size());
+    for (int i = 0; i < lengths.length; i++) {
+      assertEquals(lengths[i], group.queues.get(i).remainingCapacity());
+    }
+  }
+
+  @Test
+  public void testDispatch() throws IOException, InterruptedException {
+    conf.setFloat(RWQueueRpcScheduler.CALL_QUEUE_HANDLER_FACTOR_CONF_KEY, 0.5f);
+    RWQueueRpcScheduler scheduler = new RWQueueRpcScheduler(conf, 8, 1, 1, qosFunction,
+        HConstants.HIGH_QOS);
+    scheduler.init(CONTEXT);
+    // Not started, so calls stay queued.
+    Map<CallRunner, Integer> qos = Maps.newHashMap();
+    CallRunner write = createMockTask(mutate(), qos, 0);
+    CallRunner writeMulti = createMockTask(multi(true), qos, 0);
+    CallRunner read = createMockTask(get(), qos, 0);
+    CallRunner readMulti = createMockTask(multi(false), qos, 0);
+    CallRunner scan = createMockTask(scan(), qos, 0);
+    CallRunner priorityScan = createMockTask(scan(), qos, HConstants.HIGH_QOS + 1);
+    CallRunner replicationWrite = createMockTask(mutate(), qos, HConstants.REPLICATION_QOS);
+    for (CallRunner task : new CallRunner[] {
+        write, writeMulti, read, readMulti, scan, priorityScan, replicationWrite }) {
+      when(qosFunction.getPriority(task.getCall().header, task.getCall().param))
+          .thenReturn(qos.get(task));
+      scheduler.dispatch(task);
+    }
+    assertEquals(2, scheduler.getWriteQueueLength());
+    assertEquals(2, scheduler.getReadQueueLength());
+    assertEquals(1, scheduler.getScanQueueLength());
+    assertEquals(5, scheduler.getGeneralQueueLength());
+    assertEquals(1, scheduler.getPriorityQueueLength());
+    assertEquals(1, scheduler.getReplicationQueueLength());
+    // Calls of a kind are spread over its queues.
+    assertEquals(1, scheduler.writeQueues.queues.get(0).size());
+    assertEquals(1, scheduler.writeQueues.queues.get(1).size());
+  }
+
+  @Test
+  public void testScansDoNotHoldUpGetsAndWrites() throws IOException, InterruptedException {
+    RWQueueRpcScheduler scheduler = new RWQueueRpcScheduler(conf, 4, 0, 0, qosFunction, 0);
+    scheduler.init(CONTEXT);
+    scheduler.start();
+    final CountDownLatch scansBlocked = new CountDownLatch(1);
+    int scanHandlers = scheduler.scanQueues.handlerCount;
+    final CountDownLatch scansStarted = new CountDownLatch(scanHandlers);
+    try {
+      Map<CallRunner, Integer> qos = Maps.newHashMap();
+      // Tie up every scan handler, with more scans waiting.
+      for (int i = 0; i < scanHandlers + 2; i++) {
+        CallRunner scan = createMockTask(scan(), qos, 0);
+        doAnswer(new Answer<Void>() {
+          @Override
+          public Void answer(InvocationOnMock invocation) throws Throwable {
+            scansStarted.countDown();
+            scansBlocked.await();
+            return null;
+          }
+        }).when(scan).run();
+        scheduler.dispatch(scan);
+      }
+      scansStarted.await();
+      CallRunner read = createMockTask(get(), qos, 0);
+      CallRunner write = createMockTask(mutate(), qos, 0);
+      scheduler.dispatch(read);
+      scheduler.dispatch(write);
+      verify(read, timeout(1000)).run();
+      verify(write, timeout(1000)).run();
+      assertEquals(2, scheduler.getScanQueueLength());
+    } finally {
+      scansBlocked.countDown();
+      scheduler.stop();
+    }
+  }
+
+  private CallRunner createMockTask(Message param, Map<CallRunner, Integer> qos, int level) {
+    Call call = mock(Call.class);
+    // Distinct headers so the priority of each call can be stubbed apart.
+    call.header = RequestHeader.newBuilder().setCallId(qos.size()).build();
+    call.param = param;
+    CallRunner task = mock(CallRunner.class);
+    when(task.getCall()).thenReturn(call);
+    qos.put(task, level);
+    return task;
+  }
+
+  private static Message get() {
+    return GetRequest.newBuilder().setRegion(REGION).setGet(GET).build();
+  }
+
+  private static Message mutate() {
+    return MutateRequest.newBuilder().setRegion(REGION).setMutation(MUTATION).build();
+  }
+
+  private static Message scan() {
+    return ScanRequest.newBuilder().setScannerId(1).build();
+  }
+
+  private static Message multi(boolean withMutation) {
+    MultiRequest.Builder builder = MultiRequest.newBuilder().setRegion(REGION);
+    builder.addAction(MultiAction.newBuilder().setGet(GET));
+    if (withMutation) {
+      builder.addAction(MultiAction.newBuilder().setMutation(MUTATION));
+    }
+    return builder.build();
+  }
+}
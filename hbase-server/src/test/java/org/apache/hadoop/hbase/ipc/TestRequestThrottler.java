@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.ipc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.util.EnvironmentEdgeManager;
+import org.apache.hadoop.hbase.util.ManualEnvironmentEdge;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestRequestThrottler {
+  private Configuration conf;
+  private ManualEnvironmentEdge edge;
+
+  @Before
+  public void setUp() {
+    conf = HBaseConfiguration.create();
+    edge = new ManualEnvironmentEdge();
+    edge.setValue(1000);
+    EnvironmentEdgeManager.injectEdge(edge);
+  }
+
+  @After
+  public void tearDown() {
+    EnvironmentEdgeManager.reset();
+  }
+
+  @Test
+  public void testNoQuotas() {
+    assertNull(RequestThrottler.create(conf));
+    conf.setLong(RequestThrottler.USER_REQUESTS_CONF_KEY, 0);
+    assertNull(RequestThrottler.create(conf));
+    conf.setLong(RequestThrottler.USER_REQUESTS_CONF_KEY + ".bob", 5);
+    assertNotNull(RequestThrottler.create(conf));
+  }
+
+  @Test
+  public void testRequestQuota() throws IOException {
+    conf.setLong(RequestThrottler.USER_REQUESTS_CONF_KEY, 2);
+    // bob has no quota.
+    conf.setLong(RequestThrottler.USER_REQUESTS_CONF_KEY + ".bob", 0);
+    RequestThrottler throttler = RequestThrottler.create(conf);
+    RpcServer.Call alice = createMockCall("alice", null, 10);
+    throttler.admit(alice);
+    throttler.admit(alice);
+    assertThrottled(throttler, alice);
+    for (int i = 0; i < 10; i++) {
+      throttler.admit(createMockCall("bob", null, 10));
+    }
+    edge.incValue(500);
+    throttler.admit(alice);
+    assertThrottled(throttler, alice);
+  }
+
+  @Test
+  public void testTableBandwidthQuota() throws IOException {
+    conf.setLong(RequestThrottler.TABLE_BYTES_CONF_KEY, 100);
+    RequestThrottler throttler = RequestThrottler.create(conf);
+    TableName table = TableName.valueOf("t");
+    // A call bigger than the quota still goes through, but leaves the table in debt.
+    throttler.admit(createMockCall("alice", table, 150));
+    assertThrottled(throttler, createMockCall("bob", table, 1));
+    throttler.admit(createMockCall("bob", TableName.valueOf("other"), 1));
+    edge.incValue(1000);
+    throttler.admit(createMockCall("bob", table, 1));
+  }
+
+  @Test
+  public void testResponseBytesAreCharged() throws IOException {
+    conf.setLong(RequestThrottler.USER_BYTES_CONF_KEY, 100);
+    RequestThrottler throttler = RequestThrottler.create(conf);
+    RpcServer.Call call = createMockCall("alice", null, 10);
+    throttler.admit(call);
+    call.response = new BufferChain(ByteBuffer.allocate(200));
+    throttler.responded(call);
+    assertThrottled(throttler, createMockCall("alice", null, 10));
+  }
+
+  @Test
+  public void testIdleBucketsAreDropped() throws IOException {
+    conf.setLong(RequestThrottler.USER_REQUESTS_CONF_KEY, 10);
+    conf.setLong(RequestThrottler.USER_BYTES_CONF_KEY, 100);
+    RequestThrottler throttler = RequestThrottler.create(conf);
+    for (int i = 0; i < 50; i++) {
+      throttler.admit(createMockCall("user" + i, TableName.valueOf("table" + i), 10));
+    }
+    // Deep enough in debt to still be after the next prune.
+    throttler.admit(createMockCall("alice", null, 100 * 100));
+    assertTrue(throttler.getBucketCount() > 100);
+
+    edge.incValue(RequestThrottler.PRUNE_INTERVAL_MS);
+    throttler.admit(createMockCall("bob", null, 10));
+    // Only alice's bytes bucket, which is in debt, and bob's buckets are left.
+    assertEquals(3, throttler.getBucketCount());
+    assertThrottled(throttler, createMockCall("alice", null, 10));
+  }
+
+  @Test
+  public void testThrottledCallIsRejected() throws IOException {
+    conf.setLong(RequestThrottler.USER_REQUESTS_CONF_KEY, 1);
+    RequestThrottler throttler = RequestThrottler.create(conf);
+    RpcServer.Call call = createMockCall("alice", null, 10);
+    CallRunner first = mock(CallRunner.class);
+    when(first.getCall()).thenReturn(call);
+    CallRunner second = mock(CallRunner.class);
+    when(second.getCall()).thenReturn(call);
+    assertTrue(RequestThrottler.admit(throttler, first, null));
+    verify(first, never()).reject(any(IOException.class));
+    assertFalse(RequestThrottler.admit(throttler, second, null));
+    verify(second).reject(any(ThrottlingException.class));
+  }
+
+  private static void assertThrottled(RequestThrottler throttler, RpcServer.Call call) {
+    try {
+      throttler.admit(call);
+      fail("Expected a ThrottlingException");
+    } catch (ThrottlingException e) {
+      // expected
+    }
+  }
+
+  private static RpcServer.Call createMockCall(String user, TableName table, long size) {
+    RpcServer.Call call = mock(RpcServer.Call.class);
+    when(call.getRequestUserName()).thenReturn(user);
+    when(call.getRequestTable()).thenReturn(table);
+    when(call.getSize()).thenReturn(size);
+    return call;
+  }
+}
@@ -64,6 +64,9 @@ public class TestRpcMetrics {
     HELPER.assertGauge("numCallsInReplicationQueue", 103, serverSource);
     HELPER.assertGauge("numCallsInPriorityQueue", 104, serverSource);
     HELPER.assertGauge("numOpenConnections", 105, serverSource);
+    HELPER.assertGauge("numCallsInReadQueue", 106, serverSource);
+    HELPER.assertGauge("numCallsInWriteQueue", 107, serverSource);
+    HELPER.assertGauge("numCallsInScanQueue", 108, serverSource);
   }
 
   /**
@@ -56,6 +56,11 @@ public class TestSimpleRpcScheduler {
     public InetSocketAddress getListenerAddress() {
       return InetSocketAddress.createUnresolved("127.0.0.1", 1000);
     }
+
+    @Override
+    public MetricsHBaseServer getMetrics() {
+      return null;
+    }
   };
   private Configuration conf;
 
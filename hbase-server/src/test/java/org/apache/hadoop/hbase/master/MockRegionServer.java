@@ -94,6 +94,8 @@ import org.apache.hadoop.hbase.regionserver.HRegion;
 import org.apache.hadoop.hbase.regionserver.Leases;
 import org.apache.hadoop.hbase.regionserver.RegionServerAccounting;
 import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+import org.apache.hadoop.hbase.regionserver.throttle.NoLimitThroughputController;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 import org.apache.hadoop.hbase.regionserver.wal.HLog;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.zookeeper.ZooKeeperWatcher;
@@ -569,4 +571,24 @@ ClientProtos.ClientService.BlockingInterface, RegionServerServices {
       UpdateFavoredNodesRequest request) throws ServiceException {
     return null;
   }
+
+  @Override
+  public ThroughputController getCompactionThroughputController() {
+    return NoLimitThroughputController.INSTANCE;
+  }
+
+  @Override
+  public ThroughputController getFlushThroughputController() {
+    return NoLimitThroughputController.INSTANCE;
+  }
+
+  @Override
+  public double getCompactionPressure() {
+    return 0;
+  }
+
+  @Override
+  public double getFlushPressure() {
+    return 0;
+  }
 }
@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hbase.regionserver;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutationProto;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.MutationProto.MutationType;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+/**
+ * Runs batches of puts through {@link HRegion#batchMutate(Mutation[])} on a
+ * local region, the way a region server handler does, and reports the put rate
+ * and, on JVMs that can tell, the bytes allocated per put. See usage for this
+ * tool by running:
+ * <code>$ hbase org.apache.hadoop.hbase.regionserver.BatchMutatePerformanceEvaluation -h</code>
+ */
+@InterfaceAudience.Private
+public final class BatchMutatePerformanceEvaluation extends Configured implements Tool {
+  static final Log LOG = LogFactory.getLog(BatchMutatePerformanceEvaluation.class.getName());
+
+  private final HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+
+  static final String TABLE_NAME = "BatchMutatePerformanceEvaluation";
+  static final String QUALIFIER_PREFIX = "q";
+  static final String FAMILY_PREFIX = "cf";
+
+  private int numFamilies = 1;
+  private int numQualifiers = 1;
+  private int valueSize = 100;
+  private int keySize = 16;
+  private int batchSize = 100;
+  private boolean fromProtobuf = false;
+  private boolean noWal = false;
+
+  private final AtomicLong allocatedBytes = new AtomicLong();
+
+  /**
+   * Writes batches of random puts. With -pb, each put is first serialized to a
+   * MutationProto and converted back, as done on receiving it over rpc.
+   */
+  class BatchMutateBenchmark implements Runnable {
+    private final HRegion region;
+    private final long numIterations;
+
+    BatchMutateBenchmark(final HRegion region, final long numIterations) {
+      this.region = region;
+      this.numIterations = numIterations;
+    }
+
+    public void run() {
+      byte[] key = new byte[keySize];
+      byte[] value = new byte[valueSize];
+      Random rand = new Random(Thread.currentThread().getId());
+      long flushSize = region.getTableDesc().getMemStoreFlushSize();
+      if (flushSize <= 0) {
+        flushSize = HTableDescriptor.DEFAULT_MEMSTORE_FLUSH_SIZE;
+      }
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      try {
+        long allocatedBefore = getAllocatedBytes(threads);
+        long startTime = System.currentTimeMillis();
+        for (long i = 0; i < numIterations; ++i) {
+          Mutation[] batch = new Mutation[batchSize];
+          for (int j = 0; j < batchSize; j++) {
+            Put put = setupPut(rand, key, value);
+            if (fromProtobuf) {
+              MutationProto proto = ProtobufUtil.toMutation(MutationType.PUT, put);
+              put = ProtobufUtil.toPut(proto);
+            }
+            batch[j] = put;
+          }
+          region.batchMutate(batch);
+          // There is no flusher thread around a local region.
+          if (region.getMemstoreSize().get() > flushSize) {
+            region.flushcache();
+          }
+        }
+        long totalTime = (System.currentTimeMillis() - startTime);
+        allocatedBytes.addAndGet(getAllocatedBytes(threads) - allocatedBefore);
+        logBenchmarkResult(Thread.currentThread().getName(), numIterations * batchSize,
+            totalTime);
+      } catch (Exception e) {
+        LOG.error(getClass().getSimpleName() + " Thread failed", e);
+      }
+    }
+  }
+
+  /**
+   * @return the bytes allocated by the current thread so far, or 0 if the JVM does not say
+   */
+  private static long getAllocatedBytes(ThreadMXBean threads) {
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(
+          Thread.currentThread().getId());
+    }
+    return 0;
+  }
+
+  @Override
+  public int run(String[] args) throws Exception {
+    Path rootRegionDir = null;
+    int numThreads = 1;
+    long numIterations = 1000;
+    boolean cleanup = true;
+    // Process command line args
+    for (int i = 0; i < args.length; i++) {
+      String cmd = args[i];
+      try {
+        if (cmd.equals("-threads")) {
+          numThreads = Integer.parseInt(args[++i]);
+        } else if (cmd.equals("-iterations")) {
+          numIterations = Long.parseLong(args[++i]);
+        } else if (cmd.equals("-batch")) {
+          batchSize = Integer.parseInt(args[++i]);
+        } else if (cmd.equals("-path")) {
+          rootRegionDir = new Path(args[++i]);
+        } else if (cmd.equals("-families")) {
+          numFamilies = Integer.parseInt(args[++i]);
+        } else if (cmd.equals("-qualifiers")) {
+          numQualifiers = Integer.parseInt(args[++i]);
+        } else if (cmd.equals("-keySize")) {
+          keySize = Integer.parseInt(args[++i]);
+        } else if (cmd.equals("-valueSize")) {
+          valueSize = Integer.parseInt(args[++i]);
+        } else if (cmd.equals("-pb")) {
+          fromProtobuf = true;
+        } else if (cmd.equals("-nowal")) {
+          noWal = true;
+        } else if (cmd.equals("-nocleanup")) {
+          cleanup = false;
+        } else if (cmd.equals("-h")) {
+          printUsageAndExit();
+        } else if (cmd.equals("--help")) {
+          printUsageAndExit();
+        } else {
+          System.err.println("UNEXPECTED: " + cmd);
+          printUsageAndExit();
+        }
+      } catch (Exception e) {
+        printUsageAndExit();
+      }
+    }
+
+    FileSystem fs = FileSystem.get(getConf());
+    if (rootRegionDir == null) {
+      rootRegionDir = TEST_UTIL.getDataTestDir("BatchMutatePerformanceEvaluation");
+    }
+    rootRegionDir = rootRegionDir.makeQualified(fs);
+    cleanRegionRootDir(fs, rootRegionDir);
+    HRegion region = HRegion.createHRegion(new HRegionInfo(TableName.valueOf(TABLE_NAME)),
+        rootRegionDir, getConf(), createHTableDescriptor());
+    try {
+      long putTime = runBenchmark(new BatchMutateBenchmark(region, numIterations), numThreads);
+      long numPuts = numIterations * numThreads * batchSize;
+      logBenchmarkResult("Summary: threads=" + numThreads + ", iterations=" + numIterations +
+          ", batch=" + batchSize + ", pb=" + fromProtobuf + ", nowal=" + noWal, numPuts, putTime);
+      if (allocatedBytes.get() > 0) {
+        LOG.info(String.format("Allocated %.1f bytes per put", allocatedBytes.get() /
+            (double) numPuts));
+      }
+    } finally {
+      HRegion.closeHRegion(region);
+      // Remove the root dir for this test region
+      if (cleanup) cleanRegionRootDir(fs, rootRegionDir);
+    }
+    return(0);
+  }
+
+  private HTableDescriptor createHTableDescriptor() {
+    HTableDescriptor htd = new HTableDescriptor(TableName.valueOf(TABLE_NAME));
+    for (int i = 0; i < numFamilies; ++i) {
+      htd.addFamily(new HColumnDescriptor(FAMILY_PREFIX + i));
+    }
+    if (noWal) {
+      htd.setDurability(Durability.SKIP_WAL);
+    }
+    return htd;
+  }
+
+  private Put setupPut(Random rand, byte[] key, byte[] value) {
+    rand.nextBytes(key);
+    Put put = new Put(key);
+    for (int cf = 0; cf < numFamilies; ++cf) {
+      for (int q = 0; q < numQualifiers; ++q) {
+        rand.nextBytes(value);
+        put.add(Bytes.toBytes(FAMILY_PREFIX + cf), Bytes.toBytes(QUALIFIER_PREFIX + q), value);
+      }
+    }
+    return put;
+  }
+
+  private static void logBenchmarkResult(String testName, long numTests, long totalTime) {
+    float tsec = totalTime / 1000.0f;
+    LOG.info(String.format("%s took %.3fs %.3fops/s", testName, tsec, numTests / tsec));
+  }
+
+  private void printUsageAndExit() {
+    System.err.printf("Usage: bin/hbase %s [options]\n", getClass().getName());
+    System.err.println(" where [options] are:");
+    System.err.println("  -h|-help         Show this help and exit.");
+    System.err.println("  -threads <N>     Number of threads writing to the region.");
+    System.err.println("  -iterations <N>  Number of batches per thread.");
+    System.err.println("  -batch <N>       Number of puts per batch.");
+    System.err.println("  -path <PATH>     Path where region's root directory is created.");
+    System.err.println("  -families <N>    Number of column families to write.");
+    System.err.println("  -qualifiers <N>  Number of qualifiers to write.");
+    System.err.println("  -keySize <N>     Row key size in byte.");
+    System.err.println("  -valueSize <N>   Row/Col value size in byte.");
+    System.err.println("  -pb              Convert each put to and from protobuf first.");
+    System.err.println("  -nowal           Skip the WAL.");
+    System.err.println("  -nocleanup       Do NOT remove test data when done.");
+    System.err.println("");
+    System.err.println("Examples:");
+    System.err.println("");
+    System.err.println(" To run 32 threads writing batches of 100 puts received over rpc do:");
+    System.err.println(" $ ./bin/hbase org.apache.hadoop.hbase.regionserver.BatchMutatePerformanceEvaluation \\");
+    System.err.println("    -threads 32 -batch 100 -pb");
+    System.exit(1);
+  }
+
+  private void cleanRegionRootDir(final FileSystem fs, final Path dir) throws IOException {
+    if (fs.exists(dir)) {
+      fs.delete(dir, true);
+    }
+  }
+
+  private long runBenchmark(Runnable runnable, final int numThreads) throws InterruptedException {
+    Thread[] threads = new Thread[numThreads];
+    long startTime = System.currentTimeMillis();
+    for (int i = 0; i < numThreads; ++i) {
+      threads[i] = new Thread(runnable, "t" + i);
+      threads[i].start();
+    }
+    for (Thread t : threads) t.join();
+    long endTime = System.currentTimeMillis();
+    return(endTime - startTime);
+  }
+
+  /**
+   * The guts of the {@link #main} method.
+   * Call this method to avoid the {@link #main(String[])} System.exit.
+   * @param args
+   * @return errCode
+   * @throws Exception
+   */
+  static int innerMain(final Configuration c, final String [] args) throws Exception {
+    return ToolRunner.run(c, new BatchMutatePerformanceEvaluation(), args);
+  }
+
+  public static void main(String[] args) throws Exception {
+     System.exit(innerMain(HBaseConfiguration.create(), args));
+  }
+}
@@ -140,6 +140,26 @@ public class MetricsRegionServerWrapperStub implements MetricsRegionServerWrappe
     return 412;
   }
 
+  @Override
+  public long getCompactionThroughputLimit() {
+    return 420;
+  }
+
+  @Override
+  public long getCompactionThroughput() {
+    return 421;
+  }
+
+  @Override
+  public long getCompactionThrottledTime() {
+    return 422;
+  }
+
+  @Override
+  public long getFlushThrottledTime() {
+    return 423;
+  }
+
   @Override
   public long getBlockCacheFreeSize() {
     return 413;
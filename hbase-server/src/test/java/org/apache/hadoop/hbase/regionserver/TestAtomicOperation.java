@@ -598,17 +598,18 @@ public class TestAtomicOperation {
     }
 
     @Override
-    public RowLock getRowLock(final byte[] row, boolean waitForLock) throws IOException {
+    public RowLock getRowLock(final byte[] row, boolean waitForLock, boolean shared)
+        throws IOException {
       if (testStep == TestStep.CHECKANDPUT_STARTED) {
         latch.countDown();
       }
-      return new WrappedRowLock(super.getRowLock(row, waitForLock));
+      return new WrappedRowLock(super.getRowLock(row, waitForLock, shared));
     }
     
     public class WrappedRowLock extends RowLock {
 
       private WrappedRowLock(RowLock rowLock) {
-        super(rowLock.context);
+        super(rowLock.context, rowLock.shared);
       }
 
       @Override
@@ -63,6 +63,8 @@ import org.apache.hadoop.hbase.regionserver.compactions.CompactionProgress;
 import org.apache.hadoop.hbase.regionserver.compactions.CompactionRequest;
 import org.apache.hadoop.hbase.regionserver.compactions.Compactor;
 import org.apache.hadoop.hbase.regionserver.compactions.RatioBasedCompactionPolicy;
+import org.apache.hadoop.hbase.regionserver.throttle.NoLimitThroughputController;
+import org.apache.hadoop.hbase.regionserver.throttle.ThroughputController;
 import org.apache.hadoop.hbase.regionserver.wal.HLog;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.hadoop.hbase.util.Pair;
@@ -768,7 +770,8 @@ public class TestCompaction extends HBaseTestCase {
       }
 
       @Override
-      public List<Path> compact() throws IOException {
+      public List<Path> compact(ThroughputController throughputController)
+          throws IOException {
         finishCompaction(this.selectedFiles);
         return new ArrayList<Path>();
       }
@@ -819,7 +822,8 @@ public class TestCompaction extends HBaseTestCase {
       }
 
       @Override
-      public List<Path> compact() throws IOException {
+      public List<Path> compact(ThroughputController throughputController)
+          throws IOException {
         try {
           isInCompact = true;
           synchronized (this) { this.wait(); }
@@ -896,7 +900,8 @@ public class TestCompaction extends HBaseTestCase {
     HRegion r = mock(HRegion.class);
     when(r.compact(any(CompactionContext.class), any(Store.class))).then(new Answer<Boolean>() {
       public Boolean answer(InvocationOnMock invocation) throws Throwable {
-        ((CompactionContext)invocation.getArguments()[0]).compact();
+        ((CompactionContext)invocation.getArguments()[0]).compact(
+            NoLimitThroughputController.INSTANCE);
         return true;
       }
     });
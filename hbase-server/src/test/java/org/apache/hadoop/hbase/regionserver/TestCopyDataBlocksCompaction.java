@@ -0,0 +1,237 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.MediumTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.io.hfile.HFileReaderV2;
+import org.apache.hadoop.hbase.regionserver.compactions.Compactor;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that a minor compaction of files with disjoint row ranges copies
+ * their data blocks and still produces a fully readable store file.
+ */
+@RunWith(Parameterized.class)
+@Category(MediumTests.class)
+public class TestCopyDataBlocksCompaction {
+  private static final HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+  private static final byte[] FAMILY = Bytes.toBytes("f");
+  private static final byte[][] QUALIFIERS = { Bytes.toBytes("a"), Bytes.toBytes("b") };
+  private static final int FILES = 4;
+  private static final int ROWS_PER_FILE = 50;
+
+  private final DataBlockEncoding encoding;
+  private final Compression.Algorithm compression;
+
+  @Parameters
+  public static Collection<Object[]> parameters() {
+    return Arrays.asList(new Object[][] {
+        { DataBlockEncoding.NONE, Compression.Algorithm.NONE },
+        { DataBlockEncoding.FAST_DIFF, Compression.Algorithm.GZ } });
+  }
+
+  public TestCopyDataBlocksCompaction(DataBlockEncoding encoding,
+      Compression.Algorithm compression) {
+    this.encoding = encoding;
+    this.compression = compression;
+  }
+
+  private static byte[] row(int i) {
+    return Bytes.toBytes(String.format("row%05d", i));
+  }
+
+  private static byte[] value(int i, int q) {
+    byte[] value = new byte[200];
+    Bytes.putInt(value, 0, i);
+    Bytes.putInt(value, 4, q);
+    return value;
+  }
+
+  private HRegion createRegion(boolean copyDataBlocks) throws Exception {
+    Configuration conf = TEST_UTIL.getConfiguration();
+    conf.setBoolean(Compactor.COMPACTION_COPY_DATA_BLOCKS_KEY, copyDataBlocks);
+    HColumnDescriptor hcd = new HColumnDescriptor(FAMILY);
+    hcd.setBlocksize(1024);
+    hcd.setBloomFilterType(BloomType.ROWCOL);
+    hcd.setDataBlockEncoding(encoding);
+    hcd.setCompressionType(compression);
+    HTableDescriptor htd = new HTableDescriptor(
+        TableName.valueOf("TestCopyDataBlocksCompaction"));
+    htd.addFamily(hcd);
+    return TEST_UTIL.createLocalHRegion(htd, null, null);
+  }
+
+  /**
+   * Flushes one file per row range. The first row of each range is deleted
+   * so that the files also carry delete family markers.
+   */
+  private static void loadFiles(HRegion region, boolean overlapping) throws Exception {
+    for (int f = 0; f < FILES; f++) {
+      for (int i = 0; i < ROWS_PER_FILE; i++) {
+        int r = overlapping ? i * FILES + f : f * ROWS_PER_FILE + i;
+        Put put = new Put(row(r));
+        for (int q = 0; q < QUALIFIERS.length; q++) {
+          put.add(FAMILY, QUALIFIERS[q], value(r, q));
+        }
+        region.put(put);
+      }
+      int deleted = overlapping ? f : f * ROWS_PER_FILE;
+      region.delete(new Delete(row(deleted)));
+      region.flushcache();
+    }
+  }
+
+  private static List<Cell> scanAll(HRegion region) throws Exception {
+    Scan scan = new Scan();
+    scan.setRaw(true);
+    scan.setMaxVersions();
+    RegionScanner scanner = region.getScanner(scan);
+    List<Cell> cells = new ArrayList<Cell>();
+    boolean more;
+    do {
+      more = scanner.next(cells);
+    } while (more);
+    scanner.close();
+    return cells;
+  }
+
+  private static int countDataBlocks(StoreFile sf) throws Exception {
+    HFileReaderV2.DataBlockScanner scanner =
+        ((HFileReaderV2) sf.getReader().getHFileReader()).getDataBlockScanner();
+    int blocks = 0;
+    while (scanner.next()) {
+      blocks++;
+    }
+    return blocks;
+  }
+
+  private static void verifyReads(HRegion region, boolean overlapping) throws Exception {
+    for (int r = 0; r < FILES * ROWS_PER_FILE; r++) {
+      boolean deleted = overlapping ? r < FILES : r % ROWS_PER_FILE == 0;
+      for (int q = 0; q < QUALIFIERS.length; q++) {
+        Get get = new Get(row(r));
+        get.addColumn(FAMILY, QUALIFIERS[q]);
+        Result result = region.get(get);
+        if (deleted) {
+          assertTrue(result.isEmpty());
+        } else {
+          assertArrayEquals(value(r, q), result.getValue(FAMILY, QUALIFIERS[q]));
+        }
+      }
+      if (!deleted && !overlapping) {
+        // Looking up the row before a key just past this row walks back
+        // with seekBefore, which follows the previous block offsets.
+        byte[] after = Bytes.add(row(r), new byte[] { 0 });
+        Result result = region.getClosestRowBefore(after, FAMILY);
+        assertArrayEquals(row(r), result.getRow());
+      }
+    }
+  }
+
+  private void compactAndVerify(boolean copyDataBlocks, boolean overlapping)
+      throws Exception {
+    HRegion region = createRegion(copyDataBlocks);
+    try {
+      loadFiles(region, overlapping);
+      HStore store = (HStore) region.getStore(FAMILY);
+      assertEquals(FILES, store.getStorefilesCount());
+      List<Cell> expected = scanAll(region);
+
+      // Leave the oldest file out, so that this is a minor compaction.
+      List<StoreFile> inputs = new ArrayList<StoreFile>(store.getStorefiles());
+      StoreFile untouched = inputs.remove(0);
+      int inputBlocks = 0;
+      long inputEntries = 0;
+      long inputDeleteFamilies = 0;
+      for (StoreFile sf : inputs) {
+        inputBlocks += countDataBlocks(sf);
+        inputEntries += sf.getReader().getEntries();
+        inputDeleteFamilies += sf.getReader().getDeleteFamilyCnt();
+      }
+
+      store.compactRecentForTestingAssumingDefaultPolicy(FILES - 1);
+      assertEquals(2, store.getStorefilesCount());
+      StoreFile output = null;
+      for (StoreFile sf : store.getStorefiles()) {
+        if (sf != untouched) {
+          output = sf;
+        }
+      }
+      assertEquals(inputEntries, output.getReader().getEntries());
+      assertEquals(inputDeleteFamilies, output.getReader().getDeleteFamilyCnt());
+      if (copyDataBlocks && !overlapping) {
+        assertEquals(inputBlocks, countDataBlocks(output));
+      }
+
+      List<Cell> actual = scanAll(region);
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertEquals(expected.get(i), actual.get(i));
+        assertArrayEquals(CellUtil.cloneValue(expected.get(i)),
+            CellUtil.cloneValue(actual.get(i)));
+      }
+      verifyReads(region, overlapping);
+    } finally {
+      HRegion.closeHRegion(region);
+    }
+  }
+
+  @Test
+  public void testCopyDisjointFiles() throws Exception {
+    compactAndVerify(true, false);
+  }
+
+  @Test
+  public void testMergeOverlappingFiles() throws Exception {
+    compactAndVerify(true, true);
+  }
+
+  @Test
+  public void testMergeWhenDisabled() throws Exception {
+    compactAndVerify(false, false);
+  }
+}
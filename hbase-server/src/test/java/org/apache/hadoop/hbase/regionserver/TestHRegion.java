@@ -31,11 +31,16 @@ import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -51,6 +56,7 @@ import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellComparator;
 import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.CompatibilitySingletonFactory;
+import org.apache.hadoop.hbase.Coprocessor;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HBaseTestCase;
 import org.apache.hadoop.hbase.HBaseTestingUtility;
@@ -70,6 +76,7 @@ import org.apache.hadoop.hbase.NotServingRegionException;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.Waiter;
 import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Durability;
 import org.apache.hadoop.hbase.client.Get;
@@ -78,6 +85,9 @@ import org.apache.hadoop.hbase.client.Increment;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
+import org.apache.hadoop.hbase.coprocessor.ObserverContext;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
 import org.apache.hadoop.hbase.exceptions.FailedSanityCheckException;
 import org.apache.hadoop.hbase.filter.BinaryComparator;
 import org.apache.hadoop.hbase.filter.ColumnCountGetFilter;
@@ -766,6 +776,112 @@ public class TestHRegion extends HBaseTestCase {
     }
   }
 
+  public void testSharedRowLocks() throws Exception {
+    byte[] cf = Bytes.toBytes(COLUMN_FAMILY);
+    final byte[] row = Bytes.toBytes("row");
+    this.region = initHRegion(Bytes.toBytes(getName()), getName(), conf, cf);
+    ExecutorService other = Executors.newSingleThreadExecutor();
+    try {
+      // Tries to lock the row from another thread, and releases the lock right away.
+      class TryLock implements Callable<Boolean> {
+        private final boolean shared;
+        TryLock(boolean shared) {
+          this.shared = shared;
+        }
+        @Override
+        public Boolean call() throws IOException {
+          RowLock lock = region.getRowLock(row, false, shared);
+          if (lock == null) {
+            return false;
+          }
+          lock.release();
+          return true;
+        }
+      }
+
+      RowLock shared = region.getRowLock(row, false, true);
+      assertTrue(shared.isShared());
+      assertTrue(other.submit(new TryLock(true)).get());
+      assertFalse(other.submit(new TryLock(false)).get());
+      // Puts share the row lock, so they go through.
+      Put put = new Put(row);
+      put.add(cf, cf, cf);
+      assertEquals(OperationStatusCode.SUCCESS,
+          region.batchMutate(new Put[] { put })[0].getOperationStatusCode());
+      shared.release();
+      assertTrue(other.submit(new TryLock(false)).get());
+
+      RowLock exclusive = region.getRowLock(row);
+      assertFalse(exclusive.isShared());
+      assertFalse(other.submit(new TryLock(true)).get());
+      // The thread holding the exclusive lock can take the row again either way.
+      region.getRowLock(row, false, true).release();
+      region.getRowLock(row, false, false).release();
+      exclusive.release();
+      assertTrue(other.submit(new TryLock(true)).get());
+    } finally {
+      other.shutdown();
+      HRegion.closeHRegion(this.region);
+      this.region = null;
+    }
+  }
+
+  public void testExclusiveRowLockNotStarvedBySharedLocks() throws Exception {
+    byte[] cf = Bytes.toBytes(COLUMN_FAMILY);
+    final byte[] row = Bytes.toBytes("row");
+    this.region = initHRegion(Bytes.toBytes(getName()), getName(), conf, cf);
+    ExecutorService others = Executors.newFixedThreadPool(3);
+    try {
+      final List<String> acquired = Collections.synchronizedList(new ArrayList<String>());
+      RowLock shared = region.getRowLock(row, true, true);
+      Future<?> writer = others.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          RowLock lock = region.getRowLock(row);
+          acquired.add("exclusive");
+          lock.release();
+          return null;
+        }
+      });
+      Callable<Boolean> tryShared = new Callable<Boolean>() {
+        @Override
+        public Boolean call() throws IOException {
+          RowLock lock = region.getRowLock(row, false, true);
+          if (lock == null) {
+            return false;
+          }
+          lock.release();
+          return true;
+        }
+      };
+      // Shared lockers keep coming while the row is share locked. Once the writer waits,
+      // they must wait behind it rather than keep the row share locked forever.
+      long deadline = System.currentTimeMillis() + 10000;
+      while (others.submit(tryShared).get()) {
+        assertTrue("Shared lockers went ahead of a waiting writer",
+            System.currentTimeMillis() < deadline);
+        Thread.sleep(10);
+      }
+      Future<?> reader = others.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws IOException {
+          RowLock lock = region.getRowLock(row, true, true);
+          acquired.add("shared");
+          lock.release();
+          return null;
+        }
+      });
+      shared.release();
+      writer.get();
+      reader.get();
+      assertEquals(Arrays.asList("exclusive", "shared"), acquired);
+    } finally {
+      others.shutdown();
+      HRegion.closeHRegion(this.region);
+      this.region = null;
+    }
+  }
+
   public void testBatchPut() throws Exception {
     byte[] b = Bytes.toBytes(getName());
     byte[] cf = Bytes.toBytes(COLUMN_FAMILY);
@@ -1029,6 +1145,58 @@ public class TestHRegion extends HBaseTestCase {
     }
   }
 
+  public void testCheckAndMutate_Batch() throws IOException {
+    byte [] tableName = Bytes.toBytes("testtable");
+    byte [] row1 = Bytes.toBytes("row1");
+    byte [] row2 = Bytes.toBytes("row2");
+    byte [] fam1 = Bytes.toBytes("fam1");
+    byte [] fam2 = Bytes.toBytes("fam2");
+    byte [] qf1  = Bytes.toBytes("qualifier");
+    byte [] val1  = Bytes.toBytes("value1");
+    byte [] val2  = Bytes.toBytes("value2");
+    byte [] val3  = Bytes.toBytes("value3");
+
+    //Setting up region
+    String method = this.getName();
+    this.region = initHRegion(tableName, method, conf, fam1);
+    try {
+      Put put = new Put(row1);
+      put.add(fam1, qf1, val1);
+      region.put(put);
+
+      Put put1 = new Put(row1);
+      put1.add(fam1, qf1, val2);
+      Put put2 = new Put(row2);
+      put2.add(fam1, qf1, val1);
+      Put put3 = new Put(row1);
+      put3.add(fam1, qf1, val3);
+      Delete delete = new Delete(row2);
+      delete.deleteColumns(fam1, qf1);
+      CheckAndMutate[] checks = new CheckAndMutate[] {
+        new CheckAndMutate(fam1, qf1, val1, put1),
+        new CheckAndMutate(fam1, qf1, (byte[])null, put2),
+        // Sees the first put of its row.
+        new CheckAndMutate(fam1, qf1, val1, put3),
+        new CheckAndMutate(fam2, qf1, val2, put3),
+        // Sees the second put.
+        new CheckAndMutate(fam1, qf1, val1, delete)
+      };
+      OperationStatus[] statuses = region.checkAndMutate(checks);
+      assertEquals(OperationStatusCode.SUCCESS, statuses[0].getOperationStatusCode());
+      assertEquals(OperationStatusCode.SUCCESS, statuses[1].getOperationStatusCode());
+      assertEquals(OperationStatusCode.NOT_RUN, statuses[2].getOperationStatusCode());
+      assertEquals(OperationStatusCode.BAD_FAMILY, statuses[3].getOperationStatusCode());
+      assertEquals(OperationStatusCode.SUCCESS, statuses[4].getOperationStatusCode());
+
+      Result r = region.get(new Get(row1));
+      assertTrue(Bytes.equals(val2, r.getValue(fam1, qf1)));
+      assertTrue(region.get(new Get(row2)).isEmpty());
+    } finally {
+      HRegion.closeHRegion(this.region);
+      this.region = null;
+    }
+  }
+
   public void testCheckAndPut_ThatPutWasWritten() throws IOException{
     byte [] tableName = Bytes.toBytes("testtable");
     byte [] row1 = Bytes.toBytes("row1");
@@ -1673,6 +1841,146 @@ public class TestHRegion extends HBaseTestCase {
     }
   }
 
+  public void testGet_Batch() throws Exception {
+    byte [] tableName = Bytes.toBytes("testGet_Batch");
+    byte [][] families = {fam1, fam2};
+    byte [] col1 = Bytes.toBytes("col1");
+    byte [] col2 = Bytes.toBytes("col2");
+    int numRows = 50;
+
+    String method = this.getName();
+    this.region = initHRegion(tableName, method, conf, families);
+    try {
+      // Two versions of each row, the older one in a store file.
+      for (int version = 1; version <= 2; version++) {
+        for (int i = 0; i < numRows; i++) {
+          Put put = new Put(Bytes.toBytes(String.format("row%03d", i)));
+          put.add(fam1, col1, version, Bytes.toBytes(i));
+          put.add(fam1, col2, version, Bytes.toBytes(i));
+          put.add(fam2, col1, version, Bytes.toBytes(i));
+          region.put(put);
+        }
+        if (version == 1) {
+          region.flushcache();
+        }
+      }
+
+      // Gets in no particular order, including missing rows, repeated rows, and gets that
+      // cannot share a scanner with the others.
+      int[] rows = { 42, 3, 17, 60, 3, 0, 49, 25, 26, 27, 55, 8, 17 };
+      List<Get> batch = new ArrayList<Get>();
+      List<Get> single = new ArrayList<Get>();
+      for (List<Get> gets : Arrays.asList(batch, single)) {
+        for (int j = 0; j < rows.length; j++) {
+          Get get = new Get(Bytes.toBytes(String.format("row%03d", rows[j])));
+          switch (j % 4) {
+          case 1:
+            get.addColumn(fam1, col2);
+            break;
+          case 2:
+            get.setMaxVersions(2);
+            get.addFamily(fam2);
+            break;
+          case 3:
+            if (j == 3) {
+              get.setFilter(new ColumnCountGetFilter(1));
+            } else {
+              get.setTimeRange(0, 2);
+            }
+            break;
+          default:
+            break;
+          }
+          gets.add(get);
+        }
+      }
+
+      GetStatus[] results = region.get(batch);
+      assertEquals(rows.length, results.length);
+      for (int j = 0; j < rows.length; j++) {
+        assertTrue(results[j].isSuccess());
+        Result result = results[j].getResult();
+        Result.compareResults(region.get(single.get(j)), result);
+        assertEquals(rows[j] >= numRows, result.isEmpty());
+      }
+    } finally {
+      HRegion.closeHRegion(this.region);
+      this.region = null;
+    }
+  }
+
+  /**
+   * Counts get hooks, and fails the post-get hook of gets on {@link #FAILING_ROW}.
+   */
+  public static class GetCountingObserver extends BaseRegionObserver {
+    static final byte[] FAILING_ROW = Bytes.toBytes("row007");
+    final AtomicInteger preGets = new AtomicInteger();
+    final AtomicInteger postGets = new AtomicInteger();
+
+    @Override
+    public void preGetOp(final ObserverContext<RegionCoprocessorEnvironment> e,
+        final Get get, final List<Cell> results) throws IOException {
+      preGets.incrementAndGet();
+    }
+
+    @Override
+    public void postGetOp(final ObserverContext<RegionCoprocessorEnvironment> e,
+        final Get get, final List<Cell> results) throws IOException {
+      postGets.incrementAndGet();
+      if (Bytes.equals(FAILING_ROW, get.getRow())) {
+        throw new IOException("Failing post-get hook");
+      }
+    }
+  }
+
+  public void testGet_BatchFailures() throws Exception {
+    byte [] tableName = Bytes.toBytes("testGet_BatchFailures");
+    byte [] col1 = Bytes.toBytes("col1");
+    int numRows = 10;
+
+    String method = this.getName();
+    this.region = initHRegion(tableName, method, conf, fam1);
+    try {
+      RegionCoprocessorHost host = new RegionCoprocessorHost(region, null, conf);
+      region.setCoprocessorHost(host);
+      host.load(GetCountingObserver.class, Coprocessor.PRIORITY_USER, conf);
+      GetCountingObserver observer =
+          (GetCountingObserver) host.findCoprocessor(GetCountingObserver.class.getName());
+      for (int i = 0; i < numRows; i++) {
+        Put put = new Put(Bytes.toBytes(String.format("row%03d", i)));
+        put.add(fam1, col1, Bytes.toBytes(i));
+        region.put(put);
+      }
+
+      List<Get> gets = new ArrayList<Get>();
+      for (int i = 0; i < numRows; i++) {
+        Get get = new Get(Bytes.toBytes(String.format("row%03d", i)));
+        // One get asks for a family the table does not have.
+        get.addFamily(i == 2 ? fam2 : fam1);
+        gets.add(get);
+      }
+      GetStatus[] results = region.get(gets);
+      assertEquals(numRows, results.length);
+      for (int i = 0; i < numRows; i++) {
+        if (i == 2) {
+          assertTrue(results[i].getException() instanceof NoSuchColumnFamilyException);
+        } else if (i == 7) {
+          assertFalse(results[i].isSuccess());
+          assertNull(results[i].getResult());
+        } else {
+          assertTrue(results[i].isSuccess());
+          assertEquals(i, Bytes.toInt(results[i].getResult().getValue(fam1, col1)));
+        }
+      }
+      // The invalid get never reached the hooks, and no get went through them twice.
+      assertEquals(numRows - 1, observer.preGets.get());
+      assertEquals(numRows - 1, observer.postGets.get());
+    } finally {
+      HRegion.closeHRegion(this.region);
+      this.region = null;
+    }
+  }
+
   public void testGet_Empty() throws IOException {
     byte [] tableName = Bytes.toBytes("emptytable");
     byte [] row = Bytes.toBytes("row");
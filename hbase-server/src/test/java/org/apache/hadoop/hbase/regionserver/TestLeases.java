@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.regionserver.Leases.LeaseStillHeldException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestLeases {
+  private Leases leases;
+
+  static class LatchListener implements LeaseListener {
+    final CountDownLatch expired = new CountDownLatch(1);
+    volatile long expiredAt;
+
+    @Override
+    public void leaseExpired() {
+      expiredAt = System.currentTimeMillis();
+      expired.countDown();
+    }
+  }
+
+  @Before
+  public void setUp() {
+    leases = new Leases(Leases.MIN_WAIT_TIME);
+    leases.start();
+  }
+
+  @After
+  public void tearDown() {
+    leases.close();
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    LatchListener listener = new LatchListener();
+    long start = System.currentTimeMillis();
+    leases.createLease("a", 300, listener);
+    try {
+      leases.createLease("a", 300, listener);
+      fail("Lease a is held already");
+    } catch (LeaseStillHeldException e) {
+      // Expected
+    }
+    assertTrue(listener.expired.await(10, TimeUnit.SECONDS));
+    assertTrue(listener.expiredAt - start >= 300);
+    // The listener runs before the lease goes.
+    for (int i = 0; i < 100; i++) {
+      try {
+        leases.renewLease("a");
+      } catch (LeaseException e) {
+        return;
+      }
+      Thread.sleep(10);
+    }
+    fail("Lease a is still there after expiring");
+  }
+
+  @Test
+  public void testRenewal() throws Exception {
+    LatchListener listener = new LatchListener();
+    leases.createLease("a", 500, listener);
+    for (int i = 0; i < 15; i++) {
+      Thread.sleep(100);
+      leases.renewLease("a");
+    }
+    assertEquals(1, listener.expired.getCount());
+    long lastRenewal = System.currentTimeMillis();
+    assertTrue(listener.expired.await(10, TimeUnit.SECONDS));
+    assertTrue(listener.expiredAt - lastRenewal >= 500);
+  }
+
+  @Test
+  public void testRemoveAndAddBack() throws Exception {
+    LatchListener listener = new LatchListener();
+    leases.createLease("a", 200, listener);
+    Leases.Lease lease = leases.removeLease("a");
+    Thread.sleep(500);
+    assertEquals(1, listener.expired.getCount());
+    long start = System.currentTimeMillis();
+    leases.addLease(lease);
+    assertTrue(listener.expired.await(10, TimeUnit.SECONDS));
+    assertTrue(listener.expiredAt - start >= 200);
+
+    listener = new LatchListener();
+    leases.createLease("b", 200, listener);
+    leases.cancelLease("b");
+    assertFalse(listener.expired.await(500, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testLeaseLongerThanWheel() throws Exception {
+    leases.close();
+    // Ticks of a millisecond, so a turn of the wheel is about a second.
+    leases = new Leases(1);
+    leases.start();
+    LatchListener listener = new LatchListener();
+    long start = System.currentTimeMillis();
+    leases.createLease("a", 2500, listener);
+    assertTrue(listener.expired.await(10, TimeUnit.SECONDS));
+    assertTrue(listener.expiredAt - start >= 2500);
+  }
+}
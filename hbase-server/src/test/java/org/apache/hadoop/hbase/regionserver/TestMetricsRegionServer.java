@@ -84,6 +84,10 @@ public class TestMetricsRegionServer {
     HELPER.assertGauge("blockCountHitPercent", 98, serverSource);
     HELPER.assertGauge("blockCacheExpressHitPercent", 97, serverSource);
     HELPER.assertCounter("updatesBlockedTime", 419, serverSource);
+    HELPER.assertGauge("compactionThroughputLimit", 420, serverSource);
+    HELPER.assertGauge("compactionThroughput", 421, serverSource);
+    HELPER.assertCounter("compactionThrottledTime", 422, serverSource);
+    HELPER.assertCounter("flushThrottledTime", 423, serverSource);
   }
 
   @Test
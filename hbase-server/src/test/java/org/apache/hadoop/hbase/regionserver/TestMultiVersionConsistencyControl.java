@@ -129,4 +129,43 @@ public class TestMultiVersionConsistencyControl extends TestCase {
 
   }
 
+  public void testOutOfOrderCompletion() throws Exception {
+    final MultiVersionConsistencyControl mvcc = new MultiVersionConsistencyControl();
+    mvcc.initialize(10);
+    MultiVersionConsistencyControl.WriteEntry first = mvcc.beginMemstoreInsert();
+    MultiVersionConsistencyControl.WriteEntry second = mvcc.beginMemstoreInsert();
+    // The second write is not visible until the first one is.
+    assertFalse(mvcc.advanceMemstore(second));
+    assertEquals(10, mvcc.memstoreReadPoint());
+    assertTrue(mvcc.advanceMemstore(first));
+    assertEquals(12, mvcc.memstoreReadPoint());
+    mvcc.waitForRead(second);
+  }
+
+  public void testMoreWritesThanRing() throws Exception {
+    final MultiVersionConsistencyControl mvcc = new MultiVersionConsistencyControl();
+    final MultiVersionConsistencyControl.WriteEntry first = mvcc.beginMemstoreInsert();
+    for (int i = 1; i < MultiVersionConsistencyControl.RING_SIZE; i++) {
+      mvcc.beginMemstoreInsert();
+    }
+    final AtomicLong overflow = new AtomicLong();
+    Thread writer = new Thread() {
+      public void run() {
+        MultiVersionConsistencyControl.WriteEntry e = mvcc.beginMemstoreInsert();
+        overflow.set(e.getWriteNumber());
+        mvcc.completeMemstoreInsert(e);
+      }
+    };
+    writer.start();
+    // The ring is full: the new write waits for the first one to be visible.
+    Thread.sleep(100);
+    assertEquals(0, overflow.get());
+    mvcc.completeMemstoreInsert(first);
+    assertEquals(1, mvcc.memstoreReadPoint());
+    while (overflow.get() == 0) {
+      Thread.sleep(10);
+    }
+    assertEquals(MultiVersionConsistencyControl.RING_SIZE + 1, overflow.get());
+  }
+
 }
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Coprocessor;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
+import org.apache.hadoop.hbase.coprocessor.ObserverContext;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.regionserver.wal.WALEdit;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestRegionCoprocessorHost {
+  static final AtomicInteger prePuts = new AtomicInteger();
+
+  public static class PrePutObserver extends BaseRegionObserver {
+    @Override
+    public void prePut(ObserverContext<RegionCoprocessorEnvironment> e, Put put, WALEdit edit,
+        Durability durability) throws IOException {
+      prePuts.incrementAndGet();
+    }
+  }
+
+  public static class PreOpenObserver extends BaseRegionObserver {
+    @Override
+    public void preOpen(ObserverContext<RegionCoprocessorEnvironment> e) {
+    }
+  }
+
+  /** Overrides nothing, but through a class of its own. */
+  public static class SubclassedObserver extends PrePutObserver {
+  }
+
+  private Configuration conf;
+  private RegionCoprocessorHost host;
+
+  @Before
+  public void setUp() {
+    conf = HBaseConfiguration.create();
+    TableName tableName = TableName.valueOf("TestRegionCoprocessorHost");
+    HRegion region = mock(HRegion.class);
+    when(region.getRegionInfo()).thenReturn(new HRegionInfo(tableName));
+    when(region.getTableDesc()).thenReturn(new HTableDescriptor(tableName));
+    host = new RegionCoprocessorHost(region, mock(RegionServerServices.class), conf);
+    prePuts.set(0);
+  }
+
+  @Test
+  public void testObserversByHook() throws IOException {
+    assertEquals(0, host.getObservers("prePut").length);
+    assertFalse(host.hasBatchMutationObservers());
+
+    host.load(PreOpenObserver.class, Coprocessor.PRIORITY_USER, conf);
+    assertEquals(0, host.getObservers("prePut").length);
+    assertEquals(1, host.getObservers("preOpen").length);
+    assertFalse(host.hasBatchMutationObservers());
+
+    host.load(PrePutObserver.class, Coprocessor.PRIORITY_USER, conf);
+    assertEquals(1, host.getObservers("prePut").length);
+    assertEquals(0, host.getObservers("postPut").length);
+    assertTrue(host.hasBatchMutationObservers());
+
+    host.load(SubclassedObserver.class, Coprocessor.PRIORITY_USER, conf);
+    assertEquals(2, host.getObservers("prePut").length);
+    assertEquals(0, host.getObservers("postPut").length);
+
+    host.prePut(new Put(Bytes.toBytes("row")), new WALEdit(), Durability.USE_DEFAULT);
+    assertEquals(2, prePuts.get());
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.MediumTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.exceptions.DeserializationException;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterBase;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Threads;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Tests that scan rpcs are cut short by the server's time limit while skipping filtered rows,
+ * and that the client keeps calling the same region scanner until it finds its rows.
+ */
+@Category(MediumTests.class)
+public class TestScannerHeartbeatMessages {
+  private final static HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+
+  private static final byte[] FAMILY = Bytes.toBytes("f");
+  private static final byte[] QUALIFIER = Bytes.toBytes("q");
+  private static final int NUM_ROWS = 100;
+  /** Only every MATCH_INTERVAL'th row passes the filter. */
+  private static final int MATCH_INTERVAL = 25;
+  private static final int FILTER_SLEEP = 30;
+  private static final int SERVER_TIME_LIMIT = 200;
+  private static final int CLIENT_RPC_TIMEOUT = 500;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    TEST_UTIL.getConfiguration().setLong("hbase.regionserver.scanner.time.limit",
+      SERVER_TIME_LIMIT);
+    TEST_UTIL.startMiniCluster();
+  }
+
+  @AfterClass
+  public static void tearDownAfterClass() throws Exception {
+    TEST_UTIL.shutdownMiniCluster();
+  }
+
+  private static byte[] row(int i) {
+    return Bytes.toBytes(String.format("row%03d", i));
+  }
+
+  private static void loadRows(HTable table) throws IOException {
+    List<Put> puts = new ArrayList<Put>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Put p = new Put(row(i));
+      p.setDurability(Durability.SKIP_WAL);
+      p.add(FAMILY, QUALIFIER, Bytes.toBytes(i));
+      puts.add(p);
+    }
+    table.put(puts);
+    table.flushCommits();
+  }
+
+  /**
+   * Filters out all rows except every {@link #MATCH_INTERVAL}'th, sleeping on each one so that
+   * the time between matches is longer than the client rpc timeout.
+   */
+  public static class SparseSlowFilter extends FilterBase {
+    @Override
+    public boolean filterRowKey(byte[] buffer, int offset, int length) throws IOException {
+      Threads.sleep(FILTER_SLEEP);
+      int i = Integer.parseInt(Bytes.toString(buffer, offset + 3, length - 3));
+      return i % MATCH_INTERVAL != MATCH_INTERVAL - 1;
+    }
+
+    public static Filter parseFrom(final byte [] pbBytes) throws DeserializationException {
+      return new SparseSlowFilter();
+    }
+  }
+
+  @Test
+  public void testScanOutlastingRpcTimeout() throws Exception {
+    TableName tableName = TableName.valueOf("testScanOutlastingRpcTimeout");
+    HTable table = TEST_UTIL.createTable(tableName, FAMILY);
+    loadRows(table);
+    table.close();
+
+    Configuration conf = HBaseConfiguration.create(TEST_UTIL.getConfiguration());
+    conf.setInt(HConstants.HBASE_RPC_TIMEOUT_KEY, CLIENT_RPC_TIMEOUT);
+    conf.setInt(HConstants.HBASE_CLIENT_RETRIES_NUMBER, 1);
+    table = new HTable(conf, tableName);
+    try {
+      Scan scan = new Scan();
+      scan.setFilter(new SparseSlowFilter());
+      scan.setCaching(NUM_ROWS);
+      ResultScanner scanner = table.getScanner(scan);
+      int count = 0;
+      for (Result r : scanner) {
+        int i = Bytes.toInt(r.getValue(FAMILY, QUALIFIER));
+        assertEquals(MATCH_INTERVAL - 1, i % MATCH_INTERVAL);
+        count++;
+      }
+      scanner.close();
+      assertEquals(NUM_ROWS / MATCH_INTERVAL, count);
+    } finally {
+      table.close();
+    }
+  }
+
+  @Test
+  public void testNextRawStopsAtTimeLimit() throws Exception {
+    HTableDescriptor htd = new HTableDescriptor(TableName.valueOf("testNextRawStopsAtTimeLimit"));
+    htd.addFamily(new HColumnDescriptor(FAMILY));
+    HRegionInfo info = new HRegionInfo(htd.getTableName(), null, null, false);
+    HRegion region = HRegion.createHRegion(info, TEST_UTIL.getDataTestDir(),
+      TEST_UTIL.getConfiguration(), htd);
+    try {
+      for (int i = 0; i < MATCH_INTERVAL; i++) {
+        Put p = new Put(row(i));
+        p.setDurability(Durability.SKIP_WAL);
+        p.add(FAMILY, QUALIFIER, Bytes.toBytes(i));
+        region.put(p);
+      }
+      Scan scan = new Scan();
+      scan.setFilter(new SparseSlowFilter());
+      RegionScanner scanner = region.getScanner(scan);
+      List<Cell> values = new ArrayList<Cell>();
+      int heartbeats = 0;
+      boolean moreRows;
+      do {
+        // A time limit already in the past returns after the first filtered row.
+        moreRows = scanner.nextRaw(values, scanner.getBatch(), -1, 0);
+        if (values.isEmpty()) {
+          assertTrue(moreRows);
+          heartbeats++;
+        }
+      } while (values.isEmpty());
+      assertFalse(moreRows);
+      assertEquals(MATCH_INTERVAL - 1, heartbeats);
+      assertTrue(CellUtil.matchingRow(values.get(0), row(MATCH_INTERVAL - 1)));
+      scanner.close();
+    } finally {
+      HRegion.closeHRegion(region);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.MediumTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.HTable;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.ipc.PayloadCarryingRpcController;
+import org.apache.hadoop.hbase.ipc.RequestThrottler;
+import org.apache.hadoop.hbase.ipc.ThrottlingException;
+import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+import org.apache.hadoop.hbase.protobuf.RequestConverter;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ClientService;
+import org.apache.hadoop.hbase.protobuf.generated.ClientProtos.ScanResponse;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.google.protobuf.ServiceException;
+
+/**
+ * Tests that the scanner calls that only carry a scanner id are charged to the table of the
+ * scanner, so that table quotas hold for scans.
+ */
+@Category(MediumTests.class)
+public class TestScannerTableQuota {
+  private final static HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+
+  private static final TableName TABLE = TableName.valueOf("TestScannerTableQuota");
+  private static final byte[] FAMILY = Bytes.toBytes("f");
+  private static final int NUM_ROWS = 10;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    TEST_UTIL.getConfiguration().setLong(
+      RequestThrottler.TABLE_REQUESTS_CONF_KEY + "." + TABLE.getNameAsString(), 1);
+    TEST_UTIL.startMiniCluster(1);
+  }
+
+  @AfterClass
+  public static void tearDownAfterClass() throws Exception {
+    TEST_UTIL.shutdownMiniCluster();
+  }
+
+  @Test
+  public void testScannerCallsAreThrottled() throws Exception {
+    HTable table = TEST_UTIL.createTable(TABLE, FAMILY);
+    List<Put> puts = new ArrayList<Put>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Put put = new Put(Bytes.toBytes(i));
+      put.add(FAMILY, FAMILY, Bytes.toBytes(i));
+      puts.add(put);
+    }
+    table.put(puts);
+    table.close();
+
+    HRegionServer rs = TEST_UTIL.getMiniHBaseCluster().getRegionServer(0);
+    HRegionInfo region = TEST_UTIL.getHBaseAdmin().getTableRegions(TABLE).get(0);
+    ClientService.BlockingInterface client =
+        TEST_UTIL.getHBaseAdmin().getConnection().getClient(rs.getServerName());
+    // Let the table's quota of one request a second refill after the load.
+    Thread.sleep(1500);
+
+    // The cells come back in cell blocks, which need a controller to be read into.
+    ScanResponse response = client.scan(new PayloadCarryingRpcController(),
+      RequestConverter.buildScanRequest(region.getRegionName(), new Scan(), 1, false));
+    long scannerId = response.getScannerId();
+    boolean throttled = false;
+    for (int i = 0; i < NUM_ROWS && !throttled; i++) {
+      try {
+        client.scan(new PayloadCarryingRpcController(),
+          RequestConverter.buildScanRequest(scannerId, 1, false));
+      } catch (ServiceException e) {
+        assertTrue(ProtobufUtil.getRemoteException(e) instanceof ThrottlingException);
+        throttled = true;
+      }
+    }
+    assertTrue("Scanner calls were not charged to the table", throttled);
+  }
+}
@@ -0,0 +1,143 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseTestingUtility;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.MediumTests;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(MediumTests.class)
+public class TestStripeStoreEngine {
+  private static final HBaseTestingUtility TEST_UTIL = new HBaseTestingUtility();
+  private static final byte[] FAMILY = Bytes.toBytes("f");
+  private static final byte[] QUALIFIER = Bytes.toBytes("q");
+  private static final int ROWS = 100;
+
+  private static byte[] row(int i) {
+    return Bytes.toBytes(String.format("row%03d", i));
+  }
+
+  private static byte[] value(int version, int i) {
+    byte[] value = new byte[500];
+    Bytes.putInt(value, 0, version);
+    Bytes.putInt(value, 4, i);
+    return value;
+  }
+
+  private static void putRows(HRegion region, int version) throws Exception {
+    for (int i = 0; i < ROWS; i++) {
+      Put put = new Put(row(i));
+      put.add(FAMILY, QUALIFIER, value(version, i));
+      region.put(put);
+    }
+    region.flushcache();
+  }
+
+  private static StripeStoreFileManager getStripes(HRegion region) {
+    return (StripeStoreFileManager)((HStore)region.getStore(FAMILY))
+        .storeEngine.getStoreFileManager();
+  }
+
+  private static int countRows(HRegion region) throws Exception {
+    RegionScanner scanner = region.getScanner(new Scan());
+    List<Cell> cells = new ArrayList<Cell>();
+    int rows = 0;
+    boolean more;
+    do {
+      more = scanner.next(cells);
+      if (!cells.isEmpty()) rows++;
+      cells.clear();
+    } while (more);
+    scanner.close();
+    return rows;
+  }
+
+  @Test
+  public void testFlushAndCompactIntoStripes() throws Exception {
+    Configuration conf = TEST_UTIL.getConfiguration();
+    conf.set(StoreEngine.STORE_ENGINE_CLASS_KEY, StripeStoreEngine.class.getName());
+    conf.setInt(StripeStoreConfig.MIN_FILES_L0_KEY, 2);
+    conf.setInt(StripeStoreConfig.MIN_FILES_KEY, 2);
+    // About 55KB per flush; L0 is compacted into about four stripes.
+    conf.setLong(StripeStoreConfig.SIZE_TO_SPLIT_KEY, 30 * 1024);
+    HTableDescriptor htd = new HTableDescriptor(TableName.valueOf("TestStripeStoreEngine"));
+    htd.addFamily(new HColumnDescriptor(FAMILY));
+    HRegion region = TEST_UTIL.createLocalHRegion(htd, null, null);
+    try {
+      putRows(region, 1);
+      putRows(region, 2);
+      StripeStoreFileManager stripes = getStripes(region);
+      assertEquals(0, stripes.getStripeCount());
+      assertEquals(2, stripes.getLevel0Files().size());
+
+      region.compactStores();
+      int stripeCount = stripes.getStripeCount();
+      assertTrue("Stripes: " + stripeCount, stripeCount > 1);
+      assertEquals(0, stripes.getLevel0Files().size());
+
+      // Flushes now go into the stripes.
+      putRows(region, 3);
+      assertEquals(0, stripes.getLevel0Files().size());
+      for (List<StoreFile> files : stripes.getStripes()) {
+        assertEquals(2, files.size());
+      }
+      // A get reads a single stripe.
+      Collection<StoreFile> files = stripes.getFilesForScanOrGet(true, row(50), row(50));
+      assertEquals(2, files.size());
+
+      region.delete(new Delete(row(50)));
+      region.flushcache();
+      region.compactStores();
+      assertEquals(ROWS - 1, countRows(region));
+      Result result = region.get(new Get(row(20)));
+      assertArrayEquals(value(3, 20), CellUtil.cloneValue(result.rawCells()[0]));
+
+      // The stripes are kept in the files.
+      region.close();
+      region = HRegion.openHRegion(region, null);
+      stripes = getStripes(region);
+      assertEquals(stripeCount, stripes.getStripeCount());
+      assertEquals(0, stripes.getLevel0Files().size());
+      assertEquals(ROWS - 1, countRows(region));
+    } finally {
+      HRegion.closeHRegion(region);
+    }
+  }
+}
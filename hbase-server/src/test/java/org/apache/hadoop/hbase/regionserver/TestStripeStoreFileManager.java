@@ -0,0 +1,216 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.regionserver.compactions.StripeCompactionPolicy;
+import org.apache.hadoop.hbase.regionserver.compactions.StripeCompactionPolicy.StripeCompactionRequest;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestStripeStoreFileManager {
+  private static final byte[] OPEN = StripeStoreFileManager.OPEN_KEY;
+  private static final byte[] KEY_B = Bytes.toBytes("bbb");
+  private static final byte[] KEY_C = Bytes.toBytes("ccc");
+  private static final byte[] KEY_D = Bytes.toBytes("ddd");
+
+  private long nextSeqId = 1;
+
+  private StoreFile createFile(byte[] start, byte[] end, long size) {
+    StoreFile sf = mock(StoreFile.class);
+    long seqId = nextSeqId++;
+    when(sf.getMaxSequenceId()).thenReturn(seqId);
+    when(sf.getPath()).thenReturn(new Path("/file" + seqId));
+    when(sf.getMetadataValue(StripeStoreFileManager.STRIPE_START_KEY)).thenReturn(start);
+    when(sf.getMetadataValue(StripeStoreFileManager.STRIPE_END_KEY)).thenReturn(end);
+    StoreFile.Reader r = mock(StoreFile.Reader.class);
+    when(r.length()).thenReturn(size);
+    when(sf.getReader()).thenReturn(r);
+    return sf;
+  }
+
+  private StoreFile createFile(byte[] start, byte[] end) {
+    return createFile(start, end, 10);
+  }
+
+  private StoreFile createL0File() {
+    return createFile(null, null);
+  }
+
+  private static StripeStoreFileManager createManager() {
+    return new StripeStoreFileManager(new KeyValue.KVComparator(), HBaseConfiguration.create());
+  }
+
+  private static void assertFiles(Collection<StoreFile> actual, StoreFile... expected) {
+    assertEquals(expected.length, actual.size());
+    assertTrue(actual.containsAll(Arrays.asList(expected)));
+  }
+
+  @Test
+  public void testLoadFiles() throws Exception {
+    StripeStoreFileManager manager = createManager();
+    StoreFile l0 = createL0File();
+    StoreFile sf1 = createFile(OPEN, KEY_B), sf2 = createFile(KEY_B, KEY_D),
+        sf3 = createFile(KEY_D, OPEN), sf4 = createFile(KEY_D, OPEN);
+    manager.loadFiles(Arrays.asList(sf4, sf1, l0, sf3, sf2));
+    assertEquals(3, manager.getStripeCount());
+    assertFiles(manager.getLevel0Files(), l0);
+    assertFiles(manager.getStripes().get(2), sf3, sf4);
+    assertEquals(5, manager.getStorefileCount());
+
+    // A gap between the stripes: everything goes to L0.
+    manager = createManager();
+    manager.loadFiles(Arrays.asList(createFile(OPEN, KEY_B), createFile(KEY_C, OPEN)));
+    assertEquals(0, manager.getStripeCount());
+    assertEquals(2, manager.getLevel0Files().size());
+  }
+
+  @Test
+  public void testInsertNewFile() throws Exception {
+    StripeStoreFileManager manager = createManager();
+    manager.loadFiles(Arrays.asList(createFile(OPEN, KEY_C), createFile(KEY_C, OPEN)));
+    StoreFile matching = createFile(KEY_C, OPEN);
+    manager.insertNewFile(matching);
+    assertFiles(manager.getStripes().get(1).subList(1, 2), matching);
+    // Written for stripes that have since changed.
+    StoreFile stale = createFile(KEY_B, KEY_C);
+    manager.insertNewFile(stale);
+    StoreFile bulkLoaded = createL0File();
+    manager.insertNewFile(bulkLoaded);
+    assertFiles(manager.getLevel0Files(), stale, bulkLoaded);
+    assertEquals(5, manager.getStorefiles().size());
+  }
+
+  @Test
+  public void testFilesForScanOrGet() throws Exception {
+    StripeStoreFileManager manager = createManager();
+    StoreFile l0 = createL0File();
+    StoreFile sf1 = createFile(OPEN, KEY_B), sf2 = createFile(KEY_B, KEY_D),
+        sf3 = createFile(KEY_D, OPEN);
+    manager.loadFiles(Arrays.asList(l0, sf1, sf2, sf3));
+    assertFiles(manager.getFilesForScanOrGet(true, KEY_C, KEY_C), l0, sf2);
+    assertFiles(manager.getFilesForScanOrGet(true, KEY_B, KEY_B), l0, sf2);
+    assertFiles(manager.getFilesForScanOrGet(true, Bytes.toBytes("a"), null), l0, sf1);
+    assertFiles(manager.getFilesForScanOrGet(false, KEY_C, Bytes.toBytes("e")), l0, sf2, sf3);
+    assertFiles(manager.getFilesForScanOrGet(false, OPEN, KEY_C), l0, sf1, sf2);
+    assertFiles(manager.getFilesForScanOrGet(false, OPEN, OPEN), l0, sf1, sf2, sf3);
+  }
+
+  @Test
+  public void testCompactionResults() throws Exception {
+    StripeStoreFileManager manager = createManager();
+    StoreFile l0a = createL0File(), l0b = createL0File();
+    manager.loadFiles(Arrays.asList(l0a, l0b));
+
+    // L0 compacted into the first stripes.
+    StoreFile sf1 = createFile(OPEN, KEY_C), sf2 = createFile(KEY_C, OPEN);
+    manager.addCompactionResults(Arrays.asList(l0a, l0b), Arrays.asList(sf1, sf2));
+    assertEquals(2, manager.getStripeCount());
+    assertEquals(0, manager.getLevel0Files().size());
+
+    // The second stripe split in two; a file flushed into it meanwhile moves to L0.
+    StoreFile flushed = createFile(KEY_C, OPEN);
+    manager.insertNewFile(flushed);
+    StoreFile sf3 = createFile(KEY_C, KEY_D), sf4 = createFile(KEY_D, OPEN);
+    manager.addCompactionResults(Arrays.asList(sf2), Arrays.asList(sf3, sf4));
+    assertEquals(3, manager.getStripeCount());
+    assertArrayEquals(KEY_D, manager.getStripeBoundaries().get(2));
+    assertFiles(manager.getLevel0Files(), flushed);
+    assertFiles(manager.getStripes().get(1), sf3);
+
+    // Results that match no stripes go to L0.
+    StoreFile sf5 = createFile(KEY_B, KEY_D);
+    manager.addCompactionResults(Arrays.asList(sf1), Arrays.asList(sf5));
+    assertFiles(manager.getLevel0Files(), flushed, sf5);
+    assertEquals(0, manager.getStripes().get(0).size());
+    assertEquals(3, manager.getStripeCount());
+  }
+
+  @Test
+  public void testSplitPoint() throws Exception {
+    StripeStoreFileManager manager = createManager();
+    assertNull(manager.getSplitPoint());
+    manager.loadFiles(Arrays.asList(createFile(OPEN, KEY_B, 30), createFile(KEY_B, KEY_C, 20),
+        createFile(KEY_C, KEY_D, 20), createFile(KEY_D, OPEN, 30)));
+    assertArrayEquals(KEY_C, manager.getSplitPoint());
+  }
+
+  @Test
+  public void testCompactionSelection() throws Exception {
+    Configuration conf = HBaseConfiguration.create();
+    conf.setInt(StripeStoreConfig.MIN_FILES_KEY, 3);
+    conf.setInt(StripeStoreConfig.MIN_FILES_L0_KEY, 2);
+    conf.setLong(StripeStoreConfig.SIZE_TO_SPLIT_KEY, 100);
+    StoreConfigInformation sci = mock(StoreConfigInformation.class);
+    StripeCompactionPolicy policy =
+        new StripeCompactionPolicy(conf, sci, new StripeStoreConfig(conf));
+    StripeStoreFileManager manager = createManager();
+    List<StoreFile> noneCompacting = new ArrayList<StoreFile>();
+
+    // L0 into new stripes, when there are none.
+    StoreFile l0a = createL0File(), l0b = createL0File();
+    manager.loadFiles(Arrays.asList(l0a, l0b));
+    assertTrue(policy.needsCompactions(manager, noneCompacting));
+    // Without the stripes, only the number of files not compacting is looked at.
+    assertTrue(policy.needsCompaction(manager.getStorefiles(), noneCompacting));
+    assertTrue(!policy.needsCompaction(manager.getStorefiles(), Arrays.asList(l0a)));
+    StripeCompactionRequest request = policy.selectCompaction(manager, noneCompacting, false);
+    assertFiles(request.getFiles(), l0a, l0b);
+    assertEquals(2, request.getTargetBoundaries().size());
+    assertEquals(50, request.getTargetSize());
+
+    // The stripe with the most files, once it has enough.
+    StoreFile sf1 = createFile(OPEN, KEY_C), sf2 = createFile(KEY_C, OPEN),
+        sf3 = createFile(KEY_C, OPEN);
+    manager.loadFiles(Arrays.asList(sf1, sf2, sf3));
+    assertTrue(!policy.needsCompactions(manager, noneCompacting));
+    StoreFile sf4 = createFile(KEY_C, OPEN);
+    manager.insertNewFile(sf4);
+    request = policy.selectCompaction(manager, noneCompacting, false);
+    assertFiles(request.getFiles(), sf2, sf3, sf4);
+    assertArrayEquals(KEY_C, request.getTargetBoundaries().get(0));
+    assertEquals(Long.MAX_VALUE, request.getTargetSize());
+    assertTrue(request.isDropDeletes());
+    assertNull(policy.selectCompaction(manager, Arrays.asList(sf2), false));
+
+    // Split once large enough.
+    StoreFile sf5 = createFile(KEY_C, OPEN, 80);
+    manager.insertNewFile(sf5);
+    request = policy.selectCompaction(manager, noneCompacting, false);
+    assertEquals(50, request.getTargetSize());
+  }
+}
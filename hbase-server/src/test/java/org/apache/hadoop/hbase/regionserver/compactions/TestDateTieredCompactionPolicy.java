@@ -0,0 +1,148 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.compactions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.regionserver.StoreConfigInformation;
+import org.apache.hadoop.hbase.regionserver.StoreFile;
+import org.apache.hadoop.hbase.util.EnvironmentEdge;
+import org.apache.hadoop.hbase.util.EnvironmentEdgeManagerTestHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestDateTieredCompactionPolicy {
+  private static final long NOW = 1000;
+
+  private long nextSeqId = 1;
+  private Configuration conf;
+  private List<StoreFile> files;
+
+  @Before
+  public void setUp() {
+    EnvironmentEdgeManagerTestHelper.injectEdge(new EnvironmentEdge() {
+      @Override
+      public long currentTimeMillis() {
+        return NOW;
+      }
+    });
+    conf = HBaseConfiguration.create();
+    conf.setInt("hbase.hstore.compaction.min", 3);
+    conf.setInt("hbase.hstore.compaction.max", 10);
+    conf.setLong(DateTieredCompactionPolicy.BASE_WINDOW_MILLIS_KEY, 100);
+    conf.setInt(DateTieredCompactionPolicy.WINDOWS_PER_TIER_KEY, 4);
+    files = new ArrayList<StoreFile>();
+  }
+
+  @After
+  public void tearDown() {
+    EnvironmentEdgeManagerTestHelper.reset();
+  }
+
+  private DateTieredCompactionPolicy createPolicy() {
+    StoreConfigInformation sci = mock(StoreConfigInformation.class);
+    when(sci.getStoreFileTtl()).thenReturn(Long.MAX_VALUE);
+    when(sci.getBlockingFileCount()).thenReturn(100L);
+    return new DateTieredCompactionPolicy(conf, sci);
+  }
+
+  private StoreFile addFile(long maxTimestamp) {
+    StoreFile sf = mock(StoreFile.class);
+    when(sf.getMaxSequenceId()).thenReturn(nextSeqId++);
+    StoreFile.Reader r = mock(StoreFile.Reader.class);
+    when(r.length()).thenReturn(10L);
+    when(r.getMaxTimestamp()).thenReturn(maxTimestamp);
+    when(sf.getReader()).thenReturn(r);
+    files.add(sf);
+    return sf;
+  }
+
+  private List<StoreFile> select(DateTieredCompactionPolicy policy) throws Exception {
+    return new ArrayList<StoreFile>(policy.selectCompaction(
+        files, new ArrayList<StoreFile>(), false, false, false).getFiles());
+  }
+
+  @Test
+  public void testWindows() throws Exception {
+    DateTieredCompactionPolicy policy = createPolicy();
+    // Base windows back to the start of a tier, then windows four times as large.
+    assertEquals(1000, policy.getWindow(NOW, Long.MAX_VALUE).start);
+    assertEquals(900, policy.getWindow(NOW, 950).start);
+    assertEquals(800, policy.getWindow(NOW, 800).start);
+    DateTieredCompactionPolicy.Window window = policy.getWindow(NOW, 799);
+    assertEquals(400, window.start);
+    assertEquals(400, window.size);
+    assertEquals(0, policy.getWindow(NOW, 0).start);
+    assertEquals(-1600, policy.getWindow(NOW, -1).start);
+  }
+
+  @Test
+  public void testSelectWithinWindows() throws Exception {
+    DateTieredCompactionPolicy policy = createPolicy();
+    StoreFile old1 = addFile(450), old2 = addFile(500), old3 = addFile(700);
+    addFile(950);
+    addFile(1010);
+    addFile(1020);
+    assertTrue(policy.needsCompaction(files, new ArrayList<StoreFile>()));
+    assertEquals(Arrays.asList(old1, old2, old3), select(policy));
+
+    // The newest window first, once it has enough files.
+    StoreFile new3 = addFile(1030);
+    List<StoreFile> selection = select(policy);
+    assertEquals(3, selection.size());
+    assertEquals(new3, selection.get(2));
+    assertFalse(policy.isMajorCompaction(files));
+  }
+
+  @Test
+  public void testFrozenWindows() throws Exception {
+    conf.setLong(DateTieredCompactionPolicy.MAX_STOREFILE_AGE_KEY, 150);
+    DateTieredCompactionPolicy policy = createPolicy();
+    addFile(450);
+    addFile(500);
+    addFile(700);
+    addFile(1010);
+    assertTrue(select(policy).isEmpty());
+  }
+
+  @Test
+  public void testWindowsSplitBySequenceIds() throws Exception {
+    DateTieredCompactionPolicy policy = createPolicy();
+    // Files of the same window not next to each other are not compacted together.
+    addFile(450);
+    addFile(500);
+    addFile(1010);
+    addFile(700);
+    assertTrue(select(policy).isEmpty());
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hbase.regionserver.throttle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.SmallTests;
+import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(SmallTests.class)
+public class TestPressureAwareThroughputController {
+
+  private static ThroughputController createController(RegionServerServices server) {
+    Configuration conf = HBaseConfiguration.create();
+    conf.set(ThroughputControlUtil.COMPACTION_THROUGHPUT_CONTROLLER_KEY,
+        PressureAwareCompactionThroughputController.class.getName());
+    conf.setLong(PressureAwareCompactionThroughputController
+        .HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_LOWER_BOUND, 100 * 1000);
+    conf.setLong(PressureAwareCompactionThroughputController
+        .HBASE_HSTORE_COMPACTION_MAX_THROUGHPUT_HIGHER_BOUND, 200 * 1000);
+    conf.setLong(PressureAwareCompactionThroughputController
+        .HBASE_HSTORE_COMPACTION_THROUGHPUT_CONTROL_CHECK_INTERVAL, 10 * 1000);
+    conf.setLong(PressureAwareCompactionThroughputController
+        .HBASE_HSTORE_COMPACTION_THROUGHPUT_TUNE_PERIOD, 0);
+    return ThroughputControlUtil.createCompactionThroughputController(server, conf);
+  }
+
+  @Test
+  public void testLimitFollowsPressure() throws Exception {
+    RegionServerServices server = mock(RegionServerServices.class);
+    ThroughputController controller = createController(server);
+    assertTrue(controller instanceof PressureAwareCompactionThroughputController);
+
+    when(server.getCompactionPressure()).thenReturn(0.0);
+    controller.start("a");
+    assertEquals(100 * 1000, controller.getMaxThroughput(), 0.1);
+    // Below the check interval, there is no check.
+    assertEquals(0, controller.control("a", 5 * 1000));
+    // 10KB at 100KB/sec take 100ms.
+    long sleepTime = controller.control("a", 5 * 1000);
+    assertTrue("Slept " + sleepTime, sleepTime > 50 && sleepTime <= 100);
+
+    // A second operation gets half of the limit.
+    controller.start("b");
+    sleepTime = controller.control("b", 10 * 1000);
+    assertTrue("Slept " + sleepTime, sleepTime > 150 && sleepTime <= 200);
+    controller.finish("b");
+    controller.finish("a");
+
+    when(server.getCompactionPressure()).thenReturn(1.0);
+    controller.start("c");
+    assertEquals(200 * 1000, controller.getMaxThroughput(), 0.1);
+    sleepTime = controller.control("c", 10 * 1000);
+    assertTrue("Slept " + sleepTime, sleepTime > 0 && sleepTime <= 50);
+
+    // Past the blocking file count, there is no limit.
+    when(server.getCompactionPressure()).thenReturn(1.5);
+    assertEquals(0, controller.control("c", 10 * 1000));
+    assertEquals(Double.MAX_VALUE, controller.getMaxThroughput(), 0.1);
+    controller.finish("c");
+    assertTrue(controller.getTotalSleepTime() > 200);
+  }
+
+  @Test
+  public void testNoLimitByDefault() throws Exception {
+    ThroughputController controller = ThroughputControlUtil.createCompactionThroughputController(
+        null, HBaseConfiguration.create());
+    assertTrue(controller instanceof NoLimitThroughputController);
+    controller.start("a");
+    assertEquals(0, controller.control("a", Long.MAX_VALUE));
+    controller.finish("a");
+  }
+}